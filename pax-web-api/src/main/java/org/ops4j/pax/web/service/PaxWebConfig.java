@@ -138,6 +138,21 @@ public interface PaxWebConfig {
 	 */
 	String PID_CFG_EVENT_DISPATCHER_THREAD_COUNT = "org.ops4j.pax.web.server.eventDispatcherThreadCount";
 
+	/**
+	 * Option to specify minimal interval (in milliseconds) between updates of {@code service.changecount} property
+	 * of {@link org.osgi.service.http.runtime.HttpServiceRuntime} registration. Changes made within this interval
+	 * are published with single {@link org.osgi.framework.ServiceEvent#MODIFIED} event. Defaults to {@code 100}.
+	 * With {@code 0}, the property is updated after each batch of registration tasks.
+	 */
+	String PID_CFG_CHANGE_COUNT_INTERVAL = "org.ops4j.pax.web.server.changeCountInterval";
+
+	/**
+	 * Boolean option to enable <em>group commit</em> of registration tasks. Tasks (like servlet registrations)
+	 * queued together are processed as a group and each affected context is (re)started once at the end of the
+	 * group instead of after each task. Defaults to {@code false}.
+	 */
+	String PID_CFG_GROUP_COMMIT = "org.ops4j.pax.web.server.groupCommit";
+
 	/**
 	 * {@link org.osgi.framework.BundleContext} property to configure thread count for WAR
 	 * extender. Before Pax Web 8 it was hardcoded to 3 (which is still the default value).
@@ -161,6 +176,21 @@ public interface PaxWebConfig {
 	 */
 	String BUNDLE_CONTEXT_PROPERTY_WAR_EXTENDER_JARS_TO_SCAN = "org.ops4j.pax.web.extender.war.jarsToScan";
 
+	/**
+	 * Context property to enable ({@code true}, the default) parsing of WAB's classes (when searching for annotated
+	 * classes and types matching {@link javax.servlet.annotation.HandlesTypes}) in parallel - per
+	 * {@code Bundle-ClassPath} entry and per fragment bundle, using WAR extender thread pool.
+	 */
+	String BUNDLE_CONTEXT_PROPERTY_WAR_EXTENDER_PARALLEL_SCANNING = "org.ops4j.pax.web.extender.war.parallelScanning";
+
+	/**
+	 * Context property to enable ({@code true}, the default) persistent cache of class scanning results and of
+	 * {@code web-fragment.xml}/SCI discovery results (kept in data area of WAR extender bundle). Scanned bundles that
+	 * were not updated (their last modification time didn't change) don't have to be checked again after restart
+	 * or refresh.
+	 */
+	String BUNDLE_CONTEXT_PROPERTY_WAR_EXTENDER_SCAN_CACHE = "org.ops4j.pax.web.extender.war.scanCache";
+
 	/**
 	 * <p>Defines the type of TCCL that should be set for service methods (like {@link javax.servlet.Servlet#service}).
 	 * It can take two values:<ul>
@@ -409,11 +439,56 @@ public interface PaxWebConfig {
 	 *     <li>Jetty: no such option, entries are evicted by last access time</li>
 	 *     <li>Tomcat: {@code org.apache.catalina.webresources.StandardRoot#setCacheTtl(long)} (ms)</li>
 	 *     <li>Undertow: {@code io.undertow.server.handlers.resource.CachingResourceManager#maxAge} and
-	 *         {@code io.undertow.server.handlers.cache.LRUCache#maxAge}</li>
+	 *         {@code io.undertow.server.handlers.cache.LRUCache#maxAge}. Additionally, resources from bundles
+	 *         (and {@code file:} resources) are invalidated when the bundle (or the file) changes</li>
 	 * </ul></p>
 	 */
 	String PID_CFG_DEFAULT_SERVLET_CACHE_TTL = "org.ops4j.pax.web.resource.cache.ttl";
 
+	/**
+	 * <p>Integer property to specify minimum size (kB) of a {@code file:} resource which is sent using zero-copy
+	 * transfer instead of copying the content through user space buffers. Negative value disables zero-copy
+	 * transfer. When not set, Jetty doesn't use zero-copy transfer, 48kB is used for Tomcat and Undertow uses its
+	 * own default (1kB).</p>
+	 * <p><ul>
+	 *     <li>Jetty: file content is passed to {@code HttpOutput.sendContent()} as memory mapped buffer (each file
+	 *         is mapped once and the mapping is reused until the file changes)</li>
+	 *     <li>Tomcat: {@code sendfileSize} init parameter of {@code org.apache.catalina.servlets.DefaultServlet} (kB),
+	 *         used when the connector supports {@code org.apache.tomcat.sendfile.support}</li>
+	 *     <li>Undertow: {@code io.undertow.server.handlers.resource.PathResourceManager#transferMinSize} (B)</li>
+	 * </ul></p>
+	 */
+	String PID_CFG_DEFAULT_SERVLET_ZERO_COPY_MIN_SIZE = "org.ops4j.pax.web.resource.zeroCopyMinSize";
+
+	/**
+	 * <p>String property to specify <em>precompressed</em> variants of resources served when the client accepts
+	 * given encoding, using the syntax of Jetty's {@code precompressed} init parameter: comma separated
+	 * {@code encoding=extension} pairs (like {@code br=.br,gzip=.gz}) or {@code true} for {@code br} and
+	 * {@code gzip}. When not set, runtime defaults are used.</p>
+	 * <p><ul>
+	 *     <li>Jetty: {@code precompressed} init parameter (no precompressed variants by default)</li>
+	 *     <li>Tomcat: {@code precompressed} init parameter (no precompressed variants by default)</li>
+	 *     <li>Undertow: {@code io.undertow.servlet.api.DeploymentInfo#getPreCompressedResources()}
+	 *         ({@code gzip=.gz} by default)</li>
+	 * </ul></p>
+	 */
+	String PID_CFG_DEFAULT_SERVLET_PRECOMPRESSED = "org.ops4j.pax.web.resource.precompressed";
+
+	/**
+	 * <p>Boolean property to enable gzip compression of text resources (HTML, CSS, JavaScript, JSON, XML, SVG).
+	 * When a resource has no precompressed {@code .gz} sibling, compressed variant is created once and kept in
+	 * a bounded disk cache (in the temporary directory of the context) until the resource (or the bundle
+	 * providing it) changes. Defaults to {@code false}.</p>
+	 */
+	String PID_CFG_DEFAULT_SERVLET_COMPRESSION = "org.ops4j.pax.web.resource.compression";
+
+	/**
+	 * <p>Integer property to specify maximum total size (kB) of compressed variants of resources (per single
+	 * <em>servlet context</em>) created when {@link #PID_CFG_DEFAULT_SERVLET_COMPRESSION} is enabled. Resources
+	 * bigger than a quarter of this size are not compressed. Defaults to 10MB.</p>
+	 */
+	String PID_CFG_DEFAULT_SERVLET_COMPRESSION_CACHE_MAX_SIZE = "org.ops4j.pax.web.resource.compression.cacheMaxSize";
+
 	/** Boolean property to configure the container to show or hide stack traces in <em>error handler</em>. */
 	String PID_CFG_SHOW_STACKS = "org.ops4j.pax.web.server.showStacks";
 
@@ -446,11 +521,49 @@ public interface PaxWebConfig {
 	/** When specified and is a valid directory location, <em>file session persistence</em> will be enabled */
 	String PID_CFG_SESSION_STORE_DIRECTORY = "org.ops4j.pax.web.session.storedirectory";
 
+	/**
+	 * String property that selects how sessions are persisted in {@link #PID_CFG_SESSION_STORE_DIRECTORY}:<ul>
+	 *     <li>{@code native} (default) - runtime specific file session persistence</li>
+	 *     <li>{@code paxweb} - runtime independent Pax Web session store (one file per session). It can be
+	 *     shared by several Pax Web instances running on the same host only if both
+	 *     {@link #PID_CFG_SESSION_STORE_CACHE_SIZE} and {@link #PID_CFG_SESSION_STORE_WRITE_BEHIND} are
+	 *     {@code 0}</li>
+	 * </ul>
+	 */
+	String PID_CFG_SESSION_STORE_TYPE = "org.ops4j.pax.web.session.store.type";
+	/**
+	 * Integer property - time in milliseconds after which sessions saved to Pax Web session store are written
+	 * to disk. Defaults to {@code 0}, which means <em>write-through</em>.
+	 */
+	String PID_CFG_SESSION_STORE_WRITE_BEHIND = "org.ops4j.pax.web.session.store.writeBehind";
+	/**
+	 * Integer property - number of pending <em>write-behind</em> session changes, which triggers immediate write
+	 * to disk. Defaults to {@code 128}.
+	 */
+	String PID_CFG_SESSION_STORE_BATCH_SIZE = "org.ops4j.pax.web.session.store.batchSize";
+	/**
+	 * Integer property - number of sessions kept in memory by Pax Web session store to avoid reading them from
+	 * disk. Defaults to {@code 1024}, {@code 0} disables the cache (required when the store is shared).
+	 */
+	String PID_CFG_SESSION_STORE_CACHE_SIZE = "org.ops4j.pax.web.session.store.cacheSize";
+
 	// --- JSP configuration
 
 	/** Global Scratch directory for JSPs - by default it is relative to global tmp dir and depends on the context */
 	String PID_CFG_JSP_SCRATCH_DIR = "org.ops4j.pax.web.jsp.scratch.dir";
 
+	/**
+	 * Boolean property to enable precompilation of all the JSPs of a WAB when it's deployed. When
+	 * {@link #PID_CFG_JSP_SCRATCH_DIR global scratch dir} is configured, compiled JSPs are kept there in
+	 * directories specific to the bundle ID and its last modification time, so they're reused after restart.
+	 * The JSPs are compiled by pax-web-extender-war before the WAB's web elements are passed to Pax Web runtime,
+	 * so the compilation doesn't block other registrations.
+	 */
+	String PID_CFG_JSP_PRECOMPILATION = "org.ops4j.pax.web.jsp.precompilation";
+
+	/** Maximum number of threads used to precompile the JSPs of a WAB - defaults to number of processors */
+	String PID_CFG_JSP_PRECOMPILATION_THREADS = "org.ops4j.pax.web.jsp.precompilation.threads";
+
 	// Properties related to Jasypt encryption - both direct usage of Jasypt and via OSGi services
 
 	String PID_CFG_ENC_PROPERTY_PREFIX = "org.ops4j.pax.web.enc.";
@@ -67,6 +67,9 @@ public interface PaxWebConstants {
 	/** The only supported {@link javax.servlet.ServletContainerInitializer} class that configures JSP engine */
 	String DEFAULT_JSP_SCI_CLASS = "org.ops4j.pax.web.jsp.JasperInitializer";
 
+	/** Class used by pax-web-extender-war to compile all the JSPs of a WAB before it's deployed */
+	String DEFAULT_JSP_PRECOMPILER_CLASS = "org.ops4j.pax.web.jsp.JspPrecompiler";
+
 	/**
 	 * The only supported {@link javax.servlet.ServletContainerInitializer} class that configures WebSocket
 	 * container for Jetty
@@ -15,6 +15,7 @@
  */
 package org.ops4j.pax.web.extender.war.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -31,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -40,7 +42,9 @@ import org.apache.tomcat.util.descriptor.web.ServletDef;
 import org.apache.tomcat.util.descriptor.web.WebXml;
 import org.apache.tomcat.util.descriptor.web.WebXmlParser;
 import org.apache.tomcat.util.file.Matcher;
+import org.ops4j.pax.web.extender.war.internal.model.BundleDescriptorCache;
 import org.ops4j.pax.web.extender.war.internal.model.BundleWebApplication;
+import org.ops4j.pax.web.extender.war.internal.model.ClassScanCache;
 import org.ops4j.pax.web.service.PaxWebConfig;
 import org.ops4j.pax.web.service.PaxWebConstants;
 import org.ops4j.pax.web.service.WebContainer;
@@ -50,6 +54,7 @@ import org.ops4j.pax.web.service.spi.model.events.WebApplicationEvent;
 import org.ops4j.pax.web.service.spi.model.events.WebApplicationEventListener;
 import org.ops4j.pax.web.service.spi.model.views.ReportViewPlugin;
 import org.ops4j.pax.web.service.spi.model.views.WebAppWebContainerView;
+import org.ops4j.pax.web.service.spi.util.NamedThreadFactory;
 import org.ops4j.pax.web.service.spi.util.Utils;
 import org.ops4j.pax.web.service.spi.util.WebContainerListener;
 import org.ops4j.pax.web.service.spi.util.WebContainerManager;
@@ -113,6 +118,13 @@ public class WarExtenderContext implements WebContainerListener, ReportViewPlugi
 	 */
 	private final AtomicReference<ExecutorService> pool = new AtomicReference<>();
 
+	/**
+	 * Single thread pool used to register fully prepared {@link BundleWebApplication WABs} (as single batches)
+	 * in {@link WebContainer}. Registration is serialized in pax-web-config thread anyway, so there's no need
+	 * to block threads from {@link #pool} when waiting for it.
+	 */
+	private final ExecutorService commitPool = Executors.newSingleThreadExecutor(new NamedThreadFactory("wab-commit"));
+
 	/** Used to send events related to entire Web Applications being installed/uninstalled. */
 	private final WebApplicationEventDispatcher webApplicationEventDispatcher;
 
@@ -124,6 +136,15 @@ public class WarExtenderContext implements WebContainerListener, ReportViewPlugi
 	private final List<String> jarsToSkip = new CopyOnWriteArrayList<>();
 	private final List<String> jarsToScan = new CopyOnWriteArrayList<>();
 
+	/** Whether classes of WABs should be parsed using {@link #pool} */
+	private final boolean parallelScanning;
+
+	/** Directory for persistent class scanning results. {@code null} if the cache is disabled */
+	private final File scanCacheDirectory;
+
+	/** Shared (by all WABs) information about descriptors available in reachable bundles */
+	private final BundleDescriptorCache descriptorCache;
+
 	static {
 		// this list is used by default or if "org.ops4j.pax.web.extender.war.jarsToSkip" PID property
 		// is equal to "default" (no quotes). "default" can be used in custom configuration as well
@@ -252,6 +273,19 @@ public class WarExtenderContext implements WebContainerListener, ReportViewPlugi
 			scannedJarsList = Collections.emptyList();
 		}
 
+		String parallel = bundleContext.getProperty(PaxWebConfig.BUNDLE_CONTEXT_PROPERTY_WAR_EXTENDER_PARALLEL_SCANNING);
+		parallelScanning = parallel == null || "".equals(parallel.trim()) || Boolean.parseBoolean(parallel.trim());
+		String scanCache = bundleContext.getProperty(PaxWebConfig.BUNDLE_CONTEXT_PROPERTY_WAR_EXTENDER_SCAN_CACHE);
+		if (scanCache == null || "".equals(scanCache.trim()) || Boolean.parseBoolean(scanCache.trim())) {
+			scanCacheDirectory = bundleContext.getDataFile("class-scan-cache");
+			// digests of bundles uninstalled since last run are no longer needed
+			ClassScanCache.removeStale(scanCacheDirectory, bundleContext);
+			descriptorCache = new BundleDescriptorCache(bundleContext.getDataFile("bundle-descriptors"));
+		} else {
+			scanCacheDirectory = null;
+			descriptorCache = new BundleDescriptorCache(null);
+		}
+
 		// dispatcher of events related to WAB lifecycle (128.5 Events)
 		webApplicationEventDispatcher = new WebApplicationEventDispatcher(bundleContext);
 
@@ -274,6 +308,9 @@ public class WarExtenderContext implements WebContainerListener, ReportViewPlugi
 	 * Cleans up everything related to pax-web-extender-war
 	 */
 	public void shutdown() {
+		commitPool.shutdown();
+		descriptorCache.flush();
+
 		if (webApplicationEventDispatcher != null) {
 			webApplicationEventDispatcher.getListeners().remove(wabConflictListener);
 			webApplicationEventDispatcher.destroy();
@@ -297,10 +334,31 @@ public class WarExtenderContext implements WebContainerListener, ReportViewPlugi
 		return pool.get();
 	}
 
+	public ExecutorService getCommitPool() {
+		return commitPool;
+	}
+
 	public void setPool(ExecutorService pool) {
 		this.pool.set(pool);
 	}
 
+	public boolean isParallelScanning() {
+		return parallelScanning;
+	}
+
+	/**
+	 * Returns a directory where results of class scanning are stored between restarts of the WABs
+	 * (or {@code null} if the framework has no file system support or the cache is disabled).
+	 * @return
+	 */
+	public File getScanCacheDirectory() {
+		return scanCacheDirectory;
+	}
+
+	public BundleDescriptorCache getDescriptorCache() {
+		return descriptorCache;
+	}
+
 	public List<String> getJarsToSkip() {
 		return jarsToSkip;
 	}
@@ -391,7 +449,8 @@ public class WarExtenderContext implements WebContainerListener, ReportViewPlugi
 		// ExecutorService
 		// Remember - the process (if we have more WABs to process) is not fully parallel, as it's synchronized
 		// using pax-web-config thread (from pax-web-runtime) anyway - to interact with single ServerModel in
-		// synchronized and consistent way. At least the parsing can be done in parallel
+		// synchronized and consistent way. At least the parsing, scanning and model building can be done in
+		// parallel and only the final registration of the batch is passed to single "wab-commit" thread
 
 		return new WabExtension(bundle, cleanup);
 	}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.war.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.namespace.BundleNamespace;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Framework-wide (shared by all WABs) cache of <em>descriptor discovery</em> results for the bundles reachable
+ * from WABs - whether a bundle contains {@code META-INF/web-fragment.xml} entries and whether it provides
+ * {@code META-INF/services/javax.servlet.ServletContainerInitializer} resources.</p>
+ *
+ * <p>In big installations most of the reachable bundles contain none of these, so remembering negative results
+ * (keyed by bundle ID and last modification time of the bundle, its fragments and required bundles) allows to
+ * look into each such bundle once per bundle lifetime instead of once per WAB (re)start.</p>
+ *
+ * <p>For the bundles which contain the descriptors, their content is kept in memory in immutable form - the
+ * {@code web-fragment.xml} {@link Descriptor descriptors} and SCI class names declared in service files. So only
+ * the per-WAB copies have to be created: {@link org.apache.tomcat.util.descriptor.web.WebXml} fragments (which are
+ * mutable and altered when merged into WAB's {@code web.xml}) are parsed from the cached content and SCIs are
+ * instantiated, but bundles are not searched and their entries are not read again.</p>
+ *
+ * <p>The flags are kept in memory and (if {@code file} is not {@code null}) stored between restarts. The content
+ * of the descriptors is kept only in memory.</p>
+ */
+public class BundleDescriptorCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BundleDescriptorCache.class);
+
+	private static final int VERSION = 1;
+
+	private static final int WEB_FRAGMENTS_KNOWN = 0x01;
+	private static final int WEB_FRAGMENTS = 0x02;
+	private static final int SCI_SERVICES_KNOWN = 0x04;
+	private static final int SCI_SERVICES = 0x08;
+
+	private final File file;
+
+	/** Bundle ID to {@code long[] { stamp, flags }} */
+	private final Map<Long, long[]> entries = new ConcurrentHashMap<>();
+
+	/** Bundle ID to the content of the descriptors found in the bundle (only in memory) */
+	private final Map<Long, Contents> contents = new ConcurrentHashMap<>();
+
+	private volatile boolean modified;
+
+	public BundleDescriptorCache(File file) {
+		this.file = file;
+		load();
+	}
+
+	/**
+	 * Returns {@link Boolean#FALSE} if it's known that the bundle has no {@code META-INF/web-fragment.xml} entries,
+	 * {@link Boolean#TRUE} if it has and {@code null} if it's not known.
+	 * @param bundle
+	 * @return
+	 */
+	public Boolean hasWebFragments(Bundle bundle) {
+		return get(bundle, WEB_FRAGMENTS_KNOWN, WEB_FRAGMENTS);
+	}
+
+	/**
+	 * Returns the {@code META-INF/web-fragment.xml} descriptors of the bundle (empty list if it's known that there
+	 * are none) or {@code null} if they're not known.
+	 * @param bundle
+	 * @return
+	 */
+	public List<Descriptor> getWebFragments(Bundle bundle) {
+		if (Boolean.FALSE.equals(hasWebFragments(bundle))) {
+			return Collections.emptyList();
+		}
+		Contents c = contents(bundle, false);
+		return c == null ? null : c.webFragments;
+	}
+
+	public void webFragmentsFound(Bundle bundle, List<Descriptor> descriptors) {
+		contents(bundle, true).webFragments = List.copyOf(descriptors);
+		put(bundle, WEB_FRAGMENTS_KNOWN, descriptors.isEmpty() ? 0 : WEB_FRAGMENTS);
+	}
+
+	/**
+	 * Returns {@link Boolean#FALSE} if it's known that the bundle has no
+	 * {@code META-INF/services/javax.servlet.ServletContainerInitializer} resources, {@link Boolean#TRUE} if it has
+	 * and {@code null} if it's not known.
+	 * @param bundle
+	 * @return
+	 */
+	public Boolean hasSciServices(Bundle bundle) {
+		return get(bundle, SCI_SERVICES_KNOWN, SCI_SERVICES);
+	}
+
+	/**
+	 * Returns the URLs of {@code META-INF/services/javax.servlet.ServletContainerInitializer} resources of the bundle
+	 * (empty list if it's known that there are none) or {@code null} if they're not known.
+	 * @param bundle
+	 * @return
+	 */
+	public List<URL> getSciServices(Bundle bundle) {
+		if (Boolean.FALSE.equals(hasSciServices(bundle))) {
+			return Collections.emptyList();
+		}
+		Contents c = contents(bundle, false);
+		return c == null ? null : c.sciServices;
+	}
+
+	public void sciServicesFound(Bundle bundle, List<URL> urls) {
+		contents(bundle, true).sciServices = List.copyOf(urls);
+		put(bundle, SCI_SERVICES_KNOWN, urls.isEmpty() ? 0 : SCI_SERVICES);
+	}
+
+	/**
+	 * Returns the SCI class names declared in {@code META-INF/services/javax.servlet.ServletContainerInitializer}
+	 * resource of the bundle or {@code null} if the resource wasn't read yet.
+	 * @param bundle
+	 * @param url
+	 * @return
+	 */
+	public List<String> getSciClassNames(Bundle bundle, URL url) {
+		Contents c = contents(bundle, false);
+		return c == null ? null : c.sciClassNames.get(url.toExternalForm());
+	}
+
+	public void sciClassNamesFound(Bundle bundle, URL url, List<String> classNames) {
+		contents(bundle, true).sciClassNames.put(url.toExternalForm(), List.copyOf(classNames));
+	}
+
+	/**
+	 * Stores the cache if there were any changes since last flush.
+	 */
+	public synchronized void flush() {
+		if (file == null || !modified) {
+			return;
+		}
+		modified = false;
+		File dir = file.getParentFile();
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+			LOG.warn("Can't create {} directory for bundle descriptor cache", dir);
+			return;
+		}
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile(dir == null ? null : dir.toPath(), file.getName(), ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				Map<Long, long[]> snapshot = Map.copyOf(entries);
+				out.writeInt(VERSION);
+				out.writeInt(snapshot.size());
+				for (Map.Entry<Long, long[]> e : snapshot.entrySet()) {
+					out.writeLong(e.getKey());
+					out.writeLong(e.getValue()[0]);
+					out.writeLong(e.getValue()[1]);
+				}
+			}
+			try {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			tmp = null;
+		} catch (IOException e) {
+			LOG.warn("Can't store bundle descriptor cache in {}: {}", file, e.getMessage());
+		} finally {
+			if (tmp != null) {
+				try {
+					Files.deleteIfExists(tmp);
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@link ClassScanCache#stamp(Bundle)} mixed with IDs and modification times of bundles wired using
+	 * {@code Require-Bundle}, because these contribute to {@link Bundle#getResources(String)}.
+	 * @param bundle
+	 * @return
+	 */
+	static long stamp(Bundle bundle) {
+		long stamp = ClassScanCache.stamp(bundle);
+		BundleWiring wiring = bundle.adapt(BundleWiring.class);
+		if (wiring != null) {
+			for (BundleWire wire : wiring.getRequiredWires(BundleNamespace.BUNDLE_NAMESPACE)) {
+				Bundle required = wire.getProvider().getBundle();
+				stamp = 31 * stamp + required.getBundleId();
+				stamp = 31 * stamp + required.getLastModified();
+			}
+		}
+		return stamp;
+	}
+
+	/**
+	 * Gets (or creates) the contents of the descriptors of current version of the bundle
+	 * @param bundle
+	 * @param create
+	 * @return
+	 */
+	private Contents contents(Bundle bundle, boolean create) {
+		long stamp = stamp(bundle);
+		if (!create) {
+			Contents c = contents.get(bundle.getBundleId());
+			return c == null || c.stamp != stamp ? null : c;
+		}
+		return contents.compute(bundle.getBundleId(), (id, c) -> c == null || c.stamp != stamp ? new Contents(stamp) : c);
+	}
+
+	private Boolean get(Bundle bundle, int knownFlag, int valueFlag) {
+		long[] entry = entries.get(bundle.getBundleId());
+		if (entry == null || entry[0] != stamp(bundle) || (entry[1] & knownFlag) == 0) {
+			return null;
+		}
+		return (entry[1] & valueFlag) != 0;
+	}
+
+	private void put(Bundle bundle, int knownFlag, int valueFlag) {
+		long stamp = stamp(bundle);
+		entries.compute(bundle.getBundleId(), (id, entry) -> {
+			long flags = entry == null || entry[0] != stamp ? 0L : entry[1];
+			return new long[] { stamp, (flags & ~(knownFlag | (knownFlag << 1))) | knownFlag | valueFlag };
+		});
+		modified = true;
+	}
+
+	private void load() {
+		if (file == null || !file.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				entries.put(in.readLong(), new long[] { in.readLong(), in.readLong() });
+			}
+			LOG.debug("Loaded descriptor information of {} bundles from {}", count, file);
+		} catch (IOException e) {
+			LOG.warn("Can't read bundle descriptor cache from {}: {}", file, e.getMessage());
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Immutable content of a descriptor (like {@code META-INF/web-fragment.xml}) read from a bundle.
+	 */
+	public static final class Descriptor {
+
+		private final URL url;
+		private final byte[] content;
+
+		private Descriptor(URL url, byte[] content) {
+			this.url = url;
+			this.content = content;
+		}
+
+		/**
+		 * Reads the content of the descriptor
+		 * @param url
+		 * @return
+		 * @throws IOException
+		 */
+		public static Descriptor read(URL url) throws IOException {
+			try (InputStream is = url.openStream()) {
+				return new Descriptor(url, is.readAllBytes());
+			}
+		}
+
+		public URL getUrl() {
+			return url;
+		}
+
+		/**
+		 * Returns new stream to read the (cached) content of the descriptor
+		 * @return
+		 */
+		public InputStream openStream() {
+			return new ByteArrayInputStream(content);
+		}
+	}
+
+	/**
+	 * Content of the descriptors of single version (stamp) of a bundle.
+	 */
+	private static final class Contents {
+		private final long stamp;
+		private volatile List<Descriptor> webFragments;
+		private volatile List<URL> sciServices;
+		private final Map<String, List<String>> sciClassNames = new ConcurrentHashMap<>();
+
+		Contents(long stamp) {
+			this.stamp = stamp;
+		}
+	}
+
+}
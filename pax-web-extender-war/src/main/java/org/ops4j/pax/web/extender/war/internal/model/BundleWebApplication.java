@@ -76,6 +76,8 @@ import org.ops4j.pax.web.extender.war.internal.WebApplicationHelper;
 import org.ops4j.pax.web.service.PaxWebConstants;
 import org.ops4j.pax.web.service.WebContainer;
 import org.ops4j.pax.web.service.WebContainerContext;
+import org.ops4j.pax.web.service.spi.config.Configuration;
+import org.ops4j.pax.web.service.spi.config.JspConfiguration;
 import org.ops4j.pax.web.service.spi.context.WebContainerContextWrapper;
 import org.ops4j.pax.web.service.spi.model.ContextMetadataModel;
 import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
@@ -96,6 +98,8 @@ import org.ops4j.pax.web.service.spi.servlet.DefaultSessionCookieConfig;
 import org.ops4j.pax.web.service.spi.servlet.OsgiServletContextClassLoader;
 import org.ops4j.pax.web.service.spi.task.Batch;
 import org.ops4j.pax.web.service.spi.task.Change;
+import org.ops4j.pax.web.service.spi.task.OpCode;
+import org.ops4j.pax.web.service.spi.task.ServletModelChange;
 import org.ops4j.pax.web.service.spi.util.Utils;
 import org.ops4j.pax.web.service.spi.util.WebContainerManager;
 import org.ops4j.pax.web.utils.ClassPathUtil;
@@ -163,6 +167,19 @@ public class BundleWebApplication {
 	/** Latch to be setup during context allocation, so when stop() is called before WAB is DEPLOYING, we can wait */
 	private CountDownLatch allocatingLatch = null;
 
+	/**
+	 * Whether the batch was passed to {@link WebAppWebContainerView#sendBatch(Batch)} in {@code DEPLOYING} state.
+	 * {@link #deploy()} may end without sending it (and still count down {@link #deployingLatch}), so after
+	 * waiting for the latch, only the allocated context has to be released.
+	 */
+	private volatile boolean batchSent = false;
+
+	// durations (in ms) of the deployment stages, logged when the WAB is deployed
+	private long configurationTime;
+	private long allocationTime;
+	private long modelTime;
+	private long registrationTime;
+
 	/**
 	 * The {@link ServletContext#getContextPath() context path} of this web application - can't be taken from
 	 * {@code web.xml}, it should be configured <em>externally</em>.
@@ -326,7 +343,7 @@ public class BundleWebApplication {
 					} else {
 						if (view != null) {
 							LOG.info("Undeploying {} after waiting for its full deployment", this);
-							undeploy(view);
+							undeployAfterDeploying(view);
 						} else {
 							LOG.warn("Successful wait for full deployment of {}, but WebContainer is no longer "
 									+ "available and we can't undeploy it", this);
@@ -504,7 +521,7 @@ public class BundleWebApplication {
 							} else {
 								LOG.info("Undeploying {} from previous WebContainer after waiting for its full"
 										+ " deployment", this);
-								undeploy(view);
+								undeployAfterDeploying(view);
 								deploymentState.set(State.UNCONFIGURED);
 							}
 						} catch (InterruptedException e) {
@@ -581,6 +598,8 @@ public class BundleWebApplication {
 	 * service.</p>
 	 */
 	public synchronized void deploy() {
+		// set when the final stage (registration of the batch) is passed to commit pool
+		boolean committing = false;
 		try {
 			// progress through states in a loop - when everything is available, we can simply transition to
 			// final state in single thread/task run. If we need to wait for anything, we'll break the loop
@@ -639,6 +658,7 @@ public class BundleWebApplication {
 			State state = deploymentState.get();
 			if (state == State.CONFIGURING) {
 				LOG.info("Configuring {}", this);
+				long start = System.currentTimeMillis();
 				// Post an org/osgi/service/web/DEPLOYING event
 				extenderContext.sendWebEvent(new WebApplicationEvent(WebApplicationEvent.State.DEPLOYING, bundle, contextPath, null));
 
@@ -651,6 +671,7 @@ public class BundleWebApplication {
 
 				// Collect deployment information by processing the web.xml descriptor and other sources of metadata
 				processMetadata();
+				configurationTime = System.currentTimeMillis() - start;
 
 				// after web.xml/web-fragment.xml/annotations are read, we have to check if the context path
 				// is available
@@ -673,9 +694,11 @@ public class BundleWebApplication {
 			// we may already be in different state - e.g., STOPPING
 			// but most common scenario is that we continue the WAB deployment
 
+			boolean allocated = false;
 			state = deploymentState.get();
 			if (state == State.ALLOCATING_CONTEXT || state == State.WAITING_FOR_CONTEXT) {
 				LOG.debug("Checking if {} context path is available", contextPath);
+				long start = System.currentTimeMillis();
 
 				// but need a WebContainer to allocate the context
 				WebAppWebContainerView view = currentWebContainer(state);
@@ -708,6 +731,8 @@ public class BundleWebApplication {
 				allocatedOsgiContextModel = view.getOsgiContext(bundle, contextPath);
 
 				LOG.info("Allocated context for {}: {}", contextPath, allocatedOsgiContextModel);
+				allocationTime = System.currentTimeMillis() - start;
+				start = System.currentTimeMillis();
 
 				// We have: 1) mainWebXml (altered by fragments), 2) SCIs, 3) ClassLoader, 4) ClassSpace (support)
 				// so we can build set of ServletModels, FilterModels, ... that'll be sent to WebContainer
@@ -717,9 +742,15 @@ public class BundleWebApplication {
 				// we have complete web application, while in Whiteboard, we build it element by element.
 				// Here we can do it "transactionally" without bothering about conflicts etc.
 				buildModel();
+				modelTime = System.currentTimeMillis() - start;
+
+				// JSPs are compiled now, in the thread of pax-web-extender-war pool, because after the batch is
+				// sent, the context is started in single pax-web-config thread
+				precompileJsps(view);
 
 				// from now on, this.contextPath is "ours" and we can do anything with it
 				if (deploymentState.compareAndSet(state, State.DEPLOYING)) {
+					allocated = true;
 					// count down this latch, so it's free even before the deployment attempt
 					allocatingLatch.countDown();
 
@@ -729,12 +760,27 @@ public class BundleWebApplication {
 								+ " Existing latch found.");
 					}
 					deployingLatch = new CountDownLatch(1);
+					batchSent = false;
 				}
 			}
 
 			state = deploymentState.get();
 			if (state == State.DEPLOYING) {
+				if (allocated) {
+					// registration of the batch is serialized anyway (in single pax-web-config thread), so instead
+					// of blocking a thread from extender pool (which may configure other WABs in the meantime),
+					// we continue in the commit thread. deployingLatch is counted down there.
+					try {
+						extenderContext.getCommitPool().execute(this::deploy);
+						committing = true;
+						return;
+					} catch (RejectedExecutionException e) {
+						LOG.debug("Commit pool is not available, registering {} in current thread", this);
+					}
+				}
+
 				LOG.debug("Registering {} in WebContainer", contextPath);
+				long start = System.currentTimeMillis();
 
 				// we have to get the view again, as we may have been rescheduled after waiting for WebContainer
 				WebAppWebContainerView view = currentWebContainer(state);
@@ -744,8 +790,13 @@ public class BundleWebApplication {
 
 				// this is were the full WAR/WAB information is passed as a model to WebContainer (through special view)
 				view.sendBatch(batch);
+				batchSent = true;
+				registrationTime = System.currentTimeMillis() - start;
 
 				if (deploymentState.compareAndSet(state, State.DEPLOYED)) {
+					LOG.info("Deployed {} (configuration: {}ms, context allocation: {}ms, model: {}ms,"
+							+ " registration: {}ms)", this, configurationTime, allocationTime, modelTime,
+							registrationTime);
 					extenderContext.sendWebEvent(new WebApplicationEvent(WebApplicationEvent.State.DEPLOYED, bundle, contextPath, httpContext));
 				}
 			}
@@ -764,7 +815,7 @@ public class BundleWebApplication {
 			if (allocatingLatch != null) {
 				allocatingLatch.countDown();
 			}
-			if (deployingLatch != null) {
+			if (deployingLatch != null && !committing) {
 				deployingLatch.countDown();
 			}
 		}
@@ -823,6 +874,21 @@ public class BundleWebApplication {
 	 * @param view
 	 * @param propagateException
 	 */
+	/**
+	 * Called after waiting for {@link #deployingLatch} - the deployment may have ended without sending the batch
+	 * (for example when the WAB was no longer active when the deployment continued in commit thread), so
+	 * there's nothing to undeploy, but the allocated context has to be released.
+	 * @param view
+	 */
+	private void undeployAfterDeploying(WebAppWebContainerView view) {
+		if (batchSent) {
+			undeploy(view);
+		} else {
+			LOG.info("{} was not registered in WebContainer, releasing its context", this);
+			releaseContext(view, false);
+		}
+	}
+
 	private void releaseContext(WebAppWebContainerView view, boolean propagateException) {
 		if (view == null) {
 			throw new IllegalArgumentException("Can't undeploy " + this + " without valid WebContainer");
@@ -844,6 +910,70 @@ public class BundleWebApplication {
 		}
 	}
 
+	/**
+	 * <p>When {@link JspConfiguration#isJspPrecompilation() JSP precompilation} is enabled, all the JSPs of the WAB
+	 * are compiled (using {@link PaxWebConstants#DEFAULT_JSP_PRECOMPILER_CLASS} from pax-web-jsp, which is available
+	 * to the WAB's {@link ClassLoader}) into the scratch directory of WAB's JSP servlet. The compilation happens
+	 * after the model is built and before the batch is sent to Pax Web runtime.</p>
+	 *
+	 * <p>Failures are only logged - the JSPs are then compiled (and the problems reported) when requested.</p>
+	 * @param view
+	 */
+	private void precompileJsps(WebAppWebContainerView view) {
+		Configuration configuration = view.getConfiguration();
+		JspConfiguration jspConfiguration = configuration == null ? null : configuration.jsp();
+		if (jspConfiguration == null || !Boolean.TRUE.equals(jspConfiguration.isJspPrecompilation())) {
+			return;
+		}
+
+		// only the main JSP servlet (not the servlets created from <jsp-file>)
+		ServletModel jspServlet = null;
+		for (Change change : batch.getOperations()) {
+			if (change.getKind() == OpCode.ADD && change instanceof ServletModelChange) {
+				ServletModel model = ((ServletModelChange) change).getServletModel();
+				if (model.isJspServlet() && !model.getInitParams().containsKey("jspFile")) {
+					jspServlet = model;
+					break;
+				}
+			}
+		}
+		if (jspServlet == null) {
+			return;
+		}
+
+		Class<?> precompiler;
+		try {
+			precompiler = classLoader.loadClass(PaxWebConstants.DEFAULT_JSP_PRECOMPILER_CLASS);
+		} catch (ClassNotFoundException e) {
+			LOG.debug("JSP precompiler is not available for {}", this);
+			return;
+		}
+
+		// the scratch dir is specific to the version of the WAB only if it's not configured explicitly, so only
+		// then the directories of other versions can be removed.
+		// Pax Web runtime calls configureJspServlet() again when the batch is sent, but the scratch dir is
+		// already set
+		boolean cleanup = jspServlet.getInitParams().get("scratchdir") == null
+				&& jspConfiguration.getGloablJspScratchDir() != null;
+		jspServlet.configureJspServlet(jspConfiguration);
+
+		Integer threads = jspConfiguration.getJspPrecompilationThreads();
+		if (threads == null || threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+
+		ServletContext context = new JspPrecompilationServletContext(httpContext, allocatedOsgiContextModel,
+				classLoader, mainWebXml.getMajorVersion(), mainWebXml.getMinorVersion());
+		try {
+			precompiler.getMethod("precompile", ServletContext.class, Map.class, int.class, boolean.class)
+					.invoke(null, context, new HashMap<>(jspServlet.getInitParams()), threads, cleanup);
+		} catch (InvocationTargetException e) {
+			LOG.warn("Problem precompiling JSPs of {}: {}", this, e.getCause().getMessage(), e.getCause());
+		} catch (ReflectiveOperationException e) {
+			LOG.warn("Can't precompile JSPs of {}: {}", this, e.getMessage(), e);
+		}
+	}
+
 	// --- Lifecycle processing methods
 
 	/**
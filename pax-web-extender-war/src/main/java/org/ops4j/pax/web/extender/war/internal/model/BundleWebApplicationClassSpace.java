@@ -34,6 +34,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import javax.servlet.ServletContainerInitializer;
 import javax.servlet.ServletContext;
 import javax.servlet.annotation.MultipartConfig;
@@ -41,7 +45,6 @@ import javax.servlet.annotation.MultipartConfig;
 import org.apache.tomcat.util.bcel.classfile.AnnotationElementValue;
 import org.apache.tomcat.util.bcel.classfile.AnnotationEntry;
 import org.apache.tomcat.util.bcel.classfile.ArrayElementValue;
-import org.apache.tomcat.util.bcel.classfile.ClassParser;
 import org.apache.tomcat.util.bcel.classfile.ElementValue;
 import org.apache.tomcat.util.bcel.classfile.ElementValuePair;
 import org.apache.tomcat.util.bcel.classfile.EnumElementValue;
@@ -63,6 +66,7 @@ import org.osgi.framework.wiring.BundleWire;
 import org.osgi.framework.wiring.BundleWiring;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
 
 /**
  * <p>A wrapper class to give access to different classpath-related aspects of the WAB.</p>
@@ -534,15 +538,31 @@ public class BundleWebApplicationClassSpace {
 		// Tomcat doesn't load META-INF/web-fragment.xml files from libraries in common classloader - even
 		// if it exists.
 
-		List<URL> fragmentURLs = new LinkedList<>();
+		List<BundleDescriptorCache.Descriptor> descriptors = Collections.emptyList();
+		BundleDescriptorCache descriptorCache = extenderContext.getDescriptorCache();
 		if (parseRequired) {
-			List<URL> urls = ClassPathUtil.findEntries(bundle, "META-INF", "web-fragment.xml", false, false);
-			// there may be more than one, because we access bundle fragments as well
-			fragmentURLs.addAll(urls);
+			descriptors = descriptorCache.getWebFragments(bundle);
+			if (descriptors == null) {
+				// there may be more than one, because we access bundle fragments as well
+				List<URL> urls = ClassPathUtil.findEntries(bundle, "META-INF", "web-fragment.xml", false, false);
+				descriptors = new ArrayList<>(urls.size());
+				boolean read = true;
+				for (URL url : urls) {
+					try {
+						descriptors.add(BundleDescriptorCache.Descriptor.read(url));
+					} catch (IOException e) {
+						LOG.warn("Can't read {}: {}", url, e.getMessage());
+						read = false;
+					}
+				}
+				if (read) {
+					descriptorCache.webFragmentsFound(bundle, descriptors);
+				}
+			}
 		}
 
 		// see org.apache.tomcat.util.descriptor.web.FragmentJarScannerCallback.scan()
-		if (fragmentURLs.isEmpty()) {
+		if (descriptors.isEmpty()) {
 			WebXml fragment = new WebXml();
 			// mark as "container fragment", so it's not affected by the ordering mechanism
 			fragment.setWebappJar(false);
@@ -558,8 +578,9 @@ public class BundleWebApplicationClassSpace {
 
 			return Collections.singletonList(fragment);
 		} else {
-			List<WebXml> fragments = new ArrayList<>(fragmentURLs.size());
-			for (URL fragmentURL : fragmentURLs) {
+			List<WebXml> fragments = new ArrayList<>(descriptors.size());
+			for (BundleDescriptorCache.Descriptor descriptor : descriptors) {
+				URL fragmentURL = descriptor.getUrl();
 				// this may fail, but we won't stop the parsing
 				WebXml fragment = new WebXml();
 				// mark as "application fragment", so it can be affected by the ordering mechanism because we're
@@ -573,7 +594,10 @@ public class BundleWebApplicationClassSpace {
 				fragment.setURL(new URL(String.format("%s://%s:%d/",
 						fragmentURL.getProtocol(), fragmentURL.getHost(), fragmentURL.getPort())));
 				fragment.setJarName(extractJarFileName(fragmentURL.toString()));
-				boolean ok = extenderContext.getParser().parseWebXml(fragmentURL, fragment, true);
+				// each WAB gets its own WebXml parsed from the cached content of the descriptor
+				InputSource source = new InputSource(fragmentURL.toExternalForm());
+				source.setByteStream(descriptor.openStream());
+				boolean ok = extenderContext.getParser().parseWebXml(source, fragment, true);
 				if (fragment.getName() == null) {
 					fragment.setName(fragment.getJarName());
 				}
@@ -704,7 +728,7 @@ public class BundleWebApplicationClassSpace {
 		for (String fragment : containerFragmentBundles.keySet()) {
 			Bundle reachableBundle = containerFragmentBundles.get(fragment);
 			LOG.trace("  Scanning container fragment {}", fragment);
-			List<URL> urls = ClassPathUtil.getResources(Collections.singletonList(reachableBundle), sciService);
+			List<URL> urls = findSciServices(reachableBundle, sciService);
 			containerSCIURLs.put(reachableBundle, urls);
 			if (LOG.isTraceEnabled()) {
 				for (URL url : urls) {
@@ -727,7 +751,7 @@ public class BundleWebApplicationClassSpace {
 					// only if user doesn't have the same fragment embedded
 					if (processed.add(b)) {
 						LOG.trace("  Scanning application fragment {}", fragmentJarName);
-						List<URL> urls = ClassPathUtil.getResources(Collections.singletonList(b), sciService);
+						List<URL> urls = findSciServices(b, sciService);
 						applicationSCIURLs.put(b, urls);
 						if (LOG.isTraceEnabled()) {
 							for (URL url : urls) {
@@ -743,7 +767,7 @@ public class BundleWebApplicationClassSpace {
 			// javax.servlet.ServletContext.getClassLoader().getResources()
 			LOG.trace("Searching for ServletContainerInitializers in the WAB");
 			LOG.trace("  Scanning the WAB");
-			List<URL> urls = ClassPathUtil.getResources(Collections.singletonList(wabBundle), sciService);
+			List<URL> urls = findSciServices(wabBundle, sciService);
 			wabSCIURLs.addAll(urls);
 			if (LOG.isTraceEnabled()) {
 				for (URL url : urls) {
@@ -852,37 +876,67 @@ public class BundleWebApplicationClassSpace {
 		LOG.trace("  Loading SCIs from WAB");
 		wabSCIURLs.forEach(url -> loadSCI(url, wabBundle, detectedSCIs));
 
+		extenderContext.getDescriptorCache().flush();
+
 		return detectedSCIs;
 	}
 
+	/**
+	 * Finds SCI service resources using {@link Bundle#getResources(String)}, skipping the lookup if it's known
+	 * that the bundle doesn't provide any.
+	 * @param bundle
+	 * @param sciService
+	 * @return
+	 */
+	private List<URL> findSciServices(Bundle bundle, String sciService) {
+		BundleDescriptorCache descriptorCache = extenderContext.getDescriptorCache();
+		List<URL> urls = descriptorCache.getSciServices(bundle);
+		if (urls == null) {
+			urls = ClassPathUtil.getResources(Collections.singletonList(bundle), sciService);
+			descriptorCache.sciServicesFound(bundle, urls);
+		}
+		return urls;
+	}
+
 	private void loadSCI(URL url, Bundle bundle, List<ServletContainerInitializer> scis) {
 		LOG.trace("    Loading {}", url);
-		try (InputStream is = url.openStream();
-				BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				String name = line.trim();
-				if (name.startsWith("#")) {
-					continue;
-				}
-				int idx = name.indexOf('#');
-				if (idx > 0) {
-					name = name.substring(0, idx).trim();
-				}
-				if (name.length() > 0) {
-					try {
-						Class<?> sciClass = bundle.loadClass(name);
-						ServletContainerInitializer sci = (ServletContainerInitializer) sciClass.getConstructor().newInstance();
-						LOG.trace("      Loaded SCI {}", sci.getClass());
-						scis.add(sci);
-					} catch (ClassNotFoundException | ClassCastException | InstantiationException |
-							 IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
-						LOG.error("      Problem loading SCI class from {}: {}", url, e.getMessage(), e);
+		BundleDescriptorCache descriptorCache = extenderContext.getDescriptorCache();
+		List<String> names = descriptorCache.getSciClassNames(bundle, url);
+		if (names == null) {
+			names = new ArrayList<>();
+			try (InputStream is = url.openStream();
+					BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+				String line = null;
+				while ((line = reader.readLine()) != null) {
+					String name = line.trim();
+					if (name.startsWith("#")) {
+						continue;
+					}
+					int idx = name.indexOf('#');
+					if (idx > 0) {
+						name = name.substring(0, idx).trim();
+					}
+					if (name.length() > 0) {
+						names.add(name);
 					}
 				}
+			} catch (IOException e) {
+				LOG.error("    Problem reading SCI service class from {}: {}", url, e.getMessage(), e);
+				return;
+			}
+			descriptorCache.sciClassNamesFound(bundle, url, names);
+		}
+		// SCI instances are never shared between WABs
+		for (String name : names) {
+			try {
+				Class<?> sciClass = bundle.loadClass(name);
+				ServletContainerInitializer sci = (ServletContainerInitializer) sciClass.getConstructor().newInstance();
+				LOG.trace("      Loaded SCI {}", sci.getClass());
+				scis.add(sci);
+			} catch (ClassNotFoundException | ClassCastException | InstantiationException |
+					 IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
+				LOG.error("      Problem loading SCI class from {}: {}", url, e.getMessage(), e);
 			}
-		} catch (IOException e) {
-			LOG.error("    Problem reading SCI service class from {}: {}", url, e.getMessage(), e);
 		}
 	}
 
@@ -915,6 +969,15 @@ public class BundleWebApplicationClassSpace {
 		root.interfaceNames = new String[0];
 		javaClassCache.put(root.superClassName, root);
 
+		// classes are scanned in two phases:
+		//  - *.class entries of each directory/jar/bundle are found and parsed into digests (possibly in parallel
+		//    using extender's pool or read from persistent cache)
+		//  - digests are checked (in original order) against @HandlesTypes and servlet annotations, which
+		//    alters the fragments, sciToHt mapping and javaClassCache
+		ClassScanCache scanCache = new ClassScanCache(extenderContext.getScanCacheDirectory());
+		Map<Bundle, ClassScanCache.BundleIndex> indices = new LinkedHashMap<>();
+		List<ScanTask> tasks = new ArrayList<>();
+
 		// 1. scan classes in non-JAR entries from WAB's Bundle-ClassPath
 		//     - always for types from @HandlesTypes
 		//     - possibly for other annotated types if metadata-complete="false" on this.mainWebXml
@@ -927,6 +990,7 @@ public class BundleWebApplicationClassSpace {
 		for (URL url : urls) {
 			LOG.trace("  Scanning embedded directory: {}", url);
 			List<URL> classes = ClassPathUtil.findEntries(wabBundle, new URL[] { url }, "/", "*.class", true);
+			List<URL> classUrls = new ArrayList<>(classes.size());
 			for (URL u : classes) {
 				processedRoots.add(u.toExternalForm());
 				if (!u.getPath().endsWith(".class")) {
@@ -934,10 +998,10 @@ public class BundleWebApplicationClassSpace {
 					// "jar:bundle://40.0:0/WEB-INF/lib/spring-core-5.3.6.jar!/org/springframework/core/type/classreading/"
 					continue;
 				}
-				LOG.trace("    Scanning {}", u);
-				processClass(u, mainWebXml, wabBundle, htOnly, htToSci, sciToHt, javaClassCache,
-						thereAreHTClasses, thereAreHTAnnotations);
+				classUrls.add(u);
 			}
+			tasks.add(new ScanTask(mainWebXml, wabBundle, htOnly, classUrls,
+					indices.computeIfAbsent(wabBundle, scanCache::index)));
 		}
 
 		// 2. scan all ordered jars - not only those from javax.servlet.ServletContext.ORDERED_LIBS, but really
@@ -982,6 +1046,7 @@ public class BundleWebApplicationClassSpace {
 			List<URL> classes = ClassPathUtil.findEntries(fragmentBundle,
 					new URL[] { fragment.getURL() }, "/", "*.class", true);
 			boolean fragmentHtOnly = htOnly || fragment.isMetadataComplete() || !fragment.getWebappJar();
+			List<URL> classUrls = new ArrayList<>(classes.size());
 			for (URL u : classes) {
 				if (fragmentBundle == wabBundle && bundleFragment) {
 					// when a bundle fragment is scanned through WABs bundle, *.class resources found using
@@ -1006,19 +1071,43 @@ public class BundleWebApplicationClassSpace {
 					// "jar:bundle://40.0:0/WEB-INF/lib/spring-core-5.3.6.jar!/org/springframework/core/type/classreading/"
 					continue;
 				}
-				LOG.trace("    Scanning {}", u);
-				processClass(u, fragment, fragmentBundle, fragmentHtOnly, htToSci, sciToHt, javaClassCache,
+				classUrls.add(u);
+			}
+			tasks.add(new ScanTask(fragment, fragmentBundle, fragmentHtOnly, classUrls,
+					indices.computeIfAbsent(fragmentBundle, scanCache::index)));
+		}
+
+		// fan out parsing of the entries over extender's pool. Because this method itself is called from the
+		// same pool, the tasks not yet picked up by the pool are run by current thread (no starvation)
+		ExecutorService pool = extenderContext.isParallelScanning() ? extenderContext.getPool() : null;
+		if (pool != null && tasks.size() > 1) {
+			for (ScanTask task : tasks) {
+				try {
+					pool.execute(task);
+				} catch (RejectedExecutionException e) {
+					break;
+				}
+			}
+		}
+
+		for (ScanTask task : tasks) {
+			for (ClassScanCache.ScannedClass sc : task.await()) {
+				processClass(sc, task.fragment, task.bundle, task.htOnly, htToSci, sciToHt, javaClassCache,
 						thereAreHTClasses, thereAreHTAnnotations);
 			}
 		}
 
+		for (ClassScanCache.BundleIndex index : indices.values()) {
+			index.store();
+		}
+
 		javaClassCache.clear();
 	}
 
 	/**
 	 * Check the class whether it's one of the types mentioned in {@link javax.servlet.annotation.HandlesTypes}
 	 * and also potentially check it for annotations like {@link javax.servlet.annotation.WebServlet}.
-	 * @param url an URI for {@code *.class} file
+	 * @param sc a digest of {@code *.class} file
 	 * @param fragment a {@link WebXml} representing a "web fragment" - whether or not it is associated with
 	 *        {@code web-fragment.xml}
 	 * @param bundle {@link Bundle} used to load the classes from
@@ -1031,41 +1120,35 @@ public class BundleWebApplicationClassSpace {
 	 * @param thereAreHTAnnotations {@code true} if any of the SCIs has any annotation types among values of
 	 *        {@link javax.servlet.annotation.HandlesTypes}
 	 */
-	private void processClass(URL url, WebXml fragment, Bundle bundle, boolean fragmentHtOnly,
+	private void processClass(ClassScanCache.ScannedClass sc, WebXml fragment, Bundle bundle, boolean fragmentHtOnly,
 			Map<Class<?>, Set<ServletContainerInitializer>> htToSci,
 			Map<ServletContainerInitializer, Set<Class<?>>> sciToHt, Map<String, ClassCacheEntry> javaClassCache,
 			boolean thereAreHTClasses, boolean thereAreHTAnnotations) {
-		try (InputStream is = url.openStream()) {
-			ClassParser parser = new ClassParser(is);
-			JavaClass clazz = parser.parse();
-			if (thereAreHTClasses || thereAreHTAnnotations) {
-				if ((clazz.getAccessFlags() & org.apache.tomcat.util.bcel.Const.ACC_ANNOTATION) == 0) {
-					// check only a non-annotation *.class, whether it:
-					// - is annotated with any annotation from @HandlesTypes
-					// - implements an interface from @HandlesTypes
-					// - extends a class from from @HandlesTypes
-					checkHandlesTypes(clazz, bundle, htToSci, sciToHt, javaClassCache,
-							thereAreHTClasses, thereAreHTAnnotations);
-				}
+		if (thereAreHTClasses || thereAreHTAnnotations) {
+			if ((sc.getAccessFlags() & org.apache.tomcat.util.bcel.Const.ACC_ANNOTATION) == 0) {
+				// check only a non-annotation *.class, whether it:
+				// - is annotated with any annotation from @HandlesTypes
+				// - implements an interface from @HandlesTypes
+				// - extends a class from from @HandlesTypes
+				checkHandlesTypes(sc, bundle, htToSci, sciToHt, javaClassCache,
+						thereAreHTClasses, thereAreHTAnnotations);
 			}
+		}
 
-			if (!fragmentHtOnly) {
-				// do not check if the class should be scanned for annotations like @WebServlet, @WebFilter, ...
-				checkClass(fragment, bundle, htToSci, clazz, javaClassCache);
-			}
-		} catch (IOException e) {
-			LOG.warn("Can't read {}: {}", url, e.getMessage(), e);
+		if (!fragmentHtOnly) {
+			// do not check if the class should be scanned for annotations like @WebServlet, @WebFilter, ...
+			checkClass(fragment, bundle, htToSci, sc, javaClassCache);
 		}
 	}
 
 	/**
-	 * <p>Checks whether the passed {@link JavaClass} is <em>indirectly</em> referred to from an "interest list" of any
+	 * <p>Checks whether the passed class is <em>indirectly</em> referred to from an "interest list" of any
 	 * SCI that has {@link javax.servlet.annotation.HandlesTypes} annoation.</p>
 	 *
 	 * <p>The goal is to turn the types mentioned in {@link javax.servlet.annotation.HandlesTypes} into actual types
 	 * that are either annotated, extend or implement the types from {@link javax.servlet.annotation.HandlesTypes}.</p>
 	 *
-	 * @param clazz
+	 * @param sc
 	 * @param bundle
 	 * @param htToSci input map of types from {@link javax.servlet.annotation.HandlesTypes} to SCIs
 	 * @param sciToHt map under construction of SCIs to actual types passed later to
@@ -1076,12 +1159,12 @@ public class BundleWebApplicationClassSpace {
 	 * @param thereAreHTAnnotations {@code true} if any of the SCIs has any annotation types among values of
 	 *        {@link javax.servlet.annotation.HandlesTypes}
 	 */
-	private void checkHandlesTypes(JavaClass clazz, Bundle bundle,
+	private void checkHandlesTypes(ClassScanCache.ScannedClass sc, Bundle bundle,
 			Map<Class<?>, Set<ServletContainerInitializer>> htToSci,
 			Map<ServletContainerInitializer, Set<Class<?>>> sciToHt,
 			Map<String, ClassCacheEntry> javaClassCache, boolean thereAreHTClasses, boolean thereAreHTAnnotations) {
 
-		String className = clazz.getClassName();
+		String className = sc.getClassName();
 		Class<?> loadedClass = null;
 
 		if (thereAreHTClasses) {
@@ -1108,7 +1191,8 @@ public class BundleWebApplicationClassSpace {
 			// - SCI1 should get both Impl1 and Impl2
 			// - SCI2 should get Impl2 only
 
-			addSuperClassesAndInterfacesToTheCache(clazz, className, bundle, htToSci, javaClassCache);
+			addSuperClassesAndInterfacesToTheCache(className, sc.getSuperClassName(), sc.getInterfaceNames(),
+					bundle, htToSci, javaClassCache);
 			ClassCacheEntry cce = javaClassCache.get(className);
 			if (!cce.scis.isEmpty()) {
 				// we have to load the class
@@ -1134,12 +1218,12 @@ public class BundleWebApplicationClassSpace {
 		if (thereAreHTAnnotations) {
 			// check if this JavaClass:
 			//  - is annotated with a type mentioned in @HandlesTypes (see https://bz.apache.org/bugzilla/show_bug.cgi?id=65244)
-			if (clazz.getAnnotationEntries() == null) {
+			if (sc.getAnnotationTypes() == null) {
 				return;
 			}
-			for (AnnotationEntry ae : clazz.getAnnotationEntries()) {
+			for (String annotationType : sc.getAnnotationTypes()) {
 				// type is in "Ljavax/servlet/annotation/HandlesTypes;" form
-				String annotationClassName = className(ae.getAnnotationType());
+				String annotationClassName = className(annotationType);
 				if (annotationClassName != null) {
 					// does any SCI have @HT with this exact annotation?
 					for (Map.Entry<Class<?>, Set<ServletContainerInitializer>> entry : htToSci.entrySet()) {
@@ -1178,33 +1262,42 @@ public class BundleWebApplicationClassSpace {
 	}
 
 	/**
-	 * Quite easy checking whether the {@link JavaClass} is an annotated servlet, filter or listener. These are three
+	 * Quite easy checking whether the class is an annotated servlet, filter or listener. These are three
 	 * required types to check according to chapters 8.1.1-8.1.5 of the servlet specification.
 	 *
 	 * @param fragment
 	 * @param bundle
 	 * @param htToSci
-	 * @param clazz
+	 * @param sc
 	 * @param javaClassCache
 	 */
-	private void checkClass(WebXml fragment, Bundle bundle, Map<Class<?>, Set<ServletContainerInitializer>> htToSci, JavaClass clazz, Map<String, ClassCacheEntry> javaClassCache) {
-		AnnotationEntry[] ae = clazz.getAnnotationEntries();
-		if (ae == null) {
+	private void checkClass(WebXml fragment, Bundle bundle, Map<Class<?>, Set<ServletContainerInitializer>> htToSci, ClassScanCache.ScannedClass sc, Map<String, ClassCacheEntry> javaClassCache) {
+		String[] annotationTypes = sc.getAnnotationTypes();
+		if (annotationTypes == null) {
 			return;
 		}
 
-		String webElementClassName = clazz.getClassName();
-		addSuperClassesAndInterfacesToTheCache(clazz, webElementClassName, bundle, htToSci, javaClassCache);
+		String webElementClassName = sc.getClassName();
+		addSuperClassesAndInterfacesToTheCache(webElementClassName, sc.getSuperClassName(), sc.getInterfaceNames(),
+				bundle, htToSci, javaClassCache);
 
-		for (AnnotationEntry ann : ae) {
-			switch (className(ann.getAnnotationType())) {
+		for (int i = 0; i < annotationTypes.length; i++) {
+			switch (className(annotationTypes[i])) {
 				case "javax.servlet.annotation.WebServlet":
 					LOG.trace("      Processing annotated servlet {}", webElementClassName);
-					processAnnotatedServletClass(webElementClassName, fragment, bundle, ann, clazz, javaClassCache);
+					JavaClass servletClass = fullClass(sc);
+					if (servletClass != null) {
+						processAnnotatedServletClass(webElementClassName, fragment, bundle,
+								servletClass.getAnnotationEntries()[i], servletClass, javaClassCache);
+					}
 					return;
 				case "javax.servlet.annotation.WebFilter":
 					LOG.trace("      Processing annotated filter {}", webElementClassName);
-					processAnnotatedFilterClass(webElementClassName, fragment, bundle, ann, clazz);
+					JavaClass filterClass = fullClass(sc);
+					if (filterClass != null) {
+						processAnnotatedFilterClass(webElementClassName, fragment, bundle,
+								filterClass.getAnnotationEntries()[i], filterClass);
+					}
 					return;
 				case "javax.servlet.annotation.WebListener":
 					LOG.trace("      Processing annotated listener {}", webElementClassName);
@@ -1215,6 +1308,15 @@ public class BundleWebApplicationClassSpace {
 		}
 	}
 
+	private JavaClass fullClass(ClassScanCache.ScannedClass sc) {
+		try {
+			return sc.getJavaClass();
+		} catch (IOException e) {
+			LOG.warn("Can't read {}: {}", sc.getUrl(), e.getMessage(), e);
+			return null;
+		}
+	}
+
 	private void processAnnotatedServletClass(String className, WebXml fragment, Bundle bundle, AnnotationEntry ann, JavaClass clazz, Map<String, ClassCacheEntry> javaClassCache) {
 		// no idea whether to process annotations on superclasses/interfaces...
 		boolean extendsHttpServlet = false;
@@ -1592,8 +1694,8 @@ public class BundleWebApplicationClassSpace {
 		}
 	}
 
-	private ClassCacheEntry addSuperClassesAndInterfacesToTheCache(JavaClass clazz, String className,
-			Bundle bundle, Map<Class<?>, Set<ServletContainerInitializer>> htToSci,
+	private ClassCacheEntry addSuperClassesAndInterfacesToTheCache(String className, String superClassName,
+			String[] interfaceNames, Bundle bundle, Map<Class<?>, Set<ServletContainerInitializer>> htToSci,
 			Map<String, ClassCacheEntry> javaClassCache) {
 
 		ClassCacheEntry cce = javaClassCache.get(className);
@@ -1601,8 +1703,8 @@ public class BundleWebApplicationClassSpace {
 			return cce;
 		}
 		cce = new ClassCacheEntry();
-		cce.superClassName = clazz.getSuperclassName();
-		cce.interfaceNames = clazz.getInterfaceNames();
+		cce.superClassName = superClassName;
+		cce.interfaceNames = interfaceNames;
 		javaClassCache.put(className, cce);
 
 		addToCache(cce.superClassName, bundle, htToSci, javaClassCache);
@@ -1630,10 +1732,10 @@ public class BundleWebApplicationClassSpace {
 		if (url == null) {
 			return;
 		}
-		try (InputStream is = url.openStream()) {
-			ClassParser parser = new ClassParser(is);
-			JavaClass clazz = parser.parse();
-			addSuperClassesAndInterfacesToTheCache(clazz, className, bundle, htToSci, javaClassCache);
+		try {
+			ClassScanCache.ScannedClass sc = ClassScanCache.ScannedClass.parse(url);
+			addSuperClassesAndInterfacesToTheCache(className, sc.getSuperClassName(), sc.getInterfaceNames(),
+					bundle, htToSci, javaClassCache);
 		} catch (Exception e) {
 			LOG.warn("Can't get class resource {}: {}", url, e.getMessage(), e);
 		}
@@ -1690,6 +1792,65 @@ public class BundleWebApplicationClassSpace {
 		return null;
 	}
 
+	/**
+	 * A unit of class scanning - {@code *.class} entries of single directory/jar from {@code Bundle-ClassPath}
+	 * or of a fragment bundle. Parsing may be done by extender's pool, but the results are always consumed in
+	 * the order of tasks.
+	 */
+	private static final class ScanTask implements Runnable {
+
+		private final WebXml fragment;
+		private final Bundle bundle;
+		private final boolean htOnly;
+		private final FutureTask<List<ClassScanCache.ScannedClass>> future;
+
+		ScanTask(WebXml fragment, Bundle bundle, boolean htOnly, List<URL> urls, ClassScanCache.BundleIndex index) {
+			this.fragment = fragment;
+			this.bundle = bundle;
+			this.htOnly = htOnly;
+			this.future = new FutureTask<>(() -> {
+				List<ClassScanCache.ScannedClass> result = new ArrayList<>(urls.size());
+				for (URL u : urls) {
+					LOG.trace("    Scanning {}", u);
+					try {
+						result.add(index.get(u));
+					} catch (IOException e) {
+						LOG.warn("Can't read {}: {}", u, e.getMessage(), e);
+					}
+				}
+				return result;
+			});
+		}
+
+		@Override
+		public void run() {
+			future.run();
+		}
+
+		/**
+		 * Runs the task in current thread if it wasn't yet started by the pool and waits for the result.
+		 * @return
+		 */
+		List<ClassScanCache.ScannedClass> await() throws IOException {
+			future.run();
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while scanning classes of " + bundle, e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause.getMessage(), cause);
+			}
+		}
+	}
+
 	/**
 	 * See {@code org.apache.catalina.startup.ContextConfig.JavaClassCacheEntry}
 	 */
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.war.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tomcat.util.bcel.classfile.AnnotationEntry;
+import org.apache.tomcat.util.bcel.classfile.ClassParser;
+import org.apache.tomcat.util.bcel.classfile.JavaClass;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.namespace.HostNamespace;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Persistent store of {@link ScannedClass digests} of {@code *.class} entries found in scanned bundles (WABs,
+ * their {@code Bundle-ClassPath} entries and web fragment bundles).</p>
+ *
+ * <p>Digests are stored in one file per scanned bundle, named after bundle ID and a <em>stamp</em>
+ * (bundle's {@link Bundle#getLastModified()} mixed with IDs and modification times of attached fragments).
+ * When the bundle is restarted or refreshed without being updated, the digests are read from the file and
+ * BCEL parsing is needed only for classes annotated with {@code @WebServlet} or {@code @WebFilter} (these need
+ * actual annotation values).</p>
+ *
+ * <p>Digests of previous versions of a bundle are removed when new digests are stored. Digests of uninstalled
+ * bundles are removed by {@link #removeStale(File, BundleContext)} when the extender starts.</p>
+ */
+public class ClassScanCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClassScanCache.class);
+
+	private static final int VERSION = 1;
+	private static final String SUFFIX = ".classes";
+
+	private static final String WEB_SERVLET = "Ljavax/servlet/annotation/WebServlet;";
+	private static final String WEB_FILTER = "Ljavax/servlet/annotation/WebFilter;";
+
+	/** Directory for the cache files. If {@code null}, nothing is persisted. */
+	private final File directory;
+
+	ClassScanCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Removes the digests of bundles which are no longer installed and temporary files left by interrupted
+	 * {@link BundleIndex#store()}. Should be called before any bundle is scanned.
+	 * @param directory
+	 * @param context
+	 */
+	public static void removeStale(File directory, BundleContext context) {
+		File[] files = directory == null ? null : directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		int removed = 0;
+		for (File f : files) {
+			String name = f.getName();
+			boolean stale = name.endsWith(".tmp");
+			if (!stale && name.endsWith(SUFFIX)) {
+				int dash = name.indexOf('-');
+				try {
+					stale = dash < 0 || context.getBundle(Long.parseLong(name.substring(0, dash))) == null;
+				} catch (NumberFormatException e) {
+					stale = true;
+				}
+			}
+			if (stale) {
+				if (f.delete()) {
+					removed++;
+				} else {
+					LOG.debug("Can't delete {}", f);
+				}
+			}
+		}
+		if (removed > 0) {
+			LOG.debug("Removed {} stale class digest files from {}", removed, directory);
+		}
+	}
+
+	/**
+	 * Returns an index of classes for given {@link Bundle}, prepopulated with digests stored previously for
+	 * unchanged bundle.
+	 * @param bundle
+	 * @return
+	 */
+	BundleIndex index(Bundle bundle) {
+		long stamp = stamp(bundle);
+		return new BundleIndex(bundle, stamp, load(bundle, stamp));
+	}
+
+	/**
+	 * Bundle's {@link Bundle#getLastModified()} mixed with IDs and modification times of attached fragments,
+	 * because {@link Bundle#findEntries} returns entries of the fragments too.
+	 * @param bundle
+	 * @return
+	 */
+	static long stamp(Bundle bundle) {
+		long stamp = bundle.getLastModified();
+		BundleWiring wiring = bundle.adapt(BundleWiring.class);
+		if (wiring != null) {
+			for (BundleWire wire : wiring.getProvidedWires(HostNamespace.HOST_NAMESPACE)) {
+				Bundle fragment = wire.getRequirer().getBundle();
+				stamp = 31 * stamp + fragment.getBundleId();
+				stamp = 31 * stamp + fragment.getLastModified();
+			}
+		}
+		return stamp;
+	}
+
+	/**
+	 * URLs of bundle entries contain framework specific host (like {@code 42.0} for Felix or {@code 42.fwk1234}
+	 * for Equinox) which may change after refresh or restart. The key has to be stable, so we skip the host.
+	 * @param url
+	 * @return
+	 */
+	static String entryKey(URL url) {
+		String ef = url.toExternalForm();
+		int start = ef.indexOf("://");
+		if (start < 0) {
+			return ef;
+		}
+		start += 3;
+		int end = start;
+		while (end < ef.length() && ef.charAt(end) != ':' && ef.charAt(end) != '/') {
+			end++;
+		}
+		return ef.substring(0, start) + ef.substring(end);
+	}
+
+	private File file(Bundle bundle, long stamp) {
+		return new File(directory, bundle.getBundleId() + "-" + Long.toHexString(stamp) + SUFFIX);
+	}
+
+	private Map<String, ScannedClass> load(Bundle bundle, long stamp) {
+		if (directory == null) {
+			return Collections.emptyMap();
+		}
+		File file = file(bundle, stamp);
+		if (!file.isFile()) {
+			return Collections.emptyMap();
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != VERSION) {
+				return Collections.emptyMap();
+			}
+			int count = in.readInt();
+			Map<String, ScannedClass> entries = new HashMap<>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				String className = in.readUTF();
+				int accessFlags = in.readInt();
+				String superClassName = in.readBoolean() ? in.readUTF() : null;
+				String[] interfaceNames = readStrings(in);
+				String[] annotationTypes = readStrings(in);
+				entries.put(key, new ScannedClass(null, className, accessFlags, superClassName,
+						interfaceNames == null ? new String[0] : interfaceNames, annotationTypes, null));
+			}
+			LOG.debug("Loaded {} class digests of {} from {}", count, bundle, file);
+			return entries;
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Can't read class digests of {} from {}: {}", bundle, file, e.getMessage());
+			return Collections.emptyMap();
+		}
+	}
+
+	private void store(Bundle bundle, long stamp, Map<String, ScannedClass> entries) {
+		if (directory == null) {
+			return;
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			LOG.warn("Can't create {} directory for class digests", directory);
+			return;
+		}
+		File file = file(bundle, stamp);
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile(directory.toPath(), bundle.getBundleId() + "-", ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				out.writeInt(VERSION);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, ScannedClass> e : entries.entrySet()) {
+					ScannedClass sc = e.getValue();
+					out.writeUTF(e.getKey());
+					out.writeUTF(sc.getClassName());
+					out.writeInt(sc.getAccessFlags());
+					out.writeBoolean(sc.getSuperClassName() != null);
+					if (sc.getSuperClassName() != null) {
+						out.writeUTF(sc.getSuperClassName());
+					}
+					writeStrings(out, sc.getInterfaceNames());
+					writeStrings(out, sc.getAnnotationTypes());
+				}
+			}
+			try {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			tmp = null;
+			LOG.debug("Stored {} class digests of {} in {}", entries.size(), bundle, file);
+
+			// remove digests of previous versions of the bundle
+			File[] previous = directory.listFiles((dir, name) -> name.startsWith(bundle.getBundleId() + "-")
+					&& name.endsWith(SUFFIX) && !name.equals(file.getName()));
+			if (previous != null) {
+				for (File f : previous) {
+					if (!f.delete()) {
+						LOG.debug("Can't delete {}", f);
+					}
+				}
+			}
+		} catch (IOException e) {
+			LOG.warn("Can't store class digests of {} in {}: {}", bundle, file, e.getMessage());
+		} finally {
+			if (tmp != null) {
+				try {
+					Files.deleteIfExists(tmp);
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	private static String[] readStrings(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] result = new String[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = in.readUTF();
+		}
+		return result;
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		if (values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.length);
+		for (String v : values) {
+			out.writeUTF(v);
+		}
+	}
+
+	/**
+	 * Digests of classes from single {@link Bundle}. {@link #get(URL)} may be called concurrently from
+	 * different threads (scanning different {@code Bundle-ClassPath} entries of the same bundle).
+	 */
+	class BundleIndex {
+
+		private final Bundle bundle;
+		private final long stamp;
+
+		/** Digests loaded from the cache - read only */
+		private final Map<String, ScannedClass> stored;
+
+		/** Digests of the entries actually scanned */
+		private final Map<String, ScannedClass> scanned = new ConcurrentHashMap<>();
+
+		private volatile boolean modified;
+
+		BundleIndex(Bundle bundle, long stamp, Map<String, ScannedClass> stored) {
+			this.bundle = bundle;
+			this.stamp = stamp;
+			this.stored = stored;
+		}
+
+		/**
+		 * Returns a digest of the class from stored index or by parsing the class with BCEL.
+		 * @param url
+		 * @return
+		 * @throws IOException
+		 */
+		ScannedClass get(URL url) throws IOException {
+			String key = entryKey(url);
+			ScannedClass digest = stored.get(key);
+			if (digest == null) {
+				digest = ScannedClass.parse(url);
+				modified = true;
+			} else {
+				digest = digest.withUrl(url);
+			}
+			scanned.put(key, digest);
+			return digest;
+		}
+
+		/**
+		 * Stores the digests if any class had to be parsed.
+		 */
+		void store() {
+			if (modified) {
+				ClassScanCache.this.store(bundle, stamp, scanned);
+			}
+		}
+	}
+
+	/**
+	 * Everything that's needed to check a class against {@link javax.servlet.annotation.HandlesTypes} and
+	 * servlet annotations, without keeping entire BCEL {@link JavaClass}.
+	 */
+	static final class ScannedClass {
+
+		private final URL url;
+		private final String className;
+		private final int accessFlags;
+		private final String superClassName;
+		private final String[] interfaceNames;
+
+		/** Annotation types in BCEL form ({@code Ljavax/servlet/annotation/WebServlet;}). May be {@code null}. */
+		private final String[] annotationTypes;
+
+		/** Kept only for classes annotated with {@code @WebServlet} or {@code @WebFilter} */
+		private JavaClass javaClass;
+
+		private ScannedClass(URL url, String className, int accessFlags, String superClassName,
+				String[] interfaceNames, String[] annotationTypes, JavaClass javaClass) {
+			this.url = url;
+			this.className = className;
+			this.accessFlags = accessFlags;
+			this.superClassName = superClassName;
+			this.interfaceNames = interfaceNames;
+			this.annotationTypes = annotationTypes;
+			this.javaClass = javaClass;
+		}
+
+		static ScannedClass parse(URL url) throws IOException {
+			JavaClass clazz;
+			try (InputStream is = url.openStream()) {
+				clazz = new ClassParser(is).parse();
+			}
+			String[] annotationTypes = null;
+			boolean keep = false;
+			AnnotationEntry[] entries = clazz.getAnnotationEntries();
+			if (entries != null) {
+				annotationTypes = new String[entries.length];
+				for (int i = 0; i < entries.length; i++) {
+					annotationTypes[i] = entries[i].getAnnotationType();
+					keep |= WEB_SERVLET.equals(annotationTypes[i]) || WEB_FILTER.equals(annotationTypes[i]);
+				}
+			}
+			return new ScannedClass(url, clazz.getClassName(), clazz.getAccessFlags(), clazz.getSuperclassName(),
+					clazz.getInterfaceNames(), annotationTypes, keep ? clazz : null);
+		}
+
+		ScannedClass withUrl(URL url) {
+			return new ScannedClass(url, className, accessFlags, superClassName, interfaceNames, annotationTypes, null);
+		}
+
+		URL getUrl() {
+			return url;
+		}
+
+		String getClassName() {
+			return className;
+		}
+
+		int getAccessFlags() {
+			return accessFlags;
+		}
+
+		String getSuperClassName() {
+			return superClassName;
+		}
+
+		String[] getInterfaceNames() {
+			return interfaceNames;
+		}
+
+		String[] getAnnotationTypes() {
+			return annotationTypes;
+		}
+
+		/**
+		 * Returns full BCEL {@link JavaClass}, parsing the class again if the digest was read from the cache.
+		 * @return
+		 * @throws IOException
+		 */
+		JavaClass getJavaClass() throws IOException {
+			if (javaClass == null) {
+				try (InputStream is = url.openStream()) {
+					javaClass = new ClassParser(is).parse();
+				}
+			}
+			return javaClass;
+		}
+	}
+
+}
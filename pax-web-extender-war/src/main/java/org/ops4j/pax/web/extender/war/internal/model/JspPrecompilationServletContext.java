@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.war.internal.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
+import javax.servlet.descriptor.JspConfigDescriptor;
+
+import org.ops4j.pax.web.service.PaxWebConstants;
+import org.ops4j.pax.web.service.WebContainerContext;
+import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>{@link javax.servlet.ServletContext} passed to {@code org.ops4j.pax.web.jsp.JspPrecompiler} when WAB's JSPs
+ * are compiled before the WAB is deployed (so there's no real {@link javax.servlet.ServletContext} yet).</p>
+ *
+ * <p>Resources are taken from WAB's {@link WebContainerContext} and JSP configuration, context parameters and
+ * owner bundle from allocated {@link OsgiContextModel} - just like when the real context is started.</p>
+ */
+public class JspPrecompilationServletContext extends AttributeCollectingServletContext {
+
+	public static final Logger LOG = LoggerFactory.getLogger(JspPrecompilationServletContext.class);
+
+	private final WebContainerContext httpContext;
+	private final OsgiContextModel ocm;
+	private final ClassLoader classLoader;
+	private final int majorVersion;
+	private final int minorVersion;
+
+	public JspPrecompilationServletContext(WebContainerContext httpContext, OsgiContextModel ocm,
+			ClassLoader classLoader, int majorVersion, int minorVersion) {
+		this.httpContext = httpContext;
+		this.ocm = ocm;
+		this.classLoader = classLoader;
+		this.majorVersion = majorVersion;
+		this.minorVersion = minorVersion;
+		if (ocm.getOwnerBundle() != null) {
+			// "128.6.1 Bundle Context Access" - used by JasperInitializer to find the TLDs
+			setAttribute(PaxWebConstants.CONTEXT_PARAM_BUNDLE_CONTEXT, ocm.getOwnerBundle().getBundleContext());
+		}
+	}
+
+	@Override
+	public String getContextPath() {
+		return ocm.getContextPath();
+	}
+
+	@Override
+	public int getMajorVersion() {
+		return 4;
+	}
+
+	@Override
+	public int getEffectiveMajorVersion() {
+		return majorVersion;
+	}
+
+	@Override
+	public int getEffectiveMinorVersion() {
+		return minorVersion;
+	}
+
+	@Override
+	public Set<String> getResourcePaths(String path) {
+		return httpContext.getResourcePaths(path);
+	}
+
+	@Override
+	public URL getResource(String path) {
+		return httpContext.getResource(path);
+	}
+
+	@Override
+	public InputStream getResourceAsStream(String path) {
+		URL url = getResource(path);
+		if (url == null) {
+			return null;
+		}
+		try {
+			return url.openStream();
+		} catch (IOException e) {
+			LOG.warn("Can't open {}: {}", url, e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public String getInitParameter(String name) {
+		return ocm.getContextParams().get(name);
+	}
+
+	@Override
+	public Enumeration<String> getInitParameterNames() {
+		return Collections.enumeration(ocm.getContextParams().keySet());
+	}
+
+	@Override
+	public JspConfigDescriptor getJspConfigDescriptor() {
+		return ocm.getJspConfigDescriptor();
+	}
+
+	@Override
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	@Override
+	public void log(String msg) {
+		LOG.info(msg);
+	}
+
+	@Override
+	public void log(String message, Throwable throwable) {
+		LOG.error(message, throwable);
+	}
+
+}
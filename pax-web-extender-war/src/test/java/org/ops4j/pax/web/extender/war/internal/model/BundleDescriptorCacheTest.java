@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.war.internal.model;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BundleDescriptorCacheTest {
+
+	@Test
+	public void descriptorsAreCachedUntilBundleChanges() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-descriptors").toFile();
+		File fragmentXml = new File(dir, "web-fragment.xml");
+		Files.write(fragmentXml.toPath(), "<web-fragment />".getBytes(StandardCharsets.UTF_8));
+		URL url = fragmentXml.toURI().toURL();
+
+		Bundle bundle = mock(Bundle.class);
+		when(bundle.getBundleId()).thenReturn(42L);
+		when(bundle.getLastModified()).thenReturn(1L);
+
+		BundleDescriptorCache cache = new BundleDescriptorCache(new File(dir, "cache"));
+		assertThat(cache.getWebFragments(bundle), nullValue());
+		assertThat(cache.getSciServices(bundle), nullValue());
+
+		cache.webFragmentsFound(bundle, Collections.singletonList(BundleDescriptorCache.Descriptor.read(url)));
+		List<URL> sciServices = new ArrayList<>(Collections.singletonList(url));
+		cache.sciServicesFound(bundle, sciServices);
+		List<String> names = new ArrayList<>(Arrays.asList("a.Sci", "b.Sci"));
+		cache.sciClassNamesFound(bundle, url, names);
+
+		// the content is read only once and changes of the passed lists are not visible
+		Files.write(fragmentXml.toPath(), "<changed />".getBytes(StandardCharsets.UTF_8));
+		sciServices.clear();
+		names.clear();
+		BundleDescriptorCache.Descriptor descriptor = cache.getWebFragments(bundle).get(0);
+		assertThat(new String(descriptor.openStream().readAllBytes(), StandardCharsets.UTF_8), equalTo("<web-fragment />"));
+		assertThat(new String(descriptor.openStream().readAllBytes(), StandardCharsets.UTF_8), equalTo("<web-fragment />"));
+		assertThat(cache.getSciServices(bundle), equalTo(Collections.singletonList(url)));
+		assertThat(cache.getSciClassNames(bundle, url), equalTo(Arrays.asList("a.Sci", "b.Sci")));
+
+		// negative results are also remembered after restart, but the content is kept only in memory
+		Bundle other = mock(Bundle.class);
+		when(other.getBundleId()).thenReturn(43L);
+		when(other.getLastModified()).thenReturn(1L);
+		cache.webFragmentsFound(other, Collections.emptyList());
+		cache.flush();
+		BundleDescriptorCache restarted = new BundleDescriptorCache(new File(dir, "cache"));
+		assertThat(restarted.getWebFragments(other), equalTo(Collections.emptyList()));
+		assertThat(restarted.getWebFragments(bundle), nullValue());
+
+		// updated bundle
+		when(bundle.getLastModified()).thenReturn(2L);
+		assertThat(cache.getWebFragments(bundle), nullValue());
+		assertThat(cache.getSciServices(bundle), nullValue());
+		assertThat(cache.getSciClassNames(bundle, url), nullValue());
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.war.internal.model;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClassScanCacheTest {
+
+	@Test
+	public void digestsOfUninstalledBundlesAreRemoved() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-class-scan-cache").toFile();
+		File installed = new File(dir, "42-1a2b.classes");
+		File uninstalled = new File(dir, "43-1a2b.classes");
+		File tmp = new File(dir, "42-123456.tmp");
+		for (File f : new File[] { installed, uninstalled, tmp }) {
+			Files.write(f.toPath(), new byte[] { 0 });
+		}
+
+		BundleContext context = mock(BundleContext.class);
+		when(context.getBundle(42L)).thenReturn(mock(Bundle.class));
+
+		ClassScanCache.removeStale(dir, context);
+		assertThat(installed.isFile(), equalTo(true));
+		assertThat(uninstalled.exists(), equalTo(false));
+		assertThat(tmp.exists(), equalTo(false));
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.whiteboard.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
+import org.ops4j.pax.web.service.spi.model.elements.ElementModel;
+import org.osgi.framework.Filter;
+import org.osgi.service.http.whiteboard.HttpWhiteboardConstants;
+
+/**
+ * <p>Index of Whiteboard {@link ElementModel elements} grouped by their
+ * {@link HttpWhiteboardConstants#HTTP_WHITEBOARD_CONTEXT_SELECT context selector}.</p>
+ *
+ * <p>When single {@link OsgiContextModel} is added or removed, only the elements which selector matches the
+ * properties of this context may be associated with different set of contexts. With thousands of Whiteboard
+ * elements there are usually only few distinct selectors, so each selector is evaluated once per changed context
+ * instead of evaluating all the selectors of all the elements of all the Whiteboard applications.</p>
+ *
+ * <p>This class is not thread safe - it's accessed within the lock of {@link WhiteboardExtenderContext}.</p>
+ */
+class WebElementSelectorIndex {
+
+	/** Selector (as string, empty for elements without a selector) to a group of elements. */
+	private final Map<String, Group> groups = new LinkedHashMap<>();
+
+	/**
+	 * Adds an element registered within given {@link BundleWhiteboardApplication} to the index.
+	 * @param element
+	 * @param application
+	 */
+	public void add(ElementModel<?, ?> element, BundleWhiteboardApplication application) {
+		Filter selector = element.getContextFilter();
+		groups.computeIfAbsent(key(selector), k -> new Group(selector)).elements.put(element, application);
+	}
+
+	public void remove(ElementModel<?, ?> element) {
+		String key = key(element.getContextFilter());
+		Group group = groups.get(key);
+		if (group != null) {
+			group.elements.remove(element);
+			if (group.elements.isEmpty()) {
+				groups.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Removes all the elements of given {@link BundleWhiteboardApplication}
+	 * @param application
+	 */
+	public void removeAll(BundleWhiteboardApplication application) {
+		groups.values().removeIf(group -> {
+			group.elements.values().removeIf(app -> app == application);
+			return group.elements.isEmpty();
+		});
+	}
+
+	/**
+	 * Returns the groups of elements, which selector matches given {@link OsgiContextModel}. Elements without
+	 * a selector are affected by changes of {@code default} contexts only.
+	 *
+	 * @param changed added or removed context, {@code null} to return all the groups
+	 * @return
+	 */
+	public List<Group> affectedBy(OsgiContextModel changed) {
+		List<Group> result = new ArrayList<>();
+		for (Group group : groups.values()) {
+			if (changed == null) {
+				result.add(group);
+			} else if (group.selector == null) {
+				if (HttpWhiteboardConstants.HTTP_WHITEBOARD_DEFAULT_CONTEXT_NAME.equals(changed.getName())) {
+					result.add(group);
+				}
+			} else if (group.selector.matchCase(changed.getContextRegistrationProperties())) {
+				result.add(group);
+			}
+		}
+		return result;
+	}
+
+	public int size() {
+		int size = 0;
+		for (Group group : groups.values()) {
+			size += group.elements.size();
+		}
+		return size;
+	}
+
+	private static String key(Filter selector) {
+		return selector == null ? "" : selector.toString();
+	}
+
+	/**
+	 * Elements sharing the same selector. Iteration order is the order of registration.
+	 */
+	static class Group {
+		private final Filter selector;
+		private final Map<ElementModel<?, ?>, BundleWhiteboardApplication> elements = new LinkedHashMap<>();
+
+		Group(Filter selector) {
+			this.selector = selector;
+		}
+
+		public Filter getSelector() {
+			return selector;
+		}
+
+		public Collection<ElementModel<?, ?>> getElements() {
+			return elements.keySet();
+		}
+
+		public BundleWhiteboardApplication getApplication(ElementModel<?, ?> element) {
+			return elements.get(element);
+		}
+	}
+
+}
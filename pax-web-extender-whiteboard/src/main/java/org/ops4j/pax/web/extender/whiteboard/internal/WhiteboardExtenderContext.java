@@ -127,6 +127,12 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 	 */
 	private final List<OsgiContextModel> osgiContextsList = new ArrayList<>();
 
+	/**
+	 * All the Whiteboard elements of all {@link BundleWhiteboardApplication applications} grouped by context
+	 * selector, so only elements affected by a change of single {@link OsgiContextModel} are re-evaluated.
+	 */
+	private final WebElementSelectorIndex selectorIndex = new WebElementSelectorIndex();
+
 	/** Flag marking actual registration of {@link OsgiContextModel#DEFAULT_CONTEXT_MODEL}. */
 	private AtomicBoolean defaultContextRegistered = new AtomicBoolean(false);
 
@@ -175,6 +181,9 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 		lock.lock();
 		try {
 			application = bundleApplications.remove(bundle);
+			if (application != null) {
+				selectorIndex.removeAll(application);
+			}
 		} finally {
 			lock.unlock();
 		}
@@ -191,7 +200,7 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 		}
 		lock.lock();
 		try {
-			reRegisterWebElements();
+			reRegisterWebElements(model);
 		} finally {
 			lock.unlock();
 		}
@@ -204,7 +213,7 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 		}
 		lock.lock();
 		try {
-			reRegisterWebElements();
+			reRegisterWebElements(model);
 		} finally {
 			lock.unlock();
 		}
@@ -351,7 +360,12 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 
 		// in case some servlets were registered above which should switch to contexts from other whiteboard
 		// applications registered later (https://github.com/ops4j/org.ops4j.pax.web/issues/1769)
-		reRegisterWebElements();
+		lock.lock();
+		try {
+			reRegisterWebElements(null);
+		} finally {
+			lock.unlock();
+		}
 
 		acceptWabContexts.set(true);
 	}
@@ -421,7 +435,7 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 
 			getBundleApplication(bundle).addWebContext(model);
 
-			reRegisterWebElements();
+			reRegisterWebElements(model);
 		} finally {
 			lock.unlock();
 		}
@@ -433,7 +447,7 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 			osgiContexts.get(model.getName()).remove(model);
 			osgiContextsList.remove(model);
 
-			reRegisterWebElements();
+			reRegisterWebElements(model);
 
 			getBundleApplication(bundle).removeWebContext(model);
 
@@ -458,21 +472,42 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 	 *     <li>Existing {@link javax.servlet.Servlet} should be re-registered from "/" to "/x" path without bothering
 	 *         user who's registered the {@link javax.servlet.Servlet}.</li>
 	 * </ul></p>
+	 *
+	 * <p>Only the elements which selector matches the changed {@link OsgiContextModel} are checked - other elements
+	 * can't be associated with different set of contexts after this change. The contexts are resolved once for
+	 * each selector and registering bundle.</p>
+	 *
+	 * @param changed added or removed {@link OsgiContextModel}, {@code null} to check all the elements
 	 */
-	private void reRegisterWebElements() {
+	private void reRegisterWebElements(OsgiContextModel changed) {
 		// remember - we're operating within ExtenderContext.lock
 
-		List<BundleWhiteboardApplication> apps = new ArrayList<>(bundleApplications.values());
-		for (BundleWhiteboardApplication app : apps) {
-			WhiteboardWebContainerView view = app.getWhiteboardContainer();
-			for (ElementModel<?, ?> webElement : app.getWebElements()) {
+		List<WebElementSelectorIndex.Group> groups = selectorIndex.affectedBy(changed);
+		if (LOG.isDebugEnabled() && changed != null) {
+			int count = 0;
+			for (WebElementSelectorIndex.Group group : groups) {
+				count += group.getElements().size();
+			}
+			LOG.debug("Checking {} of {} Whiteboard elements after change of {}", count, selectorIndex.size(), changed);
+		}
+
+		for (WebElementSelectorIndex.Group group : groups) {
+			Filter filter = group.getSelector();
+			// resolved contexts depend on the selector and (bundle-scoped contexts of) registering bundle
+			Map<Bundle, List<OsgiContextModel>> resolved = new HashMap<>();
+			for (ElementModel<?, ?> webElement : new ArrayList<>(group.getElements())) {
+				BundleWhiteboardApplication app = group.getApplication(webElement);
+				if (app == null) {
+					continue;
+				}
+				WhiteboardWebContainerView view = app.getWhiteboardContainer();
 				boolean isAsync = webElement.isAsynchronusRegistration();
 				try {
 					// re-registration has to be synchronous, because otherwise we'd change the osgi context models
 					// of the element when it's being unregistered for example
 					webElement.setAsynchronusRegistration(false);
-					Filter filter = webElement.getContextFilter();
-					List<OsgiContextModel> newMatching = resolveContexts(webElement.getRegisteringBundle(), filter);
+					List<OsgiContextModel> newMatching = resolved.computeIfAbsent(webElement.getRegisteringBundle(),
+							b -> resolveContexts(b, filter));
 					List<OsgiContextModel> oldMatching = webElement.getContextModels();
 
 					// 0.
@@ -538,7 +573,9 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 	public <R, D extends WebElementEventData, T extends ElementModel<R, D>> void addWebElement(Bundle bundle, T webElement) {
 		lock.lock();
 		try {
-			getBundleApplication(bundle).addWebElement(webElement);
+			BundleWhiteboardApplication application = getBundleApplication(bundle);
+			application.addWebElement(webElement);
+			selectorIndex.add(webElement, application);
 		} finally {
 			lock.unlock();
 		}
@@ -552,6 +589,7 @@ public class WhiteboardExtenderContext implements WebContainerListener, WebConte
 				webElement.setAsynchronusRegistration(false);
 			}
 			getBundleApplication(bundle).removeWebElement(webElement);
+			selectorIndex.remove(webElement);
 
 			WhiteboardWebContainerView view = webContainerManager.whiteboardView(bundle, currentWebContainerReference);
 			if (view != null) {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.extender.whiteboard.internal;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
+import org.ops4j.pax.web.service.spi.model.elements.ServletModel;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.service.http.whiteboard.HttpWhiteboardConstants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class WebElementSelectorIndexTest {
+
+	@Test
+	public void onlyMatchingSelectorsAreAffected() throws Exception {
+		BundleWhiteboardApplication app1 = mock(BundleWhiteboardApplication.class);
+		BundleWhiteboardApplication app2 = mock(BundleWhiteboardApplication.class);
+
+		ServletModel s1 = servlet("(osgi.http.whiteboard.context.name=c1)");
+		ServletModel s2 = servlet("(osgi.http.whiteboard.context.name=c1)");
+		ServletModel s3 = servlet("(osgi.http.whiteboard.context.name=c2)");
+		ServletModel s4 = servlet(null);
+
+		WebElementSelectorIndex index = new WebElementSelectorIndex();
+		index.add(s1, app1);
+		index.add(s2, app2);
+		index.add(s3, app1);
+		index.add(s4, app2);
+		assertEquals(4, index.size());
+
+		List<WebElementSelectorIndex.Group> groups = index.affectedBy(context("c1"));
+		assertEquals(1, groups.size());
+		assertEquals(2, groups.get(0).getElements().size());
+		assertSame(app2, groups.get(0).getApplication(s2));
+
+		groups = index.affectedBy(context(HttpWhiteboardConstants.HTTP_WHITEBOARD_DEFAULT_CONTEXT_NAME));
+		assertEquals(1, groups.size());
+		assertTrue(groups.get(0).getElements().contains(s4));
+
+		assertEquals(3, index.affectedBy(null).size());
+
+		index.removeAll(app1);
+		assertEquals(2, index.size());
+		assertTrue(index.affectedBy(context("c2")).isEmpty());
+
+		index.remove(s2);
+		assertTrue(index.affectedBy(context("c1")).isEmpty());
+	}
+
+	private ServletModel servlet(String selector) throws Exception {
+		ServletModel model = new ServletModel.Builder("s").withUrlPatterns(new String[] { "/s" }).build();
+		model.setContextSelectFilter(selector == null ? null : FrameworkUtil.createFilter(selector));
+		return model;
+	}
+
+	private OsgiContextModel context(String name) {
+		OsgiContextModel model = new OsgiContextModel(null, 0, 1L, true);
+		model.setName(name);
+		model.getContextRegistrationProperties().put(HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME, name);
+		return model;
+	}
+
+}
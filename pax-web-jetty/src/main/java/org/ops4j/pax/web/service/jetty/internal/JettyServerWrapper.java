@@ -79,7 +79,6 @@ import org.eclipse.jetty.server.session.SessionHandler;
 import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.servlet.ErrorPageErrorHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
-import org.eclipse.jetty.servlet.FilterMapping;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
@@ -110,6 +109,7 @@ import org.ops4j.pax.web.service.spi.model.elements.SessionConfigurationModel;
 import org.ops4j.pax.web.service.spi.model.elements.WebSocketModel;
 import org.ops4j.pax.web.service.spi.model.elements.WelcomeFileModel;
 import org.ops4j.pax.web.service.spi.model.events.ServerEvent;
+import org.ops4j.pax.web.service.spi.servlet.CompressedResourceCache;
 import org.ops4j.pax.web.service.spi.servlet.Default404Servlet;
 import org.ops4j.pax.web.service.spi.servlet.DynamicRegistrations;
 import org.ops4j.pax.web.service.spi.servlet.OsgiDynamicServletContext;
@@ -119,7 +119,10 @@ import org.ops4j.pax.web.service.spi.servlet.OsgiServletContextClassLoader;
 import org.ops4j.pax.web.service.spi.servlet.OsgiSessionAttributeListener;
 import org.ops4j.pax.web.service.spi.servlet.PreprocessorFilterConfig;
 import org.ops4j.pax.web.service.spi.servlet.RegisteringContainerInitializer;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
 import org.ops4j.pax.web.service.spi.servlet.SCIWrapper;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
+import org.ops4j.pax.web.service.spi.session.SessionStores;
 import org.ops4j.pax.web.service.spi.task.BatchVisitor;
 import org.ops4j.pax.web.service.spi.task.ClearDynamicRegistrationsChange;
 import org.ops4j.pax.web.service.spi.task.ContainerInitializerModelChange;
@@ -174,6 +177,9 @@ class JettyServerWrapper implements BatchVisitor {
 	/** If JMX support is enabled, this will be the Jetty bean for JMX management */
 	private MBeanContainer mbeanContainer;
 
+	/** Pax Web session store used instead of Jetty's {@link FileSessionDataStoreFactory} if configured */
+	private SessionStore sessionStore;
+
 	/** Main handler collection for Jetty server */
 	private final PrioritizedHandlerCollection mainHandler;
 
@@ -243,6 +249,12 @@ class JettyServerWrapper implements BatchVisitor {
 	 */
 	private final List<EventListenerModel> sessionListenerModels = new ArrayList<>();
 
+	/**
+	 * Single bridge (with an index of {@link HttpSessionAttributeListener listeners} per {@link OsgiContextModel})
+	 * shared by all the contexts.
+	 */
+	private final OsgiSessionAttributeListener osgiSessionsBridge = new OsgiSessionAttributeListener(sessionListenerModels);
+
 	private final Set<PriorityValue<HttpConfiguration.Customizer>> registeredCustomizers = new TreeSet<>(JettyServerControllerFactory.priorityComparator);
 
 	private final Map<String, TreeMap<OsgiContextModel, SecurityConfigurationModel>> contextSecurityConstraints = new HashMap<>();
@@ -299,7 +311,10 @@ class JettyServerWrapper implements BatchVisitor {
 		this.defaultSessionCookieConfig = configuration.session().getDefaultSessionCookieConfig();
 
 		// global session persistence configuration
-		if (configuration.session().getSessionStoreDirectory() != null) {
+		sessionStore = SessionStores.create(configuration.session());
+		if (sessionStore != null) {
+			server.addBean(new PaxWebSessionDataStoreFactory(sessionStore));
+		} else if (configuration.session().getSessionStoreDirectory() != null) {
 			FileSessionDataStoreFactory dsFactory = new FileSessionDataStoreFactory();
 			dsFactory.setDeleteUnrestorableFiles(true);
 			dsFactory.setStoreDir(configuration.session().getSessionStoreDirectory());
@@ -657,6 +672,11 @@ class JettyServerWrapper implements BatchVisitor {
 		LOG.info("Destroying Jetty server {}", server);
 		server.destroy();
 
+		if (sessionStore != null) {
+			sessionStore.close();
+			sessionStore = null;
+		}
+
 		dynamicRegistrations.clear();
 		initializers.clear();
 		osgiContextModels.clear();
@@ -763,7 +783,7 @@ class JettyServerWrapper implements BatchVisitor {
 
 			PaxWebServletContextHandler sch = new PaxWebServletContextHandler(null, contextPath, configuration);
 			// special, OSGi-aware org.eclipse.jetty.servlet.ServletHandler
-			sch.setServletHandler(new PaxWebServletHandler(default404Servlet, new OsgiSessionAttributeListener(sessionListenerModels)));
+			sch.setServletHandler(new PaxWebServletHandler(default404Servlet, osgiSessionsBridge));
 			// setting "false" here will trigger 302 redirect when browsing to context without trailing "/"
 			sch.setAllowNullPathInfo(false);
 			// welcome files will be handled at default/resource servlet level and OsgiServletContext
@@ -794,6 +814,19 @@ class JettyServerWrapper implements BatchVisitor {
 					maxEntrySize != null ? Integer.toString(maxEntrySize * 1024) : Integer.toString(128 * 1024 * 1024 / 64));
 			sch.setInitParameter(DefaultServlet.CONTEXT_INIT + "maxCachedFiles",
 					maxEntries != null ? Integer.toString(maxEntries) : "2048");
+			// minimal size of file: resources sent as memory mapped buffers (see ZeroCopyContentFactory) - not
+			// used unless configured
+			Integer zeroCopyMinSize = configuration.resources().zeroCopyMinSize(); // kB
+			if (zeroCopyMinSize != null) {
+				sch.setInitParameter(DefaultServlet.CONTEXT_INIT + "zeroCopyMinSize",
+						Long.toString(zeroCopyMinSize < 0 ? -1L : zeroCopyMinSize * 1024L));
+			}
+			// precompressed variants of resources (possibly created on demand, see CompressedResourceCache)
+			Map<String, String> precompressed = CompressedResourceCache.precompressedFormats(configuration.resources());
+			if (precompressed != null) {
+				sch.setInitParameter(DefaultServlet.CONTEXT_INIT + "precompressed",
+						CompressedResourceCache.toInitParameter(precompressed));
+			}
 
 			mainHandler.addHandler(sch);
 			mainHandler.mapContexts();
@@ -939,6 +972,7 @@ class JettyServerWrapper implements BatchVisitor {
 			}
 			OsgiServletContext osgiContext = new OsgiServletContext(sch.getServletContext(), osgiModel, servletContextModel,
 					defaultSessionCookieConfig, classLoader);
+			osgiContext.setResourceCache(new ResourceCache(configuration.resources()));
 
 			// that's ideal place to set ServletContext.TEMPDIR attribute - it'll work for HttpService, Whiteboard and WAB
 			File tmpLocation = new File(configuration.server().getTemporaryDirectory(), osgiModel.getTemporaryLocation());
@@ -1436,6 +1470,7 @@ class JettyServerWrapper implements BatchVisitor {
 					iterator.remove();
 				}
 			}
+			((PaxWebServletHandler) sch.getServletHandler()).preprocessorsChanged();
 
 			if (sch.isStarted()) {
 				for (PreprocessorFilterConfig fc : toInit) {
@@ -1475,13 +1510,34 @@ class JettyServerWrapper implements BatchVisitor {
 			// For Pax Web purposes, we'll try to handle such scenario and all the filters in a chain without servlet
 			// will use OsgiServletContext which is "best" (wrt service ranking) for given physical context path
 
-			// holders won't include preprocessors
-			PaxWebFilterHolder[] newFilterHolders = new PaxWebFilterHolder[filters.size()];
+			PaxWebServletHandler servletHandler = (PaxWebServletHandler) sch.getServletHandler();
+
+			// existing holders are reused if their FilterModel and target OsgiServletContext didn't change, so
+			// unchanged filters are not destroyed and initialized again and the filter chains not involving
+			// added/removed filters stay cached.
+			// we also have to preserve dynamically added filters, when a filter was added after the context has
+			// started, because the SCIs and ServletContextListeners may have added new filters
+			Map<FilterModel, PaxWebFilterHolder> existingHolders = new HashMap<>();
+			List<PaxWebFilterHolder> newFilterHolders = new ArrayList<>();
+			List<PaxWebFilterHolder> removedHolders = new ArrayList<>();
+			for (FilterHolder fh : servletHandler.getFilters()) {
+				if (fh instanceof PaxWebFilterHolder) {
+					PaxWebFilterHolder pwfh = (PaxWebFilterHolder) fh;
+					boolean dynamic = pwfh.getFilterModel() == null || pwfh.getFilterModel().isDynamic();
+					if (dynamic && !change.isDynamic()) {
+						newFilterHolders.add(pwfh);
+					} else if (pwfh.getFilterModel() != null) {
+						existingHolders.put(pwfh.getFilterModel(), pwfh);
+					} else {
+						removedHolders.add(pwfh);
+					}
+				}
+			}
+			List<PaxWebFilterHolder> addedHolders = new ArrayList<>();
 
+			// holders won't include preprocessors
 			// filters are sorted by ranking. for Jetty, this order should be reflected in the array of FilterMappings
 			// order of FilterHolders is irrelevant
-			int pos = 0;
-			boolean noQuick = false;
 			for (FilterModel model : filters) {
 				// <filter> - FilterModel's OsgiContextModels only determine with which servlets such filter may
 				// be associated.
@@ -1506,9 +1562,6 @@ class JettyServerWrapper implements BatchVisitor {
 				// however, if there was some /s1 servlet associated with ocm1 only, filter should be invoked
 				// when targeting /s1 servlet
 
-				// if there's out-of-band list of new filters, there's no way the change will be "quick"
-				noQuick |= filtersMap.get(model) != null;
-
 				// we need highest ranked OsgiContextModel for current context path - chosen not among all
 				// associated OsgiContextModels, but among OsgiContextModels of the FilterModel
 				OsgiContextModel highestRankedModel = null;
@@ -1530,87 +1583,64 @@ class JettyServerWrapper implements BatchVisitor {
 
 				OsgiServletContext context = osgiServletContexts.get(highestRankedModel);
 
-				PaxWebFilterHolder holder = new PaxWebFilterHolder(model, context);
-				holder.setWhiteboardTCCL("whiteboard".equalsIgnoreCase(configuration.server().getTCCLType()));
-				holder.setMapping(configureFilterMappings(model));
-
-				newFilterHolders[pos] = holder;
-				pos++;
-			}
-
-			// we have to preserve dynamically added filters, when a filter was added after the context has started,
-			// because the SCIs and ServletContextListeners may have added new filters
-			List<PaxWebFilterMapping> newFilterMappingsListBefore = new LinkedList<>();
-			List<PaxWebFilterMapping> newFilterMappingsListAfter = new LinkedList<>();
-
-			if (!change.isDynamic() && sch.getServletHandler().getFilters().length > 0) {
-				List<PaxWebFilterHolder> newFiltersList = new ArrayList<>();
-				for (FilterHolder fh : sch.getServletHandler().getFilters()) {
-					if (fh instanceof PaxWebFilterHolder) {
-						PaxWebFilterHolder pwfh = (PaxWebFilterHolder) fh;
-						if (pwfh.getFilterModel() == null || pwfh.getFilterModel().isDynamic()) {
-							// filter added normally
-							newFiltersList.add(pwfh);
-							// mappings added depending on the flag
-							if (pwfh.getMapping() != null) {
-								for (PaxWebFilterMapping pwfm : pwfh.getMapping()) {
-									if (pwfm.isAfter()) {
-										newFilterMappingsListAfter.add(pwfm);
-									} else {
-										newFilterMappingsListBefore.add(pwfm);
-									}
-								}
-							}
-						}
-					}
+				// if there's out-of-band list of new context models, the filter has to be recreated
+				PaxWebFilterHolder holder = existingHolders.get(model);
+				if (holder != null && filtersMap.get(model) == null && holder.getOsgiServletContext() == context) {
+					existingHolders.remove(model);
+				} else {
+					holder = new PaxWebFilterHolder(model, context);
+					holder.setWhiteboardTCCL("whiteboard".equalsIgnoreCase(configuration.server().getTCCLType()));
+					holder.setMapping(configureFilterMappings(model));
+					addedHolders.add(holder);
 				}
-				// don't bother about the order - mapping is relevant
-				Collections.addAll(newFiltersList, newFilterHolders);
-				newFilterHolders = newFiltersList.toArray(new PaxWebFilterHolder[0]);
+				newFilterHolders.add(holder);
 			}
 
-			if (noQuick || !quickFilterChange(sch.getServletHandler(), newFilterHolders)) {
-				// the hard way - recreate entire array of filters/filter-mappings
-				for (FilterHolder holder : sch.getServletHandler().getFilters()) {
-					try {
-						holder.stop();
-					} catch (Exception e) {
-						LOG.error(e.getMessage(), e);
+			// remaining holders were not reused
+			removedHolders.addAll(existingHolders.values());
+
+			List<PaxWebFilterMapping> newFilterMappingsListBefore = new ArrayList<>();
+			List<PaxWebFilterMapping> newFilterMappingsListAfter = new ArrayList<>();
+			for (PaxWebFilterHolder fh : newFilterHolders) {
+				if (fh.getMapping() != null) {
+					for (PaxWebFilterMapping fm : fh.getMapping()) {
+						if (fm.isAfter()) {
+							newFilterMappingsListAfter.add(fm);
+						} else {
+							newFilterMappingsListBefore.add(fm);
+						}
 					}
 				}
+			}
+			newFilterMappingsListBefore.addAll(newFilterMappingsListAfter);
 
-				// a trick we need - reset org.eclipse.jetty.servlet.ServletHandler._matchAfterIndex value
-				// because it's only reset when ServletHandler stops, but this is too much - we don't want
-				// to stop the servlets and entire context (ServletHandler.doStop() calls
-				// org.eclipse.jetty.server.handler.ContextHandler.contextDestroyed())
-				try {
-					Field maiField = ServletHandler.class.getDeclaredField("_matchAfterIndex");
-					maiField.setAccessible(true);
-					maiField.set(sch.getServletHandler(), -1);
-				} catch (NoSuchFieldException | IllegalAccessException ignore) {
+			for (PaxWebFilterHolder fh : addedHolders) {
+				if ("org.eclipse.jetty.websocket.servlet.WebSocketUpgradeFilter".equals(fh.getName())) {
+					sch.getServletContext().removeAttribute("org.eclipse.jetty.websocket.server.WebSocketUpgradeFilter");
 				}
+			}
 
-				sch.getServletHandler().setFilters(new FilterHolder[0]);
-				sch.getServletHandler().setFilterMappings(new FilterMapping[0]);
+			// a trick we need - reset org.eclipse.jetty.servlet.ServletHandler._matchAfterIndex value
+			// because it's only reset when ServletHandler stops, but this is too much - we don't want
+			// to stop the servlets and entire context (ServletHandler.doStop() calls
+			// org.eclipse.jetty.server.handler.ContextHandler.contextDestroyed())
+			try {
+				Field maiField = ServletHandler.class.getDeclaredField("_matchAfterIndex");
+				maiField.setAccessible(true);
+				maiField.set(servletHandler, -1);
+			} catch (NoSuchFieldException | IllegalAccessException ignore) {
+			}
 
-				for (PaxWebFilterHolder fh : newFilterHolders) {
-					if ("org.eclipse.jetty.websocket.servlet.WebSocketUpgradeFilter".equals(fh.getName())) {
-						sch.getServletContext().removeAttribute("org.eclipse.jetty.websocket.server.WebSocketUpgradeFilter");
-					}
-					sch.getServletHandler().addFilter(fh);
-					if (fh.getMapping() != null) {
-						for (PaxWebFilterMapping fm : fh.getMapping()) {
-							if (fm.isAfter()) {
-								newFilterMappingsListAfter.add(fm);
-							} else {
-								newFilterMappingsListBefore.add(fm);
-							}
-						}
-					}
+			servletHandler.updateFilters(newFilterHolders.toArray(new PaxWebFilterHolder[0]),
+					newFilterMappingsListBefore.toArray(new PaxWebFilterMapping[0]), addedHolders, removedHolders);
+
+			// removed holders are no longer part of any (cached) chain, so they can be stopped
+			for (PaxWebFilterHolder holder : removedHolders) {
+				try {
+					holder.stop();
+				} catch (Exception e) {
+					LOG.error(e.getMessage(), e);
 				}
-				newFilterMappingsListBefore.addAll(newFilterMappingsListAfter);
-				sch.getServletHandler().setFilters(newFilterHolders);
-				sch.getServletHandler().setFilterMappings(newFilterMappingsListBefore.toArray(new PaxWebFilterMapping[0]));
 			}
 
 			if (!change.isDynamic()) {
@@ -1642,6 +1672,7 @@ class JettyServerWrapper implements BatchVisitor {
 				if (eventListener instanceof HttpSessionAttributeListener) {
 					// we have to store it separately to propagate OsgiHttpSession specific events
 					sessionListenerModels.add(eventListenerModel);
+					osgiSessionsBridge.sessionListenersChanged();
 				}
 
 				boolean stopped = false;
@@ -1693,6 +1724,7 @@ class JettyServerWrapper implements BatchVisitor {
 					}
 					if (eventListener instanceof HttpSessionAttributeListener) {
 						sessionListenerModels.remove(eventListenerModel);
+						osgiSessionsBridge.sessionListenersChanged();
 					}
 
 					if (pendingTransaction(contextPath)) {
@@ -2536,66 +2568,6 @@ class JettyServerWrapper implements BatchVisitor {
 		}
 	}
 
-	/**
-	 * <p>This method tries to check if it's ok to just add new filters from {@code newFilterHolders} <em>at the end</em>
-	 * of current list of filters. This is quite special case, but not that uncommon - when new filters are
-	 * lower-ranked than all existing ones and there are no filters to be removed.</p>
-	 *
-	 * @param servletHandler
-	 * @param newFilterHolders
-	 * @return
-	 */
-	private boolean quickFilterChange(ServletHandler servletHandler, PaxWebFilterHolder[] newFilterHolders) {
-		FilterHolder[] existingFilterHolders = servletHandler.getFilters();
-
-		int pos = 0;
-		boolean quick = newFilterHolders.length >= existingFilterHolders.length;
-
-		// by "quick" we mean - there are no removed filters and new filters come last
-		while (quick) {
-			if (pos >= existingFilterHolders.length) {
-				break;
-			}
-			if ((((PaxWebFilterHolder) existingFilterHolders[pos]).getFilterModel() == null
-					|| newFilterHolders[pos].getFilterModel() == null)) {
-				if (existingFilterHolders[pos].getName() != null) {
-					if (!existingFilterHolders[pos].getName().equals(newFilterHolders[pos].getName())) {
-						quick = false;
-						break;
-					}
-				}
-				if (existingFilterHolders[pos].getHeldClass() != null) {
-					if (!existingFilterHolders[pos].getHeldClass().equals(newFilterHolders[pos].getHeldClass())) {
-						quick = false;
-						break;
-					}
-				}
-			} else if (!((PaxWebFilterHolder)existingFilterHolders[pos]).getFilterModel().equals(newFilterHolders[pos].getFilterModel())) {
-				quick = false;
-				break;
-			}
-			pos++;
-		}
-
-		if (quick) {
-			for (int i = pos; i < newFilterHolders.length; i++) {
-				// each holder may have many mappings
-				PaxWebFilterHolder fh = newFilterHolders[i];
-				servletHandler.addFilter(fh);
-				for (PaxWebFilterMapping paxWebFilterMapping : fh.getMapping()) {
-					if (paxWebFilterMapping.isAfter()) {
-						servletHandler.addFilterMapping(paxWebFilterMapping);
-					} else {
-						servletHandler.prependFilterMapping(paxWebFilterMapping);
-					}
-				}
-			}
-			return true;
-		}
-
-		return false;
-	}
-
 	private List<PaxWebFilterMapping> configureFilterMappings(FilterModel model) {
 		List<PaxWebFilterMapping> mappings = new LinkedList<>();
 
@@ -243,6 +243,10 @@ public class PaxWebFilterHolder extends FilterHolder {
 		return filterModel;
 	}
 
+	public OsgiServletContext getOsgiServletContext() {
+		return osgiServletContext;
+	}
+
 	public void setMapping(List<PaxWebFilterMapping> mapping) {
 		this.mapping = mapping;
 	}
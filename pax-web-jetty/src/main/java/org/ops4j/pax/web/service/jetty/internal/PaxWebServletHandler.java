@@ -19,12 +19,15 @@ package org.ops4j.pax.web.service.jetty.internal;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import javax.security.auth.Subject;
 import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
@@ -36,6 +39,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.eclipse.jetty.http.pathmap.ServletPathSpec;
 import org.eclipse.jetty.security.DefaultUserIdentity;
 import org.eclipse.jetty.security.UserAuthentication;
 import org.eclipse.jetty.security.UserPrincipal;
@@ -54,6 +58,7 @@ import org.eclipse.jetty.util.MultiException;
 import org.ops4j.pax.web.service.WebContainerContext;
 import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
 import org.ops4j.pax.web.service.spi.model.elements.ServletModel;
+import org.ops4j.pax.web.service.spi.servlet.OsgiDispatchPipeline;
 import org.ops4j.pax.web.service.spi.servlet.OsgiFilterChain;
 import org.ops4j.pax.web.service.spi.servlet.OsgiServletContext;
 import org.ops4j.pax.web.service.spi.servlet.OsgiSessionAttributeListener;
@@ -100,6 +105,40 @@ public class PaxWebServletHandler extends ServletHandler {
 
 	private final ThreadLocal<PaxWebServletHolder> currentServletHolder = new ThreadLocal<>();
 
+	/**
+	 * When set, {@link #invalidateChainsCache()} called by Jetty when filters/mappings are set doesn't clear
+	 * the chains cached in {@link PaxWebServletHolder servlet holders}, because {@link #updateFilters} does it
+	 * selectively.
+	 */
+	private volatile boolean keepChains;
+
+	/**
+	 * Pipeline shared by all {@link OsgiFilterChain chains}. Replaced whenever {@link #preprocessors} change.
+	 */
+	private volatile OsgiDispatchPipeline pipeline = OsgiDispatchPipeline.EMPTY;
+
+	/**
+	 * Listener called when {@link org.osgi.service.http.HttpContext#handleSecurity} returns true. It's stateless
+	 * (Jetty {@link Request} is obtained from the passed request), so single instance is used for all requests.
+	 */
+	private final Consumer<HttpServletRequest> authListener = (req) -> {
+		final Object user = req.getAttribute(ServletContextHelper.REMOTE_USER);
+		final Object authType = req.getAttribute(ServletContextHelper.AUTHENTICATION_TYPE);
+
+		if (user != null || authType != null) {
+			Request baseRequest = Request.getBaseRequest(req);
+			// translate it into Jetty specific authentication
+			if (baseRequest != null && (baseRequest.getAuthentication() == null
+					|| baseRequest.getAuthentication() == Authentication.UNAUTHENTICATED)) {
+				String userName = user != null ? user.toString() : null;
+				String authMethod = authType != null ? authType.toString() : null;
+				Principal p = new UserPrincipal(userName, null);
+				Subject s = new Subject(true, Collections.singleton(p), Collections.emptySet(), Collections.emptySet());
+				baseRequest.setAuthentication(new UserAuthentication(authMethod, new DefaultUserIdentity(s, p, new String[0])));
+			}
+		}
+	};
+
 	/**
 	 * Create new {@link ServletHandler} for given {@link org.eclipse.jetty.servlet.ServletContextHandler}
 	 * @param default404Servlet this servlet will be used when there's no mapped servlet
@@ -160,6 +199,7 @@ public class PaxWebServletHandler extends ServletHandler {
 		for (PreprocessorFilterConfig fc : preprocessors) {
 			fc.getInstance().init(fc);
 		}
+		preprocessorsChanged();
 
 		try {
 			super.initialize();
@@ -203,6 +243,7 @@ public class PaxWebServletHandler extends ServletHandler {
 		for (PreprocessorFilterConfig fc : preprocessors) {
 			fc.destroy();
 		}
+		preprocessorsChanged();
 
 		// Jetty 10+ keeps only "durable" servlets/filters/listeners. We're handling it a bit differently,
 		// so we have to preservet them (because there's no reflection-free access to
@@ -408,33 +449,23 @@ public class PaxWebServletHandler extends ServletHandler {
 			chain = (request, response) -> holder.handle(baseRequest, request, response);
 		}
 
-		// listener called when org.osgi.service.http.HttpContext.handleSecurity() returns true
-		Consumer<HttpServletRequest> authListener = (req) -> {
-			final Object user = req.getAttribute(ServletContextHelper.REMOTE_USER);
-			final Object authType = req.getAttribute(ServletContextHelper.AUTHENTICATION_TYPE);
-
-			if (user != null || authType != null) {
-				// translate it into Jetty specific authentication
-				if (baseRequest.getAuthentication() == null || baseRequest.getAuthentication() == Authentication.UNAUTHENTICATED) {
-					String userName = user != null ? user.toString() : null;
-					String authMethod = authType != null ? authType.toString() : null;
-					Principal p = new UserPrincipal(userName, null);
-					Subject s = new Subject(true, Collections.singleton(p), Collections.emptySet(), Collections.emptySet());
-					baseRequest.setAuthentication(new UserAuthentication(authMethod, new DefaultUserIdentity(s, p, new String[0])));
-				}
-			}
-		};
-
-		List<Preprocessor> preprocessorInstances = preprocessors.stream().map(PreprocessorFilterConfig::getInstance).collect(Collectors.toList());
 		if (!holder.is404()) {
-			return new OsgiFilterChain(new ArrayList<>(preprocessorInstances), holder.getOsgiServletContext(),
-					holder.getWebContainerContext(), chain, osgiSessionsBridge, authListener);
+			return pipeline.createChain(holder.getOsgiServletContext(), holder.getWebContainerContext(), chain,
+					osgiSessionsBridge, authListener);
 		} else {
-			return new OsgiFilterChain(new ArrayList<>(preprocessorInstances), defaultServletContext,
-					defaultWebContainerContext, chain, osgiSessionsBridge, authListener);
+			return pipeline.createChain(defaultServletContext, defaultWebContainerContext, chain,
+					osgiSessionsBridge, authListener);
 		}
 	}
 
+	/**
+	 * Should be called after changing the list of {@link PreprocessorFilterConfig preprocessors} or after
+	 * (re)initialization of the preprocessors, so new {@link OsgiDispatchPipeline} is used for new requests.
+	 */
+	public void preprocessorsChanged() {
+		pipeline = new OsgiDispatchPipeline(preprocessors);
+	}
+
 	/**
 	 * Overriden, because we want our own cache management, where key includes proper OSGi context
 	 * @param baseRequest
@@ -446,24 +477,20 @@ public class PaxWebServletHandler extends ServletHandler {
 	protected FilterChain getFilterChain(Request baseRequest, String pathInContext, ServletHolder servletHolder) {
 		PaxWebServletHolder holder = (PaxWebServletHolder) servletHolder;
 
-		// calculate caching key for filter chain
-		WebContainerContext wcc = holder.getWebContainerContext();
-		String prefix = wcc == null ? "" : wcc.getContextId() + "|";
-		if (wcc != null && wcc.isShared()) {
-			prefix = "~|" + prefix;
-		}
-		String contextlessKey = pathInContext == null ? holder.getName() : pathInContext;
-		String key = prefix + contextlessKey;
+		// the holder determines the OSGi context (and WebContainerContext), so we keep the chains in the holder
+		// itself and we use only the path as a key (or holder's name for named dispatch)
+		String key = pathInContext == null ? holder.getName() : pathInContext;
 
 		int dispatch = FilterMapping.dispatch(baseRequest.getDispatcherType());
 
-		FilterChain chain = _chainCache[dispatch].get(key);
+		Map<String, FilterChain> cache = holder.getChainCache(dispatch);
+		FilterChain chain = cache.get(key);
 		if (chain != null) {
 			return chain;
 		}
 
-		// always clear contextlessKey in parent cache, so super.getFilterChain will create new filter chain
-		_chainCache[dispatch].remove(contextlessKey);
+		// always clear the key in parent cache, so super.getFilterChain will create new filter chain
+		_chainCache[dispatch].remove(key);
 
 		// After an update to Jetty 9.4.34, we have to use different way of rejecting filters from the chain if
 		// they don't match OSGi context... See https://github.com/eclipse/jetty.project/pull/5271
@@ -477,16 +504,148 @@ public class PaxWebServletHandler extends ServletHandler {
 		// the above chain:
 		// 1) may be null if there are no filters at all
 		// 2) may be not null, but all the filters may have to be removed because they could not match target servlet
-		// 3) created new cache entry which we don't want directly, but it can be useful when accessing
-		//    a servlet through different OSGi context
+		// 3) created new cache entry which we don't need, because the chain is cached in the holder
 
+		_chainCache[dispatch].remove(key);
 		if (chain != null) {
-			_chainCache[dispatch].put(key, chain);
+			int maxSize = getMaxFilterChainsCacheSize();
+			if (maxSize > 0 && cache.size() >= maxSize) {
+				LOG.debug("{} flushed filter chain cache for {}", holder, baseRequest.getDispatcherType());
+				cache.clear();
+			}
+			cache.put(key, chain);
 		}
 
 		return chain;
 	}
 
+	@Override
+	protected void invalidateChainsCache() {
+		super.invalidateChainsCache();
+		if (keepChains) {
+			return;
+		}
+		ServletHolder[] holders = getServlets();
+		if (holders != null) {
+			for (ServletHolder holder : holders) {
+				if (holder instanceof PaxWebServletHolder) {
+					((PaxWebServletHolder) holder).invalidateChainCache();
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>Replaces the filters and filter mappings of this handler, but (unlike separate calls to
+	 * {@link #setFilters(FilterHolder[])} and {@link #setFilterMappings(FilterMapping[])}) clears only these
+	 * cached {@link FilterChain chains}, which may be affected by added or removed filters.</p>
+	 *
+	 * <p>If the relative order of mappings of the filters that are kept has changed (e.g., after ranking change),
+	 * all the chains are invalidated.</p>
+	 *
+	 * @param holders all the filter holders (including the kept ones)
+	 * @param mappings all the mappings in proper order
+	 * @param added holders which were not present before
+	 * @param removed holders which are no longer present
+	 */
+	public void updateFilters(FilterHolder[] holders, FilterMapping[] mappings,
+			Collection<? extends PaxWebFilterHolder> added, Collection<? extends PaxWebFilterHolder> removed) {
+		Set<FilterMapping> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (PaxWebFilterHolder h : added) {
+			if (h.getMapping() != null) {
+				changed.addAll(h.getMapping());
+			}
+		}
+		for (PaxWebFilterHolder h : removed) {
+			if (h.getMapping() != null) {
+				changed.addAll(h.getMapping());
+			}
+		}
+
+		boolean reordered = !keptMappings(getFilterMappings(), changed).equals(keptMappings(mappings, changed));
+
+		keepChains = !reordered;
+		try {
+			setFilters(holders);
+			setFilterMappings(mappings);
+		} finally {
+			keepChains = false;
+		}
+
+		if (reordered) {
+			LOG.debug("Order of filters has changed, invalidating all filter chains");
+			invalidateChainsCache();
+			return;
+		}
+
+		ServletHolder[] servletHolders = getServlets();
+		if (servletHolders == null || changed.isEmpty()) {
+			return;
+		}
+		for (ServletHolder sh : servletHolders) {
+			if (sh instanceof PaxWebServletHolder) {
+				invalidateChains((PaxWebServletHolder) sh, changed);
+			}
+		}
+	}
+
+	private List<FilterMapping> keptMappings(FilterMapping[] mappings, Set<FilterMapping> changed) {
+		List<FilterMapping> result = new ArrayList<>();
+		if (mappings != null) {
+			for (FilterMapping fm : mappings) {
+				if (!changed.contains(fm)) {
+					result.add(fm);
+				}
+			}
+		}
+		// FilterMapping doesn't override equals(), so the lists are compared by identity of the elements
+		return result;
+	}
+
+	/**
+	 * Removes from the cache of given {@link PaxWebServletHolder} these chains which could be affected by any of
+	 * the passed {@link FilterMapping mappings}.
+	 * @param holder
+	 * @param mappings
+	 */
+	private void invalidateChains(PaxWebServletHolder holder, Collection<FilterMapping> mappings) {
+		for (DispatcherType type : DispatcherType.values()) {
+			Map<String, FilterChain> cache = holder.getChainCache(FilterMapping.dispatch(type));
+			if (cache == null || cache.isEmpty()) {
+				continue;
+			}
+			for (FilterMapping fm : mappings) {
+				if (!fm.appliesTo(type)) {
+					continue;
+				}
+				String[] servletNames = fm.getServletNames();
+				if (servletNames != null) {
+					for (String name : servletNames) {
+						if ("*".equals(name) || name.equals(holder.getName())) {
+							cache.clear();
+							break;
+						}
+					}
+				}
+				String[] pathSpecs = fm.getPathSpecs();
+				if (pathSpecs != null && !cache.isEmpty()) {
+					cache.keySet().removeIf(key -> {
+						if (key.equals(holder.getName())) {
+							// named dispatch - only servlet name mappings apply
+							return false;
+						}
+						for (String spec : pathSpecs) {
+							if (ServletPathSpec.match(spec, key, true)) {
+								return true;
+							}
+						}
+						return false;
+					});
+				}
+			}
+		}
+	}
+
 	@Override
 	protected FilterChain newFilterChain(FilterHolder filterHolder, FilterChain chain) {
 		// This is where we can narrow the list of filters, which Jetty decided to map to given servlet
@@ -16,6 +16,9 @@
 package org.ops4j.pax.web.service.jetty.internal;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.servlet.FilterChain;
 import javax.servlet.Servlet;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -24,6 +27,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.UnavailableException;
 
 import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.servlet.FilterMapping;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.servlet.ServletMapping;
 import org.ops4j.pax.web.service.WebContainerContext;
@@ -77,6 +81,23 @@ public class PaxWebServletHolder extends ServletHolder {
 
 	private boolean whiteboardTCCL;
 
+	/**
+	 * Filter chains targeting this holder, indexed by {@link FilterMapping#dispatch(javax.servlet.DispatcherType)}
+	 * and keyed by path in context. Because the holder already determines the {@link OsgiContextModel} and
+	 * {@link WebContainerContext}, there's no need to build context-specific String keys for every request.
+	 * The cache is managed (and invalidated) by {@link PaxWebServletHandler}.
+	 */
+	@SuppressWarnings("unchecked")
+	private final ConcurrentMap<String, FilterChain>[] chainCache = new ConcurrentMap[FilterMapping.ALL + 1];
+
+	{
+		chainCache[FilterMapping.REQUEST] = new ConcurrentHashMap<>();
+		chainCache[FilterMapping.FORWARD] = new ConcurrentHashMap<>();
+		chainCache[FilterMapping.INCLUDE] = new ConcurrentHashMap<>();
+		chainCache[FilterMapping.ERROR] = new ConcurrentHashMap<>();
+		chainCache[FilterMapping.ASYNC] = new ConcurrentHashMap<>();
+	}
+
 	/**
 	 * Constructor to use when wrapping internal {@link Servlet servlets} which won't use OSGi machinery.
 	 *
@@ -159,6 +180,27 @@ public class PaxWebServletHolder extends ServletHolder {
 		return is404;
 	}
 
+	/**
+	 * Returns a cache of {@link FilterChain filter chains} for given dispatch type (as returned from
+	 * {@link FilterMapping#dispatch(javax.servlet.DispatcherType)}).
+	 * @param dispatch
+	 * @return
+	 */
+	ConcurrentMap<String, FilterChain> getChainCache(int dispatch) {
+		return chainCache[dispatch];
+	}
+
+	/**
+	 * Clears all cached {@link FilterChain filter chains} targeting this holder.
+	 */
+	void invalidateChainCache() {
+		for (ConcurrentMap<String, FilterChain> cache : chainCache) {
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+
 	@Override
 	public void doStart() throws Exception {
 		if (servletReference != null) {
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.jetty.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jetty.server.session.AbstractSessionDataStore;
+import org.eclipse.jetty.server.session.SessionData;
+import org.eclipse.jetty.util.ClassLoadingObjectInputStream;
+import org.ops4j.pax.web.service.spi.session.SessionRecord;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Jetty {@link org.eclipse.jetty.server.session.SessionDataStore} which keeps the sessions in Pax Web
+ * {@link SessionStore}. Sessions of each context are stored under {@code <canonical context path>_<vhost>} ID
+ * (like in {@link org.eclipse.jetty.server.session.FileSessionDataStore}).
+ */
+public class PaxWebSessionDataStore extends AbstractSessionDataStore {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PaxWebSessionDataStore.class);
+
+	private final SessionStore store;
+
+	public PaxWebSessionDataStore(SessionStore store) {
+		this.store = store;
+	}
+
+	@Override
+	public boolean isPassivating() {
+		return true;
+	}
+
+	@Override
+	public boolean doExists(String id) throws Exception {
+		SessionRecord record = store.loadHeader(contextId(), id);
+		return record != null && !record.isExpired(System.currentTimeMillis());
+	}
+
+	@Override
+	public void doStore(String id, SessionData data, long lastSaveTime) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeUTF(data.getLastNode() == null ? "" : data.getLastNode());
+			oos.writeLong(data.getCookieSet());
+			oos.writeLong(data.getAccessed());
+			SessionData.serializeAttributes(data, oos);
+		}
+		store.save(contextId(), new SessionRecord(id, data.getCreated(), data.getLastAccessed(),
+				data.getMaxInactiveMs(), data.getExpiry(), baos.toByteArray()));
+	}
+
+	@Override
+	public SessionData doLoad(String id) throws Exception {
+		SessionRecord record = store.load(contextId(), id);
+		if (record == null) {
+			return null;
+		}
+		// called within SessionContext.run(), so TCCL is the context's class loader
+		try (ClassLoadingObjectInputStream ois = new ClassLoadingObjectInputStream(new ByteArrayInputStream(record.getData()))) {
+			String lastNode = ois.readUTF();
+			long cookieSet = ois.readLong();
+			long accessed = ois.readLong();
+			SessionData data = newSessionData(id, record.getCreated(), accessed, record.getLastAccessed(),
+					record.getMaxInactiveMs());
+			data.setLastNode(lastNode);
+			data.setCookieSet(cookieSet);
+			data.setExpiry(record.getExpiry());
+			SessionData.deserializeAttributes(data, ois);
+			return data;
+		}
+	}
+
+	@Override
+	public boolean delete(String id) throws Exception {
+		return store.delete(contextId(), id);
+	}
+
+	@Override
+	public Set<String> doCheckExpired(Set<String> candidates, long time) {
+		Set<String> expired = new HashSet<>();
+		for (String id : candidates) {
+			try {
+				SessionRecord record = store.loadHeader(contextId(), id);
+				if (record == null || record.isExpired(time)) {
+					expired.add(id);
+				}
+			} catch (IOException e) {
+				LOG.warn("Problem checking expiration of session {}: {}", id, e.getMessage());
+			}
+		}
+		return expired;
+	}
+
+	@Override
+	public Set<String> doGetExpired(long time) {
+		try {
+			return store.getExpiredSessionIds(contextId(), time);
+		} catch (IOException e) {
+			LOG.warn("Problem checking expired sessions: {}", e.getMessage());
+			return Collections.emptySet();
+		}
+	}
+
+	@Override
+	public void doCleanOrphans(long time) {
+		try {
+			for (String id : store.getExpiredSessionIds(contextId(), time)) {
+				store.delete(contextId(), id);
+			}
+		} catch (IOException e) {
+			LOG.warn("Problem removing expired sessions: {}", e.getMessage());
+		}
+	}
+
+	private String contextId() {
+		return _context.getCanonicalContextPath() + "_" + _context.getVhost();
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.jetty.internal;
+
+import org.eclipse.jetty.server.session.AbstractSessionDataStoreFactory;
+import org.eclipse.jetty.server.session.SessionDataStore;
+import org.eclipse.jetty.server.session.SessionHandler;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
+
+/**
+ * {@link org.eclipse.jetty.server.session.SessionDataStoreFactory} creating {@link PaxWebSessionDataStore}
+ * for all the contexts, sharing single {@link SessionStore}.
+ */
+public class PaxWebSessionDataStoreFactory extends AbstractSessionDataStoreFactory {
+
+	private final SessionStore store;
+
+	public PaxWebSessionDataStoreFactory(SessionStore store) {
+		this.store = store;
+	}
+
+	public SessionStore getSessionStore() {
+		return store;
+	}
+
+	@Override
+	public SessionDataStore getSessionDataStore(SessionHandler handler) {
+		PaxWebSessionDataStore ds = new PaxWebSessionDataStore(store);
+		ds.setGracePeriodSec(getGracePeriodSec());
+		ds.setSavePeriodSec(getSavePeriodSec());
+		return ds;
+	}
+
+}
@@ -37,13 +37,9 @@ public class PaxWebSessionIdManager extends DefaultSessionIdManager {
 			if (uis instanceof PaxWebServletHolder) {
 				PaxWebServletHolder holder = (PaxWebServletHolder) uis;
 				OsgiContextModel ocm = holder.getOsgiContextModel();
-				// we can't replace '/' to '_' because of how
-				// org.eclipse.jetty.server.session.FileSessionDataStore.initializeStore() analyzes the
-				// session files.
-				if (ocm == null || ocm.getTemporaryLocation() == null) {
-					return "";
-				}
-				return "~" + ocm.getTemporaryLocation().replaceAll("/", "#").replaceAll("_", "#");
+				// precomputed, so no string building for each session lookup
+				String suffix = ocm == null ? null : ocm.getSessionIdSuffix();
+				return suffix == null ? "" : suffix;
 			}
 		}
 		return "";
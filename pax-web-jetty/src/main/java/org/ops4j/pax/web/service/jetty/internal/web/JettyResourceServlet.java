@@ -15,6 +15,7 @@
  */
 package org.ops4j.pax.web.service.jetty.internal.web;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import javax.servlet.ServletContext;
@@ -25,6 +26,7 @@ import org.eclipse.jetty.util.resource.PathResource;
 import org.eclipse.jetty.util.resource.Resource;
 import org.ops4j.pax.web.service.jetty.internal.PaxWebServletContextHandler;
 import org.ops4j.pax.web.service.spi.servlet.OsgiScopedServletContext;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
 import org.ops4j.pax.web.service.spi.util.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,11 +74,20 @@ public class JettyResourceServlet extends DefaultServlet {
 			maxCachedFiles = "2048";
 		}
 
-		LOG.info("Initialized Jetty Resource Servlet for base=\"{}\" with cache maxSize={}kB, maxEntrySize={}kB, maxEntries={}",
+		// large files (not cached by CachedContentFactory) may be sent without copying through user space buffers,
+		// but only when explicitly configured
+		String zeroCopyMinSize = getInitParameter("zeroCopyMinSize");
+		long zeroCopyMin = zeroCopyMinSize == null ? -1L : Long.parseLong(zeroCopyMinSize);
+		if (zeroCopyMin >= 0 && _resourceService.getContentFactory() != null) {
+			_resourceService.setContentFactory(new ZeroCopyContentFactory(_resourceService.getContentFactory(), zeroCopyMin));
+		}
+
+		LOG.info("Initialized Jetty Resource Servlet for base=\"{}\" with cache maxSize={}kB, maxEntrySize={}kB, maxEntries={}, zeroCopyMinSize={}kB",
 				baseUrlResource != null ? baseUrlResource.getPath() : chroot,
 				Integer.parseInt(maxCacheSize) / 1024,
 				Integer.parseInt(maxCachedFileSize) / 1024,
-				maxCachedFiles);
+				maxCachedFiles,
+				zeroCopyMin < 0 ? -1 : zeroCopyMin / 1024);
 	}
 
 	/**
@@ -131,7 +142,22 @@ public class JettyResourceServlet extends DefaultServlet {
 				// HttpContext or ServletContextHelper
 				// before Pax Web 8 there was explicit delegation to HttpContext, but now, it's hidden
 				// under Osgi(Scoped)ServletContext
-				URL url = getServletContext().getResource(chroot + "/" + childPath);
+				ServletContext context = getServletContext();
+				if (context instanceof OsgiScopedServletContext) {
+					// resource metadata shared with other runtimes' resource servlets
+					ResourceCache.Entry entry = ((OsgiScopedServletContext) context).getCachedResource(chroot + "/" + childPath);
+					if (!entry.exists()) {
+						// possibly a compressed variant created on demand
+						File compressed = ((OsgiScopedServletContext) context).getCompressedResource(chroot + "/" + childPath);
+						return compressed == null ? null : new PathResource(compressed);
+					}
+					if (!entry.isDirectory() && !"/".equals(entry.getUrl().getPath())) {
+						// no need to check whether it's a directory
+						return Resource.newResource(entry.getUrl());
+					}
+					return PaxWebServletContextHandler.toJettyResource(entry.getUrl());
+				}
+				URL url = context.getResource(chroot + "/" + childPath);
 
 				return PaxWebServletContextHandler.toJettyResource(url);
 			}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.jetty.internal.web;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.http.CompressedContentFormat;
+import org.eclipse.jetty.http.HttpContent;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.server.CachedContentFactory;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>{@link HttpContent.ContentFactory} that makes large, not cached {@code file:} resources available as memory
+ * mapped {@link ByteBuffer buffers}. {@code org.eclipse.jetty.server.HttpOutput#sendContent(HttpContent)} writes
+ * such buffer directly to the socket channel, so the content of the file doesn't have to be copied through
+ * user space buffers (which happens when sending the content using {@link ReadableByteChannel}).</p>
+ *
+ * <p>Content already cached by {@link CachedContentFactory} is returned unchanged.</p>
+ *
+ * <p>Each file is mapped once and the mapping is shared by all the responses until the file changes (different
+ * length or last modification time) or until the file is evicted from the (LRU) set of mapped files.</p>
+ */
+class ZeroCopyContentFactory implements HttpContent.ContentFactory {
+
+	public static final Logger LOG = LoggerFactory.getLogger(ZeroCopyContentFactory.class);
+
+	/** Maximal number of files kept mapped - evicted buffers are unmapped when garbage collected */
+	private static final int MAX_MAPPED_FILES = 256;
+
+	private final HttpContent.ContentFactory delegate;
+	private final long minSize;
+
+	private final Map<File, MappedFile> mappedFiles = Collections.synchronizedMap(new LinkedHashMap<File, MappedFile>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, MappedFile> eldest) {
+			return size() > MAX_MAPPED_FILES;
+		}
+	});
+
+	/**
+	 * @param delegate
+	 * @param minSize minimal size (in bytes) of the file to be sent using memory mapped buffer
+	 */
+	ZeroCopyContentFactory(HttpContent.ContentFactory delegate, long minSize) {
+		this.delegate = delegate;
+		this.minSize = minSize;
+	}
+
+	@Override
+	public HttpContent getContent(String path, int maxBuffer) throws IOException {
+		HttpContent content = delegate.getContent(path, maxBuffer);
+		if (content == null || content instanceof CachedContentFactory.CachedHttpContent) {
+			return content;
+		}
+		long length = content.getContentLengthValue();
+		if (length < minSize || length > Integer.MAX_VALUE) {
+			return content;
+		}
+		Resource resource = content.getResource();
+		if (resource == null || resource.isDirectory()) {
+			return content;
+		}
+		File file;
+		try {
+			file = resource.getFile();
+		} catch (IOException | UnsupportedOperationException e) {
+			file = null;
+		}
+		if (file == null) {
+			return content;
+		}
+
+		long lastModified = resource.lastModified();
+		MappedFile mapped = mappedFiles.get(file);
+		if (mapped == null || mapped.length != length || mapped.lastModified != lastModified) {
+			mapped = new MappedFile(file, length, lastModified);
+			mappedFiles.put(file, mapped);
+		}
+		return new MappedHttpContent(content, mapped);
+	}
+
+	@Override
+	public String toString() {
+		return "ZeroCopyContentFactory{minSize=" + minSize + ", delegate=" + delegate + "}";
+	}
+
+	/**
+	 * Memory mapped content of a file with given length and last modification time. The file is mapped on
+	 * first use.
+	 */
+	static class MappedFile {
+
+		private final File file;
+		private final long length;
+		private final long lastModified;
+
+		private ByteBuffer buffer;
+		private boolean failed;
+
+		MappedFile(File file, long length, long lastModified) {
+			this.file = file;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Returns read-only view of the mapped buffer, so each response has its own position and limit.
+		 * @return {@code null} if the file can't be mapped
+		 */
+		public synchronized ByteBuffer getBuffer() {
+			if (buffer == null && !failed) {
+				try {
+					buffer = BufferUtil.toMappedBuffer(file.toPath(), 0, length);
+				} catch (IOException | UnsupportedOperationException e) {
+					// content will be sent using ReadableByteChannel
+					LOG.debug("Can't map {}: {}", file, e.getMessage());
+					failed = true;
+				}
+			}
+			return buffer == null ? null : buffer.asReadOnlyBuffer();
+		}
+	}
+
+	/**
+	 * {@link HttpContent} which returns memory mapped buffer of the underlying file instead of {@code null}
+	 * from {@link #getDirectBuffer()} and {@link #getIndirectBuffer()}.
+	 */
+	static class MappedHttpContent implements HttpContent {
+
+		private final HttpContent delegate;
+		private final MappedFile file;
+
+		MappedHttpContent(HttpContent delegate, MappedFile file) {
+			this.delegate = delegate;
+			this.file = file;
+		}
+
+		MappedFile getMappedFile() {
+			return file;
+		}
+
+		@Override
+		public ByteBuffer getDirectBuffer() {
+			ByteBuffer buffer = delegate.getDirectBuffer();
+			return buffer != null ? buffer : file.getBuffer();
+		}
+
+		@Override
+		public ByteBuffer getIndirectBuffer() {
+			ByteBuffer buffer = delegate.getIndirectBuffer();
+			return buffer != null ? buffer : file.getBuffer();
+		}
+
+		@Override
+		public HttpField getContentType() {
+			return delegate.getContentType();
+		}
+
+		@Override
+		public String getContentTypeValue() {
+			return delegate.getContentTypeValue();
+		}
+
+		@Override
+		public String getCharacterEncoding() {
+			return delegate.getCharacterEncoding();
+		}
+
+		@Override
+		public MimeTypes.Type getMimeType() {
+			return delegate.getMimeType();
+		}
+
+		@Override
+		public HttpField getContentEncoding() {
+			return delegate.getContentEncoding();
+		}
+
+		@Override
+		public String getContentEncodingValue() {
+			return delegate.getContentEncodingValue();
+		}
+
+		@Override
+		public HttpField getContentLength() {
+			return delegate.getContentLength();
+		}
+
+		@Override
+		public long getContentLengthValue() {
+			return delegate.getContentLengthValue();
+		}
+
+		@Override
+		public HttpField getLastModified() {
+			return delegate.getLastModified();
+		}
+
+		@Override
+		public String getLastModifiedValue() {
+			return delegate.getLastModifiedValue();
+		}
+
+		@Override
+		public HttpField getETag() {
+			return delegate.getETag();
+		}
+
+		@Override
+		public String getETagValue() {
+			return delegate.getETagValue();
+		}
+
+		@Override
+		public Resource getResource() {
+			return delegate.getResource();
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return delegate.getInputStream();
+		}
+
+		@Override
+		public ReadableByteChannel getReadableByteChannel() throws IOException {
+			return delegate.getReadableByteChannel();
+		}
+
+		@Override
+		public void release() {
+			delegate.release();
+		}
+
+		@Override
+		public Map<CompressedContentFormat, ? extends HttpContent> getPrecompressedContents() {
+			return delegate.getPrecompressedContents();
+		}
+
+		@Override
+		public String toString() {
+			return "MappedHttpContent{" + file.file + "}";
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.jetty.internal.web;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.eclipse.jetty.http.HttpContent;
+import org.eclipse.jetty.util.resource.PathResource;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ZeroCopyContentFactoryTest {
+
+	@Test
+	public void largeFilesAreMapped() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-zero-copy").toFile();
+		File small = new File(dir, "small.txt");
+		Files.write(small.toPath(), new byte[16]);
+		File large = new File(dir, "large.bin");
+		Files.write(large.toPath(), new byte[64 * 1024]);
+
+		HttpContent smallContent = content(small);
+		HttpContent largeContent = content(large);
+		HttpContent.ContentFactory delegate = mock(HttpContent.ContentFactory.class);
+		when(delegate.getContent("/small.txt", 1024)).thenReturn(smallContent);
+		when(delegate.getContent("/large.bin", 1024)).thenReturn(largeContent);
+
+		ZeroCopyContentFactory factory = new ZeroCopyContentFactory(delegate, 1024);
+		assertThat(factory.getContent("/small.txt", 1024), sameInstance(smallContent));
+
+		HttpContent mapped = factory.getContent("/large.bin", 1024);
+		assertThat(mapped, instanceOf(ZeroCopyContentFactory.MappedHttpContent.class));
+		ByteBuffer buffer = mapped.getDirectBuffer();
+		assertThat(buffer.isDirect(), equalTo(true));
+		assertThat(buffer.remaining(), equalTo(64 * 1024));
+		assertThat(mapped.getContentLengthValue(), equalTo(64 * 1024L));
+
+		// the file is mapped once, but each response gets its own view of the buffer
+		buffer.get(new byte[1024]);
+		ByteBuffer buffer2 = factory.getContent("/large.bin", 1024).getDirectBuffer();
+		assertThat(buffer2.remaining(), equalTo(64 * 1024));
+		assertThat(((ZeroCopyContentFactory.MappedHttpContent) factory.getContent("/large.bin", 1024)).getMappedFile(),
+				sameInstance(((ZeroCopyContentFactory.MappedHttpContent) mapped).getMappedFile()));
+	}
+
+	private HttpContent content(File file) {
+		HttpContent content = mock(HttpContent.class);
+		when(content.getContentLengthValue()).thenReturn(file.length());
+		when(content.getResource()).thenReturn(new PathResource(file));
+		return content;
+	}
+
+}
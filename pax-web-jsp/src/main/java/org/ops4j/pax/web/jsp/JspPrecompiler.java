@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.jsp;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+import org.apache.jasper.EmbeddedServletOptions;
+import org.apache.jasper.Options;
+import org.apache.jasper.compiler.JspRuntimeContext;
+import org.apache.jasper.compiler.TldCache;
+import org.apache.jasper.servlet.JspServletWrapper;
+import org.ops4j.pax.web.service.PaxWebConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Compiles all the JSPs of a web application (in parallel, like with {@code JspC -threadCount}), so
+ * {@link JspServlet} only loads up-to-date classes from the {@code scratchdir} when the JSPs are requested.</p>
+ *
+ * <p>This class is used (by name: {@link PaxWebConstants#DEFAULT_JSP_PRECOMPILER_CLASS}) by pax-web-extender-war
+ * after the WAB's model is built, but before it's passed to Pax Web runtime. So the compilation happens in
+ * extender's thread and not in the configuration thread of Pax Web runtime.</p>
+ */
+public final class JspPrecompiler {
+
+	public static final Logger LOG = LoggerFactory.getLogger(JspPrecompiler.class);
+
+	private JspPrecompiler() {
+	}
+
+	/**
+	 * Compiles all the {@code *.jsp} and {@code *.jspx} pages found in the {@link ServletContext} using bounded
+	 * thread pool. The {@link ServletContext} has to provide the resources and the {@link ClassLoader} of the web
+	 * application. If there's no {@link TldCache} in the context, it's populated using {@link JasperInitializer}.
+	 * Compilation uses separate {@link JspRuntimeContext} - the servlets are not loaded.
+	 *
+	 * @param context {@link ServletContext} of the web application being deployed
+	 * @param initParams init parameters of the JSP servlet (with {@code scratchdir})
+	 * @param threads maximum number of compilation threads
+	 * @param removeStaleScratchDirs whether to remove other directories next to the {@code scratchdir} (which
+	 *        contain JSPs compiled for other versions of the WAB)
+	 * @return number of successfully (pre)compiled JSPs
+	 */
+	public static int precompile(ServletContext context, Map<String, String> initParams, int threads,
+			boolean removeStaleScratchDirs) throws ServletException {
+		ClassLoader cl = context.getClassLoader();
+		if (cl == null) {
+			cl = JspPrecompiler.class.getClassLoader();
+		}
+		ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+		try {
+			Thread.currentThread().setContextClassLoader(cl);
+
+			if (removeStaleScratchDirs) {
+				removeStaleScratchDirs(initParams.get("scratchdir"));
+			}
+
+			List<String> jsps = new ArrayList<>();
+			collectJsps(context, "/", jsps);
+			if (jsps.isEmpty()) {
+				return 0;
+			}
+
+			if (context.getAttribute(TldCache.SERVLET_CONTEXT_ATTRIBUTE_NAME) == null) {
+				new JasperInitializer().onStartup(null, context);
+			}
+
+			return precompile(context, new Config(context, initParams), jsps, threads, cl);
+		} finally {
+			Thread.currentThread().setContextClassLoader(tccl);
+		}
+	}
+
+	private static int precompile(ServletContext context, ServletConfig config, List<String> jsps, int threads,
+			ClassLoader cl) {
+		threads = Math.max(1, Math.min(threads, jsps.size()));
+
+		LOG.info("Precompiling {} JSPs of {} using {} thread(s)", jsps.size(), context.getContextPath(), threads);
+		long start = System.currentTimeMillis();
+
+		Options options = new EmbeddedServletOptions(config, context);
+		JspRuntimeContext rctxt = new JspRuntimeContext(context, options);
+		AtomicInteger threadId = new AtomicInteger(0);
+		ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "jsp-precompile-" + threadId.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		int failed = 0;
+		try {
+			List<Future<?>> results = new ArrayList<>(jsps.size());
+			for (String jsp : jsps) {
+				results.add(pool.submit(() -> {
+					ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+					try {
+						Thread.currentThread().setContextClassLoader(cl);
+						// compiles only when the class in scratch dir is outdated
+						new JspServletWrapper(config, options, jsp, rctxt).getJspEngineContext().compile();
+					} finally {
+						Thread.currentThread().setContextClassLoader(tccl);
+					}
+					return null;
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					results.get(i).get();
+				} catch (ExecutionException e) {
+					// the JSP will fail (and will be compiled again) when requested
+					failed++;
+					LOG.warn("Can't precompile {}: {}", jsps.get(i), e.getCause().getMessage());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.warn("JSP precompilation of {} interrupted", context.getContextPath());
+			return 0;
+		} finally {
+			pool.shutdownNow();
+			rctxt.destroy();
+		}
+
+		LOG.info("Precompiled {} JSPs of {} in {}ms{}", jsps.size() - failed, context.getContextPath(),
+				System.currentTimeMillis() - start, failed > 0 ? " (" + failed + " failed)" : "");
+		return jsps.size() - failed;
+	}
+
+	/**
+	 * Removes the siblings of the scratch directory, which contain JSPs compiled for other versions of the WAB.
+	 * @param scratchDir
+	 */
+	private static void removeStaleScratchDirs(String scratchDir) {
+		if (scratchDir == null) {
+			return;
+		}
+		File dir = new File(scratchDir);
+		File[] siblings = dir.getParentFile() == null ? null : dir.getParentFile().listFiles();
+		if (siblings == null) {
+			return;
+		}
+		for (File sibling : siblings) {
+			if (!sibling.getName().equals(dir.getName())) {
+				LOG.debug("Removing stale JSP scratch dir {}", sibling);
+				deleteRecursively(sibling);
+			}
+		}
+	}
+
+	private static void deleteRecursively(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		if (!file.delete() && file.exists()) {
+			LOG.warn("Can't delete {}", file);
+		}
+	}
+
+	private static void collectJsps(ServletContext context, String path, List<String> jsps) {
+		Set<String> paths = context.getResourcePaths(path);
+		if (paths == null) {
+			return;
+		}
+		for (String p : paths) {
+			if (p.endsWith("/")) {
+				// classes, libraries and tag files are not JSPs to compile
+				if (!"/WEB-INF/classes/".equals(p) && !"/WEB-INF/lib/".equals(p)
+						&& !"/WEB-INF/tags/".equals(p) && !"/META-INF/".equals(p)) {
+					collectJsps(context, p, jsps);
+				}
+			} else if (p.endsWith(".jsp") || p.endsWith(".jspx")) {
+				jsps.add(p);
+			}
+		}
+	}
+
+	/**
+	 * {@link ServletConfig} of the JSP servlet, which is not instantiated during precompilation.
+	 */
+	private static final class Config implements ServletConfig {
+
+		private final ServletContext context;
+		private final Map<String, String> initParams;
+
+		Config(ServletContext context, Map<String, String> initParams) {
+			this.context = context;
+			this.initParams = initParams;
+		}
+
+		@Override
+		public String getServletName() {
+			return PaxWebConstants.DEFAULT_JSP_SERVLET_NAME;
+		}
+
+		@Override
+		public ServletContext getServletContext() {
+			return context;
+		}
+
+		@Override
+		public String getInitParameter(String name) {
+			return initParams.get(name);
+		}
+
+		@Override
+		public Enumeration<String> getInitParameterNames() {
+			return Collections.enumeration(initParams.keySet());
+		}
+	}
+
+}
@@ -17,17 +17,20 @@ package org.ops4j.pax.web.jsp;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.servlet.ServletContext;
 
 import org.apache.jasper.servlet.TldScanner;
+import org.apache.tomcat.util.descriptor.tld.TaglibXml;
 import org.apache.tomcat.util.descriptor.tld.TldResourcePath;
 import org.ops4j.pax.web.service.spi.util.Utils;
 import org.ops4j.pax.web.utils.ClassPathUtil;
@@ -38,7 +41,11 @@ import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 /**
- * Version of {@link TldScanner} that know a bit more about OSGi.
+ * <p>Version of {@link TldScanner} that know a bit more about OSGi.</p>
+ *
+ * <p>TLDs found in bundles (pax-web-jsp, the bundle of the context and bundles reachable from it) are parsed
+ * only once per bundle revision and shared between all the contexts using {@link TldDescriptorCache}. TLDs found
+ * through {@link ServletContext} (web.xml and {@code /WEB-INF/}) are parsed for each context.</p>
  */
 public class PaxWebTldScanner extends TldScanner {
 
@@ -98,6 +105,10 @@ public class PaxWebTldScanner extends TldScanner {
 		Bundle paxWebJsp = FrameworkUtil.getBundle(this.getClass());
 
 		List<URL> tlds = new LinkedList<>();
+		// when running outside of OSGi, TLDs from the class path are cached as if they came from a bundle
+		// that never changes
+		long bundleId = -1L;
+		long revision = 0L;
 
 		if (paxWebJsp != null) {
 			// it means that the classloader is org.osgi.framework.BundleReference, so it's loaded in OSGi env
@@ -112,6 +123,8 @@ public class PaxWebTldScanner extends TldScanner {
 				// org.osgi.framework.Bundle.findEntries() will attempt resolution, but we don't want it
 				return;
 			}
+			bundleId = paxWebJsp.getBundleId();
+			revision = TldDescriptorCache.revision(paxWebJsp);
 			Enumeration<URL> e = paxWebJsp.findEntries("/META-INF", "*.tld", true);
 			while (e.hasMoreElements()) {
 				tlds.add(e.nextElement());
@@ -128,7 +141,7 @@ public class PaxWebTldScanner extends TldScanner {
 
 		for (URL tld : tlds) {
 			try {
-				parseTld(new TldResourcePath(tld, null));
+				parseTld(new TldResourcePath(tld, null), bundleId, revision);
 			} catch (SAXException | IOException e) {
 				LOG.warn("Problem parsing TLD at {}", tld);
 			}
@@ -140,13 +153,14 @@ public class PaxWebTldScanner extends TldScanner {
 	 * @param bundle
 	 */
 	private void scanBundle(Bundle bundle) throws IOException {
-		List<URL> tldURLs = new ArrayList<>(16);
+		// TLD URLs with the bundles providing them
+		Map<URL, Bundle> tldURLs = new LinkedHashMap<>(16);
 
 		// First: entries from Bundle-ClassPath - we'll scan them separately, because we want to use Bundle.findEntries()
 		// methods, which checks the fragments, but doesn't check classpath at all
 		URL[] urls = ClassPathUtil.getClassPathURLs(bundle);
 		List<URL> jarTLDs = ClassPathUtil.findEntries(bundle, urls, "META-INF", "*.tld", true);
-		tldURLs.addAll(jarTLDs);
+		jarTLDs.forEach(url -> tldURLs.putIfAbsent(url, bundle));
 
 		// 2nd: scan the bundle itself and its fragments using org.osgi.framework.wiring.BundleWiring.findEntries() API.
 		// This method doesn't involve classloaders. Just as with WABs, I've decided to treat all reachable bundles
@@ -176,20 +190,59 @@ public class PaxWebTldScanner extends TldScanner {
 				}
 			}
 			List<URL> bundleTLDs = ClassPathUtil.findEntries(Collections.singletonList(b), "META-INF", "*.tld", true, false);
-			tldURLs.addAll(bundleTLDs);
+			bundleTLDs.forEach(url -> tldURLs.putIfAbsent(url, b));
 			processedBundles.add(b);
 		}
 
 		// and finally parse all TLDs - the ones from Bundle-ClassPath are parsed first - just as with JavaEE
-		for (URL tld : tldURLs) {
+		Map<Bundle, Long> revisions = new HashMap<>();
+		for (Map.Entry<URL, Bundle> e : tldURLs.entrySet()) {
+			URL tld = e.getKey();
+			Bundle b = e.getValue();
 			try {
-				parseTld(new TldResourcePath(tld, null));
-			} catch (SAXException | IOException e) {
+				long revision = revisions.computeIfAbsent(b, TldDescriptorCache::revision);
+				parseTld(new TldResourcePath(tld, null), b.getBundleId(), revision);
+			} catch (SAXException | IOException ex) {
 				LOG.warn("Problem parsing TLD at {}", tld);
 			}
 		}
 	}
 
+	/**
+	 * Parses a TLD from a bundle or takes already parsed TLD from {@link TldDescriptorCache}.
+	 * @param path
+	 * @param bundleId
+	 * @param revision
+	 */
+	private void parseTld(TldResourcePath path, long bundleId, long revision) throws IOException, SAXException {
+		if (scanned.contains(path.getUrl())) {
+			return;
+		}
+		TldDescriptorCache.Tld tld = TldDescriptorCache.INSTANCE.get(bundleId, revision, path.getUrl());
+		if (tld == null) {
+			LOG.info("Parsing TLD {}", path.getUrl());
+			super.parseTld(path);
+			TaglibXml taglib = getTldResourcePathTaglibXmlMap().get(path);
+			if (taglib != null) {
+				TldDescriptorCache.INSTANCE.put(bundleId, revision, path, taglib);
+			}
+		} else {
+			LOG.debug("Using already parsed TLD {}", path.getUrl());
+			// the same what super.parseTld() does after parsing the TLD
+			TaglibXml taglib = tld.getTaglib();
+			if (taglib.getUri() != null) {
+				getUriTldResourcePathMap().putIfAbsent(taglib.getUri(), tld.getPath());
+			}
+			if (!getTldResourcePathTaglibXmlMap().containsKey(tld.getPath())) {
+				getTldResourcePathTaglibXmlMap().put(tld.getPath(), taglib);
+				if (taglib.getListeners() != null) {
+					getListeners().addAll(taglib.getListeners());
+				}
+			}
+		}
+		scanned.add(path.getUrl());
+	}
+
 	@Override
 	protected void parseTld(TldResourcePath path) throws IOException, SAXException {
 		// super.parseTld() also check org.apache.jasper.servlet.TldScanner.tldResourcePathTaglibXmlMap, but
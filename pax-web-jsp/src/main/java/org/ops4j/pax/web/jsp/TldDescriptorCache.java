@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.jsp;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tomcat.util.descriptor.tld.TaglibXml;
+import org.apache.tomcat.util.descriptor.tld.TldResourcePath;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.namespace.HostNamespace;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+
+/**
+ * <p>Framework-wide cache of parsed TLDs found in bundles (pax-web-jsp itself, taglib bundles and bundles of the
+ * web applications). TLDs are identified by bundle ID, revision of the bundle (its last modification time, including
+ * attached fragments) and the {@link URL} of the TLD, so a TLD is parsed once per bundle revision, no matter how
+ * many contexts use it.</p>
+ *
+ * <p>Cached {@link TaglibXml} and {@link TldResourcePath} instances are shared between
+ * {@link PaxWebTldScanner scanners} of different contexts and are never modified after parsing.</p>
+ *
+ * <p>TLDs of uninstalled bundles are removed using a {@link BundleListener} registered with the context of
+ * pax-web-jsp bundle.</p>
+ */
+class TldDescriptorCache implements BundleListener {
+
+	static final TldDescriptorCache INSTANCE = new TldDescriptorCache();
+
+	private final Map<Key, Tld> tlds = new ConcurrentHashMap<>();
+
+	/** Revision of each bundle for which the TLDs are cached - older revisions are removed */
+	private final Map<Long, Long> revisions = new ConcurrentHashMap<>();
+
+	/** {@link BundleContext} with which this cache is registered as {@link BundleListener} - guarded by {@code this} */
+	private BundleContext listenerContext;
+
+	/**
+	 * Returns a revision of the bundle, which changes when the bundle or one of its fragments is updated.
+	 * @param bundle
+	 * @return
+	 */
+	static long revision(Bundle bundle) {
+		long revision = bundle.getLastModified();
+		BundleWiring wiring = bundle.adapt(BundleWiring.class);
+		if (wiring != null) {
+			List<BundleWire> fragments = wiring.getProvidedWires(HostNamespace.HOST_NAMESPACE);
+			if (fragments != null) {
+				for (BundleWire wire : fragments) {
+					revision = Math.max(revision, wire.getRequirer().getBundle().getLastModified());
+				}
+			}
+		}
+		return revision;
+	}
+
+	/**
+	 * Gets cached TLD
+	 * @param bundleId
+	 * @param revision
+	 * @param url
+	 * @return {@code null} if the TLD wasn't parsed yet for this revision of the bundle
+	 */
+	Tld get(long bundleId, long revision, URL url) {
+		return tlds.get(new Key(bundleId, revision, url.toExternalForm()));
+	}
+
+	/**
+	 * Caches parsed TLD
+	 * @param bundleId
+	 * @param revision
+	 * @param path
+	 * @param taglib
+	 * @return the cached TLD (which may have been cached concurrently)
+	 */
+	Tld put(long bundleId, long revision, TldResourcePath path, TaglibXml taglib) {
+		trackBundles();
+		Long previous = revisions.put(bundleId, revision);
+		if (previous != null && previous != revision) {
+			tlds.keySet().removeIf(k -> k.bundleId == bundleId && k.revision != revision);
+		}
+		Tld tld = new Tld(path, taglib);
+		Tld existing = tlds.putIfAbsent(new Key(bundleId, revision, path.getUrl().toExternalForm()), tld);
+		return existing != null ? existing : tld;
+	}
+
+	@Override
+	public void bundleChanged(BundleEvent event) {
+		if (event.getType() == BundleEvent.UNINSTALLED) {
+			evict(event.getBundle().getBundleId());
+		}
+	}
+
+	/**
+	 * Removes all the TLDs of given bundle
+	 * @param bundleId
+	 */
+	void evict(long bundleId) {
+		revisions.remove(bundleId);
+		tlds.keySet().removeIf(k -> k.bundleId == bundleId);
+	}
+
+	/**
+	 * Ensures that this cache is registered as {@link BundleListener}. When pax-web-jsp bundle is restarted,
+	 * the listener is registered again with new {@link BundleContext}. Outside of OSGi, bundles are not tracked.
+	 */
+	private void trackBundles() {
+		Bundle bundle = FrameworkUtil.getBundle(TldDescriptorCache.class);
+		BundleContext context = bundle == null ? null : bundle.getBundleContext();
+		if (context == null) {
+			return;
+		}
+		synchronized (this) {
+			if (context == listenerContext) {
+				return;
+			}
+			try {
+				context.addBundleListener(this);
+				listenerContext = context;
+			} catch (IllegalStateException ignored) {
+				// pax-web-jsp is being stopped
+			}
+		}
+	}
+
+	int size() {
+		return tlds.size();
+	}
+
+	void clear() {
+		tlds.clear();
+		revisions.clear();
+	}
+
+	/**
+	 * Parsed TLD together with its resource path
+	 */
+	static final class Tld {
+		private final TldResourcePath path;
+		private final TaglibXml taglib;
+
+		Tld(TldResourcePath path, TaglibXml taglib) {
+			this.path = path;
+			this.taglib = taglib;
+		}
+
+		TldResourcePath getPath() {
+			return path;
+		}
+
+		TaglibXml getTaglib() {
+			return taglib;
+		}
+	}
+
+	private static final class Key {
+		private final long bundleId;
+		private final long revision;
+		private final String url;
+
+		Key(long bundleId, long revision, String url) {
+			this.bundleId = bundleId;
+			this.revision = revision;
+			this.url = url;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key key = (Key) o;
+			return bundleId == key.bundleId && revision == key.revision && url.equals(key.url);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(bundleId, revision, url);
+		}
+	}
+
+}
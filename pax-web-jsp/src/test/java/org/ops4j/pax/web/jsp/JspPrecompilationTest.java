@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.jsp;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.descriptor.JspConfigDescriptor;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.jsp.JspFactory;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ops4j.pax.web.service.PaxWebConstants;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.wiring.BundleWiring;
+import org.springframework.core.io.FileSystemResourceLoader;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JspPrecompilationTest {
+
+	private static File scratchDir;
+
+	@BeforeClass
+	public static void initStaticDirectly() throws Exception {
+		JspFactory.setDefaultFactory(new org.apache.jasper.runtime.JspFactoryImpl());
+
+		// <scratch dir>/<bundle id>/<bundle last modified>
+		FileUtils.deleteDirectory(new File("target", "jsp-precompiled"));
+		scratchDir = new File("target", "jsp-precompiled/7/2");
+		scratchDir.mkdirs();
+	}
+
+	@Test
+	public void jspsAreCompiledBeforeDeployment() throws Exception {
+		File simple = new File(scratchDir, "org/apache/jsp/simple_jsp.class");
+		File tagfiles = new File(scratchDir, "org/apache/jsp/tagfiles_jsp.class");
+		// compiled for previous version of the bundle
+		File stale = new File(scratchDir.getParentFile(), "1/org/apache/jsp/simple_jsp.class");
+		stale.getParentFile().mkdirs();
+		assertTrue(stale.createNewFile());
+
+		MockServletContext context = context();
+		int compiled = JspPrecompiler.precompile(context, initParams(), 2, true);
+		assertTrue(compiled > 0);
+		assertTrue(simple.isFile());
+		assertTrue(tagfiles.isFile());
+		assertFalse(new File(scratchDir.getParentFile(), "1").exists());
+		assertTrue(new File(scratchDir, "org/apache/jsp/rt_jsp.class").isFile());
+		assertTrue(new File(scratchDir, "org/apache/jsp/tag/web/text_tag.class").isFile());
+
+		// the servlet (in the context prepared by the runtime) only loads the precompiled class
+		File simpleSource = new File(scratchDir, "org/apache/jsp/simple_jsp.java");
+		assertTrue(simpleSource.delete());
+		JspServlet jspServlet = jspServlet(context());
+		MockHttpServletRequest req = new MockHttpServletRequest(jspServlet.getServletContext());
+		req.setMethod("GET");
+		req.setServletPath("/");
+		req.setPathInfo("simple.jsp");
+		req.setRequestURI("/simple.jsp");
+		req.setAttribute("user", new PaxWebJspTest.User("Grzegorz"));
+		MockHttpServletResponse res = new MockHttpServletResponse();
+		jspServlet.service(req, res);
+		assertThat(res.getStatus(), equalTo(HttpServletResponse.SC_OK));
+		assertTrue(res.getContentAsString().contains("<p id=\"p1\">Welcome Grzegorz"));
+		jspServlet.destroy();
+		assertFalse(simpleSource.exists());
+
+		// second precompilation (like after restart) finds up-to-date classes in the scratch dir, so generated
+		// sources are not created again
+		JspPrecompiler.precompile(context(), initParams(), 2, true);
+		assertTrue(simple.isFile());
+		assertFalse(simpleSource.exists());
+	}
+
+	private Map<String, String> initParams() throws Exception {
+		Map<String, String> params = new HashMap<>();
+		params.put("development", "false");
+		params.put("scratchdir", scratchDir.getCanonicalPath());
+		return params;
+	}
+
+	private MockServletContext context() {
+		MockServletContext context = new MockServletContext("src/test/resources/web", new FileSystemResourceLoader()) {
+			@Override
+			public JspConfigDescriptor getJspConfigDescriptor() {
+				return null;
+			}
+		};
+
+		Bundle bundle = mock(Bundle.class);
+		BundleContext bc = mock(BundleContext.class);
+		BundleWiring bw = mock(BundleWiring.class);
+		when(bc.getBundle()).thenReturn(bundle);
+		when(bundle.getBundleContext()).thenReturn(bc);
+		when(bundle.adapt(BundleWiring.class)).thenReturn(bw);
+		context.setAttribute(PaxWebConstants.CONTEXT_PARAM_BUNDLE_CONTEXT, bc);
+		return context;
+	}
+
+	private JspServlet jspServlet(MockServletContext context) throws Exception {
+		new JasperInitializer().onStartup(null, context);
+
+		JspServlet jspServlet = new JspServlet();
+		MockServletConfig config = new MockServletConfig(context, "jsp");
+		initParams().forEach(config::addInitParameter);
+		jspServlet.init(config);
+		return jspServlet;
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.jsp;
+
+import java.net.URL;
+import javax.servlet.descriptor.JspConfigDescriptor;
+
+import org.apache.tomcat.util.descriptor.tld.TaglibXml;
+import org.apache.tomcat.util.descriptor.tld.TldResourcePath;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.wiring.BundleWiring;
+import org.springframework.core.io.FileSystemResourceLoader;
+import org.springframework.mock.web.MockServletContext;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TldDescriptorCacheTest {
+
+	@Test
+	public void parsedTldsAreSharedBetweenContexts() throws Exception {
+		TldDescriptorCache.INSTANCE.clear();
+
+		PaxWebTldScanner scanner1 = scanner();
+		scanner1.scan();
+		int cached = TldDescriptorCache.INSTANCE.size();
+		assertTrue(cached > 0);
+
+		PaxWebTldScanner scanner2 = scanner();
+		scanner2.scan();
+		assertThat(TldDescriptorCache.INSTANCE.size(), equalTo(cached));
+
+		// JSTL core library
+		TldResourcePath path1 = scanner1.getUriTldResourcePathMap().get("http://java.sun.com/jsp/jstl/core");
+		TldResourcePath path2 = scanner2.getUriTldResourcePathMap().get("http://java.sun.com/jsp/jstl/core");
+		assertThat(path1, notNullValue());
+		assertThat(path2, sameInstance(path1));
+		assertThat(scanner2.getTldResourcePathTaglibXmlMap().get(path2),
+				sameInstance(scanner1.getTldResourcePathTaglibXmlMap().get(path1)));
+		assertThat(scanner2.getListeners(), equalTo(scanner1.getListeners()));
+	}
+
+	@Test
+	public void newRevisionOfBundleReplacesCachedTlds() throws Exception {
+		TldDescriptorCache cache = new TldDescriptorCache();
+		URL url = new URL("file:/tmp/c.tld");
+		TldResourcePath path = new TldResourcePath(url, null);
+		TaglibXml taglib = new TaglibXml();
+
+		assertThat(cache.put(42L, 1L, path, taglib).getTaglib(), sameInstance(taglib));
+		assertThat(cache.get(42L, 1L, url).getPath(), sameInstance(path));
+		assertThat(cache.get(42L, 2L, url), nullValue());
+
+		cache.put(42L, 2L, path, new TaglibXml());
+		assertThat(cache.get(42L, 1L, url), nullValue());
+		assertThat(cache.size(), equalTo(1));
+	}
+
+	@Test
+	public void tldsOfUninstalledBundleAreRemoved() throws Exception {
+		TldDescriptorCache cache = new TldDescriptorCache();
+		URL url = new URL("file:/tmp/c.tld");
+		cache.put(42L, 1L, new TldResourcePath(url, null), new TaglibXml());
+		cache.put(43L, 1L, new TldResourcePath(url, null), new TaglibXml());
+
+		Bundle bundle = mock(Bundle.class);
+		when(bundle.getBundleId()).thenReturn(42L);
+		cache.bundleChanged(new BundleEvent(BundleEvent.STOPPED, bundle));
+		assertThat(cache.size(), equalTo(2));
+		cache.bundleChanged(new BundleEvent(BundleEvent.UNINSTALLED, bundle));
+		assertThat(cache.get(42L, 1L, url), nullValue());
+		assertThat(cache.get(43L, 1L, url), notNullValue());
+	}
+
+	private PaxWebTldScanner scanner() {
+		MockServletContext context = new MockServletContext("src/test/resources/web", new FileSystemResourceLoader()) {
+			@Override
+			public JspConfigDescriptor getJspConfigDescriptor() {
+				return null;
+			}
+		};
+		Bundle bundle = mock(Bundle.class);
+		when(bundle.adapt(BundleWiring.class)).thenReturn(mock(BundleWiring.class));
+		return new PaxWebTldScanner(context, bundle);
+	}
+
+}
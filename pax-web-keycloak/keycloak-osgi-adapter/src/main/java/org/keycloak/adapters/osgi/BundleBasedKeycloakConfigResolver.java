@@ -24,6 +24,7 @@ import org.osgi.framework.BundleContext;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
@@ -31,7 +32,7 @@ import java.net.URL;
 public class BundleBasedKeycloakConfigResolver implements KeycloakConfigResolver {
 
 
-	private volatile KeycloakDeployment cachedDeployment;
+	private final AtomicReference<KeycloakDeployment> cachedDeployment = new AtomicReference<>();
 
 	private BundleContext bundleContext;
 	private String configLocation = "WEB-INF/keycloak.json";
@@ -54,12 +55,14 @@ public class BundleBasedKeycloakConfigResolver implements KeycloakConfigResolver
 
 	@Override
 	public KeycloakDeployment resolve(HttpFacade.Request request) {
-		if (cachedDeployment != null) {
-			return cachedDeployment;
-		} else {
-			cachedDeployment = findDeployment(request);
-			return cachedDeployment;
+		KeycloakDeployment deployment = cachedDeployment.get();
+		if (deployment != null) {
+			return deployment;
 		}
+		// no locking - concurrent first requests may build the deployment more than once, but all of them
+		// use the one which was set first
+		deployment = findDeployment(request);
+		return cachedDeployment.compareAndSet(null, deployment) ? deployment : cachedDeployment.get();
 	}
 
 	protected KeycloakDeployment findDeployment(HttpFacade.Request request) {
@@ -72,8 +75,7 @@ public class BundleBasedKeycloakConfigResolver implements KeycloakConfigResolver
 			throw new IllegalStateException("Failed to find the file " + configLocation + " on classpath.");
 		}
 
-		try {
-			InputStream is = url.openStream();
+		try (InputStream is = url.openStream()) {
 			return KeycloakDeploymentBuilder.build(is);
 		} catch (IOException ioe) {
 			throw new IllegalStateException("Error reading file' " + configLocation + "' from bundle classpath.", ioe);
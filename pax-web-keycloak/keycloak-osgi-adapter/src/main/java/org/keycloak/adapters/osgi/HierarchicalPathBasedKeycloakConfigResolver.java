@@ -35,8 +35,8 @@ public class HierarchicalPathBasedKeycloakConfigResolver extends PathBasedKeyclo
 
 	@Override
 	public KeycloakDeployment resolve(OIDCHttpFacade.Request request) {
-		// we cached all available deployments initially and now we'll try to check them from
-		// most specific to most general
+		// we cached all available deployments initially (and they're reloaded in background when the files
+		// change) and now we'll try to check them from most specific to most general - without locking
 		URI uri = URI.create(request.getURI());
 		String path = uri.getPath();
 		if (path != null) {
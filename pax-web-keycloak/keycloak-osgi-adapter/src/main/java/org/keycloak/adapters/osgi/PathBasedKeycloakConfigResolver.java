@@ -26,16 +26,35 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * <p>{@link KeycloakConfigResolver} which selects {@code <context>-keycloak.json} file from the directory
+ * specified by {@code keycloak.config} or {@code karaf.etc} system property, based on first path segment of
+ * the request URI.</p>
+ *
+ * <p>Deployments are resolved without locking - once loaded, a deployment is simply taken from a concurrent
+ * map. Configuration files are watched using {@link WatchService}, so changed (or new) files are loaded again
+ * in background and deployments of deleted files are removed.</p>
+ */
 public class PathBasedKeycloakConfigResolver implements KeycloakConfigResolver {
 
 	protected static final Logger LOG = LoggerFactory.getLogger(PathBasedKeycloakConfigResolver.class);
 
+	private static final String SUFFIX = "keycloak.json";
+
 	private final Map<String, KeycloakDeployment> cache = new ConcurrentHashMap<>();
 
 	private File keycloakConfigLocation = null;
@@ -55,6 +74,7 @@ public class PathBasedKeycloakConfigResolver implements KeycloakConfigResolver {
 			File loc = new File(location);
 			if (loc.isDirectory()) {
 				keycloakConfigLocation = loc;
+				watch(loc);
 			}
 		}
 	}
@@ -73,27 +93,29 @@ public class PathBasedKeycloakConfigResolver implements KeycloakConfigResolver {
 	 * @param pathFragment
 	 * @return
 	 */
-	protected synchronized KeycloakDeployment getOrCreateDeployment(String pathFragment) {
+	protected KeycloakDeployment getOrCreateDeployment(String pathFragment) {
 		KeycloakDeployment deployment = getCachedDeployment(pathFragment);
-		if (null == deployment) {
-			// not found on the simple cache, try to load it from the file system
-			if (keycloakConfigLocation == null) {
-				throw new IllegalStateException("Neither \"keycloak.config\" nor \"karaf.etc\" java properties are set." +
-						" Please set one of them.");
-			}
+		if (deployment != null) {
+			return deployment;
+		}
 
-			File configuration = new File(keycloakConfigLocation, pathFragment + ("".equals(pathFragment) ? "" : "-")
-					+ "keycloak.json");
-			if (!cacheConfiguration(pathFragment, configuration)) {
+		// not found on the simple cache, try to load it from the file system. Only the threads requesting
+		// the same (missing) deployment wait for each other
+		if (keycloakConfigLocation == null) {
+			throw new IllegalStateException("Neither \"keycloak.config\" nor \"karaf.etc\" java properties are set." +
+					" Please set one of them.");
+		}
+		return cache.computeIfAbsent(pathFragment, key -> {
+			File configuration = new File(keycloakConfigLocation, key + ("".equals(key) ? "" : "-") + SUFFIX);
+			KeycloakDeployment loaded = load(configuration);
+			if (loaded == null) {
 				throw new IllegalStateException("Not able to read the file " + configuration);
 			}
-			deployment = getCachedDeployment(pathFragment);
-		}
-
-		return deployment;
+			return loaded;
+		});
 	}
 
-	protected synchronized KeycloakDeployment getCachedDeployment(String pathFragment) {
+	protected KeycloakDeployment getCachedDeployment(String pathFragment) {
 		return cache.get(pathFragment);
 	}
 
@@ -110,32 +132,132 @@ public class PathBasedKeycloakConfigResolver implements KeycloakConfigResolver {
 		File[] configs = keycloakConfigLocation.listFiles(new FileFilter() {
 			@Override
 			public boolean accept(File pathname) {
-				return pathname.isFile() && pathname.getName().endsWith("keycloak.json");
+				return pathname.isFile() && pathname.getName().endsWith(SUFFIX);
 			}
 		});
 		if (configs != null) {
 			for (File config: configs) {
-				String pathFragment = null;
-				if ("keycloak.json".equals(config.getName())) {
-					pathFragment = "";
-				} else if (config.getName().endsWith("-keycloak.json")) {
-					pathFragment = config.getName()
-							.substring(0, config.getName().length() - "-keycloak.json".length());
+				String pathFragment = pathFragment(config.getName());
+				if (pathFragment != null) {
+					cacheConfiguration(pathFragment, config);
 				}
-				cacheConfiguration(pathFragment, config);
 			}
 		}
 	}
 
+	/**
+	 * Returns a key of the deployment for given configuration file name
+	 * @param fileName
+	 * @return {@code null} if the name is not a name of Keycloak configuration file
+	 */
+	private static String pathFragment(String fileName) {
+		if (SUFFIX.equals(fileName)) {
+			return "";
+		} else if (fileName.endsWith("-" + SUFFIX)) {
+			return fileName.substring(0, fileName.length() - SUFFIX.length() - 1);
+		}
+		return null;
+	}
+
 	private boolean cacheConfiguration(String key, File config) {
-		try {
-			InputStream is = new FileInputStream(config);
-			KeycloakDeployment deployment = KeycloakDeploymentBuilder.build(is);
+		KeycloakDeployment deployment = load(config);
+		if (deployment != null) {
 			cache.put(key, deployment);
 			return true;
-		} catch (FileNotFoundException | RuntimeException e) {
+		}
+		return false;
+	}
+
+	private KeycloakDeployment load(File config) {
+		try (InputStream is = new FileInputStream(config)) {
+			return KeycloakDeploymentBuilder.build(is);
+		} catch (IOException | RuntimeException e) {
 			LOG.warn("Can't cache " + config + ": " + e.getMessage(), e);
-			return false;
+			return null;
+		}
+	}
+
+	/**
+	 * Starts a daemon thread which reloads configurations changed in the directory. The thread references this
+	 * resolver weakly, so it stops when the resolver is no longer used.
+	 * @param directory
+	 */
+	private void watch(File directory) {
+		WatchService ws;
+		try {
+			ws = directory.toPath().getFileSystem().newWatchService();
+			directory.toPath().register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (IOException | UnsupportedOperationException e) {
+			LOG.warn("Can't watch Keycloak configurations in {}: {}", directory, e.getMessage());
+			return;
+		}
+		WeakReference<PathBasedKeycloakConfigResolver> ref = new WeakReference<>(this);
+		Thread watcher = new Thread(() -> watch(ws, ref), "keycloak-config-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	private static void watch(WatchService ws, WeakReference<PathBasedKeycloakConfigResolver> ref) {
+		try {
+			while (ref.get() != null) {
+				WatchKey key = ws.poll(1, TimeUnit.SECONDS);
+				if (key == null) {
+					continue;
+				}
+				PathBasedKeycloakConfigResolver resolver = ref.get();
+				if (resolver == null) {
+					break;
+				}
+				Path directory = (Path) key.watchable();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						// reload what's cached
+						for (String pathFragment : resolver.cache.keySet()) {
+							File config = new File(directory.toFile(), pathFragment
+									+ ("".equals(pathFragment) ? "" : "-") + SUFFIX);
+							resolver.reload(pathFragment, config);
+						}
+						continue;
+					}
+					String fileName = event.context().toString();
+					String pathFragment = pathFragment(fileName);
+					if (pathFragment != null) {
+						resolver.reload(pathFragment, directory.resolve(fileName).toFile());
+					}
+				}
+				resolver = null;
+				if (!key.reset()) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException ignored) {
+			// closed
+		} finally {
+			try {
+				ws.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	/**
+	 * Replaces (or removes) cached deployment after configuration file was changed. If the file can't be
+	 * read (for example because it's not completely written yet), previous deployment is kept.
+	 * @param pathFragment
+	 * @param config
+	 */
+	private void reload(String pathFragment, File config) {
+		if (!config.isFile()) {
+			if (cache.remove(pathFragment) != null) {
+				LOG.info("Keycloak configuration {} was removed", config);
+			}
+			return;
+		}
+		if (cacheConfiguration(pathFragment, config)) {
+			LOG.info("Keycloak configuration {} was (re)loaded", config);
 		}
 	}
 
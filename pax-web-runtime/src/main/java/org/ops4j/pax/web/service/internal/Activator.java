@@ -52,6 +52,8 @@ import org.ops4j.pax.web.service.spi.model.events.ServerEvent;
 import org.ops4j.pax.web.service.spi.model.events.ServerListener;
 import org.ops4j.pax.web.service.spi.model.events.WebApplicationEventListener;
 import org.ops4j.pax.web.service.spi.model.events.WebElementEventListener;
+import org.ops4j.pax.web.service.spi.servlet.OsgiServletContextClassLoader;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
 import org.ops4j.pax.web.service.spi.util.NamedThreadFactory;
 import org.ops4j.pax.web.service.spi.util.Utils;
 import org.ops4j.util.property.DictionaryPropertyResolver;
@@ -59,6 +61,8 @@ import org.ops4j.util.property.PropertyResolver;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
 import org.osgi.framework.Constants;
 import org.osgi.framework.Filter;
 import org.osgi.framework.ServiceFactory;
@@ -159,6 +163,12 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 
 	private final AtomicBoolean initialConfigSet = new AtomicBoolean(false);
 
+	/**
+	 * Listener invalidating {@link ResourceCache resource caches} when bundles are updated and negative caches of
+	 * {@link OsgiServletContextClassLoader} when bundle wiring changes
+	 */
+	private BundleListener resourceCacheInvalidator;
+
 	/**
 	 * Global, single instance of {@link ServerModel} recreated together with each (re)registration of
 	 * {@link HttpService}.
@@ -184,6 +194,24 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 		serverListenerTracker = new ServiceTracker<>(bundleContext, ServerListener.class, new ServerListenerCustomizer());
 		serverListenerTracker.open();
 
+		resourceCacheInvalidator = event -> {
+			switch (event.getType()) {
+				case BundleEvent.UPDATED:
+				case BundleEvent.UNRESOLVED:
+				case BundleEvent.UNINSTALLED:
+					ResourceCache.invalidateBundle(event.getBundle().getBundleId());
+					OsgiServletContextClassLoader.wiringChanged();
+					break;
+				case BundleEvent.RESOLVED:
+					// newly resolved bundle may satisfy DynamicImport-Package of other bundles
+					OsgiServletContextClassLoader.wiringChanged();
+					break;
+				default:
+					break;
+			}
+		};
+		context.addBundleListener(resourceCacheInvalidator);
+
 		if (Utils.isConfigurationAdminAvailable(this.getClass())) {
 			// ManagedService for org.ops4j.pax.web PID monitoring, so configuration won't happen yet
 			// (for example in FelixStartLevel thread), but only after Configuration Admin notifies us
@@ -231,6 +259,10 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 			serverListenerTracker.close();
 			serverListenerTracker = null;
 		}
+		if (resourceCacheInvalidator != null) {
+			context.removeBundleListener(resourceCacheInvalidator);
+			resourceCacheInvalidator = null;
+		}
 		if (serverControllerFactoryTracker != null) {
 			serverControllerFactoryTracker.close();
 			serverControllerFactoryTracker = null;
@@ -541,6 +573,7 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 			//  - in all bundle-scoped instances of HttpServiceEnabled
 			//  - also to reflect Whiteboard registrations (through pax-web-extender-whiteboard)
 			serverModel = new ServerModel(runtimeExecutor, registrationThreadId);
+			serverModel.setChangeCountInterval(configuration.server().getChangeCountInterval());
 
 			// create a controller object to operate on any supported web server
 			serverController = serverControllerFactory.createServerController(configuration);
@@ -554,10 +587,19 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 			LOG.info("Starting server controller {}", serverController.getClass().getName());
 			serverController.start();
 
+			// controller used by HttpService/WebContainer instances (and all the views) to send the batches
+			ServerController batchController = serverController;
+			if (configuration.server().isGroupCommit()) {
+				GroupCommitServerController groupCommitController
+						= new GroupCommitServerController(serverController, serverModel);
+				serverModel.setGroupCommit(true, groupCommitController::commit);
+				batchController = groupCommitController;
+			}
+
 			// this is where org.osgi.service.http.HttpService bundle-scoped service is registered in OSGi
 			// this is the most fundamental operation related to Http Service specification
 			Dictionary<String, Object> props = determineServiceProperties(configuration);
-			ServiceFactory<StoppableHttpService> factory = new StoppableHttpServiceFactory(serverController, serverModel,
+			ServiceFactory<StoppableHttpService> factory = new StoppableHttpServiceFactory(batchController, serverModel,
 					webElementEventDispatcher) {
 				@Override
 				StoppableHttpService createService(Bundle bundle, ServerController serverController,
@@ -678,6 +720,8 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 		setProperty(properties, PaxWebConfig.PID_CFG_SERVER_THREAD_NAME_PREFIX, sc.getServerThreadNamePrefix());
 		setProperty(properties, PaxWebConfig.PID_CFG_SHOW_STACKS, sc.isShowStacks());
 		setProperty(properties, PaxWebConfig.PID_CFG_EVENT_DISPATCHER_THREAD_COUNT, sc.getEventDispatcherThreadCount());
+		setProperty(properties, PaxWebConfig.PID_CFG_CHANGE_COUNT_INTERVAL, sc.getChangeCountInterval());
+		setProperty(properties, PaxWebConfig.PID_CFG_GROUP_COMMIT, sc.isGroupCommit());
 		setProperty(properties, PaxWebConfig.PID_CFG_HTTP_CHECK_FORWARDED_HEADERS, sc.checkForwardedHeaders());
 		setProperty(properties, PaxWebConfig.PID_CFG_TEMP_DIR, sc.getTemporaryDirectory());
 		setProperty(properties, PaxWebConfig.PID_CFG_HTTP_CHECK_FORWARDED_HEADERS, sc.checkForwardedHeaders());
@@ -707,6 +751,10 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_URL, sess.getSessionUrlPathParameter());
 		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_WORKER_NAME, sess.getSessionWorkerName());
 		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_STORE_DIRECTORY, sess.getSessionStoreDirectoryLocation());
+		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_STORE_TYPE, sess.getSessionStoreType());
+		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_STORE_WRITE_BEHIND, sess.getSessionStoreWriteBehind());
+		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_STORE_BATCH_SIZE, sess.getSessionStoreBatchSize());
+		setProperty(properties, PaxWebConfig.PID_CFG_SESSION_STORE_CACHE_SIZE, sess.getSessionStoreCacheSize());
 
 		ResourceConfiguration res = configuration.resources();
 //		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_ACCEPT_RANGES, res.acceptRanges());
@@ -716,9 +764,15 @@ public class Activator implements BundleActivator, PaxWebManagedService.Configur
 //		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_CACHE_MAX_ENTRY_SIZE, res.maxCacheEntrySize());
 //		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_CACHE_MAX_ENTRIES, res.maxTotalCacheSize());
 //		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_CACHE_TTL, res.maxCacheTTL());
+//		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_ZERO_COPY_MIN_SIZE, res.zeroCopyMinSize());
+//		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_PRECOMPRESSED, res.precompressed());
+//		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_COMPRESSION, res.compression());
+//		setProperty(toPropagate, PaxWebConfig.PID_CFG_DEFAULT_SERVLET_COMPRESSION_CACHE_MAX_SIZE, res.compressionCacheMaxSize());
 
 		JspConfiguration jsp = configuration.jsp();
 		setProperty(properties, PaxWebConfig.PID_CFG_JSP_SCRATCH_DIR, jsp.getGloablJspScratchDir());
+		setProperty(properties, PaxWebConfig.PID_CFG_JSP_PRECOMPILATION, jsp.isJspPrecompilation());
+		setProperty(properties, PaxWebConfig.PID_CFG_JSP_PRECOMPILATION_THREADS, jsp.getJspPrecompilationThreads());
 
 		SecurityConfiguration sec = configuration.security();
 		setProperty(properties, PaxWebConfig.PID_CFG_SSL_PROVIDER, sec.getSslProvider());
@@ -39,6 +39,7 @@ import org.ops4j.pax.web.service.spi.servlet.DefaultSessionCookieConfig;
 import org.ops4j.pax.web.service.spi.util.Utils;
 import org.ops4j.util.property.PropertyResolver;
 import org.ops4j.util.property.PropertyStore;
+import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -242,6 +243,10 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 
 		private final int eventDispatcherThreadCount;
 
+		private final int changeCountInterval;
+
+		private final boolean groupCommit;
+
 		private final boolean showStacks;
 
 		private final String[] virtualHosts;
@@ -317,6 +322,10 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 			}
 			Integer eventDispatcherThreadCount = resolveIntegerProperty(PaxWebConfig.PID_CFG_EVENT_DISPATCHER_THREAD_COUNT);
 			this.eventDispatcherThreadCount = eventDispatcherThreadCount == null ? 1 : eventDispatcherThreadCount;
+			Integer changeCountInterval = resolveIntegerProperty(PaxWebConfig.PID_CFG_CHANGE_COUNT_INTERVAL);
+			this.changeCountInterval = changeCountInterval == null ? 100 : Math.max(0, changeCountInterval);
+			Boolean groupCommit = resolveBooleanProperty(PaxWebConfig.PID_CFG_GROUP_COMMIT);
+			this.groupCommit = groupCommit != null && groupCommit;
 
 			Boolean stacks = resolveBooleanProperty(PaxWebConfig.PID_CFG_SHOW_STACKS);
 			showStacks = stacks != null && stacks;
@@ -430,6 +439,16 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 			return this.eventDispatcherThreadCount;
 		}
 
+		@Override
+		public Integer getChangeCountInterval() {
+			return this.changeCountInterval;
+		}
+
+		@Override
+		public Boolean isGroupCommit() {
+			return this.groupCommit;
+		}
+
 		@Override
 		public Boolean isShowStacks() {
 			return showStacks;
@@ -751,6 +770,27 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 		public Integer maxCacheTTL() {
 			return resolveIntegerProperty(PaxWebConfig.PID_CFG_DEFAULT_SERVLET_CACHE_TTL);
 		}
+
+		@Override
+		public Integer zeroCopyMinSize() {
+			return resolveIntegerProperty(PaxWebConfig.PID_CFG_DEFAULT_SERVLET_ZERO_COPY_MIN_SIZE);
+		}
+
+		@Override
+		public String precompressed() {
+			return resolveStringProperty(PaxWebConfig.PID_CFG_DEFAULT_SERVLET_PRECOMPRESSED);
+		}
+
+		@Override
+		public Boolean compression() {
+			Boolean compression = resolveBooleanProperty(PaxWebConfig.PID_CFG_DEFAULT_SERVLET_COMPRESSION);
+			return compression != null && compression;
+		}
+
+		@Override
+		public Integer compressionCacheMaxSize() {
+			return resolveIntegerProperty(PaxWebConfig.PID_CFG_DEFAULT_SERVLET_COMPRESSION_CACHE_MAX_SIZE);
+		}
 	}
 
 	private class SessionConfigurationImpl implements SessionConfiguration {
@@ -887,6 +927,30 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 			return result;
 		}
 
+		@Override
+		public String getSessionStoreType() {
+			String type = resolveStringProperty(PaxWebConfig.PID_CFG_SESSION_STORE_TYPE);
+			return type == null || "".equals(type.trim()) ? "native" : type.trim();
+		}
+
+		@Override
+		public Integer getSessionStoreWriteBehind() {
+			Integer writeBehind = resolveIntegerProperty(PaxWebConfig.PID_CFG_SESSION_STORE_WRITE_BEHIND);
+			return writeBehind == null ? 0 : writeBehind;
+		}
+
+		@Override
+		public Integer getSessionStoreBatchSize() {
+			Integer batchSize = resolveIntegerProperty(PaxWebConfig.PID_CFG_SESSION_STORE_BATCH_SIZE);
+			return batchSize == null ? 128 : batchSize;
+		}
+
+		@Override
+		public Integer getSessionStoreCacheSize() {
+			Integer cacheSize = resolveIntegerProperty(PaxWebConfig.PID_CFG_SESSION_STORE_CACHE_SIZE);
+			return cacheSize == null ? 1024 : cacheSize;
+		}
+
 		@Override
 		public SessionCookieConfig getDefaultSessionCookieConfig() {
 			return defaultSessionCookieConfig;
@@ -990,6 +1054,10 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 		@Override
 		public String getJspScratchDir(OsgiContextModel context) {
 			if (globalScratchDir != null) {
+				Bundle wab = context.isWab() ? context.getOwnerBundle() : null;
+				if (wab != null && Boolean.TRUE.equals(isJspPrecompilation())) {
+					return getBundleScratchDir(wab);
+				}
 				return globalScratchDir;
 			}
 			File dir = new File(serverConfig.getTemporaryDirectory(), "jsp/" + context.getTemporaryLocation());
@@ -1006,6 +1074,32 @@ public class ConfigurationImpl extends PropertyStore implements Configuration {
 		public String getGloablJspScratchDir() {
 			return globalScratchDir;
 		}
+
+		@Override
+		public Boolean isJspPrecompilation() {
+			Boolean precompilation = resolveBooleanProperty(PaxWebConfig.PID_CFG_JSP_PRECOMPILATION);
+			return precompilation != null && precompilation;
+		}
+
+		@Override
+		public Integer getJspPrecompilationThreads() {
+			return resolveIntegerProperty(PaxWebConfig.PID_CFG_JSP_PRECOMPILATION_THREADS);
+		}
+
+		/**
+		 * JSPs of a WAB are compiled into {@code <global scratch dir>/<bundle id>/<bundle last modified>}, so
+		 * when the same WAB is deployed again (for example after restart), Jasper finds up-to-date classes and
+		 * doesn't have to compile anything. Directories for previous versions of the WAB are removed by
+		 * {@code org.ops4j.pax.web.jsp.JspPrecompiler} before precompilation.
+		 * @param wab
+		 * @return
+		 */
+		private String getBundleScratchDir(Bundle wab) {
+			File dir = new File(new File(globalScratchDir, Long.toString(wab.getBundleId())),
+					Long.toString(wab.getLastModified()));
+			dir.mkdirs();
+			return dir.getAbsolutePath();
+		}
 	}
 
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.internal;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.servlet.Servlet;
+
+import org.ops4j.pax.web.service.spi.ServerController;
+import org.ops4j.pax.web.service.spi.ServerState;
+import org.ops4j.pax.web.service.spi.config.Configuration;
+import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
+import org.ops4j.pax.web.service.spi.model.ServerModel;
+import org.ops4j.pax.web.service.spi.model.events.ServerListener;
+import org.ops4j.pax.web.service.spi.task.Batch;
+import org.ops4j.pax.web.service.spi.task.Change;
+import org.ops4j.pax.web.service.spi.task.ErrorPageStateChange;
+import org.ops4j.pax.web.service.spi.task.FilterStateChange;
+import org.ops4j.pax.web.service.spi.task.OpCode;
+import org.ops4j.pax.web.service.spi.task.ServletContextModelChange;
+import org.ops4j.pax.web.service.spi.task.TransactionStateChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>{@link ServerController} used when {@link ServerModel} executes registration tasks in groups. Batches sent
+ * during a group are wrapped in <em>transactions</em> (the same which are used for WABs) for the affected
+ * contexts, so target runtime delays (re)start of the contexts until the end of the group. This means that
+ * registration of many servlets queued together leads to single (re)start of a context, instead of one restart
+ * per servlet.</p>
+ *
+ * <p>Outside of the group, batches are passed to the target controller unchanged. Batches which remove or
+ * disable elements (or manage own transactions) commit the open group transactions first.</p>
+ */
+class GroupCommitServerController implements ServerController {
+
+	private static final Logger LOG = LoggerFactory.getLogger(GroupCommitServerController.class);
+
+	private final ServerController delegate;
+	private final ServerModel serverModel;
+
+	/** Context paths with open group transaction - accessed only in configuration thread */
+	private final Set<String> transactions = new LinkedHashSet<>();
+
+	GroupCommitServerController(ServerController delegate, ServerModel serverModel) {
+		this.delegate = delegate;
+		this.serverModel = serverModel;
+	}
+
+	@Override
+	public void sendBatch(Batch batch) {
+		if (!serverModel.isGroupInProgress()) {
+			delegate.sendBatch(batch);
+			return;
+		}
+
+		// only batches which add new elements may join group transactions. Removals (which are delayed within
+		// transactions) or context-level changes should see all previous changes committed, so these are
+		// processed as without the group
+		boolean barrier = false;
+		// contexts which begin own transaction (like WABs) in this batch
+		Set<String> excluded = new LinkedHashSet<>();
+		Set<String> affected = new LinkedHashSet<>();
+		for (Change change : batch.getOperations()) {
+			if (change instanceof TransactionStateChange) {
+				excluded.add(((TransactionStateChange) change).getContextPath());
+			} else if (change.getKind() == OpCode.ADD) {
+				if (change instanceof ServletContextModelChange) {
+					affected.add(((ServletContextModelChange) change).getServletContextModel().getContextPath());
+				} else {
+					for (OsgiContextModel ocm : change.getContextModels()) {
+						affected.add(ocm.getContextPath());
+					}
+				}
+			} else if (!(change instanceof FilterStateChange) && !(change instanceof ErrorPageStateChange)) {
+				barrier = true;
+			}
+		}
+
+		Batch prepare = new Batch("Group transactions");
+		for (Iterator<String> it = transactions.iterator(); it.hasNext(); ) {
+			String contextPath = it.next();
+			if (barrier || excluded.contains(contextPath)) {
+				prepare.commitTransaction(contextPath);
+				it.remove();
+			}
+		}
+		if (!barrier) {
+			for (String contextPath : affected) {
+				if (!excluded.contains(contextPath) && transactions.add(contextPath)) {
+					prepare.beginTransaction(contextPath);
+				}
+			}
+		}
+		if (!prepare.getOperations().isEmpty()) {
+			delegate.sendBatch(prepare);
+		}
+
+		delegate.sendBatch(batch);
+	}
+
+	/**
+	 * Called in configuration thread after a group of tasks to commit all the transactions opened during
+	 * the group. This is where the contexts are actually (re)started.
+	 */
+	public void commit() {
+		for (String contextPath : transactions) {
+			Batch commit = new Batch("Commit group transaction for " + contextPath);
+			commit.commitTransaction(contextPath);
+			try {
+				delegate.sendBatch(commit);
+			} catch (Exception e) {
+				LOG.error("Problem committing changes for context {}: {}", contextPath, e.getMessage(), e);
+			}
+		}
+		transactions.clear();
+	}
+
+	// --- pure delegation
+
+	@Override
+	public ServerState getState() {
+		return delegate.getState();
+	}
+
+	@Override
+	public void configure() throws Exception {
+		delegate.configure();
+	}
+
+	@Override
+	public void start() throws Exception {
+		delegate.start();
+	}
+
+	@Override
+	public void stop() throws Exception {
+		delegate.stop();
+	}
+
+	@Override
+	public Configuration getConfiguration() {
+		return delegate.getConfiguration();
+	}
+
+	@Override
+	public void addListener(ServerListener listener) {
+		delegate.addListener(listener);
+	}
+
+	@Override
+	public void removeListener(ServerListener listener) {
+		delegate.removeListener(listener);
+	}
+
+	@Override
+	public Servlet createResourceServlet(URL urlBase, String base) {
+		return delegate.createResourceServlet(urlBase, base);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+}
@@ -2510,6 +2510,7 @@ public class HttpServiceEnabled implements WebContainer, StoppableHttpService {
 
 		@Override
 		public void failedDTOInformation(ElementModel<?, ?> webElement) {
+			webElement.setServerModel(serverModel);
 			serverModel.runSilently(() -> {
 				serverModel.getFailedWhiteboardElements().add(webElement);
 				return null;
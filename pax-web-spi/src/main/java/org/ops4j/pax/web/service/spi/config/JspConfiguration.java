@@ -21,7 +21,9 @@ public interface JspConfiguration {
 
 	/**
 	 * What scratch directory should we use when compiling JSP pages? Default is the work directory for
-	 * the current web application.
+	 * the current web application. When {@link #isJspPrecompilation() precompilation} is enabled and there's
+	 * {@link #getGloablJspScratchDir() global scratch directory}, WABs use its subdirectory specific to the
+	 * bundle ID and last modification time of the WAB.
 	 * @param model scratch dir should depend on the {@link OsgiContextModel} where the JSP servlet is installed
 	 * @return
 	 */
@@ -33,4 +35,16 @@ public interface JspConfiguration {
 	 */
 	String getGloablJspScratchDir();
 
+	/**
+	 * Should all the JSPs of a WAB be compiled when the WAB is deployed?
+	 * @return
+	 */
+	Boolean isJspPrecompilation();
+
+	/**
+	 * Maximum number of threads used to precompile the JSPs of a WAB.
+	 * @return
+	 */
+	Integer getJspPrecompilationThreads();
+
 }
@@ -58,4 +58,30 @@ public interface ResourceConfiguration {
 	 */
 	Integer maxCacheTTL();
 
+	/**
+	 * <p>Integer property to specify minimum size (kB) of {@code file:} resources sent using zero-copy transfer.
+	 * Negative value disables zero-copy transfer.</p>
+	 * @return
+	 */
+	Integer zeroCopyMinSize();
+
+	/**
+	 * <p>String property to specify <em>precompressed</em> variants of resources ({@code encoding=extension}
+	 * pairs or {@code true}).</p>
+	 * @return
+	 */
+	String precompressed();
+
+	/**
+	 * <p>Boolean property to enable gzip compression of text resources which have no precompressed variant.</p>
+	 * @return
+	 */
+	Boolean compression();
+
+	/**
+	 * <p>Integer property to specify maximum total size (kB) of compressed variants of resources.</p>
+	 * @return
+	 */
+	Integer compressionCacheMaxSize();
+
 }
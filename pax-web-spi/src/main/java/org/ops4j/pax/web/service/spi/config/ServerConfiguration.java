@@ -160,6 +160,20 @@ public interface ServerConfiguration {
 	 */
 	Integer getEventDispatcherThreadCount();
 
+	/**
+	 * Minimal interval (in milliseconds) between updates of {@code service.changecount} property of
+	 * {@link org.osgi.service.http.runtime.HttpServiceRuntime} registration.
+	 * @return
+	 */
+	Integer getChangeCountInterval();
+
+	/**
+	 * Flag that specifies whether registration tasks queued together should be committed to the server runtime
+	 * as a group.
+	 * @return
+	 */
+	Boolean isGroupCommit();
+
 	/**
 	 * Flag that specifies whether stack traces should be visible in error pages.
 	 * @return
@@ -114,6 +114,33 @@ public interface SessionConfiguration {
 	 */
 	File getSessionStoreDirectory();
 
+	/**
+	 * Type of session persistence in {@link #getSessionStoreDirectory()} - {@code native} for runtime specific
+	 * persistence or {@code paxweb} for {@link org.ops4j.pax.web.service.spi.session.SessionStore}.
+	 * @return
+	 */
+	String getSessionStoreType();
+
+	/**
+	 * Time in milliseconds after which pending session changes are written by
+	 * {@link org.ops4j.pax.web.service.spi.session.SessionStore}. {@code 0} means <em>write-through</em>.
+	 * @return
+	 */
+	Integer getSessionStoreWriteBehind();
+
+	/**
+	 * Number of pending session changes that triggers a write regardless of {@link #getSessionStoreWriteBehind()}.
+	 * @return
+	 */
+	Integer getSessionStoreBatchSize();
+
+	/**
+	 * Number of sessions cached in memory by {@link org.ops4j.pax.web.service.spi.session.SessionStore}.
+	 * {@code 0} disables the cache.
+	 * @return
+	 */
+	Integer getSessionStoreCacheSize();
+
 	/**
 	 * This method gathers some of individual session configuration parameters and returns ready to use
 	 * {@link SessionCookieConfig} object.
@@ -211,6 +211,12 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 	/** Value from {@code <display-name>} of the WAB */
 	private String displayName = null;
 
+	/**
+	 * Temporary location and session ID affixes derived from {@link #contextPath} and {@link #name}. Computed
+	 * whenever any of these change, so runtimes don't have to build them for each request.
+	 */
+	private volatile Locations locations = null;
+
 	/**
 	 * <p>Actual OSGi-specific <em>context</em> (can be {@link HttpContext} or
 	 * {@link ServletContextHelper} wrapper) that'll be used by {@link ServletContext}
@@ -324,7 +330,10 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 	private Boolean isValid;
 
 	/** If there's any failure during the lifetime of the context, we can provide a failure DTO information here. */
-	private int dtoFailureCode = -1;
+	private volatile int dtoFailureCode = -1;
+
+	/** {@link ServerModel} to which this context was added - notified about changes of {@link #dtoFailureCode} */
+	private volatile ServerModel serverModel;
 
 	/** Such model is shared, if underlying {@link WebContainerContext} is shared */
 	private Boolean shared = true;
@@ -380,6 +389,7 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 		this.contextPath = contextPath;
 		this.whiteboard = whiteboard;
 		this.name = HttpWhiteboardConstants.HTTP_WHITEBOARD_DEFAULT_CONTEXT_NAME;
+		this.locations = Locations.of(contextPath, name);
 	}
 
 	@Override
@@ -490,11 +500,13 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 			}
 
 			dtoFailureCode = DTOConstants.FAILURE_REASON_SERVICE_NOT_GETTABLE;
+			dtoFailureChanged();
 			throw new IllegalStateException("Unsupported Whiteboard service for HttpContext/ServletContextHelper"
 					+ " specified");
 		}
 
 		dtoFailureCode = DTOConstants.FAILURE_REASON_SERVICE_NOT_GETTABLE;
+		dtoFailureChanged();
 		throw new IllegalStateException("No HttpContext/ServletContextHelper configured for " + this);
 	}
 
@@ -543,6 +555,7 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 
 	public void setName(String name) {
 		this.name = name;
+		this.locations = Locations.of(contextPath, name);
 	}
 
 	public String getDisplayName() {
@@ -587,6 +600,7 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 
 	public void setContextPath(String contextPath) {
 		this.contextPath = contextPath;
+		this.locations = Locations.of(contextPath, name);
 	}
 
 	public int getServiceRank() {
@@ -678,6 +692,25 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 		return dtoFailureCode;
 	}
 
+	public ServerModel getServerModel() {
+		return serverModel;
+	}
+
+	public void setServerModel(ServerModel serverModel) {
+		this.serverModel = serverModel;
+	}
+
+	/**
+	 * {@link #resolveHttpContext(Bundle)} may be called by the runtime, outside of {@link ServerModel}'s
+	 * configuration thread.
+	 */
+	private void dtoFailureChanged() {
+		ServerModel owner = serverModel;
+		if (owner != null) {
+			owner.dtoFailureChanged();
+		}
+	}
+
 // --- methods that are used directly from web.xml (or fragment) parsing and from WebContainer methods
 	//     related to JSP configuration
 
@@ -829,11 +862,32 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 	 * @return
 	 */
 	public String getTemporaryLocation() {
-		String name = getName();
-		name = name.replace("/", "_");
-		name = name.replace("\\", "_");
-		name = name.replace(":", "_");
-		return String.format("%s/%s", "/".equals(contextPath) ? "ROOT" : contextPath.substring(1), name);
+		Locations l = locations;
+		return l == null ? null : l.temporaryLocation;
+	}
+
+	/**
+	 * <p>Returns a prefix (including {@code ~} separator) added to IDs of sessions created in the scope of this
+	 * {@link OsgiContextModel} by runtimes which identify sessions by prefix (Tomcat, Undertow). Client always
+	 * gets the ID without the prefix.</p>
+	 *
+	 * @return {@code null} if context path or name is not known yet
+	 */
+	public String getSessionIdPrefix() {
+		Locations l = locations;
+		return l == null ? null : l.sessionIdPrefix;
+	}
+
+	/**
+	 * <p>Returns a suffix (including {@code ~} separator) added to IDs of sessions created in the scope of this
+	 * {@link OsgiContextModel} by runtimes which identify sessions by suffix (Jetty). {@code _} character can't be
+	 * used in the suffix, because of how Jetty's {@code FileSessionDataStore} analyzes the session file names.</p>
+	 *
+	 * @return {@code null} if context path or name is not known yet
+	 */
+	public String getSessionIdSuffix() {
+		Locations l = locations;
+		return l == null ? null : l.sessionIdSuffix;
 	}
 
 	/**
@@ -876,4 +930,29 @@ public final class OsgiContextModel extends Identity implements Comparable<OsgiC
 		return scDTO;
 	}
 
+	/**
+	 * Immutable set of values derived from context path and name of the {@link OsgiContextModel}.
+	 */
+	private static final class Locations {
+		private final String temporaryLocation;
+		private final String sessionIdPrefix;
+		private final String sessionIdSuffix;
+
+		private Locations(String temporaryLocation) {
+			this.temporaryLocation = temporaryLocation;
+			this.sessionIdPrefix = temporaryLocation.replace('/', '_') + "~";
+			this.sessionIdSuffix = "~" + temporaryLocation.replace('/', '#').replace('_', '#');
+		}
+
+		static Locations of(String contextPath, String name) {
+			if (contextPath == null || name == null) {
+				return null;
+			}
+			name = name.replace("/", "_");
+			name = name.replace("\\", "_");
+			name = name.replace(":", "_");
+			return new Locations(String.format("%s/%s", "/".equals(contextPath) ? "ROOT" : contextPath.substring(1), name));
+		}
+	}
+
 }
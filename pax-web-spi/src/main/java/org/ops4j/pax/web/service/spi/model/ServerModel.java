@@ -34,15 +34,19 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
@@ -145,6 +149,9 @@ import static org.ops4j.pax.web.service.spi.util.Utils.getHighestRankedModel;
  */
 public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportViewPlugin {
 
+	/** Default value for {@link #setChangeCountInterval(long)} */
+	public static final long DEFAULT_CHANGE_COUNT_INTERVAL = 100L;
+
 	private static final Logger LOG = LoggerFactory.getLogger(ServerModel.class);
 
 	/** This virtual host name is used if there is no Web-VirtualHosts in manifest. */
@@ -435,6 +442,48 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	 */
 	private final AtomicLong changeCount = new AtomicLong(0L);
 
+	/**
+	 * Counter of DTO failure code changes of this model's elements and contexts made outside of the configuration
+	 * thread (e.g., when runtime can't get a servlet or filter service), which are not counted by
+	 * {@link #changeCount}.
+	 */
+	private final AtomicLong dtoFailureChanges = new AtomicLong(0L);
+
+	/**
+	 * Flag set when publication of current {@link #changeCount} in {@link HttpServiceRuntime} registration
+	 * properties is scheduled. Every publication fires synchronous {@link org.osgi.framework.ServiceEvent#MODIFIED}
+	 * event, so many changes are coalesced into single publication.
+	 */
+	private final AtomicBoolean changeCountPublicationPending = new AtomicBoolean(false);
+
+	/** Minimal interval (in milliseconds) between publications of {@code service.changecount}. */
+	private volatile long changeCountInterval = DEFAULT_CHANGE_COUNT_INTERVAL;
+
+	private volatile long lastChangeCountPublication = 0L;
+
+	/**
+	 * {@link RuntimeDTO} built for given value of {@link #changeCount}, so {@link HttpServiceRuntime} may be polled
+	 * without blocking the configuration thread when nothing has changed.
+	 */
+	private volatile RuntimeSnapshot runtimeSnapshot;
+
+	/**
+	 * Whether tasks passed to {@link #run} and {@link #runAsync} are executed in groups, where the server runtime
+	 * is notified (using {@link #groupCommitAction}) after each group.
+	 */
+	private volatile boolean groupCommit = false;
+
+	/** Action invoked in configuration thread after each group of tasks - when {@link #groupCommit} is enabled. */
+	private volatile Runnable groupCommitAction;
+
+	/** Tasks waiting to be executed as next group */
+	private final Queue<GroupedTask<?>> groupQueue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicBoolean groupScheduled = new AtomicBoolean(false);
+
+	/** Whether a group of tasks is being executed - accessed only in configuration thread. */
+	private boolean groupInProgress = false;
+
 	private final List<ReportViewPlugin> plugins = new CopyOnWriteArrayList<>();
 
 	private final AtomicBoolean stopping = new AtomicBoolean(false);
@@ -523,28 +572,35 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	 * @throws NamespaceException
 	 */
 	public <T> T run(ModelRegistrationTask<T> task, boolean asynchronous) throws ServletException, NamespaceException {
+		return run(task, asynchronous, true);
+	}
+
+	private <T> T run(ModelRegistrationTask<T> task, boolean asynchronous, boolean modifying) throws ServletException, NamespaceException {
 		// in theory, a task doesn't have to change the model, but we accept false positives
 		// that's the only required place to increment the change count thanks to single-threaded config pool ;)
-		incrementChangeCounter();
+		// the counter is incremented after the task is scheduled, so the (coalesced) publication of the counter
+		// happens after the task. It also means that all the tasks counted at given moment are queued before
+		// any task scheduled later, which is what cached RuntimeDTO relies on
 
 		if (!asynchronous && Thread.currentThread().getId() == registrationThreadId) {
 			// we can run immediately
-			return task.run();
+			try {
+				return task.run();
+			} finally {
+				if (modifying) {
+					incrementChangeCounter();
+				}
+			}
 		}
 
 		final Throwable originalTrace = new Throwable();
 
 		try {
 			try {
-				CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
-					try {
-						return task.run();
-					} catch (ServletException e) {
-						throw new ModelRegistrationException(e);
-					} catch (NamespaceException e) {
-						throw new ModelRegistrationException(e);
-					}
-				}, executor);
+				CompletableFuture<T> future = submit(task);
+				if (modifying) {
+					incrementChangeCounter();
+				}
 				if (asynchronous) {
 					return null;
 				} else {
@@ -587,8 +643,6 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	 * @throws NamespaceException
 	 */
 	public <T> void runAsync(ModelRegistrationTask<T> task) {
-		incrementChangeCounter();
-
 		if (Thread.currentThread().getId() == registrationThreadId) {
 			// we never try to block the current thread, so we ensure that the task is rescheduled to be invoked
 			// after current task finishes.
@@ -598,7 +652,23 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 		final Throwable originalTrace = new Throwable();
 
 		try {
-			CompletableFuture.supplyAsync(() -> {
+			submit(task);
+			incrementChangeCounter();
+		} catch (RuntimeException e) {
+			e.addSuppressed(originalTrace);
+			throw e;
+		}
+	}
+
+	/**
+	 * Schedules the task for execution in configuration thread - either directly or as part of next group of tasks.
+	 * @param task
+	 * @param <T>
+	 * @return
+	 */
+	private <T> CompletableFuture<T> submit(ModelRegistrationTask<T> task) {
+		if (!groupCommit) {
+			return CompletableFuture.supplyAsync(() -> {
 				try {
 					return task.run();
 				} catch (ServletException e) {
@@ -607,26 +677,142 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 					throw new ModelRegistrationException(e);
 				}
 			}, executor);
-		} catch (RuntimeException e) {
-			e.addSuppressed(originalTrace);
-			throw e;
+		}
+
+		GroupedTask<T> groupedTask = new GroupedTask<>(task);
+		groupQueue.add(groupedTask);
+		if (groupScheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::runGroup);
+			} catch (RejectedExecutionException e) {
+				groupScheduled.set(false);
+				GroupedTask<?> t;
+				while ((t = groupQueue.poll()) != null) {
+					t.future.completeExceptionally(e);
+				}
+				throw e;
+			}
+		}
+		return groupedTask.future;
+	}
+
+	/**
+	 * <p>Executes all the tasks queued so far as single group. The tasks change the model and send their
+	 * {@link org.ops4j.pax.web.service.spi.task.Batch batches} as usual, but {@link #groupCommitAction} is called
+	 * only after all of them. The futures are completed after this action, so synchronous callers see the
+	 * changes committed to the server runtime.</p>
+	 */
+	private void runGroup() {
+		// reset the flag first, so tasks added during execution of this group will schedule next one
+		groupScheduled.set(false);
+		List<GroupedTask<?>> group = new ArrayList<>();
+		GroupedTask<?> t;
+		while ((t = groupQueue.poll()) != null) {
+			group.add(t);
+		}
+		if (group.isEmpty()) {
+			return;
+		}
+
+		LOG.trace("Running group of {} tasks", group.size());
+		groupInProgress = true;
+		try {
+			group.forEach(GroupedTask::run);
+		} finally {
+			groupInProgress = false;
+			Runnable action = groupCommitAction;
+			if (action != null) {
+				try {
+					action.run();
+				} catch (Exception e) {
+					LOG.error("Problem committing group of registration tasks: {}", e.getMessage(), e);
+				}
+			}
+			group.forEach(GroupedTask::complete);
 		}
 	}
 
+	/**
+	 * Enables/disables group commit of the tasks scheduled with {@link #run} and {@link #runAsync}. Should be
+	 * configured before any tasks are scheduled.
+	 * @param groupCommit
+	 * @param groupCommitAction action to call in configuration thread after each group of tasks
+	 */
+	public void setGroupCommit(boolean groupCommit, Runnable groupCommitAction) {
+		this.groupCommitAction = groupCommitAction;
+		this.groupCommit = groupCommit;
+	}
+
+	/**
+	 * Returns {@code true} if current thread is the configuration thread executing a group of tasks.
+	 * @return
+	 */
+	public boolean isGroupInProgress() {
+		return Thread.currentThread().getId() == registrationThreadId && groupInProgress;
+	}
+
 	public void setStopping() {
 		this.stopping.set(true);
 	}
 
 	/**
-	 * Increment internal change counter and propagate this information to {@link ServiceRegistration} for
-	 * {@link HttpServiceRuntime} and {@link ServiceReferenceDTO}
+	 * Sets minimal interval (in milliseconds) between updates of {@code service.changecount} property of
+	 * {@link HttpServiceRuntime} registration. With {@code 0}, the property is updated once after all the tasks
+	 * that were already scheduled.
+	 * @param changeCountInterval
+	 */
+	public void setChangeCountInterval(long changeCountInterval) {
+		this.changeCountInterval = Math.max(0L, changeCountInterval);
+	}
+
+	/**
+	 * Has to be called when DTO failure code of any model registered in this {@link ServerModel} is changed
+	 * outside of the configuration thread, so cached {@link RuntimeDTO} is built again.
+	 */
+	public void dtoFailureChanged() {
+		dtoFailureChanges.incrementAndGet();
+	}
+
+	/**
+	 * Increment internal change counter and schedule propagation of this information to {@link ServiceRegistration}
+	 * for {@link HttpServiceRuntime}. {@link #getRuntimeDTO()} always uses current value of the counter, but the
+	 * registration properties are updated at most once per {@link #changeCountInterval}, after the tasks scheduled
+	 * so far.
 	 */
 	private void incrementChangeCounter() {
+		changeCount.incrementAndGet();
 		if (stopping.get()) {
 			return;
 		}
 
-		changeCount.incrementAndGet();
+		if (!changeCountPublicationPending.compareAndSet(false, true)) {
+			// there'll be a publication that'll include this change
+			return;
+		}
+
+		try {
+			long delay = lastChangeCountPublication + changeCountInterval - System.currentTimeMillis();
+			if (delay > 0L && executor instanceof ScheduledExecutorService) {
+				((ScheduledExecutorService) executor).schedule(this::publishChangeCount, delay, TimeUnit.MILLISECONDS);
+			} else {
+				executor.execute(this::publishChangeCount);
+			}
+		} catch (RejectedExecutionException e) {
+			changeCountPublicationPending.set(false);
+		}
+	}
+
+	/**
+	 * Propagates current value of change counter to {@link ServiceRegistration} for {@link HttpServiceRuntime}.
+	 */
+	private void publishChangeCount() {
+		// reset the flag first, so changes made during publication will schedule another one
+		changeCountPublicationPending.set(false);
+		if (stopping.get()) {
+			return;
+		}
+
+		lastChangeCountPublication = System.currentTimeMillis();
 		try {
 			if (httpServiceRuntimeReg == null || httpServiceRuntimeReg.getReference() == null) {
 				// usually during tests
@@ -737,6 +923,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	 * @param batch
 	 */
 	public void registerOsgiContextModelIfNeeded(OsgiContextModel contextModel, ServiceModel serviceModel, Batch batch) {
+		contextModel.setServerModel(this);
 		ServletContextModel scm = getOrCreateServletContextModel(contextModel.getContextPath(), batch);
 		// always add
 		batch.addOsgiContextModel(contextModel, scm);
@@ -972,6 +1159,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	public OsgiContextModel createNewContextModel(WebContainerContext webContext, Bundle serviceBundle,
 			String contextPath) {
 		OsgiContextModel osgiContextModel = new OsgiContextModel(webContext, serviceBundle, contextPath, false);
+		osgiContextModel.setServerModel(this);
 		osgiContextModel.setName(webContext.getContextId());
 
 		// In Whiteboard, OsgiContextModel is always shared - even if it always has ownerBundle
@@ -1404,6 +1592,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	 */
 	@PaxWebConfiguration
 	public void addServletModel(final ServletModel model, Batch batch) throws NamespaceException, ServletException {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -1812,6 +2001,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	 */
 	@PaxWebConfiguration
 	public void addFilterModel(final FilterModel model, Batch batch) throws ServletException {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -2101,6 +2291,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 
 	@PaxWebConfiguration
 	public void addEventListenerModel(EventListenerModel model, Batch batch) {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -2120,6 +2311,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 
 	@PaxWebConfiguration
 	public void addContainerInitializerModel(ContainerInitializerModel model, Batch batch) {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -2134,6 +2326,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 
 	@PaxWebConfiguration
 	public void addWelcomeFileModel(WelcomeFileModel model, Batch batch) {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -2148,6 +2341,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 
 	@PaxWebConfiguration
 	public void addErrorPageModel(ErrorPageModel model, Batch batch) {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -2419,6 +2613,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 
 	@PaxWebConfiguration
 	public void addWebSocketModel(WebSocketModel model, Batch batch) {
+		model.setServerModel(this);
 		if (model.getContextModels().isEmpty()) {
 			throw new IllegalArgumentException("Can't register " + model + ", it is not associated with any context");
 		}
@@ -3104,371 +3299,311 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 
 	// --- implementation of org.osgi.service.http.runtime.HttpServiceRuntime
 
+	/**
+	 * <p>Returns {@link RuntimeDTO} for current state of the model. The DTO is built on the configuration thread
+	 * only if the model has changed since the DTO was last built (according to {@link #changeCount} and
+	 * {@link #dtoFailureChanges}). Otherwise the cached DTO is returned with fresh {@link RuntimeDTO#serviceDTO}.</p>
+	 *
+	 * <p>Only the top-level arrays of returned {@link RuntimeDTO} are copied. The DTOs within them are shared
+	 * between callers as read-only snapshots and must not be modified.</p>
+	 *
+	 * @return
+	 */
 	@Override
 	public RuntimeDTO getRuntimeDTO() {
-		return runSilently(() -> {
-			RuntimeDTO dto = new RuntimeDTO();
+		RuntimeSnapshot snapshot = runtimeSnapshot();
+		if (snapshot == null) {
+			return null;
+		}
 
-			// --- service information
+		RuntimeDTO cached = snapshot.dto;
+		RuntimeDTO dto = new RuntimeDTO();
 
-			dto.serviceDTO = new ServiceReferenceDTO();
-			dto.serviceDTO.id = httpServiceRuntimeDTO.id;
-			dto.serviceDTO.bundle = httpServiceRuntimeDTO.bundle;
-			dto.serviceDTO.usingBundles = Arrays.stream(httpServiceRuntimeReg.getReference().getUsingBundles())
-					.mapToLong(Bundle::getBundleId).toArray();
-			dto.serviceDTO.properties = new HashMap<>(httpServiceRuntimeDTO.properties);
-			dto.serviceDTO.properties.put("service.changecount", changeCount.get());
-			// osgi.http.endpoint will be updated by org.ops4j.pax.web.service.internal.Activator.AddressConfiguration
+		// --- service information
 
-			// --- context information
+		dto.serviceDTO = new ServiceReferenceDTO();
+		dto.serviceDTO.id = httpServiceRuntimeDTO.id;
+		dto.serviceDTO.bundle = httpServiceRuntimeDTO.bundle;
+		dto.serviceDTO.usingBundles = Arrays.stream(httpServiceRuntimeReg.getReference().getUsingBundles())
+				.mapToLong(Bundle::getBundleId).toArray();
+		dto.serviceDTO.properties = new HashMap<>(httpServiceRuntimeDTO.properties);
+		dto.serviceDTO.properties.put("service.changecount", changeCount.get());
+		// osgi.http.endpoint will be updated by org.ops4j.pax.web.service.internal.Activator.AddressConfiguration
 
-			Map<OsgiContextModel, ServletContextDTO> scDTOs = new LinkedHashMap<>();
-			List<FailedServletContextDTO> failedScDTOs = new ArrayList<>();
+		// arrays are copied, so callers can't replace the DTOs of the snapshot
+		dto.servletContextDTOs = cached.servletContextDTOs.clone();
+		dto.failedServletContextDTOs = cached.failedServletContextDTOs.clone();
+		dto.failedErrorPageDTOs = cached.failedErrorPageDTOs.clone();
+		dto.failedFilterDTOs = cached.failedFilterDTOs.clone();
+		dto.preprocessorDTOs = cached.preprocessorDTOs.clone();
+		dto.failedPreprocessorDTOs = cached.failedPreprocessorDTOs.clone();
+		dto.failedListenerDTOs = cached.failedListenerDTOs.clone();
+		dto.failedResourceDTOs = cached.failedResourceDTOs.clone();
+		dto.failedServletDTOs = cached.failedServletDTOs.clone();
 
-			// OsgiContextModels from WABs - we don't care about contexts "awaiting allocation"
-			bundleWabAllocatedContexts.values().forEach(ocm -> {
-				scDTOs.put(ocm, ocm.toDTO());
-			});
-			// OsgiContextModels from HttpService/WebContainer (including Whiteboard ones with direct context instance)
-			// including non-failed ones and failed (usually shaded - set elements from 2nd to the end)
-			bundleContexts.values().forEach(ocms -> {
-				boolean first = true;
-				for (OsgiContextModel ocm : ocms) {
-					if (first) {
-						scDTOs.put(ocm, ocm.toDTO());
-					} else {
-						failedScDTOs.add(ocm.toFailedDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
-					}
-					first = false;
-				}
-			});
-			// HttpService/WebContainer which are shaded by Whiteboard-registered contexts with direct instance
-			bundleDefaultContexts.values().forEach(ocm -> {
-				failedScDTOs.add(ocm.toFailedDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
-			});
-			// OsgiContextModels from Whiteboard (excluding ones with direct context instance) - failed and non-failed
-			// they're not kept at ServerModel level at all
-			whiteboardContexts.values().stream().flatMap(Collection::stream).forEach(ocm -> {
-				if (ocm.getDtoFailureCode() >= 0) {
-					failedScDTOs.add(ocm.toFailedDTO(ocm.getDtoFailureCode()));
-				} else {
+		return dto;
+	}
+
+	/**
+	 * Returns {@link RuntimeSnapshot} for current value of {@link #changeCount} and {@link #dtoFailureChanges},
+	 * building it on the configuration thread if needed.
+	 * @return
+	 */
+	private RuntimeSnapshot runtimeSnapshot() {
+		// the counters are read before scheduling the task, so all the changes they count are applied before
+		// the DTO is built
+		final long count = changeCount.get();
+		final long failures = dtoFailureChanges.get();
+		RuntimeSnapshot snapshot = runtimeSnapshot;
+		if (snapshot != null && snapshot.changeCount == count && snapshot.failureChanges == failures) {
+			return snapshot;
+		}
+
+		try {
+			return run(() -> {
+				RuntimeSnapshot current = runtimeSnapshot;
+				if (current != null && current.changeCount >= count && current.failureChanges >= failures) {
+					// already built by other caller
+					return current;
+				}
+				RuntimeSnapshot built = new RuntimeSnapshot(count, failures, buildRuntimeDTO());
+				runtimeSnapshot = built;
+				return built;
+			}, false, false);
+		} catch (Exception e) {
+			throw new RuntimeException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Builds {@link RuntimeDTO} (without {@link RuntimeDTO#serviceDTO}) from current state of the model. Has to be
+	 * called in configuration thread.
+	 * @return
+	 */
+	private RuntimeDTO buildRuntimeDTO() {
+		RuntimeDTO dto = new RuntimeDTO();
+
+		// --- context information
+
+		Map<OsgiContextModel, ServletContextDTO> scDTOs = new LinkedHashMap<>();
+		List<FailedServletContextDTO> failedScDTOs = new ArrayList<>();
+
+		// OsgiContextModels from WABs - we don't care about contexts "awaiting allocation"
+		bundleWabAllocatedContexts.values().forEach(ocm -> {
+			scDTOs.put(ocm, ocm.toDTO());
+		});
+		// OsgiContextModels from HttpService/WebContainer (including Whiteboard ones with direct context instance)
+		// including non-failed ones and failed (usually shaded - set elements from 2nd to the end)
+		bundleContexts.values().forEach(ocms -> {
+			boolean first = true;
+			for (OsgiContextModel ocm : ocms) {
+				if (first) {
 					scDTOs.put(ocm, ocm.toDTO());
+				} else {
+					failedScDTOs.add(ocm.toFailedDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
 				}
-			});
-			// we don't care about shared HttpService/WebContainer contexts as these are Pax Web specific
-
-			dto.servletContextDTOs = scDTOs.values().toArray(new ServletContextDTO[0]);
-			dto.failedServletContextDTOs = failedScDTOs.toArray(new FailedServletContextDTO[0]);
-
-			// --- element information
-			//     successful DTOs are attached to one of the ServletContextDTO
-			//     failed DTOs are attached directly to the RuntimeDTO
-
-			Map<ServletContextDTO, List<ErrorPageDTO>> scErrorPages = new IdentityHashMap<>();
-			Map<ServletContextDTO, List<FilterDTO>> scFilters = new IdentityHashMap<>();
-			Map<ServletContextDTO, List<ListenerDTO>> scListeners = new IdentityHashMap<>();
-			List<PreprocessorDTO> preprocessorDTOs = new ArrayList<>();
-			Map<ServletContextDTO, List<ResourceDTO>> scResources = new IdentityHashMap<>();
-			Map<ServletContextDTO, List<ServletDTO>> scServlets = new IdentityHashMap<>();
-
-			for (ServletContextDTO scDTO : dto.servletContextDTOs) {
-				scErrorPages.put(scDTO, new ArrayList<>());
-				scFilters.put(scDTO, new ArrayList<>());
-				scListeners.put(scDTO, new ArrayList<>());
-				scResources.put(scDTO, new ArrayList<>());
-				scServlets.put(scDTO, new ArrayList<>());
-			}
-
-			List<FailedErrorPageDTO> failedErrorPageDTOs = new ArrayList<>();
-			List<FailedFilterDTO> failedFilterDTOs = new ArrayList<>();
-			List<FailedListenerDTO> failedListenerDTOs = new ArrayList<>();
-			List<FailedPreprocessorDTO> failedPreprocessorDTOs = new ArrayList<>();
-			List<FailedResourceDTO> failedResourceDTOs = new ArrayList<>();
-			List<FailedServletDTO> failedServletDTOs = new ArrayList<>();
-
-			// ------ servlets, resources and error pages
-			this.servletsForDTO.forEach(sm -> {
-				if (sm.isResourceServlet()) {
-					if (!sm.isValid()) {
-						failedResourceDTOs.add(sm.toFailedResourceDTO(sm.getDtoFailureCode()));
-						return;
-					}
-				} else if (sm.getErrorPageModel() != null) {
-					if (!sm.getErrorPageModel().isValid()) {
-						failedErrorPageDTOs.add(sm.getErrorPageModel().toFailedDTO(sm, sm.getErrorPageModel().getDtoFailureCode()));
-						return;
-					}
-				} else if (!sm.isValid()) {
-					failedServletDTOs.add(sm.toFailedServletDTO(sm.getDtoFailureCode()));
+				first = false;
+			}
+		});
+		// HttpService/WebContainer which are shaded by Whiteboard-registered contexts with direct instance
+		bundleDefaultContexts.values().forEach(ocm -> {
+			failedScDTOs.add(ocm.toFailedDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+		});
+		// OsgiContextModels from Whiteboard (excluding ones with direct context instance) - failed and non-failed
+		// they're not kept at ServerModel level at all
+		whiteboardContexts.values().stream().flatMap(Collection::stream).forEach(ocm -> {
+			if (ocm.getDtoFailureCode() >= 0) {
+				failedScDTOs.add(ocm.toFailedDTO(ocm.getDtoFailureCode()));
+			} else {
+				scDTOs.put(ocm, ocm.toDTO());
+			}
+		});
+		// we don't care about shared HttpService/WebContainer contexts as these are Pax Web specific
+
+		dto.servletContextDTOs = scDTOs.values().toArray(new ServletContextDTO[0]);
+		dto.failedServletContextDTOs = failedScDTOs.toArray(new FailedServletContextDTO[0]);
+
+		// --- element information
+		//     successful DTOs are attached to one of the ServletContextDTO
+		//     failed DTOs are attached directly to the RuntimeDTO
+
+		Map<ServletContextDTO, List<ErrorPageDTO>> scErrorPages = new IdentityHashMap<>();
+		Map<ServletContextDTO, List<FilterDTO>> scFilters = new IdentityHashMap<>();
+		Map<ServletContextDTO, List<ListenerDTO>> scListeners = new IdentityHashMap<>();
+		List<PreprocessorDTO> preprocessorDTOs = new ArrayList<>();
+		Map<ServletContextDTO, List<ResourceDTO>> scResources = new IdentityHashMap<>();
+		Map<ServletContextDTO, List<ServletDTO>> scServlets = new IdentityHashMap<>();
+
+		for (ServletContextDTO scDTO : dto.servletContextDTOs) {
+			scErrorPages.put(scDTO, new ArrayList<>());
+			scFilters.put(scDTO, new ArrayList<>());
+			scListeners.put(scDTO, new ArrayList<>());
+			scResources.put(scDTO, new ArrayList<>());
+			scServlets.put(scDTO, new ArrayList<>());
+		}
+
+		List<FailedErrorPageDTO> failedErrorPageDTOs = new ArrayList<>();
+		List<FailedFilterDTO> failedFilterDTOs = new ArrayList<>();
+		List<FailedListenerDTO> failedListenerDTOs = new ArrayList<>();
+		List<FailedPreprocessorDTO> failedPreprocessorDTOs = new ArrayList<>();
+		List<FailedResourceDTO> failedResourceDTOs = new ArrayList<>();
+		List<FailedServletDTO> failedServletDTOs = new ArrayList<>();
+
+		// ------ servlets, resources and error pages
+		this.servletsForDTO.forEach(sm -> {
+			if (sm.isResourceServlet()) {
+				if (!sm.isValid()) {
+					failedResourceDTOs.add(sm.toFailedResourceDTO(sm.getDtoFailureCode()));
 					return;
 				}
+			} else if (sm.getErrorPageModel() != null) {
+				if (!sm.getErrorPageModel().isValid()) {
+					failedErrorPageDTOs.add(sm.getErrorPageModel().toFailedDTO(sm, sm.getErrorPageModel().getDtoFailureCode()));
+					return;
+				}
+			} else if (!sm.isValid()) {
+				failedServletDTOs.add(sm.toFailedServletDTO(sm.getDtoFailureCode()));
+				return;
+			}
 
-				// case of valid models
-				sm.getContextModels().forEach(ocm -> {
-					if (sm.isResourceServlet()) {
-						scResources.get(scDTOs.get(ocm)).add(sm.toResourceDTO());
-					} else if (sm.getErrorPageModel() != null) {
-						scErrorPages.get(scDTOs.get(ocm)).add(sm.getErrorPageModel().toDTO(sm));
-					} else {
-						scServlets.get(scDTOs.get(ocm)).add(sm.toServletDTO());
-					}
-				});
-			});
-			this.disabledServletModels.forEach(sm -> {
+			// case of valid models
+			sm.getContextModels().forEach(ocm -> {
 				if (sm.isResourceServlet()) {
-					failedResourceDTOs.add(sm.toFailedResourceDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+					scResources.get(scDTOs.get(ocm)).add(sm.toResourceDTO());
 				} else if (sm.getErrorPageModel() != null) {
-					failedErrorPageDTOs.add(sm.getErrorPageModel().toFailedDTO(sm, DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+					scErrorPages.get(scDTOs.get(ocm)).add(sm.getErrorPageModel().toDTO(sm));
 				} else {
-					failedServletDTOs.add(sm.toFailedServletDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+					scServlets.get(scDTOs.get(ocm)).add(sm.toServletDTO());
 				}
 			});
-			this.disabledErrorPageModels.forEach(epm -> {
-				failedErrorPageDTOs.add(epm.toFailedDTO(null, DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
-			});
-			// ------ filters and preprocessors
-			this.filtersForDTO.forEach(fm -> {
-				if (!fm.isValid()) {
-					if (fm.isPreprocessor()) {
-						failedPreprocessorDTOs.add(fm.toFailedPreprocessorDTO(fm.getDtoFailureCode()));
-					} else {
-						failedFilterDTOs.add(fm.toFailedFilterDTO(fm.getDtoFailureCode()));
-					}
-				} else {
-					fm.getContextModels().forEach(ocm -> {
-						if (fm.isPreprocessor()) {
-							// diagram Figure 140.3 Runtime DTO Overview Diagram is wrong, because
-							// PreprocessorDTOs are kept at RuntimeDTO level
-							preprocessorDTOs.add(fm.toPreprocessorDTO());
-						} else {
-							// only preprocessors are associated (according to Whiteboard DTO chapter) with
-							// any context - even if in Pax Web they're associated with ALL the contexts
-							scFilters.get(scDTOs.get(ocm)).add(fm.toFilterDTO());
-						}
-					});
-				}
-			});
-			this.disabledFilterModels.forEach(fm -> {
+		});
+		this.disabledServletModels.forEach(sm -> {
+			if (sm.isResourceServlet()) {
+				failedResourceDTOs.add(sm.toFailedResourceDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+			} else if (sm.getErrorPageModel() != null) {
+				failedErrorPageDTOs.add(sm.getErrorPageModel().toFailedDTO(sm, DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+			} else {
+				failedServletDTOs.add(sm.toFailedServletDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+			}
+		});
+		this.disabledErrorPageModels.forEach(epm -> {
+			failedErrorPageDTOs.add(epm.toFailedDTO(null, DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+		});
+		// ------ filters and preprocessors
+		this.filtersForDTO.forEach(fm -> {
+			if (!fm.isValid()) {
 				if (fm.isPreprocessor()) {
-					failedPreprocessorDTOs.add(fm.toFailedPreprocessorDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+					failedPreprocessorDTOs.add(fm.toFailedPreprocessorDTO(fm.getDtoFailureCode()));
 				} else {
-					failedFilterDTOs.add(fm.toFailedFilterDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
-				}
-			});
-			// ------ listeners
-			this.eventListenersForDTO.forEach(lm -> {
-				if (!lm.isValid()) {
-					failedListenerDTOs.add(lm.toFailedDTO(lm.getDtoFailureCode()));
-				} else {
-					lm.getContextModels().forEach(ocm -> {
-						scListeners.get(scDTOs.get(ocm)).add(lm.toDTO());
-					});
+					failedFilterDTOs.add(fm.toFailedFilterDTO(fm.getDtoFailureCode()));
 				}
-			});
-			// ------ failed Whiteboard elements
-			this.failedWhiteboardElements.forEach(em -> {
-				if (em instanceof ErrorPageModel) {
-					failedErrorPageDTOs.add(((ErrorPageModel) em).toFailedDTO(null, em.getDtoFailureCode()));
-				} else if (em instanceof FilterModel) {
-					if (((FilterModel) em).isPreprocessor()) {
-						failedPreprocessorDTOs.add(((FilterModel) em).toFailedPreprocessorDTO(em.getDtoFailureCode()));
-					} else {
-						failedFilterDTOs.add(((FilterModel) em).toFailedFilterDTO(em.getDtoFailureCode()));
-					}
-				} else if (em instanceof EventListenerModel) {
-					failedListenerDTOs.add(((EventListenerModel) em).toFailedDTO(em.getDtoFailureCode()));
-				} else if (em instanceof ServletModel) {
-					if (((ServletModel) em).isResourceServlet()) {
-						failedResourceDTOs.add(((ServletModel) em).toFailedResourceDTO(em.getDtoFailureCode()));
-					} else if (((ServletModel) em).getErrorPageModel() != null) {
-						failedErrorPageDTOs.add(((ServletModel) em).getErrorPageModel().toFailedDTO((ServletModel) em,
-								((ServletModel) em).getErrorPageModel().getDtoFailureCode()));
+			} else {
+				fm.getContextModels().forEach(ocm -> {
+					if (fm.isPreprocessor()) {
+						// diagram Figure 140.3 Runtime DTO Overview Diagram is wrong, because
+						// PreprocessorDTOs are kept at RuntimeDTO level
+						preprocessorDTOs.add(fm.toPreprocessorDTO());
 					} else {
-						failedServletDTOs.add(((ServletModel) em).toFailedServletDTO(em.getDtoFailureCode()));
+						// only preprocessors are associated (according to Whiteboard DTO chapter) with
+						// any context - even if in Pax Web they're associated with ALL the contexts
+						scFilters.get(scDTOs.get(ocm)).add(fm.toFilterDTO());
 					}
+				});
+			}
+		});
+		this.disabledFilterModels.forEach(fm -> {
+			if (fm.isPreprocessor()) {
+				failedPreprocessorDTOs.add(fm.toFailedPreprocessorDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+			} else {
+				failedFilterDTOs.add(fm.toFailedFilterDTO(DTOConstants.FAILURE_REASON_SHADOWED_BY_OTHER_SERVICE));
+			}
+		});
+		// ------ listeners
+		this.eventListenersForDTO.forEach(lm -> {
+			if (!lm.isValid()) {
+				failedListenerDTOs.add(lm.toFailedDTO(lm.getDtoFailureCode()));
+			} else {
+				lm.getContextModels().forEach(ocm -> {
+					scListeners.get(scDTOs.get(ocm)).add(lm.toDTO());
+				});
+			}
+		});
+		// ------ failed Whiteboard elements
+		this.failedWhiteboardElements.forEach(em -> {
+			if (em instanceof ErrorPageModel) {
+				failedErrorPageDTOs.add(((ErrorPageModel) em).toFailedDTO(null, em.getDtoFailureCode()));
+			} else if (em instanceof FilterModel) {
+				if (((FilterModel) em).isPreprocessor()) {
+					failedPreprocessorDTOs.add(((FilterModel) em).toFailedPreprocessorDTO(em.getDtoFailureCode()));
+				} else {
+					failedFilterDTOs.add(((FilterModel) em).toFailedFilterDTO(em.getDtoFailureCode()));
+				}
+			} else if (em instanceof EventListenerModel) {
+				failedListenerDTOs.add(((EventListenerModel) em).toFailedDTO(em.getDtoFailureCode()));
+			} else if (em instanceof ServletModel) {
+				if (((ServletModel) em).isResourceServlet()) {
+					failedResourceDTOs.add(((ServletModel) em).toFailedResourceDTO(em.getDtoFailureCode()));
+				} else if (((ServletModel) em).getErrorPageModel() != null) {
+					failedErrorPageDTOs.add(((ServletModel) em).getErrorPageModel().toFailedDTO((ServletModel) em,
+							((ServletModel) em).getErrorPageModel().getDtoFailureCode()));
+				} else {
+					failedServletDTOs.add(((ServletModel) em).toFailedServletDTO(em.getDtoFailureCode()));
 				}
-			});
+			}
+		});
 
-			for (ServletContextDTO scDTO : dto.servletContextDTOs) {
-				scDTO.errorPageDTOs = scErrorPages.get(scDTO).toArray(new ErrorPageDTO[0]);
-				for (ErrorPageDTO d : scDTO.errorPageDTOs) {
-					d.servletContextId = scDTO.serviceId;
-				}
-				scDTO.filterDTOs = scFilters.get(scDTO).toArray(new FilterDTO[0]);
-				for (FilterDTO d : scDTO.filterDTOs) {
-					d.servletContextId = scDTO.serviceId;
-				}
-				// this should work according to Figure 140.3 Runtime DTO Overview Diagram...
+		for (ServletContextDTO scDTO : dto.servletContextDTOs) {
+			scDTO.errorPageDTOs = scErrorPages.get(scDTO).toArray(new ErrorPageDTO[0]);
+			for (ErrorPageDTO d : scDTO.errorPageDTOs) {
+				d.servletContextId = scDTO.serviceId;
+			}
+			scDTO.filterDTOs = scFilters.get(scDTO).toArray(new FilterDTO[0]);
+			for (FilterDTO d : scDTO.filterDTOs) {
+				d.servletContextId = scDTO.serviceId;
+			}
+			// this should work according to Figure 140.3 Runtime DTO Overview Diagram...
 //				scDTO.preprocessorDTOs = scPreprocessors.get(scDTO).toArray(new PreprocessorDTO[0]);
-				scDTO.listenerDTOs = scListeners.get(scDTO).toArray(new ListenerDTO[0]);
-				for (ListenerDTO d : scDTO.listenerDTOs) {
-					d.servletContextId = scDTO.serviceId;
-				}
-				scDTO.servletDTOs = scServlets.get(scDTO).toArray(new ServletDTO[0]);
-				for (ServletDTO d : scDTO.servletDTOs) {
-					d.servletContextId = scDTO.serviceId;
-				}
-				scDTO.resourceDTOs = scResources.get(scDTO).toArray(new ResourceDTO[0]);
-				for (ResourceDTO d : scDTO.resourceDTOs) {
-					d.servletContextId = scDTO.serviceId;
-				}
+			scDTO.listenerDTOs = scListeners.get(scDTO).toArray(new ListenerDTO[0]);
+			for (ListenerDTO d : scDTO.listenerDTOs) {
+				d.servletContextId = scDTO.serviceId;
+			}
+			scDTO.servletDTOs = scServlets.get(scDTO).toArray(new ServletDTO[0]);
+			for (ServletDTO d : scDTO.servletDTOs) {
+				d.servletContextId = scDTO.serviceId;
 			}
+			scDTO.resourceDTOs = scResources.get(scDTO).toArray(new ResourceDTO[0]);
+			for (ResourceDTO d : scDTO.resourceDTOs) {
+				d.servletContextId = scDTO.serviceId;
+			}
+		}
 
-			dto.failedErrorPageDTOs = failedErrorPageDTOs.toArray(new FailedErrorPageDTO[0]);
-			dto.failedFilterDTOs = failedFilterDTOs.toArray(new FailedFilterDTO[0]);
-			dto.preprocessorDTOs = preprocessorDTOs.toArray(new PreprocessorDTO[0]);
-			dto.failedPreprocessorDTOs = failedPreprocessorDTOs.toArray(new FailedPreprocessorDTO[0]);
-			dto.failedListenerDTOs = failedListenerDTOs.toArray(new FailedListenerDTO[0]);
-			dto.failedResourceDTOs = failedResourceDTOs.toArray(new FailedResourceDTO[0]);
-			dto.failedServletDTOs = failedServletDTOs.toArray(new FailedServletDTO[0]);
+		dto.failedErrorPageDTOs = failedErrorPageDTOs.toArray(new FailedErrorPageDTO[0]);
+		dto.failedFilterDTOs = failedFilterDTOs.toArray(new FailedFilterDTO[0]);
+		dto.preprocessorDTOs = preprocessorDTOs.toArray(new PreprocessorDTO[0]);
+		dto.failedPreprocessorDTOs = failedPreprocessorDTOs.toArray(new FailedPreprocessorDTO[0]);
+		dto.failedListenerDTOs = failedListenerDTOs.toArray(new FailedListenerDTO[0]);
+		dto.failedResourceDTOs = failedResourceDTOs.toArray(new FailedResourceDTO[0]);
+		dto.failedServletDTOs = failedServletDTOs.toArray(new FailedServletDTO[0]);
 
-			return dto;
-		}, false);
+		return dto;
 	}
 
 	@Override
 	public RequestInfoDTO calculateRequestInfoDTO(String path) {
-		return runSilently(() -> {
-			RequestInfoDTO dto = new RequestInfoDTO();
-			dto.path = path;
-
-			// let's ... simply get the information from RuntimeDTO
-			RuntimeDTO runtimeDTO = getRuntimeDTO();
-
-			Set<ServletContextDTO> orderedServletContexts = new TreeSet<>(new ContextComparator());
-			Collections.addAll(orderedServletContexts, runtimeDTO.servletContextDTOs);
-
-			for (ServletContextDTO scdto : orderedServletContexts) {
-				if (path.startsWith(scdto.contextPath)) {
-					dto.servletContextId = scdto.serviceId;
-
-					String remaining = path.substring(scdto.contextPath.length());
-					if (remaining.contains("?")) {
-						// remove query string
-						remaining = remaining.substring(0, remaining.indexOf("?"));
-					}
-					if (!remaining.startsWith("/")) {
-						remaining = "/" + remaining;
-					}
-
-					// checking servlets/resources
-
-					// we can assume valid patterns: "/", "/xxx/*", "/xxx", "*.x".
-					// "/" has to be saved as fallback pattern (default servlet)
-					Map<String, DTO> orderedMappings = new TreeMap<>(new PatternComparator());
-					for (ServletDTO sdto : scdto.servletDTOs) {
-						for (String p : sdto.patterns) {
-							orderedMappings.put(p, sdto);
-						}
-					}
-					for (ResourceDTO rdto : scdto.resourceDTOs) {
-						for (String p : rdto.patterns) {
-							orderedMappings.put(p, rdto);
-						}
-					}
-					for (Map.Entry<String, DTO> e : orderedMappings.entrySet()) {
-						String mapping = e.getKey();
-						DTO target = e.getValue();
-
-						boolean match = false;
-						if (!"/".equals(mapping)) {
-							if (!mapping.contains("*") && mapping.equals(remaining)) {
-								// found exact match
-								match = true;
-							} else if (mapping.contains("*")) {
-								if (mapping.endsWith("/*") && remaining.startsWith(mapping.substring(0, mapping.length() - 2))) {
-									// found prefix match
-									match = true;
-								} else if (mapping.startsWith("*.") && remaining.endsWith(mapping.substring(1))) {
-									// found extension match
-									match = true;
-								}
-							}
-						} else {
-							// checked always last
-							match = true;
-						}
-						if (match) {
-							if (target instanceof ResourceDTO) {
-								dto.resourceDTO = (ResourceDTO) target;
-							} else {
-								dto.servletDTO = (ServletDTO) target;
-							}
-							// end of searching through servlet/resource mappings
-							break;
-						}
-						// continue with the next pattern
-					}
-
-					// checking filters
-					String targetName = null;
-					if (dto.servletDTO != null) {
-						targetName = dto.servletDTO.name;
-					} else if (dto.resourceDTO != null) {
-						targetName = "default";
-					}
+		RequestInfoDTO dto = new RequestInfoDTO();
+		dto.path = path;
 
-					List<FilterDTO> matchingFilters = new ArrayList<>();
-					for (FilterDTO fdto : scdto.filterDTOs) {
-						if (fdto.servletNames != null) {
-							boolean match = false;
-							for (String sn : fdto.servletNames) {
-								if (sn != null && sn.equals(targetName)) {
-									matchingFilters.add(fdto);
-									match = true;
-									break;
-								}
-							}
-							if (match) {
-								// no need to check the URL mappings
-								continue;
-							}
-						}
-						if (fdto.patterns != null) {
-							boolean match = false;
-							for (String p : fdto.patterns) {
-								if (!p.contains("*") && p.equals(remaining)) {
-									// found exact match
-									match = true;
-								} else if (p.contains("*")) {
-									if (p.endsWith("/*") && remaining.startsWith(p.substring(0, p.length() - 2))) {
-										// found prefix match
-										match = true;
-									} else if (p.startsWith("*.") && remaining.endsWith(p.substring(1))) {
-										// found extension match
-										match = true;
-									}
-								}
-								if (match) {
-									matchingFilters.add(fdto);
-									break;
-								}
-							}
-							if (match) {
-								// no need to check the regex mapping
-								continue;
-							}
-						}
-						if (fdto.regexs != null) {
-							boolean match = false;
-							for (String p : fdto.regexs) {
-								Pattern re = Pattern.compile(p);
-								if (re.matcher(remaining).matches()) {
-									matchingFilters.add(fdto);
-									break;
-								}
-							}
-						}
-					}
-					dto.filterDTOs = matchingFilters.toArray(new FilterDTO[0]);
-
-					// end of searching through context paths
-					break;
-				}
+		// let's ... simply get the information from (cached) RuntimeDTO with its path-matching index
+		RuntimeSnapshot snapshot = runtimeSnapshot();
+		if (snapshot != null) {
+			snapshot.getRequestInfoIndex().match(path, dto);
+			// matched DTOs are read-only DTOs of the snapshot (see getRuntimeDTO()), only the array is copied
+			if (dto.filterDTOs != null) {
+				dto.filterDTOs = dto.filterDTOs.clone();
 			}
+		}
 
-			return dto;
-		}, false);
+		return dto;
 	}
 
 	@Override
@@ -3602,6 +3737,7 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 	}
 
 	public void addWhiteboardContext(OsgiContextModel ocm) {
+		ocm.setServerModel(this);
 		whiteboardContexts.computeIfAbsent(ocm.getContextPath(), cp -> new TreeSet<>()).add(ocm);
 	}
 
@@ -3619,6 +3755,236 @@ public class ServerModel implements BatchVisitor, HttpServiceRuntime, ReportView
 		return failedWhiteboardElements;
 	}
 
+	/**
+	 * {@link ModelRegistrationTask} executed as part of a group - with result available after the group is
+	 * committed.
+	 * @param <T>
+	 */
+	private static class GroupedTask<T> {
+		private final ModelRegistrationTask<T> task;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+		private T result;
+		private Throwable failure;
+
+		GroupedTask(ModelRegistrationTask<T> task) {
+			this.task = task;
+		}
+
+		public void run() {
+			try {
+				result = task.run();
+			} catch (ServletException e) {
+				failure = new ModelRegistrationException(e);
+			} catch (NamespaceException e) {
+				failure = new ModelRegistrationException(e);
+			} catch (Throwable e) {
+				failure = e;
+			}
+		}
+
+		public void complete() {
+			if (failure != null) {
+				future.completeExceptionally(failure);
+			} else {
+				future.complete(result);
+			}
+		}
+	}
+
+	/**
+	 * {@link RuntimeDTO} built for given {@code service.changecount} together with lazily created
+	 * {@link RequestInfoIndex}.
+	 */
+	private static class RuntimeSnapshot {
+		private final long changeCount;
+		private final long failureChanges;
+		private final RuntimeDTO dto;
+		private volatile RequestInfoIndex requestInfoIndex;
+
+		RuntimeSnapshot(long changeCount, long failureChanges, RuntimeDTO dto) {
+			this.changeCount = changeCount;
+			this.failureChanges = failureChanges;
+			this.dto = dto;
+		}
+
+		public RequestInfoIndex getRequestInfoIndex() {
+			RequestInfoIndex index = requestInfoIndex;
+			if (index == null) {
+				// RuntimeDTO doesn't change, so it's not a problem if two threads build the index concurrently
+				index = new RequestInfoIndex(dto);
+				requestInfoIndex = index;
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Contexts, servlet/resource mappings and filters of {@link RuntimeDTO} ordered (and with regexps compiled)
+	 * once, so {@link #calculateRequestInfoDTO(String)} only has to match the path.
+	 */
+	private static class RequestInfoIndex {
+		private final List<ContextEntry> contexts = new ArrayList<>();
+
+		RequestInfoIndex(RuntimeDTO runtimeDTO) {
+			Set<ServletContextDTO> orderedServletContexts = new TreeSet<>(new ContextComparator());
+			Collections.addAll(orderedServletContexts, runtimeDTO.servletContextDTOs);
+			for (ServletContextDTO scdto : orderedServletContexts) {
+				contexts.add(new ContextEntry(scdto));
+			}
+		}
+
+		public void match(String path, RequestInfoDTO dto) {
+			for (ContextEntry context : contexts) {
+				if (path.startsWith(context.contextPath)) {
+					context.match(path, dto);
+					// end of searching through context paths
+					break;
+				}
+			}
+		}
+	}
+
+	private static class ContextEntry {
+		private final String contextPath;
+		private final long serviceId;
+		/** Servlet/resource mappings in matching order (with {@code "/"} as last) */
+		private final List<Map.Entry<String, DTO>> mappings;
+		private final List<FilterEntry> filters = new ArrayList<>();
+
+		ContextEntry(ServletContextDTO scdto) {
+			this.contextPath = scdto.contextPath;
+			this.serviceId = scdto.serviceId;
+
+			// we can assume valid patterns: "/", "/xxx/*", "/xxx", "*.x".
+			// "/" has to be saved as fallback pattern (default servlet)
+			Map<String, DTO> orderedMappings = new TreeMap<>(new PatternComparator());
+			for (ServletDTO sdto : scdto.servletDTOs) {
+				for (String p : sdto.patterns) {
+					orderedMappings.put(p, sdto);
+				}
+			}
+			for (ResourceDTO rdto : scdto.resourceDTOs) {
+				for (String p : rdto.patterns) {
+					orderedMappings.put(p, rdto);
+				}
+			}
+			this.mappings = new ArrayList<>(orderedMappings.entrySet());
+
+			for (FilterDTO fdto : scdto.filterDTOs) {
+				filters.add(new FilterEntry(fdto));
+			}
+		}
+
+		public void match(String path, RequestInfoDTO dto) {
+			dto.servletContextId = serviceId;
+
+			String remaining = path.substring(contextPath.length());
+			if (remaining.contains("?")) {
+				// remove query string
+				remaining = remaining.substring(0, remaining.indexOf("?"));
+			}
+			if (!remaining.startsWith("/")) {
+				remaining = "/" + remaining;
+			}
+
+			// checking servlets/resources
+
+			for (Map.Entry<String, DTO> e : mappings) {
+				String mapping = e.getKey();
+				DTO target = e.getValue();
+
+				// "/" is checked always last
+				if ("/".equals(mapping) || matchesMapping(mapping, remaining)) {
+					if (target instanceof ResourceDTO) {
+						dto.resourceDTO = (ResourceDTO) target;
+					} else {
+						dto.servletDTO = (ServletDTO) target;
+					}
+					// end of searching through servlet/resource mappings
+					break;
+				}
+				// continue with the next pattern
+			}
+
+			// checking filters
+			String targetName = null;
+			if (dto.servletDTO != null) {
+				targetName = dto.servletDTO.name;
+			} else if (dto.resourceDTO != null) {
+				targetName = "default";
+			}
+
+			List<FilterDTO> matchingFilters = new ArrayList<>();
+			for (FilterEntry filter : filters) {
+				if (filter.matches(targetName, remaining)) {
+					matchingFilters.add(filter.dto);
+				}
+			}
+			dto.filterDTOs = matchingFilters.toArray(new FilterDTO[0]);
+		}
+	}
+
+	private static class FilterEntry {
+		private final FilterDTO dto;
+		private final Pattern[] regexs;
+
+		FilterEntry(FilterDTO dto) {
+			this.dto = dto;
+			if (dto.regexs != null) {
+				this.regexs = new Pattern[dto.regexs.length];
+				for (int i = 0; i < dto.regexs.length; i++) {
+					this.regexs[i] = Pattern.compile(dto.regexs[i]);
+				}
+			} else {
+				this.regexs = new Pattern[0];
+			}
+		}
+
+		public boolean matches(String targetName, String remaining) {
+			if (dto.servletNames != null) {
+				for (String sn : dto.servletNames) {
+					if (sn != null && sn.equals(targetName)) {
+						// no need to check the URL mappings
+						return true;
+					}
+				}
+			}
+			if (dto.patterns != null) {
+				for (String p : dto.patterns) {
+					if (matchesMapping(p, remaining)) {
+						// no need to check the regex mapping
+						return true;
+					}
+				}
+			}
+			for (Pattern re : regexs) {
+				if (re.matcher(remaining).matches()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Checks exact, prefix ({@code /xxx/*}) and extension ({@code *.x}) mapping against path within a context.
+	 * @param mapping
+	 * @param remaining
+	 * @return
+	 */
+	private static boolean matchesMapping(String mapping, String remaining) {
+		if (!mapping.contains("*")) {
+			// exact match
+			return mapping.equals(remaining);
+		}
+		if (mapping.endsWith("/*") && remaining.startsWith(mapping.substring(0, mapping.length() - 2))) {
+			// prefix match
+			return true;
+		}
+		// extension match
+		return mapping.startsWith("*.") && remaining.endsWith(mapping.substring(1));
+	}
+
 	/**
 	 * {@link Comparator} that sorts {@link ServletContextDTO} by the longest context path.
 	 */
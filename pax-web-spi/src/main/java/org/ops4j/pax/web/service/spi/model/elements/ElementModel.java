@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 
 import org.ops4j.pax.web.service.spi.model.Identity;
 import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
+import org.ops4j.pax.web.service.spi.model.ServerModel;
 import org.ops4j.pax.web.service.spi.model.events.WebElementEventData;
 import org.ops4j.pax.web.service.spi.whiteboard.WhiteboardWebContainerView;
 import org.ops4j.pax.web.service.whiteboard.ContextRelated;
@@ -72,7 +73,10 @@ public abstract class ElementModel<T, D extends WebElementEventData>
 	protected Boolean isValid;
 
 	/** If there's any failure during the lifetime of the context, we can provide a failure DTO information here. */
-	protected int dtoFailureCode = -1;
+	protected volatile int dtoFailureCode = -1;
+
+	/** {@link ServerModel} to which this element was added - notified about changes of {@link #dtoFailureCode} */
+	private volatile ServerModel serverModel;
 
 	private volatile boolean closed = false;
 
@@ -366,7 +370,22 @@ public abstract class ElementModel<T, D extends WebElementEventData>
 	}
 
 	public void setDtoFailureCode(int dtoFailureCode) {
-		this.dtoFailureCode = dtoFailureCode;
+		if (this.dtoFailureCode != dtoFailureCode) {
+			this.dtoFailureCode = dtoFailureCode;
+			// may be called by the runtime, outside of ServerModel's configuration thread
+			ServerModel owner = serverModel;
+			if (owner != null) {
+				owner.dtoFailureChanged();
+			}
+		}
+	}
+
+	public ServerModel getServerModel() {
+		return serverModel;
+	}
+
+	public void setServerModel(ServerModel serverModel) {
+		this.serverModel = serverModel;
 	}
 
 	public void setAsynchronusRegistration(boolean async) {
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Constants;
+
+/**
+ * <p>Entries of a {@link Bundle} collected once using {@link Bundle#findEntries} - which paths are files and
+ * which are directories. Thanks to this index, {@link ResourceCache} doesn't have to open
+ * {@link URLConnection connections} (sometimes twice - to work around
+ * <a href="https://issues.apache.org/jira/browse/FELIX-6294">FELIX-6294</a>) just to check whether a bundle
+ * resource is a directory. Sizes of the files are not indexed - they're read only when the resource is
+ * actually needed.</p>
+ *
+ * <p>The index is used only for {@link URL URLs} pointing to the root of the bundle - the ones returned from
+ * {@link Bundle#getEntry(String)} or from {@link Bundle#getResource(String)} when the bundle doesn't use
+ * {@code Bundle-ClassPath} other than {@code "."}.</p>
+ */
+public final class BundleEntryIndex {
+
+	private final long bundleId;
+	private final long lastModified;
+
+	/** {@code protocol://host:port} of the bundle root entries */
+	private final String root;
+	private final boolean rootClassPathOnly;
+
+	/** Files, without leading slash */
+	private final Set<String> files;
+	/** Directories, without leading and trailing slash */
+	private final Set<String> directories;
+
+	private BundleEntryIndex(Bundle bundle, String root, boolean rootClassPathOnly, Set<String> files,
+			Set<String> directories) {
+		this.bundleId = bundle.getBundleId();
+		this.lastModified = bundle.getLastModified();
+		this.root = root;
+		this.rootClassPathOnly = rootClassPathOnly;
+		this.files = files;
+		this.directories = directories;
+	}
+
+	/**
+	 * Builds an index of all the entries of the bundle (entries of attached fragments are not indexed). Only
+	 * the paths returned by {@link Bundle#findEntries} are used, no entry is opened.
+	 * @param bundle
+	 * @return {@code null} if the bundle has no entries or isn't accessible
+	 */
+	public static BundleEntryIndex build(Bundle bundle) {
+		if (bundle == null) {
+			return null;
+		}
+		try {
+			URL rootEntry = bundle.getEntry("/");
+			if (rootEntry == null) {
+				return null;
+			}
+			String root = root(rootEntry);
+			Set<String> files = new HashSet<>();
+			Set<String> directories = new HashSet<>();
+			directories.add("");
+
+			Enumeration<URL> entries = bundle.findEntries("/", "*", true);
+			while (entries != null && entries.hasMoreElements()) {
+				URL url = entries.nextElement();
+				if (!root.equals(root(url))) {
+					// entry from a fragment
+					continue;
+				}
+				String path = url.getPath();
+				while (path.startsWith("/")) {
+					path = path.substring(1);
+				}
+				if (path.endsWith("/")) {
+					directories.add(path.substring(0, path.length() - 1));
+				} else {
+					files.add(path);
+				}
+			}
+
+			Dictionary<String, String> headers = bundle.getHeaders("");
+			String classPath = headers == null ? null : headers.get(Constants.BUNDLE_CLASSPATH);
+			boolean rootClassPathOnly = classPath == null || ".".equals(classPath.trim());
+
+			return new BundleEntryIndex(bundle, root, rootClassPathOnly, files, directories);
+		} catch (IllegalStateException e) {
+			// uninstalled bundle
+			return null;
+		}
+	}
+
+	public long getBundleId() {
+		return bundleId;
+	}
+
+	/**
+	 * Last modification time of the bundle - used as last modification time of all its entries.
+	 * @return
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Checks whether the {@link URL} is a bundle URL which can be checked against this index.
+	 * @param url
+	 * @return
+	 */
+	public boolean covers(URL url) {
+		if (ResourceCache.bundleId(url) != bundleId) {
+			return false;
+		}
+		return root.equals(root(url))
+				|| (rootClassPathOnly && Objects.equals(url.getProtocol(), root.substring(0, root.indexOf(':'))));
+	}
+
+	/**
+	 * @param url
+	 * @return {@code true} if the index contains a directory for the URL (with or without trailing slash)
+	 */
+	public boolean isDirectory(URL url) {
+		return directories.contains(path(url));
+	}
+
+	/**
+	 * @param url
+	 * @return {@code true} if the index contains a file for the URL
+	 */
+	public boolean isFile(URL url) {
+		return files.contains(path(url));
+	}
+
+	public int size() {
+		return files.size() + directories.size();
+	}
+
+	private static String path(URL url) {
+		String path = url.getPath();
+		int start = 0;
+		int end = path.length();
+		while (start < end && path.charAt(start) == '/') {
+			start++;
+		}
+		while (end > start && path.charAt(end - 1) == '/') {
+			end--;
+		}
+		return path.substring(start, end);
+	}
+
+	private static String root(URL url) {
+		return url.getProtocol() + "://" + url.getAuthority();
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.ops4j.pax.web.service.spi.config.ResourceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Bounded disk cache of gzip compressed variants of text resources. When a resource servlet (of any runtime)
+ * looks for a <em>precompressed</em> sibling ({@code /app.js.gz} for {@code /app.js}) which doesn't exist,
+ * the sibling is created here once and returned as a file, so the container may send it using its native
+ * precompressed resource support (content negotiation, {@code Vary} header, conditional requests).</p>
+ *
+ * <p>Compressed files are identified by the {@link java.net.URL} and last modification time of the original
+ * resource (which for bundle resources is the last modification time of the bundle), so a new variant is created
+ * after the resource changes. The files are deleted when they're evicted from the cache or when the bundle
+ * providing the original resource changes.</p>
+ *
+ * <p>The cache doesn't survive restarts - files found in the directory when the cache is created (left there by
+ * previous instance, possibly for bundles which no longer exist) are orphans and are deleted.</p>
+ */
+public class CompressedResourceCache {
+
+	public static final Logger LOG = LoggerFactory.getLogger(CompressedResourceCache.class);
+
+	/** Encoding of the variants created by this cache */
+	public static final String GZIP = "gzip";
+	/** Extension of the variants created by this cache */
+	public static final String GZIP_EXTENSION = ".gz";
+
+	/** Resources smaller than this size are not worth compressing */
+	public static final int MIN_SIZE = 256;
+
+	private final File directory;
+	private final long maxTotalSize;
+	private final long maxEntrySize;
+
+	/** LRU map of the compressed files - guarded by {@code this} */
+	private final LinkedHashMap<String, Variant> variants = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalSize = 0L;
+
+	/**
+	 * @param directory directory where compressed files are kept
+	 * @param maxTotalSize maximum size (in bytes) of all the compressed files. A quarter of this size is the
+	 *        maximum size of a resource being compressed.
+	 */
+	public CompressedResourceCache(File directory, long maxTotalSize) {
+		this.directory = directory;
+		this.maxTotalSize = maxTotalSize;
+		this.maxEntrySize = maxTotalSize / 4;
+
+		removeOrphans();
+	}
+
+	/**
+	 * Returns <em>precompressed formats</em> (encoding to extension mapping) to be configured in the resource
+	 * servlets from {@link ResourceConfiguration#precompressed()} using the syntax of Jetty's
+	 * {@code precompressed} init parameter ({@code "br=.br,gzip=.gz"} or {@code "true"} for {@code br} and
+	 * {@code gzip}). When {@link ResourceConfiguration#compression()} is enabled, {@code gzip} is always included.
+	 * @param configuration
+	 * @return {@code null} if nothing is configured and the runtime should use its defaults
+	 */
+	public static Map<String, String> precompressedFormats(ResourceConfiguration configuration) {
+		if (configuration == null) {
+			return null;
+		}
+		String precompressed = configuration.precompressed();
+		boolean compression = Boolean.TRUE.equals(configuration.compression());
+		if ((precompressed == null || "".equals(precompressed.trim())) && !compression) {
+			return null;
+		}
+		Map<String, String> formats = new LinkedHashMap<>();
+		if (precompressed != null && precompressed.indexOf('=') > 0) {
+			for (String pair : precompressed.split("\\s*,\\s*")) {
+				String[] setting = pair.split("=");
+				if (setting.length == 2 && !"".equals(setting[0].trim()) && !"".equals(setting[1].trim())) {
+					formats.put(setting[0].trim(), setting[1].trim());
+				}
+			}
+		} else if (Boolean.parseBoolean(precompressed == null ? null : precompressed.trim())) {
+			formats.put("br", ".br");
+			formats.put(GZIP, GZIP_EXTENSION);
+		}
+		if (compression) {
+			formats.putIfAbsent(GZIP, GZIP_EXTENSION);
+		}
+		return formats;
+	}
+
+	/**
+	 * Formats the mapping in the syntax of Jetty's and Tomcat's {@code precompressed} init parameter.
+	 * @param formats
+	 * @return
+	 */
+	public static String toInitParameter(Map<String, String> formats) {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, String> e : formats.entrySet()) {
+			if (sb.length() > 0) {
+				sb.append(",");
+			}
+			sb.append(e.getKey()).append("=").append(e.getValue());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Checks whether a resource of given mime type should be compressed - these are text resources (including
+	 * JavaScript, JSON, XML and SVG).
+	 * @param mimeType
+	 * @return
+	 */
+	public static boolean isCompressible(String mimeType) {
+		if (mimeType == null) {
+			return false;
+		}
+		String type = mimeType.toLowerCase(Locale.ROOT);
+		int semicolon = type.indexOf(';');
+		if (semicolon >= 0) {
+			type = type.substring(0, semicolon).trim();
+		}
+		return type.startsWith("text/")
+				|| type.endsWith("+xml") || type.endsWith("+json")
+				|| "application/javascript".equals(type)
+				|| "application/x-javascript".equals(type)
+				|| "application/ecmascript".equals(type)
+				|| "application/json".equals(type)
+				|| "application/xml".equals(type)
+				|| "application/wasm".equals(type);
+	}
+
+	/**
+	 * Returns a file with gzip compressed content of the resource, creating it if needed.
+	 * @param entry cached information about the original resource
+	 * @param mimeType mime type of the original resource
+	 * @return {@code null} if the resource shouldn't (or can't) be compressed
+	 */
+	public File get(ResourceCache.Entry entry, String mimeType) {
+		if (!entry.exists() || entry.isDirectory() || entry.getLength() < MIN_SIZE
+				|| entry.getLength() > maxEntrySize || !isCompressible(mimeType)) {
+			return null;
+		}
+		String key = key(entry);
+		synchronized (this) {
+			Variant variant = variants.get(key);
+			if (variant != null) {
+				if (variant.file.isFile()) {
+					return variant.file;
+				}
+				// deleted externally
+				remove(key);
+			}
+		}
+
+		// compress outside of the lock - in the worst case the same resource is compressed twice into
+		// the same file
+		File file = compress(entry, key);
+		if (file == null) {
+			return null;
+		}
+
+		synchronized (this) {
+			Variant previous = variants.get(key);
+			if (previous != null) {
+				return previous.file;
+			}
+			variants.put(key, new Variant(file, entry.getBundleId()));
+			totalSize += file.length();
+			Iterator<Map.Entry<String, Variant>> it = variants.entrySet().iterator();
+			while (totalSize > maxTotalSize && it.hasNext()) {
+				Map.Entry<String, Variant> eldest = it.next();
+				if (eldest.getKey().equals(key)) {
+					continue;
+				}
+				it.remove();
+				delete(eldest.getValue());
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * Deletes compressed variants of the resources provided by given bundle.
+	 * @param bundleId
+	 */
+	public synchronized void invalidate(long bundleId) {
+		for (Iterator<Variant> it = variants.values().iterator(); it.hasNext(); ) {
+			Variant variant = it.next();
+			if (variant.bundleId == bundleId) {
+				it.remove();
+				delete(variant);
+			}
+		}
+	}
+
+	/**
+	 * Deletes all the compressed variants.
+	 */
+	public synchronized void clear() {
+		for (Variant variant : variants.values()) {
+			delete(variant);
+		}
+		variants.clear();
+		totalSize = 0L;
+	}
+
+	public synchronized int size() {
+		return variants.size();
+	}
+
+	public synchronized long getTotalSize() {
+		return totalSize;
+	}
+
+	/**
+	 * Deletes compressed and temporary files not known to this cache.
+	 */
+	private void removeOrphans() {
+		File[] files = directory == null ? null : directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		int removed = 0;
+		for (File f : files) {
+			if (f.isFile() && (f.getName().endsWith(GZIP_EXTENSION) || f.getName().endsWith(".tmp"))) {
+				if (f.delete()) {
+					removed++;
+				} else {
+					LOG.debug("Can't delete {}", f);
+				}
+			}
+		}
+		if (removed > 0) {
+			LOG.debug("Removed {} orphaned compressed files from {}", removed, directory);
+		}
+	}
+
+	private void remove(String key) {
+		Variant variant = variants.remove(key);
+		if (variant != null) {
+			delete(variant);
+		}
+	}
+
+	private void delete(Variant variant) {
+		totalSize -= variant.size;
+		if (!variant.file.delete() && variant.file.exists()) {
+			LOG.debug("Can't delete {}", variant.file);
+		}
+	}
+
+	private File compress(ResourceCache.Entry entry, String key) {
+		File file = new File(directory, key + GZIP_EXTENSION);
+		try {
+			Files.createDirectories(directory.toPath());
+			File tmp = File.createTempFile(key, ".tmp", directory);
+			byte[] content = entry.getContent();
+			try (InputStream is = content != null ? new ByteArrayInputStream(content) : entry.getUrl().openStream();
+					OutputStream os = new GZIPOutputStream(Files.newOutputStream(tmp.toPath()), 8192)) {
+				byte[] buf = new byte[8192];
+				int read;
+				while ((read = is.read(buf)) > 0) {
+					os.write(buf, 0, read);
+				}
+			} catch (IOException e) {
+				Files.deleteIfExists(tmp.toPath());
+				throw e;
+			}
+			if (entry.getLastModified() > 0L) {
+				// so Last-Modified header of the compressed variant matches the original resource
+				Files.setLastModifiedTime(tmp.toPath(), FileTime.fromMillis(entry.getLastModified()));
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			LOG.debug("Compressed {} ({}B) into {} ({}B)", entry.getUrl(), entry.getLength(), file, file.length());
+			return file;
+		} catch (IOException e) {
+			LOG.debug("Can't compress {}: {}", entry.getUrl(), e.getMessage());
+			return null;
+		}
+	}
+
+	private static String key(ResourceCache.Entry entry) {
+		String id = entry.getUrl().toExternalForm() + "|" + entry.getLastModified() + "|" + entry.getLength();
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(id.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 16; i++) {
+				sb.append(String.format("%02x", digest[i]));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(id.hashCode());
+		}
+	}
+
+	private static final class Variant {
+		private final File file;
+		private final long bundleId;
+		private final long size;
+
+		Variant(File file, long bundleId) {
+			this.file = file;
+			this.bundleId = bundleId;
+			this.size = file.length();
+		}
+	}
+
+}
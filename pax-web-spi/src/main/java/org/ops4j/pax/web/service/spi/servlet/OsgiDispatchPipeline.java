@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Consumer;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+
+import org.ops4j.pax.web.service.WebContainerContext;
+import org.osgi.service.http.whiteboard.Preprocessor;
+
+/**
+ * <p>Immutable, pre-built part of request processing shared by Jetty, Tomcat and Undertow - the
+ * {@link Preprocessor preprocessors} that have to be invoked (in order) before security handling and normal
+ * filters of the target servlet.</p>
+ *
+ * <p>Each runtime keeps current pipeline in a volatile field and replaces it with new instance (never modifies it)
+ * whenever the preprocessors change or are (re)initialized, so request processing never has to copy
+ * or stream the list of {@link PreprocessorFilterConfig configs}. The only per-request object is the
+ * {@link OsgiFilterChain} that keeps the position within the pipeline.</p>
+ */
+public final class OsgiDispatchPipeline {
+
+	public static final OsgiDispatchPipeline EMPTY = new OsgiDispatchPipeline(Collections.emptyList());
+
+	private static final Preprocessor[] NO_PREPROCESSORS = new Preprocessor[0];
+
+	private final PreprocessorFilterConfig[] configs;
+
+	/** Instances are obtained lazily, because (prototype) services are obtained in {@link PreprocessorFilterConfig} */
+	private volatile Preprocessor[] preprocessors;
+
+	public OsgiDispatchPipeline(Collection<PreprocessorFilterConfig> configs) {
+		this.configs = configs.toArray(new PreprocessorFilterConfig[0]);
+		if (this.configs.length == 0) {
+			preprocessors = NO_PREPROCESSORS;
+		}
+	}
+
+	/**
+	 * Whether there are any {@link Preprocessor preprocessors} in this pipeline.
+	 * @return
+	 */
+	public boolean hasPreprocessors() {
+		return configs.length > 0;
+	}
+
+	/**
+	 * Returns (resolving them if needed) all the {@link Preprocessor} instances of this pipeline. The returned
+	 * array must not be modified.
+	 * @return
+	 */
+	public Preprocessor[] getPreprocessors() {
+		Preprocessor[] instances = preprocessors;
+		if (instances == null) {
+			instances = new Preprocessor[configs.length];
+			for (int i = 0; i < configs.length; i++) {
+				instances[i] = configs[i].getInstance();
+			}
+			preprocessors = instances;
+		}
+		return instances;
+	}
+
+	/**
+	 * Creates new {@link OsgiFilterChain} (which is a lightweight, per-request cursor) for this pipeline.
+	 *
+	 * @param servletContext wrapped {@link ServletContext} with proper delegation
+	 * @param context already resolved {@link WebContainerContext} of the target servlet
+	 * @param chain original chain (filters + target servlet)
+	 * @param osgiSessionsBridge
+	 * @param authListener
+	 * @return
+	 */
+	public OsgiFilterChain createChain(ServletContext servletContext, WebContainerContext context, FilterChain chain,
+			OsgiSessionAttributeListener osgiSessionsBridge, Consumer<HttpServletRequest> authListener) {
+		return new OsgiFilterChain(getPreprocessors(), servletContext, context, chain, osgiSessionsBridge, authListener);
+	}
+
+}
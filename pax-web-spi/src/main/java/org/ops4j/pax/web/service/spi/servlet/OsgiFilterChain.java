@@ -16,7 +16,6 @@
 package org.ops4j.pax.web.service.spi.servlet;
 
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Consumer;
 import javax.servlet.FilterChain;
@@ -42,7 +41,9 @@ import org.osgi.service.http.whiteboard.Preprocessor;
  */
 public class OsgiFilterChain implements FilterChain {
 
-	private final List<Preprocessor> preprocessors = new LinkedList<>();
+	private static final Preprocessor[] NO_PREPROCESSORS = new Preprocessor[0];
+
+	private final Preprocessor[] preprocessors;
 
 	private final ServletContext servletContext;
 	private final WebContainerContext webContext;
@@ -66,7 +67,24 @@ public class OsgiFilterChain implements FilterChain {
 	public OsgiFilterChain(List<Preprocessor> preprocessors, ServletContext servletContext,
 			WebContainerContext context, FilterChain originalChain,
 			OsgiSessionAttributeListener osgiSessionsBridge, Consumer<HttpServletRequest> authListener) {
-		this.preprocessors.addAll(preprocessors);
+		this(preprocessors.isEmpty() ? NO_PREPROCESSORS : preprocessors.toArray(NO_PREPROCESSORS),
+				servletContext, context, originalChain, osgiSessionsBridge, authListener);
+	}
+
+	/**
+	 * Creates {@link FilterChain} using already prepared array of {@link Preprocessor preprocessors}. The array
+	 * is not copied, so it may be shared between many chains (one per request), but it must not be modified
+	 * after being passed here - runtimes should create new array when the preprocessors change.
+	 *
+	 * @param preprocessors
+	 * @param servletContext wrapped {@link ServletContext} with proper delegation
+	 * @param context already resolved (with proper {@link Bundle}) {@link WebContainerContext}.
+	 * @param originalChain
+	 */
+	public OsgiFilterChain(Preprocessor[] preprocessors, ServletContext servletContext,
+			WebContainerContext context, FilterChain originalChain,
+			OsgiSessionAttributeListener osgiSessionsBridge, Consumer<HttpServletRequest> authListener) {
+		this.preprocessors = preprocessors;
 		this.webContext = context;
 		this.servletContext = servletContext;
 		this.chain = originalChain;
@@ -88,9 +106,9 @@ public class OsgiFilterChain implements FilterChain {
 			req = new OsgiHttpServletRequestWrapper(req, servletContext, osgiSessionsBridge);
 		}
 
-		if (index < preprocessors.size()) {
+		if (index < preprocessors.length) {
 			// still something left
-			Preprocessor filter = preprocessors.get(index++);
+			Preprocessor filter = preprocessors[index++];
 			filter.doFilter(req, res, this);
 			return;
 		}
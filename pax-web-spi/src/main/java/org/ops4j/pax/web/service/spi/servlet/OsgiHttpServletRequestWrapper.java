@@ -105,28 +105,29 @@ public class OsgiHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
 	@Override
 	public HttpSession getSession(boolean create) {
-		if (session != null) {
-			session = null;
+		// we always have to ask the container, because the session may have been invalidated, its id may
+		// have been changed or it may have been created in the meantime
+		HttpSession original = super.getSession(create);
+		if (original == null) {
+			return null;
 		}
-		if (session == null) {
-			synchronized (this) {
-				if (session == null) {
-					HttpSession original = super.getSession(create);
-					if (original == null) {
-						return null;
-					}
-					if (original instanceof OsgiHttpSession) {
-						session = (OsgiHttpSession) original;
-						return session;
-					}
-
-					// the only place where org.ops4j.pax.web.service.spi.servlet.OsgiHttpSession is created
-					this.session = new OsgiHttpSession(original, osgiContext, context, osgiSessionsBridge);
-				}
-			}
+		if (original instanceof OsgiHttpSession) {
+			return original;
+		}
+
+		// the container returns the same session object for the same session within single request, so
+		// in most cases (no invalidation) we can return the same wrapper without creating a new one
+		OsgiHttpSession current = session;
+		if (current != null && current.getOriginal() == original) {
+			return current;
 		}
 
-		return session;
+		// the only place where org.ops4j.pax.web.service.spi.servlet.OsgiHttpSession is created
+		// no need to synchronize - in rare case of concurrent access, both wrappers are equivalent
+		current = new OsgiHttpSession(original, osgiContext, context, osgiSessionsBridge);
+		session = current;
+
+		return current;
 	}
 
 	@Override
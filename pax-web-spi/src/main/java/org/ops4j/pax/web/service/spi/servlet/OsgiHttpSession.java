@@ -38,6 +38,14 @@ public class OsgiHttpSession implements HttpSession {
 		this.context = context;
 	}
 
+	/**
+	 * Returns the container {@link HttpSession} wrapped by this OSGi-specific session.
+	 * @return
+	 */
+	HttpSession getOriginal() {
+		return original;
+	}
+
 	@Override
 	public long getCreationTime() {
 		return original.getCreationTime();
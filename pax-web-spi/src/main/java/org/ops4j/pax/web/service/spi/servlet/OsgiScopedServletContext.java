@@ -15,6 +15,7 @@
  */
 package org.ops4j.pax.web.service.spi.servlet;
 
+import java.io.File;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -390,6 +391,33 @@ public class OsgiScopedServletContext implements ServletContext {
 		return osgiContext.getResource(webContainerContext, path);
 	}
 
+	/**
+	 * Returns (possibly cached) information about a resource - to be used by resource servlets.
+	 * @param path
+	 * @return never {@code null}
+	 */
+	public ResourceCache.Entry getCachedResource(String path) throws MalformedURLException {
+		return osgiContext.getCachedResource(webContainerContext, path);
+	}
+
+	/**
+	 * Invalidates cached information about a resource - to be used by resource servlets which track the changes
+	 * of resources.
+	 * @param path
+	 */
+	public void invalidateCachedResource(String path) {
+		osgiContext.invalidateCachedResource(webContainerContext, path);
+	}
+
+	/**
+	 * Returns compressed variant of a text resource - to be used by resource servlets.
+	 * @param path path of the <em>precompressed</em> sibling of the resource
+	 * @return {@code null} if there's no compressed variant
+	 */
+	public File getCompressedResource(String path) throws MalformedURLException {
+		return osgiContext.getCompressedResource(webContainerContext, path);
+	}
+
 	@Override
 	public InputStream getResourceAsStream(String path) {
 		return osgiContext.getResourceAsStream(webContainerContext, path);
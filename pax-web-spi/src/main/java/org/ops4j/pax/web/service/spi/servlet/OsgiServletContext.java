@@ -15,6 +15,7 @@
  */
 package org.ops4j.pax.web.service.spi.servlet;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -107,6 +108,9 @@ public class OsgiServletContext implements ServletContext {
 
 	private boolean acceptsServletContextListeners = true;
 
+	/** Cache of resources resolved by resource servlets (default servlets) of this context */
+	private volatile ResourceCache resourceCache;
+
 	/**
 	 * Constructor called when {@link OsgiContextModel} is passed to given
 	 * {@link org.ops4j.pax.web.service.spi.ServerController}. We still can't grab an instance of
@@ -709,6 +713,79 @@ public class OsgiServletContext implements ServletContext {
 		return context.getResource(path);
 	}
 
+	/**
+	 * Sets the {@link ResourceCache} used by resource servlets of this context. Should be called by server
+	 * wrappers, which have access to {@link org.ops4j.pax.web.service.spi.config.ResourceConfiguration}.
+	 * @param resourceCache
+	 */
+	public void setResourceCache(ResourceCache resourceCache) {
+		this.resourceCache = resourceCache;
+		// metadata of the owner bundle's entries is collected up front, when the context starts
+		ResourceCache.indexBundle(osgiContextModel.getOwnerBundle());
+	}
+
+	public ResourceCache getResourceCache() {
+		return resourceCache;
+	}
+
+	/**
+	 * Returns (possibly cached) information about a resource. Unlike {@link #getResource(String)}, which is part
+	 * of Servlet API and always delegates to {@link WebContainerContext}, this method should be used by the
+	 * resource servlets of all the runtimes, so static resources are resolved the same way everywhere.
+	 * @param context
+	 * @param path
+	 * @return never {@code null}
+	 */
+	public ResourceCache.Entry getCachedResource(WebContainerContext context, String path) throws MalformedURLException {
+		ResourceCache cache = resourceCache;
+		if (cache == null) {
+			synchronized (this) {
+				cache = resourceCache;
+				if (cache == null) {
+					cache = new ResourceCache(null);
+					resourceCache = cache;
+				}
+			}
+		}
+		return cache.get(context, path, p -> getResource(context, p));
+	}
+
+	/**
+	 * Invalidates cached information about a resource - to be called by runtimes which track the changes of
+	 * resources returned from {@link #getCachedResource(WebContainerContext, String)}.
+	 * @param context
+	 * @param path
+	 */
+	public void invalidateCachedResource(WebContainerContext context, String path) {
+		ResourceCache cache = resourceCache;
+		if (cache != null) {
+			cache.invalidate(context, path);
+		}
+	}
+
+	/**
+	 * Returns gzip compressed variant of a text resource, when {@code path} is a path of a <em>precompressed</em>
+	 * sibling ({@code /app.js.gz}) of an existing resource ({@code /app.js}) and compression is enabled. Should
+	 * be called by resource servlets only when there's no real resource for the {@code path}.
+	 * @param context
+	 * @param path
+	 * @return a file with compressed content or {@code null}
+	 */
+	public File getCompressedResource(WebContainerContext context, String path) throws MalformedURLException {
+		ResourceCache cache = resourceCache;
+		if (cache == null || !cache.isCompressionEnabled() || !path.endsWith(CompressedResourceCache.GZIP_EXTENSION)) {
+			return null;
+		}
+		String source = path.substring(0, path.length() - CompressedResourceCache.GZIP_EXTENSION.length());
+		ResourceCache.Entry entry = getCachedResource(context, source);
+		if (!entry.exists() || entry.isDirectory()) {
+			return null;
+		}
+		Object tmpDir = getAttribute(ServletContext.TEMPDIR);
+		File directory = tmpDir instanceof File ? new File((File) tmpDir, "compressed") : null;
+		return cache.getCompressed(entry, getMimeType(context, source), directory);
+	}
+
 	@Override
 	public InputStream getResourceAsStream(String path) {
 		return getResourceAsStream(defaultWebContainerContext, path);
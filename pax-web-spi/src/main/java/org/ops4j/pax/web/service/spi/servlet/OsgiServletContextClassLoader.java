@@ -20,11 +20,19 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import javax.servlet.ServletContext;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleReference;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.framework.wiring.BundleCapability;
+import org.osgi.framework.wiring.BundleWire;
 import org.osgi.framework.wiring.BundleWiring;
 
 /**
@@ -61,15 +69,64 @@ import org.osgi.framework.wiring.BundleWiring;
  * </ul></p>
  *
  * <p>This {@link ClassLoader} implements {@link BundleReference}</p>
+ *
+ * <p>The first (owner) bundle is always checked first, so its private packages take precedence. After
+ * {@link #makeImmutable()} is called, the {@link ClassLoader} uses an index of packages (taken from
+ * {@link BundleWiring bundle wirings} - exported and imported packages) to check the other bundles that are
+ * known to provide given package before the remaining ones. Failed class and resource lookups are remembered in
+ * bounded negative caches, so repeated lookups of missing classes don't have to probe all the bundles (and create
+ * all the exceptions) again. Because wiring of the bundles may change (refresh, {@code DynamicImport-Package}
+ * satisfied by newly resolved bundle), the negative caches are cleared when {@link #wiringChanged()} is called
+ * (Pax Web Runtime calls it for bundle events changing the wiring) or when the wiring of any of the bundles
+ * is replaced.</p>
  */
 public class OsgiServletContextClassLoader extends ClassLoader implements BundleReference {
 
+	/** Maximum number of class/resource names kept in each negative cache */
+	private static final int NEGATIVE_CACHE_SIZE = 4096;
+
+	/** Global counter of wiring changes - negative caches created for older value are no longer valid */
+	private static final AtomicLong WIRING_GENERATION = new AtomicLong();
+
 	private List<Bundle> bundles = new ArrayList<>();
 
+	/**
+	 * Package name to the order (indices in {@link #bundles}) in which the bundles are checked - owner bundle
+	 * first, then bundles which export or import given package, then the remaining bundles. Created
+	 * in {@link #makeImmutable()}
+	 */
+	private Map<String, int[]> packageIndex;
+
+	/** Order of bundles for packages not found in {@link #packageIndex} */
+	private int[] defaultOrder;
+
+	private final LongAdder indexHits = new LongAdder();
+	private final LongAdder scanHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder negativeCacheHits = new LongAdder();
+
+	/** Names of classes which couldn't be loaded - guarded by {@code this} */
+	private final Map<String, Boolean> missingClasses = negativeCache();
+	/** Names of resources which couldn't be found - guarded by {@code this} */
+	private final Map<String, Boolean> missingResources = negativeCache();
+
+	/** Value of {@link #WIRING_GENERATION} and the wirings of the bundles for which negative caches are valid */
+	private long cachedGeneration = -1L;
+	private BundleWiring[] cachedWirings;
+
 	public OsgiServletContextClassLoader() {
 		super(null);
 	}
 
+	/**
+	 * Notifies all instances of {@link OsgiServletContextClassLoader} that wiring of some bundles has changed (a bundle
+	 * was resolved, unresolved, updated or uninstalled), so classes and resources which were missing may now
+	 * be available.
+	 */
+	public static void wiringChanged() {
+		WIRING_GENERATION.incrementAndGet();
+	}
+
 	@Override
 	public Bundle getBundle() {
 		return bundles.size() == 0 ? null : bundles.get(0);
@@ -105,26 +162,94 @@ public class OsgiServletContextClassLoader extends ClassLoader implements Bundle
 
 	/**
 	 * After adding all bundles that back up this {@link ClassLoader}, this method prevents adding more bundles.
+	 * This is also the moment when package index is created.
 	 */
 	public void makeImmutable() {
+		if (packageIndex != null) {
+			return;
+		}
 		bundles = Collections.unmodifiableList(bundles);
+
+		Map<String, List<Integer>> index = new HashMap<>();
+		for (int i = 0; i < bundles.size(); i++) {
+			BundleWiring bw = bundles.get(i).adapt(BundleWiring.class);
+			if (bw == null) {
+				continue;
+			}
+			List<BundleCapability> capabilities = bw.getCapabilities(PackageNamespace.PACKAGE_NAMESPACE);
+			if (capabilities != null) {
+				for (BundleCapability capability : capabilities) {
+					addToIndex(index, capability, i);
+				}
+			}
+			List<BundleWire> wires = bw.getRequiredWires(PackageNamespace.PACKAGE_NAMESPACE);
+			if (wires != null) {
+				for (BundleWire wire : wires) {
+					addToIndex(index, wire.getCapability(), i);
+				}
+			}
+		}
+
+		int size = bundles.size();
+		Map<String, int[]> packageIndex = new HashMap<>(index.size());
+		index.forEach((pkg, indices) -> {
+			int[] order = new int[size];
+			int pos = 0;
+			order[pos++] = 0;
+			for (int i : indices) {
+				if (i != 0) {
+					order[pos++] = i;
+				}
+			}
+			for (int i = 1; i < size; i++) {
+				if (!indices.contains(i)) {
+					order[pos++] = i;
+				}
+			}
+			packageIndex.put(pkg, order);
+		});
+		this.defaultOrder = defaultOrder(size);
+		this.packageIndex = packageIndex;
+	}
+
+	private void addToIndex(Map<String, List<Integer>> index, BundleCapability capability, int bundleIndex) {
+		Object pkg = capability == null ? null : capability.getAttributes().get(PackageNamespace.PACKAGE_NAMESPACE);
+		if (pkg instanceof String) {
+			List<Integer> indices = index.computeIfAbsent((String) pkg, p -> new ArrayList<>(2));
+			if (!indices.contains(bundleIndex)) {
+				indices.add(bundleIndex);
+			}
+		}
 	}
 
 	@Override
 	public Class<?> loadClass(String name) throws ClassNotFoundException {
-		List<Exception> suppressed = new ArrayList<>(bundles.size());
-		for (Bundle b : bundles) {
-			BundleWiring bw = b.adapt(BundleWiring.class);
-			ClassLoader cl = bw == null ? null : bw.getClassLoader();
+		if (isMissing(missingClasses, name)) {
+			negativeCacheHits.increment();
+			throw new ClassNotFoundException(name);
+		}
+
+		List<Exception> suppressed = new ArrayList<>();
+
+		// owner bundle first, then the bundles which are known to export/import the package of the class
+		int dot = name.lastIndexOf('.');
+		int[] indexed = indexedOrder(dot > 0 ? name.substring(0, dot) : "");
+		int[] order = indexed != null ? indexed : defaultOrder();
+		for (int idx : order) {
+			ClassLoader cl = classLoader(bundles.get(idx));
 			if (cl != null) {
 				try {
-					return cl.loadClass(name);
+					Class<?> c = cl.loadClass(name);
+					(indexed != null ? indexHits : scanHits).increment();
+					return c;
 				} catch (Exception e) {
 					suppressed.add(e);
 				}
 			}
 		}
 
+		misses.increment();
+		remember(missingClasses, name);
 		ClassNotFoundException cnfe = new ClassNotFoundException(name);
 		suppressed.forEach(cnfe::addSuppressed);
 		throw cnfe;
@@ -132,26 +257,40 @@ public class OsgiServletContextClassLoader extends ClassLoader implements Bundle
 
 	@Override
 	protected URL findResource(String name) {
-		for (Bundle b : bundles) {
-			BundleWiring bw = b.adapt(BundleWiring.class);
-			ClassLoader cl = bw == null ? null : bw.getClassLoader();
+		if (isMissing(missingResources, name)) {
+			negativeCacheHits.increment();
+			return null;
+		}
+
+		int[] indexed = indexedOrder(resourcePackage(name));
+		int[] order = indexed != null ? indexed : defaultOrder();
+		for (int idx : order) {
+			ClassLoader cl = classLoader(bundles.get(idx));
 			if (cl != null) {
 				URL res = cl.getResource(name);
 				if (res != null) {
+					(indexed != null ? indexHits : scanHits).increment();
 					return res;
 				}
 			}
 		}
 
+		misses.increment();
+		remember(missingResources, name);
 		return null;
 	}
 
 	@Override
 	protected Enumeration<URL> findResources(String name) throws IOException {
+		if (isMissing(missingResources, name)) {
+			negativeCacheHits.increment();
+			return Collections.emptyEnumeration();
+		}
+
+		// all the bundles have to be checked, because we need all the resources
 		List<URL> urls = new ArrayList<>(32);
 		for (Bundle b : bundles) {
-			BundleWiring bw = b.adapt(BundleWiring.class);
-			ClassLoader cl = bw == null ? null : bw.getClassLoader();
+			ClassLoader cl = classLoader(b);
 			if (cl != null) {
 				Enumeration<URL> e = cl.getResources(name);
 				if (e != null) {
@@ -162,6 +301,13 @@ public class OsgiServletContextClassLoader extends ClassLoader implements Bundle
 			}
 		}
 
+		if (urls.isEmpty()) {
+			misses.increment();
+			remember(missingResources, name);
+		} else {
+			scanHits.increment();
+		}
+
 		return Collections.enumeration(urls);
 	}
 
@@ -171,4 +317,127 @@ public class OsgiServletContextClassLoader extends ClassLoader implements Bundle
 		throw new ClassNotFoundException(name);
 	}
 
+	/**
+	 * Number of successful lookups of classes/resources from indexed packages
+	 * @return
+	 */
+	public long getIndexHits() {
+		return indexHits.sum();
+	}
+
+	/**
+	 * Number of successful lookups of classes/resources from packages not found in the package index
+	 * @return
+	 */
+	public long getScanHits() {
+		return scanHits.sum();
+	}
+
+	/**
+	 * Number of lookups which checked all the bundles without success
+	 * @return
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Number of lookups for known missing classes/resources (which didn't have to check any bundle)
+	 * @return
+	 */
+	public long getNegativeCacheHits() {
+		return negativeCacheHits.sum();
+	}
+
+	/**
+	 * Checks whether the name is remembered as missing. The negative caches are used only after
+	 * {@link #makeImmutable()} and are cleared if the wiring has changed since they were filled.
+	 * @param cache
+	 * @param name
+	 * @return
+	 */
+	private synchronized boolean isMissing(Map<String, Boolean> cache, String name) {
+		if (packageIndex == null || cache.isEmpty()) {
+			return false;
+		}
+		if (!negativeCachesValid()) {
+			missingClasses.clear();
+			missingResources.clear();
+			return false;
+		}
+		return cache.get(name) != null;
+	}
+
+	private synchronized void remember(Map<String, Boolean> cache, String name) {
+		if (packageIndex == null) {
+			return;
+		}
+		if (!negativeCachesValid()) {
+			missingClasses.clear();
+			missingResources.clear();
+			cachedGeneration = WIRING_GENERATION.get();
+			cachedWirings = currentWirings();
+		}
+		cache.put(name, Boolean.TRUE);
+	}
+
+	private boolean negativeCachesValid() {
+		if (cachedGeneration != WIRING_GENERATION.get() || cachedWirings == null) {
+			return false;
+		}
+		for (int i = 0; i < cachedWirings.length; i++) {
+			// refreshed bundle gets new wiring
+			if (bundles.get(i).adapt(BundleWiring.class) != cachedWirings[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private BundleWiring[] currentWirings() {
+		BundleWiring[] wirings = new BundleWiring[bundles.size()];
+		for (int i = 0; i < wirings.length; i++) {
+			wirings[i] = bundles.get(i).adapt(BundleWiring.class);
+		}
+		return wirings;
+	}
+
+	private static Map<String, Boolean> negativeCache() {
+		return new LinkedHashMap<String, Boolean>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > NEGATIVE_CACHE_SIZE;
+			}
+		};
+	}
+
+	private int[] indexedOrder(String pkg) {
+		Map<String, int[]> index = packageIndex;
+		return index == null ? null : index.get(pkg);
+	}
+
+	private int[] defaultOrder() {
+		int[] order = defaultOrder;
+		return order != null ? order : defaultOrder(bundles.size());
+	}
+
+	private static int[] defaultOrder(int size) {
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		return order;
+	}
+
+	private static String resourcePackage(String name) {
+		String path = name.startsWith("/") ? name.substring(1) : name;
+		int slash = path.lastIndexOf('/');
+		return slash > 0 ? path.substring(0, slash).replace('/', '.') : "";
+	}
+
+	private static ClassLoader classLoader(Bundle bundle) {
+		BundleWiring bw = bundle.adapt(BundleWiring.class);
+		return bw == null ? null : bw.getClassLoader();
+	}
+
 }
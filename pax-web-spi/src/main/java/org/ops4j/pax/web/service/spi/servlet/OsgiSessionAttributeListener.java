@@ -15,8 +15,12 @@
  */
 package org.ops4j.pax.web.service.spi.servlet;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EventListener;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionAttributeListener;
@@ -31,10 +35,44 @@ import org.ops4j.pax.web.service.spi.model.elements.EventListenerModel;
  */
 public final class OsgiSessionAttributeListener {
 
+	private static final HttpSessionAttributeListener[] NO_LISTENERS = new HttpSessionAttributeListener[0];
+
 	private final List<EventListenerModel> sessionListenerModels;
 
+	/** Listeners indexed by {@link OsgiContextModel} - rebuilt in {@link #sessionListenersChanged()} */
+	private volatile Map<OsgiContextModel, HttpSessionAttributeListener[]> listenersPerContext = Collections.emptyMap();
+
+	/** All the listeners - used when there's no {@link OsgiContextModel} to narrow the listeners */
+	private volatile HttpSessionAttributeListener[] allListeners = NO_LISTENERS;
+
 	public OsgiSessionAttributeListener(List<EventListenerModel> sessionListenerModels) {
 		this.sessionListenerModels = sessionListenerModels;
+		sessionListenersChanged();
+	}
+
+	/**
+	 * Should be called (from the thread that modifies the list of {@link EventListenerModel models}) after
+	 * adding or removing session attribute listener, so the listeners are indexed by {@link OsgiContextModel}
+	 * again.
+	 */
+	public void sessionListenersChanged() {
+		Map<OsgiContextModel, List<HttpSessionAttributeListener>> index = new HashMap<>();
+		List<HttpSessionAttributeListener> all = new ArrayList<>();
+		for (EventListenerModel elm : sessionListenerModels) {
+			EventListener listener = elm.getResolvedListener();
+			if (listener instanceof HttpSessionAttributeListener) {
+				// can't imagine other scenario...
+				all.add((HttpSessionAttributeListener) listener);
+				for (OsgiContextModel ocm : elm.getContextModels()) {
+					index.computeIfAbsent(ocm, m -> new ArrayList<>()).add((HttpSessionAttributeListener) listener);
+				}
+			}
+		}
+
+		Map<OsgiContextModel, HttpSessionAttributeListener[]> newListenersPerContext = new HashMap<>();
+		index.forEach((ocm, listeners) -> newListenersPerContext.put(ocm, listeners.toArray(NO_LISTENERS)));
+		listenersPerContext = newListenersPerContext;
+		allListeners = all.toArray(NO_LISTENERS);
 	}
 
 	/**
@@ -47,20 +85,21 @@ public final class OsgiSessionAttributeListener {
 	 * @param old
 	 */
 	public void callSessionListeners(HttpSession session, OsgiContextModel model, String name, Object value, Object old) {
-		for (EventListenerModel elm : sessionListenerModels) {
-			if (model == null || elm.getContextModels().contains(model)) {
-				EventListener listener = elm.getResolvedListener();
-				if (listener instanceof HttpSessionAttributeListener) {
-					// can't imagine other scenario...
-					HttpSessionBindingEvent event = new HttpSessionBindingEvent(session, name, old == null ? value : old);
-					if (value == null) {
-						((HttpSessionAttributeListener) listener).attributeRemoved(event);
-					} else if (old == null) {
-						((HttpSessionAttributeListener) listener).attributeAdded(event);
-					} else {
-						((HttpSessionAttributeListener) listener).attributeReplaced(event);
-					}
-				}
+		HttpSessionAttributeListener[] listeners = model == null ? allListeners
+				: listenersPerContext.getOrDefault(model, NO_LISTENERS);
+		if (listeners.length == 0) {
+			return;
+		}
+
+		// the event is immutable, so it can be shared by all the listeners
+		HttpSessionBindingEvent event = new HttpSessionBindingEvent(session, name, old == null ? value : old);
+		for (HttpSessionAttributeListener listener : listeners) {
+			if (value == null) {
+				listener.attributeRemoved(event);
+			} else if (old == null) {
+				listener.attributeAdded(event);
+			} else {
+				listener.attributeReplaced(event);
 			}
 		}
 	}
@@ -0,0 +1,690 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+import org.ops4j.pax.web.service.spi.config.ResourceConfiguration;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Container-independent cache of resources resolved by <em>resource servlets</em> through
+ * {@link OsgiServletContext#getResource(org.ops4j.pax.web.service.WebContainerContext, String)}. There's one
+ * cache per {@link OsgiServletContext} (so per {@link org.ops4j.pax.web.service.spi.model.OsgiContextModel}) and
+ * for each path it remembers resolved {@link URL} (or lack of it), length, last modification time, ETag and
+ * (for small resources) the content itself.</p>
+ *
+ * <p>The cache is configured using {@code org.ops4j.pax.web.resource.cache.*} properties. Entries for bundle resources
+ * are invalidated when the bundle providing the resource is updated, unresolved or uninstalled - see
+ * {@link #invalidateBundle(long)} - so they don't expire. Entries for resources of other origins expire after
+ * configured TTL, unless a runtime tracks the changes of the resource itself (like watching {@code file:}
+ * resources) and {@link #invalidate(Object, String) invalidates} the entry - see {@link Entry#markTracked()}.</p>
+ *
+ * <p>Directories and files of bundles are recognized using {@link BundleEntryIndex}, without any I/O. Last
+ * modification time (and ETag) of indexed bundle files is the last modification time of the bundle. Length and
+ * content (of small resources) of such files are read together, when any of them is needed for the first
+ * time.</p>
+ *
+ * <p>When {@code org.ops4j.pax.web.resource.compression} is enabled, the cache also manages
+ * {@link CompressedResourceCache compressed variants} of text resources.</p>
+ */
+public class ResourceCache {
+
+	public static final Logger LOG = LoggerFactory.getLogger(ResourceCache.class);
+
+	/** All the caches, so they can be notified about bundle changes */
+	private static final Set<ResourceCache> CACHES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+	/** Indexes of bundle entries, shared by all the caches */
+	private static final Map<Long, BundleEntryIndex> INDEXES = new ConcurrentHashMap<>();
+
+	/** Listeners notified after the caches are invalidated for changed bundle */
+	private static final List<LongConsumer> BUNDLE_LISTENERS = new CopyOnWriteArrayList<>();
+
+	private final int maxEntries;
+	private final long maxEntrySize;
+	private final long maxTotalSize;
+	private final long ttl;
+
+	/** Whether gzip compressed variants of text resources are created on demand */
+	private final boolean compression;
+	private final long maxCompressedSize;
+	/** Lazily created, when the first compressed variant is needed */
+	private volatile CompressedResourceCache compressedResources;
+
+	/** LRU map of the entries - guarded by {@code this} */
+	private final LinkedHashMap<Key, Entry> entries;
+	private long totalSize = 0L;
+
+	/**
+	 * Creates a cache using configuration from {@code org.ops4j.pax.web.resource.cache.*} properties
+	 * @param configuration may be {@code null}, in which case defaults are used
+	 */
+	public ResourceCache(ResourceConfiguration configuration) {
+		this((int) value(configuration == null ? null : configuration.maxCacheEntries(), 2048),
+				value(configuration == null ? null : configuration.maxCacheEntrySize(), 64) * 1024L,
+				value(configuration == null ? null : configuration.maxTotalCacheSize(), 10 * 1024) * 1024L,
+				value(configuration == null ? null : configuration.maxCacheTTL(), 60000),
+				configuration != null && Boolean.TRUE.equals(configuration.compression()),
+				value(configuration == null ? null : configuration.compressionCacheMaxSize(), 10 * 1024) * 1024L);
+	}
+
+	/**
+	 * Creates a cache with explicit limits
+	 * @param maxEntries maximum number of entries (including the ones for missing resources)
+	 * @param maxEntrySize maximum size (in bytes) of a resource for which the content is cached
+	 * @param maxTotalSize maximum size (in bytes) of all cached content
+	 * @param ttl time (in ms) after which an entry has to be resolved again. Non positive value means no expiration.
+	 */
+	public ResourceCache(int maxEntries, long maxEntrySize, long maxTotalSize, long ttl) {
+		this(maxEntries, maxEntrySize, maxTotalSize, ttl, false, 0L);
+	}
+
+	/**
+	 * Creates a cache with explicit limits and optional compression of text resources
+	 * @param maxEntries maximum number of entries (including the ones for missing resources)
+	 * @param maxEntrySize maximum size (in bytes) of a resource for which the content is cached
+	 * @param maxTotalSize maximum size (in bytes) of all cached content
+	 * @param ttl time (in ms) after which an entry has to be resolved again. Non positive value means no expiration.
+	 * @param compression whether gzip compressed variants of text resources should be created
+	 * @param maxCompressedSize maximum size (in bytes) of all compressed variants
+	 */
+	public ResourceCache(int maxEntries, long maxEntrySize, long maxTotalSize, long ttl, boolean compression,
+			long maxCompressedSize) {
+		this.maxEntries = Math.max(maxEntries, 1);
+		this.maxEntrySize = maxEntrySize;
+		this.maxTotalSize = maxTotalSize;
+		this.ttl = ttl;
+		this.compression = compression;
+		this.maxCompressedSize = maxCompressedSize;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		CACHES.add(this);
+	}
+
+	/**
+	 * Invalidates cached entries of all the caches for resources provided by given bundle. Entries for missing
+	 * resources are invalidated too, because the bundle (or fragments attached to it) may provide them after
+	 * an update.
+	 * @param bundleId
+	 */
+	public static void invalidateBundle(long bundleId) {
+		INDEXES.remove(bundleId);
+		ResourceCache[] caches;
+		synchronized (CACHES) {
+			caches = CACHES.toArray(new ResourceCache[0]);
+		}
+		for (ResourceCache cache : caches) {
+			cache.invalidate(bundleId);
+		}
+		// other caches (like Undertow's CachingResourceManager) are populated from these caches, so they're
+		// invalidated only after these caches no longer contain the old entries
+		for (LongConsumer listener : BUNDLE_LISTENERS) {
+			listener.accept(bundleId);
+		}
+	}
+
+	/**
+	 * Adds a listener notified with an ID of a bundle after the entries of the bundle are invalidated by
+	 * {@link #invalidateBundle(long)}.
+	 * @param listener
+	 */
+	public static void addBundleListener(LongConsumer listener) {
+		BUNDLE_LISTENERS.add(listener);
+	}
+
+	public static void removeBundleListener(LongConsumer listener) {
+		BUNDLE_LISTENERS.remove(listener);
+	}
+
+	/**
+	 * Builds the {@link BundleEntryIndex} for given bundle (unless it's already available) - should be called
+	 * when a context backed by the bundle is started. Bundles which are not indexed this way are indexed when
+	 * their resources are accessed for the first time.
+	 * @param bundle
+	 */
+	public static void indexBundle(Bundle bundle) {
+		if (bundle == null || INDEXES.containsKey(bundle.getBundleId())) {
+			return;
+		}
+		BundleEntryIndex index = BundleEntryIndex.build(bundle);
+		if (index != null) {
+			INDEXES.putIfAbsent(index.getBundleId(), index);
+		}
+	}
+
+	private static BundleEntryIndex index(long bundleId) {
+		BundleEntryIndex index = INDEXES.get(bundleId);
+		if (index == null) {
+			Bundle spiBundle = FrameworkUtil.getBundle(ResourceCache.class);
+			BundleContext context = spiBundle == null ? null : spiBundle.getBundleContext();
+			if (context != null) {
+				try {
+					index = BundleEntryIndex.build(context.getBundle(bundleId));
+				} catch (IllegalStateException e) {
+					return null;
+				}
+				if (index != null) {
+					INDEXES.putIfAbsent(bundleId, index);
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Returns cached information about a resource, resolving it with the {@link Resolver} if there's no valid
+	 * entry yet.
+	 * @param scope an object (like {@link org.ops4j.pax.web.service.WebContainerContext}) which, together with
+	 *        the path, identifies the resource
+	 * @param path
+	 * @param resolver
+	 * @return never {@code null} - an entry with {@code null} {@link Entry#getUrl()} means there's no such resource
+	 */
+	public Entry get(Object scope, String path, Resolver resolver) throws MalformedURLException {
+		Key key = new Key(scope, path);
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				if (ttl <= 0 || !entry.expires() || now - entry.created < ttl) {
+					return entry;
+				}
+				remove(key);
+			}
+		}
+
+		// resolve and load outside of the lock - in the worst case the same resource is loaded twice
+		Entry entry = load(resolver.resolve(path), now);
+
+		synchronized (this) {
+			if (entry.reservedSize > 0L) {
+				if (totalSize + entry.reservedSize > maxTotalSize) {
+					// keep the metadata only
+					entry = new Entry(entry.url, entry.bundleId, entry.directory, entry.length, entry.lastModified,
+							null, false, false, entry.created);
+				} else {
+					totalSize += entry.reservedSize;
+				}
+			}
+			remove(key);
+			entry.owner = this;
+			entry.key = key;
+			entries.put(key, entry);
+			Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+			while (entries.size() > maxEntries && it.hasNext()) {
+				totalSize -= it.next().getValue().reservedSize;
+				it.remove();
+			}
+		}
+
+		return entry;
+	}
+
+	public boolean isCompressionEnabled() {
+		return compression;
+	}
+
+	/**
+	 * Returns a file with gzip compressed content of a text resource - see {@link CompressedResourceCache}.
+	 * @param entry cached information about the original resource
+	 * @param mimeType mime type of the original resource
+	 * @param directory directory for compressed files, used when the first compressed variant is created
+	 * @return {@code null} if compression is disabled or the resource shouldn't be compressed
+	 */
+	public File getCompressed(Entry entry, String mimeType, File directory) {
+		if (!compression || directory == null) {
+			return null;
+		}
+		CompressedResourceCache compressed = compressedResources;
+		if (compressed == null) {
+			synchronized (this) {
+				compressed = compressedResources;
+				if (compressed == null) {
+					compressed = new CompressedResourceCache(directory, maxCompressedSize);
+					compressedResources = compressed;
+				}
+			}
+		}
+		return compressed.get(entry, mimeType);
+	}
+
+	/**
+	 * Invalidates entries for resources of given bundle and entries for missing resources.
+	 * @param bundleId
+	 */
+	public void invalidate(long bundleId) {
+		synchronized (this) {
+			for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+				Entry entry = it.next();
+				if (entry.url == null || entry.bundleId == bundleId) {
+					totalSize -= entry.reservedSize;
+					it.remove();
+				}
+			}
+		}
+		CompressedResourceCache compressed = compressedResources;
+		if (compressed != null) {
+			compressed.invalidate(bundleId);
+		}
+	}
+
+	/**
+	 * Invalidates single entry - should be called by runtimes which track the changes of resources.
+	 * @param scope
+	 * @param path
+	 */
+	public synchronized void invalidate(Object scope, String path) {
+		remove(new Key(scope, path));
+	}
+
+	/**
+	 * Invalidates all the entries.
+	 */
+	public void clear() {
+		synchronized (this) {
+			entries.clear();
+			totalSize = 0L;
+		}
+		CompressedResourceCache compressed = compressedResources;
+		if (compressed != null) {
+			compressed.clear();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getTotalSize() {
+		return totalSize;
+	}
+
+	/**
+	 * Counts the lazily read content of an entry towards the total size of the cache - only if the entry is still
+	 * in the cache and there's enough space.
+	 * @param entry
+	 * @param size
+	 * @return whether the content can be kept in the entry
+	 */
+	private synchronized boolean reserve(Entry entry, long size) {
+		if (entries.get(entry.key) != entry || totalSize + size > maxTotalSize) {
+			return false;
+		}
+		totalSize += size;
+		entry.reservedSize += size;
+		return true;
+	}
+
+	private void remove(Key key) {
+		Entry previous = entries.remove(key);
+		if (previous != null) {
+			totalSize -= previous.reservedSize;
+		}
+	}
+
+	private Entry load(URL url, long now) {
+		if (url == null) {
+			return new Entry(null, -1L, false, -1L, 0L, null, false, false, now);
+		}
+
+		String protocol = url.getProtocol();
+		if ("file".equals(protocol)) {
+			try {
+				File file = new File(url.toURI());
+				if (!file.exists()) {
+					return new Entry(null, -1L, false, -1L, 0L, null, false, false, now);
+				}
+				boolean directory = file.isDirectory();
+				long length = directory ? -1L : file.length();
+				return new Entry(url, -1L, directory, length, file.lastModified(), null,
+						!directory && length <= maxEntrySize, false, now);
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				LOG.debug("Can't access {} as file: {}", url, e.getMessage());
+			}
+		}
+
+		long bundleId = bundleId(url);
+		if (bundleId >= 0 && url.getPath().endsWith("/")) {
+			return new Entry(url, bundleId, true, -1L, 0L, null, false, false, now);
+		}
+		BundleEntryIndex index = bundleId >= 0 ? index(bundleId) : null;
+		boolean indexedFile = false;
+		if (index != null && index.covers(url)) {
+			if (index.isDirectory(url)) {
+				try {
+					return new Entry(new URL(url.toExternalForm() + "/"), bundleId, true, -1L,
+							index.getLastModified(), null, false, false, now);
+				} catch (MalformedURLException e) {
+					LOG.debug("Can't create directory URL for {}: {}", url, e.getMessage());
+				}
+			}
+			indexedFile = index.isFile(url);
+			if (indexedFile) {
+				// no need to access the entry now - length (and content) are read when needed
+				return new Entry(url, bundleId, false, -1L, index.getLastModified(), null, true, true, now);
+			}
+		}
+
+		long length = -1L;
+		long lastModified = 0L;
+		try {
+			URLConnection connection = url.openConnection();
+			length = connection.getContentLengthLong();
+			lastModified = connection.getLastModified();
+			try (InputStream is = connection.getInputStream()) {
+				if (bundleId >= 0 && length <= 0L && !indexedFile) {
+					// unfortunately, due to https://issues.apache.org/jira/browse/FELIX-6294
+					// we have to check ourselves if it's a directory and possibly append a slash
+					// just as org.eclipse.osgi.storage.bundlefile.BundleFile#fixTrailingSlash() does it
+					URL fixedURL = new URL(url.toExternalForm() + "/");
+					if (isDirectory(fixedURL)) {
+						return new Entry(fixedURL, bundleId, true, -1L, lastModified, null, false, false, now);
+					}
+				}
+				byte[] content = null;
+				if (length >= 0L && length <= maxEntrySize) {
+					content = read(is);
+					length = content.length;
+				}
+				return new Entry(url, bundleId, false, length, lastModified, content, false, false, now);
+			}
+		} catch (IOException e) {
+			LOG.debug("Problem accessing {}: {}", url, e.getMessage());
+			return new Entry(url, bundleId, false, length, lastModified, null, false, false, now);
+		}
+	}
+
+	private static boolean isDirectory(URL url) {
+		try (InputStream is = url.openStream()) {
+			return is != null && is.available() == 0;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static byte[] read(URL url) {
+		try (InputStream is = url.openStream()) {
+			return read(is);
+		} catch (IOException e) {
+			LOG.debug("Problem reading {}: {}", url, e.getMessage());
+			return null;
+		}
+	}
+
+	private static byte[] read(InputStream is) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		int read;
+		while ((read = is.read(buf)) > 0) {
+			baos.write(buf, 0, read);
+		}
+		return baos.toByteArray();
+	}
+
+	/**
+	 * Bundle ID is the (leading numeric part of the) host of {@code bundle:} (Felix) or
+	 * {@code bundleentry:}/{@code bundleresource:} (Equinox) URLs.
+	 * @param url
+	 * @return bundle ID or {@code -1} if the URL is not a bundle URL
+	 */
+	public static long bundleId(URL url) {
+		String protocol = url.getProtocol();
+		if (!"bundle".equals(protocol) && !"bundleentry".equals(protocol) && !"bundleresource".equals(protocol)) {
+			return -1L;
+		}
+		String host = url.getHost();
+		int end = 0;
+		while (end < host.length() && Character.isDigit(host.charAt(end))) {
+			end++;
+		}
+		if (end == 0) {
+			return -1L;
+		}
+		try {
+			return Long.parseLong(host.substring(0, end));
+		} catch (NumberFormatException e) {
+			return -1L;
+		}
+	}
+
+	private static long value(Integer value, int defaultValue) {
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * Resolver of the resources - usually a method reference to
+	 * {@link OsgiServletContext#getResource(org.ops4j.pax.web.service.WebContainerContext, String)}.
+	 */
+	@FunctionalInterface
+	public interface Resolver {
+		URL resolve(String path) throws MalformedURLException;
+	}
+
+	/**
+	 * Immutable information about cached resource (except the lazily read length and content and a flag marking
+	 * the entry as tracked).
+	 */
+	public static final class Entry {
+
+		private final URL url;
+		private final long bundleId;
+		private final boolean directory;
+		private final long lastModified;
+		private final String eTag;
+		private final long created;
+
+		/** Length - either known when the entry was created or read together with the content */
+		private volatile long length;
+		/** Whether the length (and the content, if it's small enough) should be read on first access */
+		private volatile boolean lazyLength;
+		/** Content - either read when the entry was created or when it's needed for the first time */
+		private volatile byte[] content;
+		/** Whether the content should be read on first access */
+		private volatile boolean lazy;
+		/** The size counted towards the total size of the cache - guarded by the owner cache */
+		private long reservedSize;
+		/** Whether changes of the resource are tracked by a runtime, which invalidates the entry */
+		private volatile boolean tracked;
+
+		/** The cache and the key of this entry - set when the entry is put into the cache */
+		private ResourceCache owner;
+		private Key key;
+
+		private Entry(URL url, long bundleId, boolean directory, long length, long lastModified, byte[] content,
+				boolean lazy, boolean lazyLength, long created) {
+			this.url = url;
+			this.bundleId = bundleId;
+			this.directory = directory;
+			this.length = length;
+			this.lastModified = lastModified;
+			this.content = content;
+			this.lazyLength = lazyLength;
+			this.lazy = content == null && lazy && (length >= 0L || lazyLength);
+			this.reservedSize = content != null ? content.length : this.lazy && !lazyLength ? length : 0L;
+			if (url == null || directory) {
+				this.eTag = null;
+			} else if (lazyLength) {
+				// indexed bundle entry changes only with the bundle itself
+				this.eTag = "W/\"" + bundleId + "-" + lastModified + "\"";
+			} else {
+				this.eTag = length < 0L ? null : "W/\"" + length + "-" + lastModified + "\"";
+			}
+			this.created = created;
+		}
+
+		/**
+		 * Resolved {@link URL}. For bundle directories it always ends with a slash.
+		 * @return {@code null} if there's no such resource
+		 */
+		public URL getUrl() {
+			return url;
+		}
+
+		public boolean exists() {
+			return url != null;
+		}
+
+		/**
+		 * @return ID of the bundle providing the resource or {@code -1} if it's not a bundle resource
+		 */
+		public long getBundleId() {
+			return bundleId;
+		}
+
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		/**
+		 * @return length of the resource or {@code -1} if not known
+		 */
+		public long getLength() {
+			if (lazyLength) {
+				getContent();
+			}
+			return length;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return weak ETag based on length and last modification time (or bundle ID and last modification time
+		 *         of the bundle for indexed bundle entries) or {@code null} if length is not known
+		 */
+		public String getETag() {
+			return eTag;
+		}
+
+		/**
+		 * Marks this entry as tracked by a runtime, which calls {@link ResourceCache#invalidate(Object, String)}
+		 * when the resource (or lack of it) changes. Such entry doesn't expire after TTL.
+		 */
+		public void markTracked() {
+			tracked = true;
+		}
+
+		/**
+		 * Entries of bundle resources are invalidated when the bundle changes, entries of other resources
+		 * expire, unless they're tracked.
+		 * @return
+		 */
+		private boolean expires() {
+			return !tracked && (url == null || bundleId < 0L);
+		}
+
+		/**
+		 * @return cached content of the resource or {@code null} if the resource is too big to be cached
+		 */
+		public byte[] getContent() {
+			if (lazy) {
+				synchronized (this) {
+					if (lazy) {
+						if (lazyLength) {
+							readLengthAndContent();
+						} else {
+							byte[] read = read(url);
+							if (read != null && read.length == length) {
+								content = read;
+							}
+						}
+						lazy = false;
+					}
+				}
+			}
+			return content;
+		}
+
+		/**
+		 * Reads the length of the resource and (if it's small enough and fits into the cache) its content
+		 * using single connection.
+		 */
+		private void readLengthAndContent() {
+			ResourceCache cache = owner;
+			try {
+				URLConnection connection = url.openConnection();
+				long len = connection.getContentLengthLong();
+				try (InputStream is = connection.getInputStream()) {
+					if (cache != null && len >= 0L && len <= cache.maxEntrySize) {
+						byte[] read = read(is);
+						if (read.length == len && cache.reserve(this, len)) {
+							content = read;
+						}
+					}
+				}
+				length = len;
+			} catch (IOException e) {
+				LOG.debug("Problem accessing {}: {}", url, e.getMessage());
+			} finally {
+				lazyLength = false;
+			}
+		}
+	}
+
+	private static final class Key {
+
+		private final Object scope;
+		private final String path;
+		private final int hash;
+
+		Key(Object scope, String path) {
+			this.scope = scope;
+			this.path = path;
+			this.hash = 31 * System.identityHashCode(scope) + path.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return scope == key.scope && path.equals(key.path);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.session;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>{@link SessionStore} decorator, which adds:<ul>
+ *     <li>in-memory (L1) LRU cache of loaded and saved sessions, so repeated loads don't hit the delegate</li>
+ *     <li><em>write-behind</em> - saves and deletes are collected and passed to the delegate in batches, after
+ *     configured delay or when configured number of changes is pending. Only the last change of given session
+ *     is written.</li>
+ * </ul></p>
+ *
+ * <p>Pending changes are bounded: a change which the delegate failed to write {@link #MAX_ATTEMPTS} times is
+ * dropped (and logged) and when {@link #MAX_PENDING} changes are pending, new changes are written directly to the
+ * delegate, so the caller sees the failure.</p>
+ *
+ * <p>This store must not be used with a delegate shared with other instances (or other stores), unless both the
+ * cache and write-behind are disabled - the cache is not invalidated by changes made by other instances and
+ * pending changes are not visible to them.</p>
+ */
+public class CachingSessionStore implements SessionStore {
+
+	/** Number of failed writes after which a pending change is dropped */
+	public static final int MAX_ATTEMPTS = 3;
+
+	/** Number of pending changes after which the changes of other sessions are written directly */
+	public static final int MAX_PENDING = 10_000;
+
+	private static final Logger LOG = LoggerFactory.getLogger(CachingSessionStore.class);
+
+	/** Marker of pending delete */
+	private static final SessionRecord TOMBSTONE = new SessionRecord(null, 0L, 0L, 0L, 0L, null);
+
+	private final SessionStore delegate;
+	private final int cacheSize;
+	private final long writeBehind;
+	private final int batchSize;
+
+	private final Map<Key, SessionRecord> cache;
+	private final Map<Key, Change> pending = new ConcurrentHashMap<>();
+	private final Object flushLock = new Object();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+	/**
+	 * Incremented on every change, so a session loaded from the delegate is not cached if it was changed
+	 * while being loaded
+	 */
+	private final AtomicLong modifications = new AtomicLong();
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Creates caching {@link SessionStore}
+	 * @param delegate actual store
+	 * @param cacheSize number of sessions cached in memory ({@code 0} disables the cache)
+	 * @param writeBehind delay in milliseconds of the writes to the delegate ({@code 0} means write-through)
+	 * @param batchSize number of pending changes which triggers the write before the delay passes
+	 */
+	public CachingSessionStore(SessionStore delegate, int cacheSize, long writeBehind, int batchSize) {
+		this.delegate = delegate;
+		this.cacheSize = Math.max(cacheSize, 0);
+		this.writeBehind = Math.max(writeBehind, 0L);
+		this.batchSize = batchSize <= 0 ? Integer.MAX_VALUE : batchSize;
+
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<Key, SessionRecord>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, SessionRecord> eldest) {
+				return size() > CachingSessionStore.this.cacheSize;
+			}
+		});
+
+		if (this.writeBehind > 0L) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "paxweb-session-store");
+				t.setDaemon(true);
+				return t;
+			});
+			scheduler.scheduleWithFixedDelay(this::flushQuietly, this.writeBehind, this.writeBehind,
+					TimeUnit.MILLISECONDS);
+		} else {
+			scheduler = null;
+		}
+	}
+
+	@Override
+	public void save(String contextId, SessionRecord record) throws IOException {
+		Key key = new Key(contextId, record.getId());
+		modifications.incrementAndGet();
+		if (cacheSize > 0) {
+			cache.put(key, record);
+		}
+		if (scheduler == null || isFull(key)) {
+			delegate.save(contextId, record);
+		} else {
+			pending.put(key, new Change(record));
+			checkBatch();
+		}
+	}
+
+	@Override
+	public SessionRecord load(String contextId, String id) throws IOException {
+		Key key = new Key(contextId, id);
+		SessionRecord record = pendingRecord(key);
+		if (record != null) {
+			return record == TOMBSTONE ? null : record;
+		}
+		if (cacheSize > 0) {
+			record = cache.get(key);
+			if (record != null) {
+				return record;
+			}
+		}
+		long version = modifications.get();
+		record = delegate.load(contextId, id);
+		if (record != null && cacheSize > 0) {
+			synchronized (cache) {
+				// don't cache a session which was saved or deleted in the meantime
+				if (modifications.get() == version) {
+					cache.put(key, record);
+				}
+			}
+		}
+		return record;
+	}
+
+	@Override
+	public SessionRecord loadHeader(String contextId, String id) throws IOException {
+		Key key = new Key(contextId, id);
+		SessionRecord record = pendingRecord(key);
+		if (record != null) {
+			return record == TOMBSTONE ? null : record;
+		}
+		if (cacheSize > 0) {
+			record = cache.get(key);
+			if (record != null) {
+				return record;
+			}
+		}
+		return delegate.loadHeader(contextId, id);
+	}
+
+	@Override
+	public boolean delete(String contextId, String id) throws IOException {
+		Key key = new Key(contextId, id);
+		modifications.incrementAndGet();
+		cache.remove(key);
+		if (scheduler == null) {
+			return delegate.delete(contextId, id);
+		}
+		if (isFull(key)) {
+			pending.remove(key);
+			return delegate.delete(contextId, id);
+		}
+		pending.put(key, new Change(TOMBSTONE));
+		checkBatch();
+		return true;
+	}
+
+	@Override
+	public boolean exists(String contextId, String id) throws IOException {
+		Key key = new Key(contextId, id);
+		SessionRecord record = pendingRecord(key);
+		if (record != null) {
+			return record != TOMBSTONE;
+		}
+		return (cacheSize > 0 && cache.containsKey(key)) || delegate.exists(contextId, id);
+	}
+
+	@Override
+	public Set<String> getSessionIds(String contextId) throws IOException {
+		Set<String> ids = new LinkedHashSet<>(delegate.getSessionIds(contextId));
+		for (Map.Entry<Key, Change> e : pending.entrySet()) {
+			if (Objects.equals(e.getKey().contextId, contextId)) {
+				if (e.getValue().record == TOMBSTONE) {
+					ids.remove(e.getKey().id);
+				} else {
+					ids.add(e.getKey().id);
+				}
+			}
+		}
+		return ids;
+	}
+
+	@Override
+	public Set<String> getExpiredSessionIds(String contextId, long time) throws IOException {
+		flush();
+		return delegate.getExpiredSessionIds(contextId, time);
+	}
+
+	@Override
+	public void clear(String contextId) throws IOException {
+		synchronized (flushLock) {
+			modifications.incrementAndGet();
+			pending.keySet().removeIf(k -> Objects.equals(k.contextId, contextId));
+			synchronized (cache) {
+				cache.keySet().removeIf(k -> Objects.equals(k.contextId, contextId));
+			}
+			delegate.clear(contextId);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (flushLock) {
+			IOException failure = null;
+			for (Iterator<Map.Entry<Key, Change>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+				Map.Entry<Key, Change> e = it.next();
+				Key key = e.getKey();
+				Change change = e.getValue();
+				SessionRecord record = change.record;
+				try {
+					if (record == TOMBSTONE) {
+						delegate.delete(key.contextId, key.id);
+					} else {
+						delegate.save(key.contextId, record);
+					}
+					// the change is removed only after it's written, so until then load() doesn't reach the
+					// delegate. If the session was changed concurrently, the new change is kept for next flush
+					pending.remove(key, change);
+				} catch (IOException ex) {
+					if (failure == null) {
+						failure = ex;
+					}
+					if (++change.attempts >= MAX_ATTEMPTS && pending.remove(key, change)) {
+						// the delegate keeps failing - don't keep (and retry) the change forever
+						modifications.incrementAndGet();
+						cache.remove(key);
+						LOG.warn("Dropping {} of session {} in {} after {} failed attempts: {}",
+								record == TOMBSTONE ? "delete" : "save", key.id, key.contextId, change.attempts,
+								ex.getMessage());
+					}
+				}
+			}
+			delegate.flush();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (scheduler != null) {
+			scheduler.shutdown();
+			try {
+				scheduler.awaitTermination(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			flush();
+		} finally {
+			cache.clear();
+			delegate.close();
+		}
+	}
+
+	/**
+	 * Number of changes not yet passed to the delegate.
+	 * @return
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	private SessionRecord pendingRecord(Key key) {
+		Change change = pending.get(key);
+		return change == null ? null : change.record;
+	}
+
+	/**
+	 * Checks whether a change of the session can't be queued, because too many changes are pending already.
+	 * A change of the session which is already pending replaces the previous one, so it can always be queued.
+	 * @param key
+	 * @return
+	 */
+	private boolean isFull(Key key) {
+		return pending.size() >= MAX_PENDING && !pending.containsKey(key);
+	}
+
+	private void checkBatch() {
+		if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+			try {
+				scheduler.execute(() -> {
+					flushScheduled.set(false);
+					flushQuietly();
+				});
+			} catch (RuntimeException e) {
+				// scheduler is already shut down - pending changes will be written in close()
+				flushScheduled.set(false);
+			}
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Problem writing sessions: {}", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Pending change of a session with the number of failed attempts to write it. A new change of the same
+	 * session replaces this object, so the attempts are counted per change.
+	 */
+	private static final class Change {
+		private final SessionRecord record;
+		/** Guarded by {@code flushLock} */
+		private int attempts;
+
+		Change(SessionRecord record) {
+			this.record = record;
+		}
+	}
+
+	private static final class Key {
+		private final String contextId;
+		private final String id;
+
+		Key(String contextId, String id) {
+			this.contextId = contextId;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key key = (Key) o;
+			return Objects.equals(contextId, key.contextId) && Objects.equals(id, key.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(contextId, id);
+		}
+	}
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.session;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Embedded {@link SessionStore} keeping each session in separate file: {@code <dir>/<context>/<id>.session}.</p>
+ *
+ * <p>Files are replaced atomically (written to temporary file and moved), so other Pax Web instances running on the
+ * same host and configured with the same directory can read (and take over) the sessions at any time. Only the
+ * header of the file is read when checking for expired sessions.</p>
+ */
+public class FileSessionStore implements SessionStore {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FileSessionStore.class);
+
+	private static final int MAGIC = 0x50575353;
+	private static final int VERSION = 1;
+	private static final String SUFFIX = ".session";
+	private static final String ROOT = "_ROOT_";
+
+	private final File directory;
+
+	public FileSessionStore(File directory) {
+		this.directory = directory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	@Override
+	public void save(String contextId, SessionRecord record) throws IOException {
+		File dir = contextDirectory(contextId);
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException("Can't create session directory " + dir);
+		}
+		Path target = new File(dir, encode(record.getId()) + SUFFIX).toPath();
+		Path tmp = Files.createTempFile(dir.toPath(), ".", ".tmp");
+		try {
+			try (OutputStream os = Files.newOutputStream(tmp);
+					DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os))) {
+				dos.writeInt(MAGIC);
+				dos.writeInt(VERSION);
+				dos.writeLong(record.getCreated());
+				dos.writeLong(record.getLastAccessed());
+				dos.writeLong(record.getMaxInactiveMs());
+				dos.writeLong(record.getExpiry());
+				dos.writeInt(record.getData().length);
+				dos.write(record.getData());
+			}
+			try {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	@Override
+	public SessionRecord load(String contextId, String id) throws IOException {
+		File file = sessionFile(contextId, id);
+		try (InputStream is = Files.newInputStream(file.toPath());
+				DataInputStream dis = new DataInputStream(new BufferedInputStream(is))) {
+			long[] header = readHeader(dis);
+			if (header == null) {
+				LOG.warn("Invalid session file {}", file);
+				return null;
+			}
+			int length = dis.readInt();
+			if (length < 0 || length > file.length()) {
+				LOG.warn("Invalid session file {}", file);
+				return null;
+			}
+			byte[] data = new byte[length];
+			dis.readFully(data);
+			return new SessionRecord(id, header[0], header[1], header[2], header[3], data);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (EOFException e) {
+			LOG.warn("Truncated session file {}", file);
+			return null;
+		}
+	}
+
+	@Override
+	public SessionRecord loadHeader(String contextId, String id) throws IOException {
+		File file = sessionFile(contextId, id);
+		try (InputStream is = Files.newInputStream(file.toPath());
+				DataInputStream dis = new DataInputStream(new BufferedInputStream(is, 64))) {
+			long[] header = readHeader(dis);
+			if (header == null) {
+				LOG.warn("Invalid session file {}", file);
+				return null;
+			}
+			return new SessionRecord(id, header[0], header[1], header[2], header[3], null);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (EOFException e) {
+			LOG.warn("Truncated session file {}", file);
+			return null;
+		}
+	}
+
+	@Override
+	public boolean delete(String contextId, String id) throws IOException {
+		return Files.deleteIfExists(sessionFile(contextId, id).toPath());
+	}
+
+	@Override
+	public boolean exists(String contextId, String id) {
+		return sessionFile(contextId, id).isFile();
+	}
+
+	@Override
+	public Set<String> getSessionIds(String contextId) {
+		String[] names = contextDirectory(contextId).list();
+		if (names == null) {
+			return Collections.emptySet();
+		}
+		Set<String> ids = new LinkedHashSet<>();
+		for (String name : names) {
+			if (name.endsWith(SUFFIX)) {
+				ids.add(decode(name.substring(0, name.length() - SUFFIX.length())));
+			}
+		}
+		return ids;
+	}
+
+	@Override
+	public Set<String> getExpiredSessionIds(String contextId, long time) throws IOException {
+		Set<String> expired = new LinkedHashSet<>();
+		for (String id : getSessionIds(contextId)) {
+			File file = sessionFile(contextId, id);
+			try (InputStream is = Files.newInputStream(file.toPath());
+					DataInputStream dis = new DataInputStream(new BufferedInputStream(is, 64))) {
+				long[] header = readHeader(dis);
+				if (header == null || (header[3] > 0L && header[3] <= time)) {
+					expired.add(id);
+				}
+			} catch (NoSuchFileException ignored) {
+				// removed concurrently
+			} catch (EOFException e) {
+				expired.add(id);
+			}
+		}
+		return expired;
+	}
+
+	@Override
+	public void clear(String contextId) throws IOException {
+		File[] files = contextDirectory(contextId).listFiles();
+		if (files != null) {
+			for (File f : files) {
+				Files.deleteIfExists(f.toPath());
+			}
+		}
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Reads the header of session file
+	 * @param dis
+	 * @return created, last accessed, max inactive and expiry times or {@code null} if the file is not valid
+	 * @throws IOException
+	 */
+	private long[] readHeader(DataInputStream dis) throws IOException {
+		if (dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+			return null;
+		}
+		return new long[] { dis.readLong(), dis.readLong(), dis.readLong(), dis.readLong() };
+	}
+
+	private File contextDirectory(String contextId) {
+		String name = contextId == null || "".equals(contextId) ? ROOT : encode(contextId);
+		return new File(directory, name);
+	}
+
+	private File sessionFile(String contextId, String id) {
+		return new File(contextDirectory(contextId), encode(id) + SUFFIX);
+	}
+
+	/**
+	 * Encodes a string, so it can be safely used as file name
+	 * @param name
+	 * @return
+	 */
+	static String encode(String name) {
+		try {
+			String encoded = URLEncoder.encode(name, StandardCharsets.UTF_8.name()).replace("*", "%2A");
+			return encoded.startsWith(".") ? "%2E" + encoded.substring(1) : encoded;
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	static String decode(String name) {
+		try {
+			return URLDecoder.decode(name, StandardCharsets.UTF_8.name());
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+}
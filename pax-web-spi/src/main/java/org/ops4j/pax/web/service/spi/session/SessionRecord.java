@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.session;
+
+/**
+ * Persistent form of a single HTTP session. Session attributes are already serialized by the runtime, because
+ * only the runtime knows how to serialize (and later deserialize using proper class loader) its sessions.
+ */
+public final class SessionRecord {
+
+	private final String id;
+	private final long created;
+	private final long lastAccessed;
+	private final long maxInactiveMs;
+	private final long expiry;
+	private final byte[] data;
+
+	/**
+	 * Creates a session record
+	 * @param id session ID
+	 * @param created creation time
+	 * @param lastAccessed last access time
+	 * @param maxInactiveMs maximal inactivity period in milliseconds ({@code <= 0} means no expiration)
+	 * @param expiry time after which the session is expired ({@code <= 0} means no expiration)
+	 * @param data runtime specific serialized form of the session
+	 */
+	public SessionRecord(String id, long created, long lastAccessed, long maxInactiveMs, long expiry, byte[] data) {
+		this.id = id;
+		this.created = created;
+		this.lastAccessed = lastAccessed;
+		this.maxInactiveMs = maxInactiveMs;
+		this.expiry = expiry;
+		this.data = data == null ? new byte[0] : data;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public long getLastAccessed() {
+		return lastAccessed;
+	}
+
+	public long getMaxInactiveMs() {
+		return maxInactiveMs;
+	}
+
+	public long getExpiry() {
+		return expiry;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Checks whether the session is expired at given time
+	 * @param time
+	 * @return
+	 */
+	public boolean isExpired(long time) {
+		return expiry > 0L && expiry <= time;
+	}
+
+	@Override
+	public String toString() {
+		return "SessionRecord{id='" + id + "',expiry=" + expiry + ",size=" + data.length + "}";
+	}
+
+}
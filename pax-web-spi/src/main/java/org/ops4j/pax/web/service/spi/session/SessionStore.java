@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * <p>Runtime independent storage of {@link SessionRecord sessions}. Sessions are grouped by <em>context ID</em>,
+ * which is chosen by the runtime specific adapter (usually it's derived from context path and virtual host).</p>
+ *
+ * <p>Implementations have to be thread safe.</p>
+ */
+public interface SessionStore extends Closeable {
+
+	/**
+	 * Saves (creates or replaces) a session
+	 * @param contextId
+	 * @param record
+	 * @throws IOException
+	 */
+	void save(String contextId, SessionRecord record) throws IOException;
+
+	/**
+	 * Loads a session
+	 * @param contextId
+	 * @param id
+	 * @return {@code null} if there's no such session
+	 * @throws IOException
+	 */
+	SessionRecord load(String contextId, String id) throws IOException;
+
+	/**
+	 * Loads only the times of a session (creation, last access, expiry), without its data. It should be used
+	 * when only expiration has to be checked, as the data may be large.
+	 * @param contextId
+	 * @param id
+	 * @return record with empty data or {@code null} if there's no such session
+	 * @throws IOException
+	 */
+	SessionRecord loadHeader(String contextId, String id) throws IOException;
+
+	/**
+	 * Removes a session
+	 * @param contextId
+	 * @param id
+	 * @return {@code true} if the session was removed (or is scheduled for removal)
+	 * @throws IOException
+	 */
+	boolean delete(String contextId, String id) throws IOException;
+
+	/**
+	 * Checks whether a session exists in the store - expiration is not checked.
+	 * @param contextId
+	 * @param id
+	 * @return
+	 * @throws IOException
+	 */
+	boolean exists(String contextId, String id) throws IOException;
+
+	/**
+	 * Returns IDs of all the sessions stored for given context
+	 * @param contextId
+	 * @return
+	 * @throws IOException
+	 */
+	Set<String> getSessionIds(String contextId) throws IOException;
+
+	/**
+	 * Returns IDs of sessions of given context, which are expired at given time
+	 * @param contextId
+	 * @param time
+	 * @return
+	 * @throws IOException
+	 */
+	Set<String> getExpiredSessionIds(String contextId, long time) throws IOException;
+
+	/**
+	 * Removes all the sessions of given context
+	 * @param contextId
+	 * @throws IOException
+	 */
+	void clear(String contextId) throws IOException;
+
+	/**
+	 * Writes all pending changes, if the store delays the writes
+	 * @throws IOException
+	 */
+	void flush() throws IOException;
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.session;
+
+import java.io.File;
+
+import org.ops4j.pax.web.service.PaxWebConfig;
+import org.ops4j.pax.web.service.spi.config.SessionConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates {@link SessionStore} according to {@link SessionConfiguration}.
+ */
+public final class SessionStores {
+
+	/** Runtime specific session persistence */
+	public static final String TYPE_NATIVE = "native";
+	/** Pax Web {@link SessionStore} */
+	public static final String TYPE_PAXWEB = "paxweb";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SessionStores.class);
+
+	private SessionStores() {
+	}
+
+	/**
+	 * Creates {@link SessionStore} if {@link SessionConfiguration#getSessionStoreType()} is {@link #TYPE_PAXWEB}
+	 * and session store directory is configured.
+	 * @param configuration
+	 * @return {@code null} if runtime specific session persistence should be used
+	 */
+	public static SessionStore create(SessionConfiguration configuration) {
+		String type = configuration.getSessionStoreType();
+		if (type == null || TYPE_NATIVE.equalsIgnoreCase(type)) {
+			return null;
+		}
+		if (!TYPE_PAXWEB.equalsIgnoreCase(type)) {
+			LOG.warn("Unknown session store type \"{}\", using {} session persistence", type, TYPE_NATIVE);
+			return null;
+		}
+		File dir = configuration.getSessionStoreDirectory();
+		if (dir == null) {
+			LOG.warn("{} session store requires {} property", TYPE_PAXWEB, PaxWebConfig.PID_CFG_SESSION_STORE_DIRECTORY);
+			return null;
+		}
+
+		int cacheSize = value(configuration.getSessionStoreCacheSize());
+		int writeBehind = value(configuration.getSessionStoreWriteBehind());
+		int batchSize = value(configuration.getSessionStoreBatchSize());
+		LOG.info("Using Pax Web session store in {} (cache size: {}, write-behind: {}ms)", dir, cacheSize, writeBehind);
+
+		SessionStore store = new FileSessionStore(dir);
+		if (cacheSize > 0 || writeBehind > 0) {
+			store = new CachingSessionStore(store, cacheSize, writeBehind, batchSize);
+		}
+		return store;
+	}
+
+	private static int value(Integer v) {
+		return v == null ? 0 : v;
+	}
+
+}
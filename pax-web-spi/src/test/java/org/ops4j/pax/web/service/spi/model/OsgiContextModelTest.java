@@ -17,6 +17,9 @@ package org.ops4j.pax.web.service.spi.model;
 
 import org.junit.Test;
 
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 public class OsgiContextModelTest {
@@ -31,4 +34,23 @@ public class OsgiContextModelTest {
 		assertTrue("Comparing by static atomic id", ocm1.compareTo(ocm2) < 0);
 	}
 
+	@Test
+	public void precomputedLocations() {
+		OsgiContextModel ocm = new OsgiContextModel(null, 0, 0L, true);
+		assertThat(ocm.getTemporaryLocation(), nullValue());
+		assertThat(ocm.getSessionIdPrefix(), nullValue());
+
+		ocm.setContextPath("/");
+		ocm.setName("my_context");
+		assertThat(ocm.getTemporaryLocation(), equalTo("ROOT/my_context"));
+		assertThat(ocm.getSessionIdPrefix(), equalTo("ROOT_my_context~"));
+		assertThat(ocm.getSessionIdSuffix(), equalTo("~ROOT#my#context"));
+
+		ocm.setContextPath("/app");
+		ocm.setName("a/b:c");
+		assertThat(ocm.getTemporaryLocation(), equalTo("app/a_b_c"));
+		assertThat(ocm.getSessionIdPrefix(), equalTo("app_a_b_c~"));
+		assertThat(ocm.getSessionIdSuffix(), equalTo("~app#a#b#c"));
+	}
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.dto.ServiceReferenceDTO;
+import org.osgi.service.http.runtime.HttpServiceRuntime;
+import org.osgi.service.http.runtime.dto.RuntimeDTO;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServerModelTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void runtimeDTOCachedUntilModelChanges() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			ServerModel model = new ServerModel(executor);
+
+			ServiceRegistration<HttpServiceRuntime> sreg = mock(ServiceRegistration.class);
+			ServiceReference<HttpServiceRuntime> sref = mock(ServiceReference.class);
+			when(sreg.getReference()).thenReturn(sref);
+			when(sref.getUsingBundles()).thenReturn(new Bundle[0]);
+			ServiceReferenceDTO srDTO = new ServiceReferenceDTO();
+			srDTO.id = 42L;
+			srDTO.properties = new HashMap<>();
+			model.setHttpServiceRuntimeInformation(sreg, srDTO);
+
+			OsgiContextModel ocm = new OsgiContextModel(null, 0, 1L, true);
+			ocm.setName("c1");
+			ocm.setContextPath("/c1");
+			model.run(() -> {
+				model.addWhiteboardContext(ocm);
+				return null;
+			}, false);
+
+			RuntimeDTO dto1 = model.getRuntimeDTO();
+			RuntimeDTO dto2 = model.getRuntimeDTO();
+			// cached - only the arrays are copied
+			assertThat(dto1.servletContextDTOs.length, equalTo(1));
+			assertThat(dto2.servletContextDTOs, not(sameInstance(dto1.servletContextDTOs)));
+			assertThat(dto2.servletContextDTOs[0], sameInstance(dto1.servletContextDTOs[0]));
+			assertThat(dto2.serviceDTO.properties.get("service.changecount"),
+					equalTo(dto1.serviceDTO.properties.get("service.changecount")));
+
+			model.run(() -> null, false);
+
+			RuntimeDTO dto3 = model.getRuntimeDTO();
+			assertThat(dto3.servletContextDTOs[0], not(sameInstance(dto1.servletContextDTOs[0])));
+			assertThat(dto3.serviceDTO.properties.get("service.changecount"),
+					not(equalTo(dto1.serviceDTO.properties.get("service.changecount"))));
+
+			assertThat(model.calculateRequestInfoDTO("/x").path, equalTo("/x"));
+
+			// failure code changed in other model doesn't affect this one
+			new ServerModel(executor).dtoFailureChanged();
+			assertThat(model.getRuntimeDTO().servletContextDTOs[0], sameInstance(dto3.servletContextDTOs[0]));
+
+			// failure code changed by the runtime outside of configuration thread
+			assertThat(ocm.getServerModel(), sameInstance(model));
+			model.dtoFailureChanged();
+			assertThat(model.getRuntimeDTO().servletContextDTOs[0], not(sameInstance(dto3.servletContextDTOs[0])));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void tasksQueuedTogetherAreCommittedAsGroup() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			ServerModel model = new ServerModel(executor);
+			List<String> log = new CopyOnWriteArrayList<>();
+			model.setGroupCommit(true, () -> log.add("commit"));
+
+			// block the configuration thread, so the tasks are queued together
+			CountDownLatch latch = new CountDownLatch(1);
+			executor.execute(() -> {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+
+			for (int i = 0; i < 3; i++) {
+				String name = "t" + i;
+				model.runAsync(() -> {
+					log.add(name + ":" + model.isGroupInProgress());
+					return null;
+				});
+			}
+			latch.countDown();
+
+			// synchronous task returns after its group is committed
+			model.run(() -> null, false);
+			assertThat(log.subList(0, 3), hasItems("t0:true", "t1:true", "t2:true"));
+			assertThat(log.get(3), equalTo("commit"));
+			assertThat(log.get(log.size() - 1), equalTo("commit"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Hashtable;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BundleEntryIndexTest {
+
+	private final URLStreamHandler handler = new URLStreamHandler() {
+		@Override
+		protected URLConnection openConnection(URL u) {
+			throw new AssertionError("Entries should not be opened when building the index: " + u);
+		}
+	};
+
+	@Test
+	public void entriesAreIndexed() throws Exception {
+		Bundle bundle = mock(Bundle.class);
+		when(bundle.getBundleId()).thenReturn(7L);
+		when(bundle.getLastModified()).thenReturn(42L);
+		when(bundle.getEntry("/")).thenReturn(url("bundle://7.0:0/"));
+		when(bundle.getHeaders("")).thenReturn(new Hashtable<>());
+		when(bundle.findEntries("/", "*", true)).thenReturn(Collections.enumeration(Arrays.asList(
+				url("bundle://7.0:0/static/"),
+				url("bundle://7.0:0/static/app.js"),
+				url("bundle://7.0:0/index.html"),
+				url("bundle://8.0:0/fragment.txt")
+		)));
+
+		BundleEntryIndex index = BundleEntryIndex.build(bundle);
+		assertThat(index.getLastModified(), equalTo(42L));
+		assertThat(index.size(), equalTo(4));
+
+		assertThat(index.covers(url("bundle://7.0:0/static")), equalTo(true));
+		// class path resource of a bundle without Bundle-ClassPath
+		assertThat(index.covers(url("bundle://7.0:1/static")), equalTo(true));
+		assertThat(index.covers(url("bundle://8.0:0/fragment.txt")), equalTo(false));
+
+		assertThat(index.isDirectory(url("bundle://7.0:0/static")), equalTo(true));
+		assertThat(index.isDirectory(url("bundle://7.0:0/")), equalTo(true));
+		assertThat(index.isDirectory(url("bundle://7.0:0/index.html")), equalTo(false));
+		assertThat(index.isFile(url("bundle://7.0:0/static/app.js")), equalTo(true));
+		assertThat(index.isFile(url("bundle://7.0:0/static")), equalTo(false));
+		assertThat(index.isFile(url("bundle://7.0:0/missing.html")), equalTo(false));
+	}
+
+	private URL url(String spec) throws MalformedURLException {
+		return new URL(null, spec, handler);
+	}
+
+}
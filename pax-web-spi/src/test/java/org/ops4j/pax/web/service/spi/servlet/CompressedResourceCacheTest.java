@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+import org.ops4j.pax.web.service.spi.config.ResourceConfiguration;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CompressedResourceCacheTest {
+
+	@Test
+	public void textResourcesAreCompressedOnce() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-compressed").toFile();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("function f").append(i).append("() { return ").append(i).append("; }\n");
+		}
+		File js = new File(dir, "app.js");
+		Files.write(js.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+		File tiny = new File(dir, "tiny.js");
+		Files.write(tiny.toPath(), "var a;".getBytes(StandardCharsets.UTF_8));
+
+		ResourceCache cache = new ResourceCache(10, 64 * 1024, 1024 * 1024, 0, true, 64 * 1024);
+		File compressedDir = new File(dir, "compressed");
+		ResourceCache.Entry entry = cache.get(this, "app.js", p -> new File(dir, p).toURI().toURL());
+
+		File compressed = cache.getCompressed(entry, "application/javascript", compressedDir);
+		assertThat(compressed, notNullValue());
+		assertThat(compressed.length() < js.length(), equalTo(true));
+		assertThat(compressed.lastModified(), equalTo(js.lastModified()));
+		try (InputStream is = new GZIPInputStream(Files.newInputStream(compressed.toPath()))) {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			int read;
+			while ((read = is.read(buf)) > 0) {
+				baos.write(buf, 0, read);
+			}
+			assertThat(baos.toString("UTF-8"), equalTo(sb.toString()));
+		}
+		assertThat(cache.getCompressed(entry, "application/javascript", compressedDir), sameInstance(compressed));
+
+		// not compressible
+		assertThat(cache.getCompressed(entry, "image/png", compressedDir), nullValue());
+		ResourceCache.Entry tinyEntry = cache.get(this, "tiny.js", p -> new File(dir, p).toURI().toURL());
+		assertThat(cache.getCompressed(tinyEntry, "application/javascript", compressedDir), nullValue());
+
+		cache.clear();
+		assertThat(compressed.exists(), equalTo(false));
+	}
+
+	@Test
+	public void orphanedVariantsAreRemoved() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-compressed").toFile();
+		File orphan = new File(dir, "0123456789abcdef.gz");
+		File tmp = new File(dir, "0123456789abcdef123.tmp");
+		File other = new File(dir, "other.txt");
+		for (File f : new File[] { orphan, tmp, other }) {
+			Files.write(f.toPath(), new byte[] { 0 });
+		}
+
+		CompressedResourceCache cache = new CompressedResourceCache(dir, 64 * 1024);
+		assertThat(orphan.exists(), equalTo(false));
+		assertThat(tmp.exists(), equalTo(false));
+		assertThat(other.isFile(), equalTo(true));
+		assertThat(cache.size(), equalTo(0));
+	}
+
+	@Test
+	public void precompressedFormats() {
+		ResourceConfiguration config = mock(ResourceConfiguration.class);
+		assertThat(CompressedResourceCache.precompressedFormats(config), nullValue());
+
+		when(config.precompressed()).thenReturn("br=.br");
+		when(config.compression()).thenReturn(true);
+		Map<String, String> formats = CompressedResourceCache.precompressedFormats(config);
+		assertThat(CompressedResourceCache.toInitParameter(formats), equalTo("br=.br,gzip=.gz"));
+
+		when(config.precompressed()).thenReturn("true");
+		when(config.compression()).thenReturn(false);
+		formats = CompressedResourceCache.precompressedFormats(config);
+		assertThat(CompressedResourceCache.toInitParameter(formats), equalTo("br=.br,gzip=.gz"));
+	}
+
+	@Test
+	public void compressibleTypes() {
+		assertThat(CompressedResourceCache.isCompressible("text/css; charset=UTF-8"), equalTo(true));
+		assertThat(CompressedResourceCache.isCompressible("image/svg+xml"), equalTo(true));
+		assertThat(CompressedResourceCache.isCompressible("application/json"), equalTo(true));
+		assertThat(CompressedResourceCache.isCompressible("image/jpeg"), equalTo(false));
+		assertThat(CompressedResourceCache.isCompressible(null), equalTo(false));
+	}
+
+}
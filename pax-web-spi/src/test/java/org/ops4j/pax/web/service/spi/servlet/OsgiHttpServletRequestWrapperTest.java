@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OsgiHttpServletRequestWrapperTest {
+
+	@Test
+	public void sessionWrapperReusedForTheSameContainerSession() {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		HttpSession s1 = mock(HttpSession.class);
+		HttpSession s2 = mock(HttpSession.class);
+		when(request.getSession(true)).thenReturn(s1, s1, s2);
+		when(request.getSession(false)).thenReturn(null);
+
+		OsgiHttpServletRequestWrapper wrapper = new OsgiHttpServletRequestWrapper(request, null, null);
+
+		HttpSession w1 = wrapper.getSession();
+		assertThat(wrapper.getSession(), sameInstance(w1));
+
+		// e.g., after invalidation, container returns different session
+		HttpSession w2 = wrapper.getSession(true);
+		assertThat(w2, not(sameInstance(w1)));
+		assertThat(((OsgiHttpSession) w2).getOriginal(), sameInstance(s2));
+
+		assertNull(wrapper.getSession(false));
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.net.URL;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.framework.wiring.BundleCapability;
+import org.osgi.framework.wiring.BundleWiring;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OsgiServletContextClassLoaderTest {
+
+	@Test
+	public void ownerBundleTakesPrecedence() throws Exception {
+		ClassLoader ownerLoader = mock(ClassLoader.class);
+		ClassLoader exporterLoader = mock(ClassLoader.class);
+		URL ownerUrl = new URL("file:/owner/org/example/app.properties");
+		URL exporterUrl = new URL("file:/exporter/org/example/app.properties");
+		when(ownerLoader.getResource("org/example/app.properties")).thenReturn(ownerUrl);
+		when(exporterLoader.getResource("org/example/app.properties")).thenReturn(exporterUrl);
+		when(exporterLoader.getResource("org/example/other.properties")).thenReturn(exporterUrl);
+
+		OsgiServletContextClassLoader cl = new OsgiServletContextClassLoader();
+		cl.addBundle(bundle(ownerLoader, null));
+		cl.addBundle(bundle(exporterLoader, "org.example"));
+		cl.makeImmutable();
+
+		assertThat(cl.getResource("org/example/app.properties"), equalTo(ownerUrl));
+		assertThat(cl.getResource("org/example/other.properties"), equalTo(exporterUrl));
+		assertThat(cl.getIndexHits(), equalTo(2L));
+	}
+
+	@Test
+	public void missingResourcesAreForgottenWhenWiringChanges() throws Exception {
+		ClassLoader loader = mock(ClassLoader.class);
+		OsgiServletContextClassLoader cl = new OsgiServletContextClassLoader();
+		cl.addBundle(bundle(loader, null));
+		cl.makeImmutable();
+
+		assertThat(cl.getResource("org/example/late.properties"), nullValue());
+		URL url = new URL("file:/late/org/example/late.properties");
+		when(loader.getResource("org/example/late.properties")).thenReturn(url);
+		assertThat(cl.getResource("org/example/late.properties"), nullValue());
+		assertThat(cl.getNegativeCacheHits(), equalTo(1L));
+
+		// e.g., after DynamicImport-Package wiring
+		OsgiServletContextClassLoader.wiringChanged();
+		assertThat(cl.getResource("org/example/late.properties"), equalTo(url));
+	}
+
+	@Test
+	public void missingClassesAreForgottenWhenBundleIsRefreshed() throws Exception {
+		ClassLoader loader = mock(ClassLoader.class);
+		when(loader.loadClass("org.example.Late")).thenThrow(new ClassNotFoundException("org.example.Late"));
+		Bundle bundle = bundle(loader, null);
+		OsgiServletContextClassLoader cl = new OsgiServletContextClassLoader();
+		cl.addBundle(bundle);
+		cl.makeImmutable();
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				cl.loadClass("org.example.Late");
+				fail("Should not load the class");
+			} catch (ClassNotFoundException expected) {
+			}
+		}
+		assertThat(cl.getMisses(), equalTo(1L));
+		assertThat(cl.getNegativeCacheHits(), equalTo(1L));
+
+		// refreshed bundle has new wiring
+		ClassLoader refreshed = mock(ClassLoader.class);
+		doReturn(String.class).when(refreshed).loadClass("org.example.Late");
+		BundleWiring wiring = mock(BundleWiring.class);
+		when(wiring.getClassLoader()).thenReturn(refreshed);
+		when(bundle.adapt(BundleWiring.class)).thenReturn(wiring);
+		assertThat(cl.loadClass("org.example.Late"), equalTo(String.class));
+	}
+
+	private Bundle bundle(ClassLoader loader, String exportedPackage) {
+		Bundle bundle = mock(Bundle.class);
+		BundleWiring wiring = mock(BundleWiring.class);
+		when(bundle.adapt(BundleWiring.class)).thenReturn(wiring);
+		when(wiring.getClassLoader()).thenReturn(loader);
+		if (exportedPackage != null) {
+			BundleCapability capability = mock(BundleCapability.class);
+			when(capability.getAttributes())
+					.thenReturn(Collections.singletonMap(PackageNamespace.PACKAGE_NAMESPACE, exportedPackage));
+			when(wiring.getCapabilities(PackageNamespace.PACKAGE_NAMESPACE))
+					.thenReturn(Collections.singletonList(capability));
+		}
+		return bundle;
+	}
+
+}
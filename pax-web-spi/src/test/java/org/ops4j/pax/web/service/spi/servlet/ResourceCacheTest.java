@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.servlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResourceCacheTest {
+
+	@Test
+	public void resourcesAreCachedUntilInvalidated() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-resource-cache").toFile();
+		File small = new File(dir, "small.txt");
+		Files.write(small.toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+		File big = new File(dir, "big.txt");
+		Files.write(big.toPath(), new byte[2048]);
+
+		ResourceCache cache = new ResourceCache(3, 1024, 4096, 0);
+		AtomicInteger resolutions = new AtomicInteger();
+		Object scope = new Object();
+		ResourceCache.Resolver resolver = path -> {
+			resolutions.incrementAndGet();
+			File f = new File(dir, path);
+			return f.exists() ? f.toURI().toURL() : null;
+		};
+
+		ResourceCache.Entry e1 = cache.get(scope, "small.txt", resolver);
+		assertThat(new String(e1.getContent(), StandardCharsets.UTF_8), equalTo("hello"));
+		assertThat(e1.getLength(), equalTo(5L));
+		assertThat(e1.getETag(), notNullValue());
+		assertThat(cache.get(scope, "small.txt", resolver), sameInstance(e1));
+		assertThat(resolutions.get(), equalTo(1));
+		assertThat(cache.getTotalSize(), equalTo(5L));
+
+		ResourceCache.Entry e2 = cache.get(scope, "big.txt", resolver);
+		assertThat(e2.getContent(), nullValue());
+		assertThat(e2.getLength(), equalTo(2048L));
+
+		ResourceCache.Entry e3 = cache.get(scope, "missing.txt", resolver);
+		assertThat(e3.exists(), equalTo(false));
+		assertThat(cache.size(), equalTo(3));
+
+		// negative entries are invalidated on any bundle change
+		ResourceCache.invalidateBundle(42L);
+		assertThat(cache.size(), equalTo(2));
+
+		// LRU eviction
+		cache.get(scope, "missing1.txt", resolver);
+		cache.get(scope, "missing2.txt", resolver);
+		assertThat(cache.size(), equalTo(3));
+		cache.get(scope, "small.txt", resolver);
+		// small.txt was evicted
+		assertThat(cache.getTotalSize(), equalTo(5L));
+		assertThat(resolutions.get(), equalTo(6));
+
+		// different scope
+		cache.get(new Object(), "small.txt", resolver);
+		assertThat(resolutions.get(), equalTo(7));
+
+		cache.clear();
+		assertThat(cache.size(), equalTo(0));
+		assertThat(cache.getTotalSize(), equalTo(0L));
+	}
+
+	@Test
+	public void ttlAppliesOnlyToUntrackedEntries() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-resource-cache").toFile();
+		Files.write(new File(dir, "a.txt").toPath(), "a".getBytes(StandardCharsets.UTF_8));
+		Files.write(new File(dir, "b.txt").toPath(), "b".getBytes(StandardCharsets.UTF_8));
+
+		ResourceCache cache = new ResourceCache(10, 1024, 4096, 1L);
+		Object scope = new Object();
+		ResourceCache.Resolver resolver = path -> {
+			File f = new File(dir, path);
+			return f.exists() ? f.toURI().toURL() : null;
+		};
+
+		ResourceCache.Entry tracked = cache.get(scope, "a.txt", resolver);
+		tracked.markTracked();
+		ResourceCache.Entry untracked = cache.get(scope, "b.txt", resolver);
+		ResourceCache.Entry missing = cache.get(scope, "c.txt", resolver);
+		missing.markTracked();
+		Thread.sleep(10L);
+
+		assertThat(cache.get(scope, "a.txt", resolver), sameInstance(tracked));
+		assertThat(cache.get(scope, "c.txt", resolver), sameInstance(missing));
+		assertThat(cache.get(scope, "b.txt", resolver) == untracked, equalTo(false));
+
+		// the runtime tracking the resource invalidates the entry
+		cache.invalidate(scope, "a.txt");
+		assertThat(cache.get(scope, "a.txt", resolver) == tracked, equalTo(false));
+	}
+
+	@Test
+	public void indexedBundleEntriesAreOpenedOnlyWhenNeeded() throws Exception {
+		byte[] data = "hello".getBytes(StandardCharsets.UTF_8);
+		AtomicInteger connections = new AtomicInteger();
+		URLStreamHandler handler = new URLStreamHandler() {
+			@Override
+			protected URLConnection openConnection(URL u) {
+				connections.incrementAndGet();
+				return new URLConnection(u) {
+					@Override
+					public void connect() {
+					}
+
+					@Override
+					public long getContentLengthLong() {
+						return data.length;
+					}
+
+					@Override
+					public InputStream getInputStream() {
+						return new ByteArrayInputStream(data);
+					}
+				};
+			}
+		};
+		URL url = new URL(null, "bundle://4242.0:0/static/a.txt", handler);
+
+		Bundle bundle = mock(Bundle.class);
+		when(bundle.getBundleId()).thenReturn(4242L);
+		when(bundle.getLastModified()).thenReturn(42L);
+		when(bundle.getEntry("/")).thenReturn(new URL(null, "bundle://4242.0:0/", handler));
+		when(bundle.getHeaders("")).thenReturn(new Hashtable<>());
+		when(bundle.findEntries("/", "*", true)).thenReturn(Collections.enumeration(Arrays.asList(
+				new URL(null, "bundle://4242.0:0/static/", handler), url)));
+		ResourceCache.indexBundle(bundle);
+
+		ResourceCache cache = new ResourceCache(10, 1024, 4096, 0);
+		ResourceCache.Entry entry = cache.get(new Object(), "a.txt", path -> url);
+		assertThat(entry.exists(), equalTo(true));
+		assertThat(entry.isDirectory(), equalTo(false));
+		assertThat(entry.getLastModified(), equalTo(42L));
+		assertThat(entry.getETag(), equalTo("W/\"4242-42\""));
+		assertThat(connections.get(), equalTo(0));
+		assertThat(cache.getTotalSize(), equalTo(0L));
+
+		// length and content are read using single connection
+		assertThat(entry.getLength(), equalTo(5L));
+		assertThat(new String(entry.getContent(), StandardCharsets.UTF_8), equalTo("hello"));
+		assertThat(connections.get(), equalTo(1));
+		assertThat(cache.getTotalSize(), equalTo(5L));
+
+		ResourceCache.invalidateBundle(4242L);
+		assertThat(cache.size(), equalTo(0));
+		assertThat(cache.getTotalSize(), equalTo(0L));
+	}
+
+	@Test
+	public void bundleIds() throws Exception {
+		URLStreamHandler handler = new URLStreamHandler() {
+			@Override
+			protected URLConnection openConnection(URL u) {
+				return null;
+			}
+		};
+		assertThat(ResourceCache.bundleId(new URL(null, "bundle://7.0:1/a.txt", handler)), equalTo(7L));
+		assertThat(ResourceCache.bundleId(new URL(null, "bundleentry://42.fwk1234/a.txt", handler)), equalTo(42L));
+		assertThat(ResourceCache.bundleId(new URL(null, "bundleresource://42.fwk1234:2/a.txt", handler)), equalTo(42L));
+		assertThat(ResourceCache.bundleId(new File("a.txt").toURI().toURL()), equalTo(-1L));
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.spi.session;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SessionStoreTest {
+
+	@Test
+	public void sessionsInFiles() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-session-store").toFile();
+		long now = System.currentTimeMillis();
+		FileSessionStore store = new FileSessionStore(dir);
+
+		store.save("/app_0.0.0.0", record("s1~a#b", now + 60_000L, "u1"));
+		store.save("/app_0.0.0.0", record("s2", now - 1L, "u2"));
+		store.save("", record("s3", 0L, "u3"));
+		assertThat(new File(dir, "_ROOT_").isDirectory(), equalTo(true));
+
+		// another instance working with the same directory
+		FileSessionStore other = new FileSessionStore(dir);
+		assertThat(other.getSessionIds("/app_0.0.0.0"), equalTo(new HashSet<>(Arrays.asList("s1~a#b", "s2"))));
+		SessionRecord s1 = other.load("/app_0.0.0.0", "s1~a#b");
+		assertThat(s1.getExpiry(), equalTo(now + 60_000L));
+		assertThat(new String(s1.getData(), StandardCharsets.UTF_8), equalTo("u1"));
+		assertThat(other.load("/app_0.0.0.0", "s3"), nullValue());
+		SessionRecord header = other.loadHeader("/app_0.0.0.0", "s2");
+		assertThat(header.isExpired(now), equalTo(true));
+		assertThat(header.getData().length, equalTo(0));
+		assertThat(other.loadHeader("/app_0.0.0.0", "s3"), nullValue());
+		assertThat(other.getExpiredSessionIds("/app_0.0.0.0", now), equalTo(Collections.singleton("s2")));
+		assertThat(other.getExpiredSessionIds("", Long.MAX_VALUE).isEmpty(), equalTo(true));
+
+		store.save("/app_0.0.0.0", record("s1~a#b", now + 60_000L, "u1-changed"));
+		assertThat(new String(other.load("/app_0.0.0.0", "s1~a#b").getData(), StandardCharsets.UTF_8), equalTo("u1-changed"));
+
+		assertThat(store.delete("/app_0.0.0.0", "s2"), equalTo(true));
+		assertThat(other.exists("/app_0.0.0.0", "s2"), equalTo(false));
+		store.clear("/app_0.0.0.0");
+		assertThat(other.getSessionIds("/app_0.0.0.0").isEmpty(), equalTo(true));
+		assertThat(other.exists("", "s3"), equalTo(true));
+	}
+
+	@Test
+	public void writeBehindAndCache() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-session-store").toFile();
+		long expiry = System.currentTimeMillis() + 60_000L;
+		FileSessionStore files = new FileSessionStore(dir);
+		CachingSessionStore store = new CachingSessionStore(files, 2, 60_000L, 100);
+
+		SessionRecord s1 = record("s1", expiry, "u1");
+		store.save("app", s1);
+		store.save("app", record("s2", expiry, "u2"));
+		store.save("app", record("s2", expiry, "u2-changed"));
+		assertThat(store.getPendingCount(), equalTo(2));
+		assertThat(files.getSessionIds("app").isEmpty(), equalTo(true));
+		assertThat(store.load("app", "s1"), sameInstance(s1));
+		assertThat(store.getSessionIds("app").size(), equalTo(2));
+
+		store.flush();
+		assertThat(store.getPendingCount(), equalTo(0));
+		assertThat(new String(files.load("app", "s2").getData(), StandardCharsets.UTF_8), equalTo("u2-changed"));
+		// served from L1 cache
+		assertThat(store.load("app", "s1"), sameInstance(s1));
+
+		store.delete("app", "s1");
+		assertThat(store.exists("app", "s1"), equalTo(false));
+		assertThat(files.exists("app", "s1"), equalTo(true));
+		assertThat(store.getSessionIds("app"), equalTo(Collections.singleton("s2")));
+
+		store.close();
+		assertThat(files.exists("app", "s1"), equalTo(false));
+		assertThat(files.load("app", "s2"), notNullValue());
+	}
+
+	@Test
+	public void batchTriggersWrite() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-session-store").toFile();
+		long expiry = System.currentTimeMillis() + 60_000L;
+		FileSessionStore files = new FileSessionStore(dir);
+		CachingSessionStore store = new CachingSessionStore(files, 0, 60_000L, 3);
+
+		for (int i = 0; i < 3; i++) {
+			store.save("app", record("s" + i, expiry, "u" + i));
+		}
+		long timeout = System.currentTimeMillis() + 10_000L;
+		while (files.getSessionIds("app").size() < 3 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10L);
+		}
+		assertThat(files.getSessionIds("app").size(), equalTo(3));
+		store.close();
+	}
+
+	@Test
+	public void deletedSessionIsNotCachedDuringFlush() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-session-store").toFile();
+		long expiry = System.currentTimeMillis() + 60_000L;
+		CachingSessionStore[] store = new CachingSessionStore[1];
+		SessionRecord[] loadedDuringDelete = new SessionRecord[] { record("x", expiry, "x") };
+		FileSessionStore files = new FileSessionStore(dir) {
+			@Override
+			public boolean delete(String contextId, String id) throws IOException {
+				// concurrent request loading the session while the delete is being written
+				loadedDuringDelete[0] = store[0].load(contextId, id);
+				return super.delete(contextId, id);
+			}
+		};
+		files.save("app", record("s1", expiry, "u1"));
+		store[0] = new CachingSessionStore(files, 16, 60_000L, 100);
+
+		store[0].delete("app", "s1");
+		store[0].flush();
+		assertThat(loadedDuringDelete[0], nullValue());
+		assertThat(store[0].load("app", "s1"), nullValue());
+		assertThat(store[0].loadHeader("app", "s1"), nullValue());
+		store[0].close();
+	}
+
+	@Test
+	public void failingWritesAreDroppedAfterFewAttempts() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-session-store").toFile();
+		long expiry = System.currentTimeMillis() + 60_000L;
+		FileSessionStore files = new FileSessionStore(dir) {
+			@Override
+			public void save(String contextId, SessionRecord record) throws IOException {
+				if ("bad".equals(record.getId())) {
+					throw new IOException("can't write");
+				}
+				super.save(contextId, record);
+			}
+		};
+		CachingSessionStore store = new CachingSessionStore(files, 16, 60_000L, 100);
+
+		store.save("app", record("bad", expiry, "b"));
+		store.save("app", record("good", expiry, "g"));
+		for (int i = 1; i < CachingSessionStore.MAX_ATTEMPTS; i++) {
+			try {
+				store.flush();
+			} catch (IOException expected) {
+			}
+			assertThat(store.getPendingCount(), equalTo(1));
+		}
+		try {
+			store.flush();
+		} catch (IOException expected) {
+		}
+		assertThat(store.getPendingCount(), equalTo(0));
+		assertThat(store.load("app", "bad"), nullValue());
+		assertThat(store.load("app", "good"), notNullValue());
+		store.close();
+	}
+
+	private SessionRecord record(String id, long expiry, String data) {
+		return new SessionRecord(id, 1L, 2L, 60_000L, expiry, data.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
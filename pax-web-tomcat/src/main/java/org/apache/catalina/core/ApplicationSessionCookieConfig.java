@@ -165,9 +165,9 @@ public class ApplicationSessionCookieConfig implements SessionCookieConfig {
             String sessionId, boolean secure) {
 
         // Pax Web / OSGi adjustment
-        String sessionIdPrefix = PaxWebSessionIdGenerator.sessionIdPrefix.get();
-        if (sessionIdPrefix != null && sessionId.startsWith(sessionIdPrefix + "~")) {
-            sessionId = sessionId.substring(sessionIdPrefix.length() + 1);
+        PaxWebSessionIdGenerator.Scope scope = PaxWebSessionIdGenerator.SCOPE.get();
+        if (scope != null) {
+            sessionId = scope.unscope(sessionId);
         }
         // end of Pax Web / OSGi adjustment
 
@@ -52,15 +52,16 @@ public class PaxWebCoyoteAdapter extends CoyoteAdapter {
 				? paxWebWrapper.getOsgiContextModel()
 				: context instanceof PaxWebStandardContext
 				? ((PaxWebStandardContext) context).getDefaultOsgiContextModel() : null;
-		if (osgiContextModel != null) {
-			String sessionIdPrefix = osgiContextModel.getTemporaryLocation().replaceAll("/", "_");
-			PaxWebSessionIdGenerator.sessionIdPrefix.set(sessionIdPrefix);
+		String sessionIdPrefix = osgiContextModel == null ? null : osgiContextModel.getSessionIdPrefix();
+		if (sessionIdPrefix != null) {
+			// needed by PaxWebSessionManager.findSession() when there are many session cookies
+			PaxWebSessionIdGenerator.SCOPE.set(new PaxWebSessionIdGenerator.Scope(sessionIdPrefix, null));
 		}
 		// only now process the cookies
 		super.parseSessionCookiesId(request);
 
-		// this can be null
-		PaxWebSessionIdGenerator.cookieSessionId.set(request.getRequestedSessionId());
+		// requested session ID (can be null) is prefixed once here and not for each session lookup
+		PaxWebSessionIdGenerator.SCOPE.set(new PaxWebSessionIdGenerator.Scope(sessionIdPrefix, request.getRequestedSessionId()));
 	}
 
 }
@@ -56,9 +56,13 @@ public class PaxWebFilterDef extends FilterDef {
 
 	private boolean whiteboardTCCL;
 
+	/** Target {@link OsgiServletContext} - filter definition can be kept only if it doesn't change */
+	private final OsgiServletContext osgiContext;
+
 	public PaxWebFilterDef(FilterModel filterModel, boolean initialFilter, OsgiServletContext osgiContext) {
 		this.filterModel = filterModel;
 		this.initialFilter = initialFilter;
+		this.osgiContext = osgiContext;
 
 		// name that binds a servlet with its mapping
 		setFilterName(filterModel.getName());
@@ -123,6 +127,10 @@ public class PaxWebFilterDef extends FilterDef {
 		return filterModel;
 	}
 
+	public OsgiServletContext getOsgiServletContext() {
+		return osgiContext;
+	}
+
 	public void setWhiteboardTCCL(boolean whiteboardTCCL) {
 		this.whiteboardTCCL = whiteboardTCCL;
 	}
@@ -19,18 +19,71 @@ import org.apache.catalina.util.StandardSessionIdGenerator;
 
 public class PaxWebSessionIdGenerator extends StandardSessionIdGenerator {
 
-	public static ThreadLocal<String> sessionIdPrefix = new ThreadLocal<>();
-	public static ThreadLocal<String> cookieSessionId = new ThreadLocal<>();
+	/**
+	 * Tomcat's {@link org.apache.catalina.Manager} and {@link org.apache.catalina.SessionIdGenerator} methods
+	 * don't have access to the request, so the session scope of current request has to be passed with thread local.
+	 * It's set once in {@link PaxWebCoyoteAdapter} and cleared in {@link PaxWebStandardContextValve}.
+	 */
+	public static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
 
 	@Override
 	public String generateSessionId() {
 		// See also org.ops4j.pax.web.service.jetty.internal.PaxWebSessionIdManager.newSessionId()
-		String prefix = sessionIdPrefix.get();
+		Scope s = SCOPE.get();
 		String id = super.generateSessionId();
-		if (prefix == null) {
+		return s == null ? id : s.scope(id);
+	}
+
+	/**
+	 * Session scope of a request - precomputed session ID prefix of the target
+	 * {@link org.ops4j.pax.web.service.spi.model.OsgiContextModel} and the session ID sent by the client.
+	 */
+	public static final class Scope {
+		private final String prefix;
+		private final String requestedSessionId;
+		private final String scopedRequestedSessionId;
+
+		public Scope(String prefix, String requestedSessionId) {
+			this.prefix = prefix;
+			this.requestedSessionId = requestedSessionId;
+			this.scopedRequestedSessionId = prefix == null || requestedSessionId == null ? null
+					: requestedSessionId.startsWith(prefix) ? requestedSessionId : prefix.concat(requestedSessionId);
+		}
+
+		/**
+		 * Session ID sent by the client with the prefix - used to create session in new scope, but with the ID
+		 * known to the client.
+		 * @return
+		 */
+		public String getScopedRequestedSessionId() {
+			return scopedRequestedSessionId;
+		}
+
+		/**
+		 * Returns session ID with the prefix of this scope. Requested session ID was prefixed already.
+		 * @param id
+		 * @return
+		 */
+		public String scope(String id) {
+			if (prefix == null || id == null || id.startsWith(prefix)) {
+				return id;
+			}
+			if (id.equals(requestedSessionId)) {
+				return scopedRequestedSessionId;
+			}
+			return prefix.concat(id);
+		}
+
+		/**
+		 * Returns session ID without the prefix of this scope (as it should be sent to the client)
+		 * @param id
+		 * @return
+		 */
+		public String unscope(String id) {
+			if (prefix != null && id != null && id.startsWith(prefix)) {
+				return id.substring(prefix.length());
+			}
 			return id;
-		} else {
-			return prefix + "~" + id;
 		}
 	}
 
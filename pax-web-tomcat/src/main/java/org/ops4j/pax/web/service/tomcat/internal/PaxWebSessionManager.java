@@ -15,31 +15,131 @@
  */
 package org.ops4j.pax.web.service.tomcat.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.catalina.Loader;
 import org.apache.catalina.Session;
 import org.apache.catalina.session.StandardManager;
+import org.apache.catalina.session.StandardSession;
+import org.apache.catalina.util.CustomObjectInputStream;
+import org.apache.juli.logging.Log;
+import org.apache.tomcat.util.ExceptionUtils;
+import org.ops4j.pax.web.service.spi.session.SessionRecord;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
 
 public class PaxWebSessionManager extends StandardManager {
 
+	/** When set, sessions are persisted in Pax Web session store instead of {@code SESSIONS.ser} file */
+	private SessionStore sessionStore;
+
+	public void setSessionStore(SessionStore sessionStore) {
+		this.sessionStore = sessionStore;
+	}
+
 	@Override
 	public Session findSession(String id) throws IOException {
-		String sessionIdPrefix = PaxWebSessionIdGenerator.sessionIdPrefix.get();
-		if (sessionIdPrefix != null && !id.startsWith(sessionIdPrefix + "~")) {
-			id = sessionIdPrefix + "~" + id;
-		}
-		return super.findSession(id);
+		PaxWebSessionIdGenerator.Scope scope = PaxWebSessionIdGenerator.SCOPE.get();
+		return super.findSession(scope == null ? id : scope.scope(id));
 	}
 
 	@Override
 	public Session createSession(String sessionId) {
-		if (sessionId == null && PaxWebSessionIdGenerator.sessionIdPrefix.get() != null
-			&& PaxWebSessionIdGenerator.cookieSessionId.get() != null) {
+		PaxWebSessionIdGenerator.Scope scope = PaxWebSessionIdGenerator.SCOPE.get();
+		if (sessionId == null && scope != null && scope.getScopedRequestedSessionId() != null) {
 			// it means the client has sent sessionId but it _may_ have a session associated in another OsgiContextModel
 			// so we'll create new session with provided Session Id and available prefix indicating an OsgiContextModel
-			sessionId = PaxWebSessionIdGenerator.sessionIdPrefix.get() + "~" + PaxWebSessionIdGenerator.cookieSessionId.get();
+			sessionId = scope.getScopedRequestedSessionId();
 		}
 		return super.createSession(sessionId);
 	}
 
+	/**
+	 * Loads sessions from {@link SessionStore} the same way as {@link StandardManager} loads them from
+	 * {@code SESSIONS.ser}. Loaded sessions are removed from the store.
+	 */
+	@Override
+	protected void doLoad() throws ClassNotFoundException, IOException {
+		if (sessionStore == null) {
+			super.doLoad();
+			return;
+		}
+
+		String contextId = getContext().getName();
+		Loader loader = getContext().getLoader();
+		Log logger = getContext().getLogger();
+		ClassLoader classLoader = loader == null ? null : loader.getClassLoader();
+		if (classLoader == null) {
+			classLoader = getClass().getClassLoader();
+		}
+
+		long now = System.currentTimeMillis();
+		for (String id : sessionStore.getSessionIds(contextId)) {
+			SessionRecord record = sessionStore.load(contextId, id);
+			if (record == null || record.isExpired(now)) {
+				continue;
+			}
+			try (ObjectInputStream ois = new CustomObjectInputStream(new ByteArrayInputStream(record.getData()),
+					classLoader, logger, getSessionAttributeValueClassNamePattern(),
+					getWarnOnSessionAttributeFilterFailure())) {
+				StandardSession session = getNewSession();
+				session.readObjectData(ois);
+				session.setManager(this);
+				sessions.put(session.getIdInternal(), session);
+				session.activate();
+				// expires the session, if it has timed out in the meantime
+				session.isValid();
+				sessionCounter++;
+			} catch (IOException e) {
+				logger.warn("Can't load session " + id + ": " + e.getMessage());
+			}
+		}
+		sessionStore.clear(contextId);
+	}
+
+	/**
+	 * Writes sessions to {@link SessionStore} - each session as separate record.
+	 */
+	@Override
+	protected void doUnload() throws IOException {
+		if (sessionStore == null) {
+			super.doUnload();
+			return;
+		}
+
+		String contextId = getContext().getName();
+		List<StandardSession> list = new ArrayList<>();
+		for (Session s : sessions.values()) {
+			StandardSession session = (StandardSession) s;
+			list.add(session);
+			session.passivate();
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+				session.writeObjectData(oos);
+			}
+			long maxInactive = session.getMaxInactiveInterval() * 1000L;
+			long lastAccessed = session.getThisAccessedTimeInternal();
+			sessionStore.save(contextId, new SessionRecord(session.getIdInternal(), session.getCreationTimeInternal(),
+					lastAccessed, maxInactive, maxInactive > 0L ? lastAccessed + maxInactive : 0L,
+					baos.toByteArray()));
+		}
+		sessionStore.flush();
+
+		// Expire all the sessions we just wrote
+		for (StandardSession session : list) {
+			try {
+				session.expire(false);
+			} catch (Throwable t) {
+				ExceptionUtils.handleThrowable(t);
+			} finally {
+				session.recycle();
+			}
+		}
+	}
+
 }
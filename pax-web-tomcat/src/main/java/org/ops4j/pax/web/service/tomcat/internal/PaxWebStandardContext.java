@@ -15,16 +15,21 @@
  */
 package org.ops4j.pax.web.service.tomcat.internal;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
 import javax.servlet.Servlet;
@@ -36,13 +41,17 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSessionListener;
 
 import org.apache.catalina.Container;
+import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
 import org.apache.catalina.LifecycleState;
 import org.apache.catalina.connector.Request;
+import org.apache.catalina.core.ApplicationFilterConfig;
 import org.apache.catalina.core.StandardContext;
 import org.apache.catalina.realm.GenericPrincipal;
 import org.apache.catalina.valves.ValveBase;
 import org.apache.tomcat.util.descriptor.web.ErrorPage;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
 import org.ops4j.pax.web.service.WebContainerContext;
 import org.ops4j.pax.web.service.spi.model.OsgiContextModel;
 import org.ops4j.pax.web.service.spi.model.elements.ErrorPageModel;
@@ -51,6 +60,7 @@ import org.ops4j.pax.web.service.spi.model.elements.EventListenerModel;
 import org.ops4j.pax.web.service.spi.model.elements.FilterModel;
 import org.ops4j.pax.web.service.spi.model.elements.ServletModel;
 import org.ops4j.pax.web.service.spi.servlet.Default404Servlet;
+import org.ops4j.pax.web.service.spi.servlet.OsgiDispatchPipeline;
 import org.ops4j.pax.web.service.spi.servlet.OsgiFilterChain;
 import org.ops4j.pax.web.service.spi.servlet.OsgiScopedServletContext;
 import org.ops4j.pax.web.service.spi.servlet.OsgiServletContext;
@@ -85,6 +95,56 @@ public class PaxWebStandardContext extends StandardContext {
 	 */
 	public static final String PAXWEB_TOMCAT_REQUEST = ".paxweb.tomcat.request";
 
+	/*
+	 * Tomcat can only start/stop all the filters of a context, so for incremental filter changes we need access
+	 * to private StandardContext.filterDefs (which is also the lock for filterDefs and filterConfigs maps),
+	 * StandardContext.filterConfigs, StandardContext.filterMaps (copy-on-write array guarded by its own lock)
+	 * and package-private parts of ApplicationFilterConfig.
+	 */
+	private static final Field FILTER_DEFS;
+	private static final Field FILTER_CONFIGS;
+	private static final Field FILTER_MAPS;
+	private static final Field FILTER_MAPS_LOCK;
+	private static final Field FILTER_MAPS_ARRAY;
+	private static final Field FILTER_MAPS_INSERT_POINT;
+	private static final Constructor<ApplicationFilterConfig> FILTER_CONFIG_CONSTRUCTOR;
+	private static final Method FILTER_CONFIG_RELEASE;
+
+	static {
+		Field filterDefs = null;
+		Field filterConfigs = null;
+		Field filterMaps = null;
+		Field lock = null;
+		Field array = null;
+		Field insertPoint = null;
+		Constructor<ApplicationFilterConfig> constructor = null;
+		Method release = null;
+		try {
+			filterDefs = accessible(StandardContext.class.getDeclaredField("filterDefs"));
+			filterConfigs = accessible(StandardContext.class.getDeclaredField("filterConfigs"));
+			filterMaps = accessible(StandardContext.class.getDeclaredField("filterMaps"));
+			Class<?> contextFilterMaps = filterMaps.getType();
+			lock = accessible(contextFilterMaps.getDeclaredField("lock"));
+			array = accessible(contextFilterMaps.getDeclaredField("array"));
+			insertPoint = accessible(contextFilterMaps.getDeclaredField("insertPoint"));
+			constructor = ApplicationFilterConfig.class.getDeclaredConstructor(Context.class, FilterDef.class);
+			constructor.setAccessible(true);
+			release = ApplicationFilterConfig.class.getDeclaredMethod("release");
+			release.setAccessible(true);
+		} catch (Exception e) {
+			LOG.debug("Can't access filters of StandardContext, filters will always be restarted: {}", e.getMessage());
+			filterDefs = null;
+		}
+		FILTER_DEFS = filterDefs;
+		FILTER_CONFIGS = filterConfigs;
+		FILTER_MAPS = filterMaps;
+		FILTER_MAPS_LOCK = lock;
+		FILTER_MAPS_ARRAY = array;
+		FILTER_MAPS_INSERT_POINT = insertPoint;
+		FILTER_CONFIG_CONSTRUCTOR = constructor;
+		FILTER_CONFIG_RELEASE = release;
+	}
+
 	/**
 	 * Default {@link ServletContext} to use for chains without target servlet (e.g., filters only)
 	 */
@@ -112,6 +172,11 @@ public class PaxWebStandardContext extends StandardContext {
 	 */
 	private final List<PreprocessorFilterConfig> preprocessors = new LinkedList<>();
 
+	/**
+	 * Pipeline shared by all {@link OsgiFilterChain chains}. Replaced whenever {@link #preprocessors} change.
+	 */
+	private volatile OsgiDispatchPipeline pipeline = OsgiDispatchPipeline.EMPTY;
+
 	private final Collection<SCIWrapper> servletContainerInitializers = new LinkedList<>();
 
 	/**
@@ -182,13 +247,12 @@ public class PaxWebStandardContext extends StandardContext {
 			};
 
 			final OsgiFilterChain osgiChain;
-			List<Preprocessor> preprocessorInstances = preprocessors.stream().map(PreprocessorFilterConfig::getInstance).collect(Collectors.toList());
 			if (wrapper != null && !wrapper.is404()) {
-				osgiChain = new OsgiFilterChain(new ArrayList<>(preprocessorInstances),
-						wrapper.getServletContext(), wrapper.getWebContainerContext(), null, osgiSessionsBridge, authListener);
+				osgiChain = pipeline.createChain(wrapper.getServletContext(), wrapper.getWebContainerContext(),
+						null, osgiSessionsBridge, authListener);
 			} else {
-				osgiChain = new OsgiFilterChain(new ArrayList<>(preprocessorInstances),
-						delegate.getDefaultServletContext(), delegate.getDefaultWebContainerContext(), null, osgiSessionsBridge, authListener);
+				osgiChain = pipeline.createChain(delegate.getDefaultServletContext(),
+						delegate.getDefaultWebContainerContext(), null, osgiSessionsBridge, authListener);
 			}
 
 			// this chain will be called (or not)
@@ -262,6 +326,7 @@ public class PaxWebStandardContext extends StandardContext {
 				LOG.warn("Problem during preprocessor initialization: {}", e.getMessage(), e);
 			}
 		}
+		preprocessorsChanged();
 
 		return super.filterStart();
 	}
@@ -274,10 +339,136 @@ public class PaxWebStandardContext extends StandardContext {
 		for (PreprocessorFilterConfig fc : preprocessors) {
 			fc.destroy();
 		}
+		preprocessorsChanged();
 
 		return result;
 	}
 
+	/**
+	 * Whether {@link #updateFilters} can be used for this version of Tomcat.
+	 * @return
+	 */
+	public static boolean isFilterUpdateSupported() {
+		return FILTER_DEFS != null;
+	}
+
+	/**
+	 * <p>Incremental alternative to {@link #filterStop()}, change of filters and {@link #filterStart()} for
+	 * started context. Only the added filters are initialized and only the removed filters are released (after
+	 * they're no longer mapped), so unchanged filters keep running.</p>
+	 *
+	 * <p>All the mappings are replaced in single step with new array of {@link FilterMap filter maps} (Tomcat
+	 * uses copy-on-write array guarded by its own lock), so a request never sees partially changed mappings.
+	 * New filter configurations are available before the mappings are replaced and removed configurations are
+	 * removed after the mappings are replaced, so every mapped filter can be found by
+	 * {@link #findFilterConfig(String)}.</p>
+	 *
+	 * <p>{@link Preprocessor preprocessors} are not affected.</p>
+	 *
+	 * @param added definitions of new filters (may replace existing definitions with the same name)
+	 * @param removed existing definitions to remove
+	 * @param keptMappings existing mappings to keep (like mappings of "initial OSGi filter")
+	 * @param mappingsBefore mappings to insert after the mappings added with {@link #addFilterMapBefore(FilterMap)}
+	 * @param mappingsAfter mappings to add at the end
+	 * @return {@code false} if some of the added filters couldn't be initialized
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean updateFilters(List<? extends FilterDef> added, List<? extends FilterDef> removed,
+			Predicate<FilterMap> keptMappings, List<? extends FilterMap> mappingsBefore, List<? extends FilterMap> mappingsAfter) {
+		final Object defs;
+		final Map<String, ApplicationFilterConfig> configs;
+		final Object filterMaps;
+		final Object mapsLock;
+		try {
+			defs = FILTER_DEFS.get(this);
+			configs = (Map<String, ApplicationFilterConfig>) FILTER_CONFIGS.get(this);
+			filterMaps = FILTER_MAPS.get(this);
+			mapsLock = FILTER_MAPS_LOCK.get(filterMaps);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+
+		boolean ok = true;
+		List<ApplicationFilterConfig> toRelease = new ArrayList<>();
+
+		// 1. new filters are initialized without holding any lock (just as Tomcat does in filterStart())
+		Map<String, ApplicationFilterConfig> newConfigs = new LinkedHashMap<>();
+		for (FilterDef def : added) {
+			try {
+				newConfigs.put(def.getFilterName(), FILTER_CONFIG_CONSTRUCTOR.newInstance(this, def));
+			} catch (InvocationTargetException e) {
+				LOG.error("Problem starting filter {}: {}", def.getFilterName(), e.getCause().getMessage(), e.getCause());
+				ok = false;
+			} catch (ReflectiveOperationException e) {
+				LOG.error("Problem starting filter {}: {}", def.getFilterName(), e.getMessage(), e);
+				ok = false;
+			}
+		}
+		synchronized (defs) {
+			for (FilterDef def : added) {
+				addFilterDef(def);
+				ApplicationFilterConfig config = newConfigs.get(def.getFilterName());
+				ApplicationFilterConfig previous = config == null ? configs.remove(def.getFilterName())
+						: configs.put(def.getFilterName(), config);
+				if (previous != null) {
+					toRelease.add(previous);
+				}
+			}
+		}
+
+		// 2. new mappings replace existing ones in single step
+		synchronized (mapsLock) {
+			try {
+				FilterMap[] current = (FilterMap[]) FILTER_MAPS_ARRAY.get(filterMaps);
+				int insertPoint = FILTER_MAPS_INSERT_POINT.getInt(filterMaps);
+				List<FilterMap> before = new ArrayList<>();
+				List<FilterMap> after = new ArrayList<>();
+				for (int i = 0; i < current.length; i++) {
+					if (keptMappings.test(current[i]) && i < insertPoint) {
+						before.add(current[i]);
+					} else if (keptMappings.test(current[i])) {
+						after.add(current[i]);
+					}
+				}
+				before.addAll(mappingsBefore);
+				int newInsertPoint = before.size();
+				before.addAll(after);
+				before.addAll(mappingsAfter);
+				FILTER_MAPS_ARRAY.set(filterMaps, before.toArray(new FilterMap[0]));
+				FILTER_MAPS_INSERT_POINT.setInt(filterMaps, newInsertPoint);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+
+		// 3. removed filters are no longer mapped
+		synchronized (defs) {
+			for (FilterDef def : removed) {
+				if (findFilterDef(def.getFilterName()) == def) {
+					removeFilterDef(def);
+					ApplicationFilterConfig config = configs.remove(def.getFilterName());
+					if (config != null) {
+						toRelease.add(config);
+					}
+				}
+			}
+		}
+		for (ApplicationFilterConfig config : toRelease) {
+			try {
+				FILTER_CONFIG_RELEASE.invoke(config);
+			} catch (ReflectiveOperationException e) {
+				LOG.warn("Problem stopping filter {}: {}", config.getFilterName(), e.getMessage(), e);
+			}
+		}
+
+		return ok;
+	}
+
+	private static Field accessible(Field field) {
+		field.setAccessible(true);
+		return field;
+	}
+
 	/**
 	 * Handy method to check if the context is started for OSGi purposes
 	 *
@@ -536,6 +727,14 @@ public class PaxWebStandardContext extends StandardContext {
 		return preprocessors;
 	}
 
+	/**
+	 * Should be called after changing the list of {@link PreprocessorFilterConfig preprocessors} or after
+	 * (re)initialization of the preprocessors, so new {@link OsgiDispatchPipeline} is used for new requests.
+	 */
+	public void preprocessorsChanged() {
+		pipeline = new OsgiDispatchPipeline(preprocessors);
+	}
+
 	public void setVirtualHosts(String[] virtualHosts) {
 		int size = virtualHosts == null ? 0 : virtualHosts.length;
 		if (size == 0) {
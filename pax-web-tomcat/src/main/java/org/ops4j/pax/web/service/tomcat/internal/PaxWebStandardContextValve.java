@@ -82,8 +82,7 @@ public class PaxWebStandardContextValve extends ValveBase {
 			Thread.currentThread().setContextClassLoader(ctx.getServletContext() == null ? tccl : ctx.getServletContext().getClassLoader());
 			getNext().invoke(request, response);
 		} finally {
-			PaxWebSessionIdGenerator.sessionIdPrefix.set(null);
-			PaxWebSessionIdGenerator.cookieSessionId.set(null);
+			PaxWebSessionIdGenerator.SCOPE.remove();
 			Thread.currentThread().setContextClassLoader(tccl);
 		}
 	}
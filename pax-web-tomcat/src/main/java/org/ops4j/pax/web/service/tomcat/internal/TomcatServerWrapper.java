@@ -40,6 +40,7 @@ import javax.servlet.Servlet;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextAttributeListener;
 import javax.servlet.ServletContextListener;
+import javax.servlet.ServletException;
 import javax.servlet.SessionCookieConfig;
 import javax.servlet.http.HttpSessionAttributeListener;
 import javax.servlet.http.HttpSessionListener;
@@ -64,7 +65,6 @@ import org.apache.catalina.core.StandardServer;
 import org.apache.catalina.core.StandardService;
 import org.apache.catalina.loader.ParallelWebappClassLoader;
 import org.apache.catalina.loader.WebappLoader;
-import org.apache.catalina.session.StandardManager;
 import org.apache.catalina.util.ToStringUtil;
 import org.apache.catalina.valves.AccessLogValve;
 import org.apache.catalina.webresources.TomcatURLStreamHandlerFactory;
@@ -105,7 +105,10 @@ import org.ops4j.pax.web.service.spi.servlet.OsgiServletContextClassLoader;
 import org.ops4j.pax.web.service.spi.servlet.OsgiSessionAttributeListener;
 import org.ops4j.pax.web.service.spi.servlet.PreprocessorFilterConfig;
 import org.ops4j.pax.web.service.spi.servlet.RegisteringContainerInitializer;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
 import org.ops4j.pax.web.service.spi.servlet.SCIWrapper;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
+import org.ops4j.pax.web.service.spi.session.SessionStores;
 import org.ops4j.pax.web.service.spi.task.BatchVisitor;
 import org.ops4j.pax.web.service.spi.task.ClearDynamicRegistrationsChange;
 import org.ops4j.pax.web.service.spi.task.ContainerInitializerModelChange;
@@ -258,12 +261,21 @@ class TomcatServerWrapper implements BatchVisitor {
 
 	private SessionCookieConfig defaultSessionCookieConfig;
 
+	/** Pax Web session store used instead of {@code SESSIONS.ser} file if configured */
+	private SessionStore sessionStore;
+
 	/**
 	 * All {@link EventListenerModel} instances for {@link HttpSessionAttributeListener} listeners. They'll be
 	 * reviewed in order to propagate session attribute events per {@link OsgiContextModel}.
 	 */
 	private final List<EventListenerModel> sessionListenerModels = new ArrayList<>();
 
+	/**
+	 * Single bridge (with an index of {@link HttpSessionAttributeListener listeners} per {@link OsgiContextModel})
+	 * shared by all the contexts.
+	 */
+	private final OsgiSessionAttributeListener osgiSessionsBridge = new OsgiSessionAttributeListener(sessionListenerModels);
+
 	private final Map<String, TreeMap<OsgiContextModel, SecurityConfigurationModel>> contextSecurityConstraints = new HashMap<>();
 
 	TomcatServerWrapper(Configuration config, TomcatFactory tomcatFactory,
@@ -309,6 +321,9 @@ class TomcatServerWrapper implements BatchVisitor {
 		// default session configuration is prepared, but not set in the server instance. It can be set
 		// only after first context is created
 		this.defaultSessionCookieConfig = configuration.session().getDefaultSessionCookieConfig();
+
+		// global session persistence configuration
+		this.sessionStore = SessionStores.create(configuration.session());
 	}
 
 	/**
@@ -701,6 +716,11 @@ class TomcatServerWrapper implements BatchVisitor {
 			LOG.info("Destroying Tomcat server {}", server);
 			server.destroy();
 
+			if (sessionStore != null) {
+				sessionStore.close();
+				sessionStore = null;
+			}
+
 			// I found this necessary, when pax-web-tomcat is restarted/refreshed without affecting
 			// pax-web-extender-whiteboard
 			osgiServletContexts.values().forEach(OsgiServletContext::unregister);
@@ -794,7 +814,7 @@ class TomcatServerWrapper implements BatchVisitor {
 			LOG.info("Creating new Tomcat context for {}", model);
 
 //							Context ctx = new HttpServiceContext(getHost(), accessControllerContext);
-			PaxWebStandardContext context = new PaxWebStandardContext(default404Servlet, new OsgiSessionAttributeListener(sessionListenerModels));
+			PaxWebStandardContext context = new PaxWebStandardContext(default404Servlet, osgiSessionsBridge);
 			context.setWhiteboardTCCL("whiteboard".equalsIgnoreCase(configuration.server().getTCCLType()));
 
 			context.setPath("/".equals(contextPath) ? "" : contextPath);
@@ -857,9 +877,11 @@ class TomcatServerWrapper implements BatchVisitor {
 			}
 			context.setCookieProcessor(cookieProcessor);
 
-			StandardManager manager = new PaxWebSessionManager();
+			PaxWebSessionManager manager = new PaxWebSessionManager();
 			manager.setSessionIdGenerator(new PaxWebSessionIdGenerator());
-			if (sc.getSessionStoreDirectory() != null) {
+			if (sessionStore != null) {
+				manager.setSessionStore(sessionStore);
+			} else if (sc.getSessionStoreDirectory() != null) {
 				manager.setPathname(new File(sc.getSessionStoreDirectory(), "SESSIONS.ser").getAbsolutePath());
 			}
 			context.setManager(manager);
@@ -960,6 +982,7 @@ class TomcatServerWrapper implements BatchVisitor {
 			}
 			OsgiServletContext osgiContext = new OsgiServletContext(realContext.getServletContext(), osgiModel, servletContextModel,
 					defaultSessionCookieConfig, classLoader);
+			osgiContext.setResourceCache(new ResourceCache(configuration.resources()));
 
 			// that's ideal place to set ServletContext.TEMPDIR attribute - it'll work for HttpService, Whiteboard and WAB
 			File tmpLocation = new File(configuration.server().getTemporaryDirectory(), osgiModel.getTemporaryLocation());
@@ -1405,6 +1428,13 @@ class TomcatServerWrapper implements BatchVisitor {
 
 			ensureServletContextStarted(context);
 
+			if (context.getState() == LifecycleState.STARTED && !pendingTransaction(contextPath)
+					&& PaxWebStandardContext.isFilterUpdateSupported()) {
+				// running context - unchanged filters are not stopped
+				updateFilters(context, contextPath, filtersMap, filters, defaultHighestRankedModel);
+				continue;
+			}
+
 			// see implementation requirements in Jetty version of this visit() method
 			// here in Tomcat we have to remember about "initial OSGi filter"
 
@@ -1446,6 +1476,7 @@ class TomcatServerWrapper implements BatchVisitor {
 					iterator.remove();
 				}
 			}
+			context.preprocessorsChanged();
 
 			for (FilterModel model : filters) {
 				List<OsgiContextModel> contextModels = filtersMap.get(model) != null
@@ -1464,6 +1495,105 @@ class TomcatServerWrapper implements BatchVisitor {
 		}
 	}
 
+	/**
+	 * Incremental version of {@link #visitFilterStateChange} for started context. Just as in Jetty, existing
+	 * filters (and preprocessors) are kept if their {@link FilterModel} and target {@link OsgiServletContext}
+	 * didn't change, so only added filters are initialized and only removed filters are destroyed. All the
+	 * mappings are replaced at once by {@link PaxWebStandardContext#updateFilters}.
+	 *
+	 * @param context
+	 * @param contextPath
+	 * @param filtersMap
+	 * @param filters
+	 * @param defaultHighestRankedModel
+	 */
+	private void updateFilters(PaxWebStandardContext context, String contextPath,
+			Map<FilterModel, List<OsgiContextModel>> filtersMap, Set<FilterModel> filters,
+			OsgiContextModel defaultHighestRankedModel) {
+		// potentially, all existing preprocessors will be removed
+		Set<PreprocessorFilterConfig> toDestroy = new HashSet<>(context.getPreprocessors());
+		List<PreprocessorFilterConfig> toInit = new ArrayList<>();
+
+		// clear to keep the order of all available preprocessors
+		context.getPreprocessors().clear();
+
+		for (Iterator<FilterModel> iterator = filters.iterator(); iterator.hasNext(); ) {
+			FilterModel model = iterator.next();
+			if (model.isPreprocessor()) {
+				PreprocessorFilterConfig filterConfig
+						= new PreprocessorFilterConfig(model, osgiServletContexts.get(defaultHighestRankedModel));
+				PreprocessorFilterConfig existing = toDestroy.stream()
+						.filter(pfc -> pfc.getModel().equals(model)).findFirst().orElse(null);
+				if (existing == null) {
+					// new preprocessor - we have to init() it
+					toInit.add(filterConfig);
+				} else {
+					// it was already there - copy the instance and potentially the ServiceObjects
+					filterConfig.copyFrom(existing);
+					toDestroy.remove(existing);
+				}
+				context.getPreprocessors().add(filterConfig);
+				iterator.remove();
+			}
+		}
+		for (PreprocessorFilterConfig fc : toInit) {
+			try {
+				fc.getInstance().init(fc);
+			} catch (ServletException e) {
+				LOG.warn("Problem during preprocessor initialization: {}", e.getMessage(), e);
+			}
+		}
+		context.preprocessorsChanged();
+		for (PreprocessorFilterConfig fc : toDestroy) {
+			fc.destroy();
+		}
+
+		// we have to preserve "initial OSGi filter" and dynamically added filters
+		Map<FilterModel, PaxWebFilterDef> existingDefs = new HashMap<>();
+		List<FilterDef> removedDefs = new ArrayList<>();
+		for (FilterDef def : context.findFilterDefs()) {
+			if (def instanceof PaxWebFilterDef) {
+				PaxWebFilterDef pwfd = (PaxWebFilterDef) def;
+				if (pwfd.isInitial() || (pwfd.getFilterModel() != null && pwfd.getFilterModel().isDynamic())) {
+					continue;
+				}
+				if (pwfd.getFilterModel() != null) {
+					existingDefs.put(pwfd.getFilterModel(), pwfd);
+					continue;
+				}
+			}
+			removedDefs.add(def);
+		}
+
+		List<PaxWebFilterDef> addedDefs = new ArrayList<>();
+		List<FilterMap> mappingsBefore = new ArrayList<>();
+		List<FilterMap> mappingsAfter = new ArrayList<>();
+		for (FilterModel model : filters) {
+			List<OsgiContextModel> contextModels = filtersMap.get(model) != null
+					? filtersMap.get(model) : model.getContextModels();
+			OsgiServletContext osgiContext = getHighestRankedContext(contextPath, model, contextModels);
+
+			// if there's out-of-band list of new context models, the filter has to be recreated
+			PaxWebFilterDef existing = existingDefs.get(model);
+			if (existing != null && filtersMap.get(model) == null && existing.getOsgiServletContext() == osgiContext) {
+				existingDefs.remove(model);
+			} else {
+				PaxWebFilterDef filterDef = new PaxWebFilterDef(model, false, osgiContext);
+				filterDef.setWhiteboardTCCL("whiteboard".equalsIgnoreCase(configuration.server().getTCCLType()));
+				addedDefs.add(filterDef);
+			}
+			// the mappings are cheap, so all of them are recreated to reflect new order of the filters
+			collectFilterMappings(model, mappingsBefore, mappingsAfter);
+		}
+
+		// remaining definitions were not reused
+		removedDefs.addAll(existingDefs.values());
+
+		context.updateFilters(addedDefs, removedDefs, map -> map instanceof PaxWebFilterMap
+				&& (((PaxWebFilterMap) map).isInitial() || (((PaxWebFilterMap) map).getFilterModel() != null
+				&& ((PaxWebFilterMap) map).getFilterModel().isDynamic())), mappingsBefore, mappingsAfter);
+	}
+
 	@Override
 	public void visitEventListenerModelChange(EventListenerModelChange change) {
 		Set<String> done = new HashSet<>();
@@ -1487,6 +1617,7 @@ class TomcatServerWrapper implements BatchVisitor {
 				if (eventListener instanceof HttpSessionAttributeListener) {
 					// we have to store it separately to propagate OsgiHttpSession specific events
 					sessionListenerModels.add(eventListenerModel);
+					osgiSessionsBridge.sessionListenersChanged();
 				}
 
 				boolean stopped = false;
@@ -1549,6 +1680,7 @@ class TomcatServerWrapper implements BatchVisitor {
 					}
 					if (eventListener instanceof HttpSessionAttributeListener) {
 						sessionListenerModels.remove(eventListenerModel);
+						osgiSessionsBridge.sessionListenersChanged();
 					}
 
 					if (pendingTransaction(contextPath)) {
@@ -2207,31 +2339,46 @@ class TomcatServerWrapper implements BatchVisitor {
 	}
 
 	private void configureFilterMappings(FilterModel model, PaxWebStandardContext context) {
+		List<FilterMap> before = new ArrayList<>();
+		List<FilterMap> after = new ArrayList<>();
+		collectFilterMappings(model, before, after);
+		before.forEach(context::addFilterMapBefore);
+		after.forEach(context::addFilterMap);
+	}
+
+	/**
+	 * Creates {@link FilterMap filter maps} for given {@link FilterModel}, split into the ones that should
+	 * be added with {@link PaxWebStandardContext#addFilterMapBefore} and {@link PaxWebStandardContext#addFilterMap}.
+	 * @param model
+	 * @param before
+	 * @param after
+	 */
+	private void collectFilterMappings(FilterModel model, List<FilterMap> before, List<FilterMap> after) {
 		if (model.getDynamicServletNames().size() > 0 || model.getDynamicUrlPatterns().size() > 0) {
 			model.getDynamicServletNames().forEach(dm -> {
 				if (!dm.isAfter()) {
-					context.addFilterMapBefore(new PaxWebFilterMap(model, dm));
+					before.add(new PaxWebFilterMap(model, dm));
 				}
 			});
 			model.getDynamicUrlPatterns().forEach(dm -> {
 				if (!dm.isAfter()) {
-					context.addFilterMapBefore(new PaxWebFilterMap(model, dm));
+					before.add(new PaxWebFilterMap(model, dm));
 				}
 			});
 			model.getDynamicServletNames().forEach(dm -> {
 				if (dm.isAfter()) {
-					context.addFilterMap(new PaxWebFilterMap(model, dm));
+					after.add(new PaxWebFilterMap(model, dm));
 				}
 			});
 			model.getDynamicUrlPatterns().forEach(dm -> {
 				if (dm.isAfter()) {
-					context.addFilterMap(new PaxWebFilterMap(model, dm));
+					after.add(new PaxWebFilterMap(model, dm));
 				}
 			});
 		} else {
 			// normal OSGi mapping
 			for (FilterModel.Mapping map : model.getMappingsPerDispatcherTypes()) {
-				context.addFilterMap(new PaxWebFilterMap(model, map));
+				after.add(new PaxWebFilterMap(model, map));
 			}
 		}
 	}
@@ -15,6 +15,7 @@
  */
 package org.ops4j.pax.web.service.tomcat.internal.web;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -40,6 +41,8 @@ import org.apache.catalina.webresources.EmptyResource;
 import org.apache.catalina.webresources.FileResource;
 import org.apache.catalina.webresources.StandardRoot;
 import org.apache.juli.logging.Log;
+import org.ops4j.pax.web.service.spi.servlet.OsgiScopedServletContext;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -98,8 +101,10 @@ class OsgiStandardRoot extends StandardRoot {
 						fullPath = fullPath.substring(1);
 					}
 					URL resource = null;
+					ResourceCache.Entry entry = null;
 					try {
-						resource = osgiScopedServletContext.getResource(fullPath);
+						entry = getCachedResource(fullPath);
+						resource = entry == null ? osgiScopedServletContext.getResource(fullPath) : entry.getUrl();
 					} catch (MalformedURLException e) {
 						TomcatResourceServlet.LOG.warn(e.getMessage(), e);
 					}
@@ -108,12 +113,16 @@ class OsgiStandardRoot extends StandardRoot {
 							fullPath = "/";
 						}
 						try {
-							resource = osgiScopedServletContext.getResource(fullPath);
+							entry = getCachedResource(fullPath);
+							resource = entry == null ? osgiScopedServletContext.getResource(fullPath) : entry.getUrl();
 						} catch (MalformedURLException e) {
 							TomcatResourceServlet.LOG.warn(e.getMessage(), e);
 						}
 						if (resource == null) {
-							return new EmptyResource(root, path);
+							// possibly a compressed variant created on demand
+							File compressed = getCompressedResource(fullPath);
+							return compressed == null ? new EmptyResource(root, path)
+									: new FileResource(root, fullPath, compressed, true, null);
 						}
 					}
 					if (resource.getProtocol().equals("file")) {
@@ -131,6 +140,14 @@ class OsgiStandardRoot extends StandardRoot {
 						if ("/".equals(resource.getPath())) {
 							// Felix, root of the bundle - return a resource which says it's a directory
 							return new RootBundleURLResource(OsgiStandardRoot.this, resource, fullPath);
+						} else if (entry != null) {
+							// directories are already detected by the cache
+							try {
+								return new UrlResource(OsgiStandardRoot.this, entry, fullPath, maxEntrySize);
+							} catch (IOException e) {
+								LOG.warn(e.getMessage(), e);
+								return new EmptyResource(root, path);
+							}
 						} else if (!resource.getPath().endsWith("/")) {
 							// unfortunately, due to https://issues.apache.org/jira/browse/FELIX-6294
 							// we have to check ourselves if it's a directory and possibly append a slash
@@ -164,6 +181,25 @@ class OsgiStandardRoot extends StandardRoot {
 					}
 				}
 
+				private ResourceCache.Entry getCachedResource(String fullPath) throws MalformedURLException {
+					if (osgiScopedServletContext instanceof OsgiScopedServletContext) {
+						// resource metadata shared with other runtimes' resource servlets
+						return ((OsgiScopedServletContext) osgiScopedServletContext).getCachedResource(fullPath);
+					}
+					return null;
+				}
+
+				private File getCompressedResource(String fullPath) {
+					if (osgiScopedServletContext instanceof OsgiScopedServletContext) {
+						try {
+							return ((OsgiScopedServletContext) osgiScopedServletContext).getCompressedResource(fullPath);
+						} catch (MalformedURLException e) {
+							TomcatResourceServlet.LOG.warn(e.getMessage(), e);
+						}
+					}
+					return null;
+				}
+
 				@Override
 				public String[] list(String path) {
 					return new String[0];
@@ -223,22 +259,43 @@ class OsgiStandardRoot extends StandardRoot {
 		private final File file;
 		private byte[] content;
 
+		/** Metadata (and possibly content) from {@link ResourceCache} */
+		private final ResourceCache.Entry entry;
+
 		UrlResource(WebResourceRoot root, URL url, String fullPath, int maxEntrySize) throws IOException {
 			super(root, fullPath);
 			this.url = url;
 			this.maxEntrySize = maxEntrySize;
+			this.entry = null;
 
 			doGetInputStream(false);
 
 			this.file = new File(url.getPath());
 		}
 
+		UrlResource(WebResourceRoot root, ResourceCache.Entry entry, String fullPath, int maxEntrySize) throws IOException {
+			super(root, fullPath);
+			this.url = entry.getUrl();
+			this.maxEntrySize = maxEntrySize;
+			this.entry = entry;
+			this.content = entry.getContent();
+
+			if (content == null) {
+				doGetInputStream(false);
+			}
+
+			this.file = new File(url.getPath());
+		}
+
 		@Override
 		protected InputStream doGetInputStream() {
 			return doGetInputStream(true);
 		}
 
 		private synchronized InputStream doGetInputStream(boolean forceNew) {
+			if (entry != null && entry.getContent() != null) {
+				return new ByteArrayInputStream(entry.getContent());
+			}
 			if (urlConnection == null) {
 				try {
 					this.urlConnection = this.url.openConnection();
@@ -280,7 +337,7 @@ class OsgiStandardRoot extends StandardRoot {
 
 		@Override
 		public long getLastModified() {
-			return urlConnection.getLastModified();
+			return entry != null ? entry.getLastModified() : urlConnection.getLastModified();
 		}
 
 		@Override
@@ -316,7 +373,7 @@ class OsgiStandardRoot extends StandardRoot {
 
 		@Override
 		public long getContentLength() {
-			return urlConnection.getContentLength();
+			return entry != null && entry.getLength() >= 0L ? entry.getLength() : urlConnection.getContentLength();
 		}
 
 		@Override
@@ -341,7 +398,7 @@ class OsgiStandardRoot extends StandardRoot {
 
 		@Override
 		public long getCreation() {
-			return urlConnection.getLastModified();
+			return getLastModified();
 		}
 
 		@Override
@@ -17,10 +17,14 @@ package org.ops4j.pax.web.service.tomcat.internal.web;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import javax.servlet.DispatcherType;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
 import javax.servlet.UnavailableException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -31,6 +35,8 @@ import org.apache.catalina.WebResource;
 import org.apache.catalina.WebResourceRoot;
 import org.apache.catalina.servlets.DefaultServlet;
 import org.ops4j.pax.web.service.spi.config.ResourceConfiguration;
+import org.ops4j.pax.web.service.spi.servlet.CompressedResourceCache;
+import org.ops4j.pax.web.service.spi.servlet.OsgiHttpServletRequestWrapper;
 import org.ops4j.pax.web.service.spi.servlet.OsgiScopedServletContext;
 import org.ops4j.pax.web.service.spi.servlet.OsgiServletContext;
 import org.ops4j.pax.web.service.spi.util.Path;
@@ -108,6 +114,14 @@ public class TomcatResourceServlet extends DefaultServlet {
 		super.readOnly = true;
 		super.showServerInfo = false;
 
+		// precompressed variants of resources (possibly created on demand, see CompressedResourceCache)
+		Map<String, String> precompressed = CompressedResourceCache.precompressedFormats(resourceConfig);
+		if (precompressed != null && getInitParameter("precompressed") == null) {
+			List<CompressionFormat> formats = new ArrayList<>();
+			precompressed.forEach((encoding, extension) -> formats.add(new CompressionFormat(extension, encoding)));
+			compressionFormats = formats.toArray(new CompressionFormat[0]);
+		}
+
 		redirectWelcome = "true".equalsIgnoreCase(getInitParameter("redirectWelcome"));
 		pathInfoOnly = !"false".equalsIgnoreCase(getInitParameter("pathInfoOnly"));
 
@@ -131,9 +145,15 @@ public class TomcatResourceServlet extends DefaultServlet {
 		resources.setCacheTtl(resourceConfig == null || resourceConfig.maxCacheTTL() == null
 				? 5000 : resourceConfig.maxCacheTTL());
 
-		LOG.info("Initialized Tomcat Resource Servlet for base=\"{}\" with cache maxSize={}kB, maxEntrySize={}kB, TTL={}ms",
+		// org.apache.catalina.servlets.DefaultServlet.sendfileSize - 48kB by default, 0 disables sendfile
+		if (resourceConfig != null && resourceConfig.zeroCopyMinSize() != null) {
+			sendfileSize = resourceConfig.zeroCopyMinSize() < 0 ? 0 : resourceConfig.zeroCopyMinSize() * 1024;
+		}
+
+		LOG.info("Initialized Tomcat Resource Servlet for base=\"{}\" with cache maxSize={}kB, maxEntrySize={}kB, TTL={}ms, sendfileSize={}kB",
 				baseDirectory != null ? baseDirectory : chroot,
-				resources.getCacheMaxSize(), resources.getCacheObjectMaxSize(), resources.getCacheTtl());
+				resources.getCacheMaxSize(), resources.getCacheObjectMaxSize(), resources.getCacheTtl(),
+				sendfileSize / 1024);
 
 		if (welcomeFiles == null) {
 			if (osgiScopedServletContext instanceof OsgiScopedServletContext) {
@@ -329,6 +349,30 @@ public class TomcatResourceServlet extends DefaultServlet {
 		return childPath;
 	}
 
+	/**
+	 * {@link DefaultServlet#checkSendfile} accepts only original {@link org.apache.catalina.connector.RequestFacade},
+	 * but the request is always wrapped by {@link OsgiHttpServletRequestWrapper}. Here we unwrap the request
+	 * (only if it's wrapped by Pax Web) and allow sendfile only for resources which are real files - resources
+	 * from bundles have no usable canonical path.
+	 */
+	@Override
+	protected boolean checkSendfile(HttpServletRequest request, HttpServletResponse response, WebResource resource,
+			long length, Range range) {
+		if (sendfileSize <= 0 || length < sendfileSize || resource.getURL() == null
+				|| !"file".equals(resource.getURL().getProtocol())) {
+			return false;
+		}
+		ServletRequest req = request;
+		while (req instanceof OsgiHttpServletRequestWrapper) {
+			req = ((OsgiHttpServletRequestWrapper) req).getRequest();
+		}
+		if (!(req instanceof HttpServletRequest)) {
+			return false;
+		}
+		// attributes set on the original request are checked by the connector after the servlet returns
+		return super.checkSendfile((HttpServletRequest) req, response, resource, length, range);
+	}
+
 	public void setHighestRankedContext(OsgiServletContext highestRankedContext) {
 		this.highestRankedContext = highestRankedContext;
 	}
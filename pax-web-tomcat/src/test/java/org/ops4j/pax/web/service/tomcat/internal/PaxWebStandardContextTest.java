@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.tomcat.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.catalina.core.StandardEngine;
+import org.apache.catalina.core.StandardHost;
+import org.apache.tomcat.SimpleInstanceManager;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.junit.Test;
+import org.ops4j.pax.web.service.spi.servlet.Default404Servlet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PaxWebStandardContextTest {
+
+	@Test
+	public void filtersAreUpdatedWithoutRestartingUnchangedOnes() {
+		assertThat(PaxWebStandardContext.isFilterUpdateSupported(), equalTo(true));
+
+		List<String> events = new CopyOnWriteArrayList<>();
+		PaxWebStandardContext context = new PaxWebStandardContext(new Default404Servlet(), null);
+		context.setName("/c");
+		context.setPath("/c");
+		StandardEngine engine = new StandardEngine();
+		engine.setName("Catalina");
+		StandardHost host = new StandardHost();
+		host.setName("localhost");
+		engine.addChild(host);
+		context.setParent(host);
+		context.setInstanceManager(new SimpleInstanceManager());
+
+		FilterDef def1 = def("f1", events);
+		FilterMap map1 = map("f1");
+		context.addFilterDef(def1);
+		context.addFilterMap(map1);
+		FilterMap initialMap = map("f0");
+		context.addFilterDef(def("f0", events));
+		context.addFilterMapBefore(initialMap);
+		context.filterStart();
+		assertThat(events, equalTo(Arrays.asList("init:f0", "init:f1")));
+		events.clear();
+
+		// add f2 before f1
+		FilterDef def2 = def("f2", events);
+		FilterMap map2 = map("f2");
+		boolean ok = context.updateFilters(Collections.singletonList(def2), Collections.emptyList(),
+				m -> m == initialMap, Collections.emptyList(), Arrays.asList(map2, map1));
+		assertThat(ok, equalTo(true));
+		assertThat(events, equalTo(Collections.singletonList("init:f2")));
+		assertThat(Arrays.asList(context.findFilterMaps()), equalTo(Arrays.asList(initialMap, map2, map1)));
+		assertThat(context.findFilterConfig("f2"), notNullValue());
+		events.clear();
+
+		// remove f1
+		context.updateFilters(Collections.emptyList(), Collections.singletonList(def1),
+				m -> m == initialMap, Collections.emptyList(), Collections.singletonList(map2));
+		assertThat(events, equalTo(Collections.singletonList("destroy:f1")));
+		assertThat(Arrays.asList(context.findFilterMaps()), equalTo(Arrays.asList(initialMap, map2)));
+		assertThat(context.findFilterConfig("f1"), nullValue());
+		assertThat(context.findFilterDef("f1"), nullValue());
+
+		// new mapping added "before" goes after the kept "before" mapping
+		FilterMap map2b = map("f2");
+		context.updateFilters(Collections.emptyList(), Collections.emptyList(),
+				m -> m == initialMap, Collections.singletonList(map2b), Collections.singletonList(map2));
+		assertThat(Arrays.asList(context.findFilterMaps()), equalTo(Arrays.asList(initialMap, map2b, map2)));
+		FilterMap map3 = map("f0");
+		context.addFilterMapBefore(map3);
+		assertThat(Arrays.asList(context.findFilterMaps()), equalTo(Arrays.asList(initialMap, map2b, map3, map2)));
+	}
+
+	private static FilterDef def(String name, List<String> events) {
+		FilterDef def = new FilterDef();
+		def.setFilterName(name);
+		def.setFilter(new Filter() {
+			@Override
+			public void init(FilterConfig filterConfig) {
+				events.add("init:" + name);
+			}
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) {
+			}
+
+			@Override
+			public void destroy() {
+				events.add("destroy:" + name);
+			}
+		});
+		return def;
+	}
+
+	private static FilterMap map(String name) {
+		FilterMap map = new FilterMap();
+		map.setFilterName(name);
+		map.addURLPatternDecoded("/*");
+		return map;
+	}
+
+}
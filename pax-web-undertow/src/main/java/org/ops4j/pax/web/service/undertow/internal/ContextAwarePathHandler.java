@@ -15,87 +15,130 @@
  */
 package org.ops4j.pax.web.service.undertow.internal;
 
-import java.util.Dictionary;
-import javax.servlet.Servlet;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
 
 import io.undertow.Handlers;
+import io.undertow.UndertowMessages;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.PathHandler;
 import io.undertow.server.handlers.ResponseCodeHandler;
-import io.undertow.server.handlers.cache.LRUCache;
-import org.ops4j.pax.web.annotations.Review;
-import org.osgi.service.http.HttpContext;
+import io.undertow.util.CopyOnWriteMap;
+import io.undertow.util.URLUtils;
 
 /**
- * <p>A {@link PathHandler} that can (try to) resolve conflicts when registering multiple contexts under
- * the same path.</p>
- * <p>The problem is that when using {@code etc/undertow.xml} with {@code <location>} handlers <strong>and</strong>
- * when using normal WARs and {@link org.osgi.service.http.HttpService#registerServlet(String, Servlet, Dictionary, HttpContext)} we may
- * end up with multiple {@link io.undertow.server.HttpHandler handlers} handling {@code "/"} path. We should always prefer
- * the path from {@code etc/undertow.xml} configuration - assuming it's configured and user know what (s)he's
- * doing.</p>
- * <p>It's a direct fork of original {@link PathHandler} but with different {@link io.undertow.util.PathMatcher}</p>
+ * <p>A {@link PathHandler} used to route requests to Undertow contexts (and {@code etc/undertow.xml}
+ * {@code <location>} handlers) by context path.</p>
+ *
+ * <p>Original {@link PathHandler} uses {@link io.undertow.util.PathMatcher}, which probes
+ * {@link io.undertow.util.SubstringMap} once for each length of registered paths. Here, prefix paths are kept in an
+ * immutable trie of path segments, which is replaced (copy-on-write) when paths are added or removed, so request
+ * processing doesn't need any locking, caching or allocation (except the {@code remaining} path passed
+ * to {@link HttpServerExchange#setRelativePath(String)}).</p>
+ *
+ * <p>The matching rules are the same as in original {@link PathHandler}: exact paths first, then longest prefix
+ * path (where {@code /foo} matches {@code /foo} and {@code /foo/bar}, but not {@code /foobar}) and finally
+ * the default handler registered for {@code /}.</p>
  */
-@Review("Is it needed?")
 public class ContextAwarePathHandler extends PathHandler {
 
-	private final PathMatcher<HttpHandler> pathMatcher = new PathMatcher<>();
+	private static final String STRING_PATH_SEPARATOR = "/";
+
+	/** Root of the trie - never modified, only replaced */
+	private volatile Node root = Node.ROOT;
 
-	private final LRUCache<String, PathMatcher.PathMatch<HttpHandler>> cache;
+	private volatile HttpHandler defaultHandler;
+
+	private final Map<String, HttpHandler> exactPathMatches = new CopyOnWriteMap<>();
 
 	public ContextAwarePathHandler(final HttpHandler defaultHandler) {
-		this(0);
-		pathMatcher.addPrefixPath("/", defaultHandler);
+		this.defaultHandler = defaultHandler;
 	}
 
+	/**
+	 * Constructor compatible with {@link PathHandler#PathHandler(HttpHandler, int)}. The cache is not used,
+	 * because the lookup is cheaper than cache access.
+	 * @param defaultHandler
+	 * @param cacheSize
+	 */
 	public ContextAwarePathHandler(final HttpHandler defaultHandler, int cacheSize) {
-		this(cacheSize);
-		pathMatcher.addPrefixPath("/", defaultHandler);
+		this(defaultHandler);
 	}
 
 	public ContextAwarePathHandler() {
-		this(0);
 	}
 
+	/**
+	 * Constructor compatible with {@link PathHandler#PathHandler(int)}. The cache is not used.
+	 * @param cacheSize
+	 */
 	public ContextAwarePathHandler(int cacheSize) {
-		if (cacheSize > 0) {
-			cache = new LRUCache<>(cacheSize, -1, true);
-		} else {
-			cache = null;
-		}
 	}
 
 	@Override
 	public void handleRequest(HttpServerExchange exchange) throws Exception {
-		PathMatcher.PathMatch<HttpHandler> match = null;
-		boolean hit = false;
-		if (cache != null) {
-			match = cache.get(exchange.getRelativePath());
-			hit = true;
+		String path = exchange.getRelativePath();
+
+		HttpHandler handler = null;
+		String matched = null;
+		String remaining = null;
+
+		if (!exactPathMatches.isEmpty()) {
+			handler = exactPathMatches.get(URLUtils.normalizeSlashes(path));
+			if (handler != null) {
+				matched = path;
+				remaining = "";
+			}
 		}
-		if (match == null) {
-			match = pathMatcher.match(exchange.getRelativePath());
+
+		if (handler == null) {
+			// walk the trie segment by segment, remembering the deepest node with a handler
+			final int length = path.length();
+			Node node = root;
+			Node found = null;
+			int foundEnd = 0;
+			int pos = 0;
+			while (pos < length && path.charAt(pos) == '/') {
+				int end = path.indexOf('/', pos + 1);
+				if (end == -1) {
+					end = length;
+				}
+				node = node.child(path, pos + 1, end);
+				if (node == null) {
+					break;
+				}
+				if (node.handler != null) {
+					found = node;
+					foundEnd = end;
+				}
+				pos = end;
+			}
+			if (found != null) {
+				handler = found.handler;
+				matched = found.path;
+				remaining = foundEnd == length ? "" : path.substring(foundEnd);
+			} else {
+				handler = defaultHandler;
+				matched = "";
+				remaining = path;
+			}
 		}
-		if (match.getValue() == null) {
+
+		if (handler == null) {
 			ResponseCodeHandler.HANDLE_404.handleRequest(exchange);
 			return;
 		}
-		if (hit) {
-			cache.add(exchange.getRelativePath(), match);
-		}
-		exchange.setRelativePath(match.getRemaining());
+		exchange.setRelativePath(remaining);
 		if (exchange.getResolvedPath().isEmpty()) {
 			//first path handler, we can just use the matched part
-			exchange.setResolvedPath(match.getMatched());
+			exchange.setResolvedPath(matched);
 		} else {
 			//already something in the resolved path
-			StringBuilder sb = new StringBuilder(exchange.getResolvedPath().length() + match.getMatched().length());
-			sb.append(exchange.getResolvedPath());
-			sb.append(match.getMatched());
-			exchange.setResolvedPath(sb.toString());
+			exchange.setResolvedPath(exchange.getResolvedPath().concat(matched));
 		}
-		match.getValue().handleRequest(exchange);
+		handler.handleRequest(exchange);
 	}
 
 	/**
@@ -112,6 +155,7 @@ public class ContextAwarePathHandler extends PathHandler {
 	 * @see #addPrefixPath(String, io.undertow.server.HttpHandler)
 	 * @deprecated Superseded by {@link #addPrefixPath(String, io.undertow.server.HttpHandler)}.
 	 */
+	@Override
 	@Deprecated
 	public synchronized PathHandler addPath(final String path, final HttpHandler handler) {
 		return addPrefixPath(path, handler);
@@ -131,9 +175,20 @@ public class ContextAwarePathHandler extends PathHandler {
 	 * @param handler The handler which is activated upon match.
 	 * @return The resulting PathHandler after this path has been added to it.
 	 */
+	@Override
 	public synchronized PathHandler addPrefixPath(final String path, final HttpHandler handler) {
 		Handlers.handlerNotNull(handler);
-		pathMatcher.addPrefixPath(path, handler);
+		if (path == null || path.isEmpty()) {
+			throw UndertowMessages.MESSAGES.pathMustBeSpecified();
+		}
+
+		final String normalizedPath = URLUtils.normalizeSlashes(path);
+		if (STRING_PATH_SEPARATOR.equals(normalizedPath)) {
+			this.defaultHandler = handler;
+			return this;
+		}
+
+		root = root.with(normalizedPath, segments(normalizedPath), 0, handler);
 		return this;
 	}
 
@@ -146,34 +201,241 @@ public class ContextAwarePathHandler extends PathHandler {
 	 * @param handler Handler run upon exact path match.
 	 * @return The resulting PathHandler after this path has been added to it.
 	 */
+	@Override
 	public synchronized PathHandler addExactPath(final String path, final HttpHandler handler) {
 		Handlers.handlerNotNull(handler);
-		pathMatcher.addExactPath(path, handler);
+		if (path == null || path.isEmpty()) {
+			throw UndertowMessages.MESSAGES.pathMustBeSpecified();
+		}
+		exactPathMatches.put(URLUtils.normalizeSlashes(path), handler);
 		return this;
 	}
 
+	@Override
 	@Deprecated
 	public synchronized PathHandler removePath(final String path) {
 		return removePrefixPath(path);
 	}
 
+	@Override
 	public synchronized PathHandler removePrefixPath(final String path) {
-		pathMatcher.removePrefixPath(path);
+		if (path == null || path.isEmpty()) {
+			throw UndertowMessages.MESSAGES.pathMustBeSpecified();
+		}
+
+		final String normalizedPath = URLUtils.normalizeSlashes(path);
+		if (STRING_PATH_SEPARATOR.equals(normalizedPath)) {
+			this.defaultHandler = null;
+			return this;
+		}
+
+		Node newRoot = root.without(segments(normalizedPath), 0);
+		root = newRoot == null ? Node.ROOT : newRoot;
 		return this;
 	}
 
+	@Override
 	public synchronized PathHandler removeExactPath(final String path) {
-		pathMatcher.removeExactPath(path);
+		if (path == null || path.isEmpty()) {
+			throw UndertowMessages.MESSAGES.pathMustBeSpecified();
+		}
+		exactPathMatches.remove(URLUtils.normalizeSlashes(path));
 		return this;
 	}
 
+	@Override
 	public synchronized PathHandler clearPaths() {
-		pathMatcher.clearPaths();
+		root = Node.ROOT;
+		exactPathMatches.clear();
+		defaultHandler = null;
 		return this;
 	}
 
 	public HttpHandler getDefaultHandler() {
-		return pathMatcher.getDefaultHandler();
+		return defaultHandler;
+	}
+
+	/**
+	 * Returns all registered prefix paths (without {@code /}) with their handlers.
+	 * @return
+	 */
+	public Map<String, HttpHandler> getPaths() {
+		Map<String, HttpHandler> paths = new TreeMap<>();
+		root.collect(paths);
+		return paths;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("path(");
+		boolean first = true;
+		for (Map.Entry<String, HttpHandler> e : exactPathMatches.entrySet()) {
+			if (!first) {
+				sb.append(", ");
+			}
+			first = false;
+			sb.append(e.getKey()).append(" => ").append(e.getValue());
+		}
+		for (Map.Entry<String, HttpHandler> e : getPaths().entrySet()) {
+			if (!first) {
+				sb.append(", ");
+			}
+			first = false;
+			sb.append(e.getKey()).append("/* => ").append(e.getValue());
+		}
+		sb.append(")");
+		return sb.toString();
+	}
+
+	/**
+	 * Splits normalized path (starting with {@code /}, without trailing {@code /}) into segments.
+	 * @param normalizedPath
+	 * @return
+	 */
+	private static String[] segments(String normalizedPath) {
+		return normalizedPath.substring(1).split(STRING_PATH_SEPARATOR);
+	}
+
+	/**
+	 * Same as {@link String#hashCode()}, but for a region of a string, so no substring has to be created.
+	 * @param s
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	private static int hash(String s, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + s.charAt(i);
+		}
+		return h;
+	}
+
+	/**
+	 * Immutable node of the trie of path segments. Children are sorted by hash of their segments.
+	 */
+	private static final class Node {
+
+		static final Node ROOT = new Node(null, null, null, new Node[0]);
+
+		private final String segment;
+		private final int hash;
+		/** Full prefix path for this node - only set when there's a handler */
+		private final String path;
+		private final HttpHandler handler;
+		private final Node[] children;
+		private final int[] hashes;
+
+		Node(String segment, String path, HttpHandler handler, Node[] children) {
+			this.segment = segment;
+			this.hash = segment == null ? 0 : segment.hashCode();
+			this.path = path;
+			this.handler = handler;
+			this.children = children;
+			this.hashes = new int[children.length];
+			for (int i = 0; i < children.length; i++) {
+				hashes[i] = children[i].hash;
+			}
+		}
+
+		/**
+		 * Finds a child for the segment being a region of the request path.
+		 * @param path
+		 * @param start
+		 * @param end
+		 * @return
+		 */
+		Node child(String path, int start, int end) {
+			if (children.length == 0) {
+				return null;
+			}
+			int h = hash(path, start, end);
+			int idx = Arrays.binarySearch(hashes, h);
+			if (idx < 0) {
+				return null;
+			}
+			// there may be more children with the same hash
+			while (idx > 0 && hashes[idx - 1] == h) {
+				idx--;
+			}
+			int length = end - start;
+			for (; idx < hashes.length && hashes[idx] == h; idx++) {
+				Node child = children[idx];
+				if (child.segment.length() == length && path.regionMatches(start, child.segment, 0, length)) {
+					return child;
+				}
+			}
+			return null;
+		}
+
+		private int indexOf(String segment) {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i].segment.equals(segment)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Returns a copy of this node with the handler set at the path specified by segments.
+		 */
+		Node with(String fullPath, String[] segments, int index, HttpHandler newHandler) {
+			if (index == segments.length) {
+				return new Node(segment, fullPath, newHandler, children);
+			}
+			int idx = indexOf(segments[index]);
+			Node child = idx >= 0 ? children[idx] : new Node(segments[index], null, null, new Node[0]);
+			Node newChild = child.with(fullPath, segments, index + 1, newHandler);
+			Node[] newChildren;
+			if (idx >= 0) {
+				newChildren = children.clone();
+				newChildren[idx] = newChild;
+			} else {
+				newChildren = Arrays.copyOf(children, children.length + 1);
+				newChildren[children.length] = newChild;
+				Arrays.sort(newChildren, (n1, n2) -> Integer.compare(n1.hash, n2.hash));
+			}
+			return new Node(segment, path, handler, newChildren);
+		}
+
+		/**
+		 * Returns a copy of this node without the handler at the path specified by segments or {@code null}
+		 * if the node is no longer needed.
+		 */
+		Node without(String[] segments, int index) {
+			if (index == segments.length) {
+				return children.length == 0 ? null : new Node(segment, null, null, children);
+			}
+			int idx = indexOf(segments[index]);
+			if (idx < 0) {
+				return this;
+			}
+			Node newChild = children[idx].without(segments, index + 1);
+			Node[] newChildren;
+			if (newChild != null) {
+				newChildren = children.clone();
+				newChildren[idx] = newChild;
+			} else {
+				newChildren = new Node[children.length - 1];
+				System.arraycopy(children, 0, newChildren, 0, idx);
+				System.arraycopy(children, idx + 1, newChildren, idx, children.length - idx - 1);
+			}
+			if (newChildren.length == 0 && handler == null && segment != null) {
+				return null;
+			}
+			return new Node(segment, path, handler, newChildren);
+		}
+
+		void collect(Map<String, HttpHandler> paths) {
+			if (handler != null) {
+				paths.put(path, handler);
+			}
+			for (Node child : children) {
+				child.collect(paths);
+			}
+		}
 	}
 
 }
@@ -17,61 +17,182 @@ package org.ops4j.pax.web.service.undertow.internal;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.undertow.servlet.api.SessionPersistenceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>{@link SessionPersistenceManager} that keeps the sessions of each deployment in files of given directory.</p>
+ *
+ * <p>The attributes of each session are serialized separately as a record appended to a <em>segment file</em>
+ * ({@code <deployment>.sessions.<generation>}). The <em>index file</em> ({@code <deployment>.index}) maps session
+ * IDs to expiration time, position, length and SHA-256 digest of the records. This means that:<ul>
+ *     <li>when persisting the sessions, only the records of changed sessions are written. Records of unchanged
+ *     sessions (and of sessions loaded, but not yet accessed since last start) are reused.</li>
+ *     <li>when loading the sessions, only the index is read - the attributes of a session are deserialized when
+ *     Undertow restores the session on first request with its ID.</li>
+ * </ul>
+ * When the segment file contains more obsolete records than live ones, live records are copied to a new
+ * generation of the segment file.</p>
+ *
+ * <p>Sessions persisted in single file ({@code <deployment>}) by previous versions of Pax Web are still loaded.</p>
+ */
 public class FileSessionPersistence implements SessionPersistenceManager {
 
 	public static final Logger LOG = LoggerFactory.getLogger(FileSessionPersistence.class);
 
+	private static final int INDEX_MAGIC = 0x50575353;
+	private static final int INDEX_VERSION = 2;
+	private static final int DIGEST_LENGTH = 32;
+
 	private final File sessionsDir;
 
+	/** Indexes of deployments, which were loaded or persisted - these are also used as locks */
+	private final Map<String, Index> indexes = new ConcurrentHashMap<>();
+
 	public FileSessionPersistence(File sessionsDir) {
 		this.sessionsDir = sessionsDir;
 	}
 
 	@Override
 	public void persistSessions(String deploymentName, Map<String, PersistentSession> sessionData) {
-		if (deploymentName == null || "".equals(deploymentName.trim())) {
-			deploymentName = "_ROOT_deployment";
-		}
-		Map<String, Object> map = new LinkedHashMap<>();
-		for (Map.Entry<String, PersistentSession> e : sessionData.entrySet()) {
-			Map<String, Object> mps = new LinkedHashMap<>();
-			mps.put("expiration", e.getValue().getExpiration().getTime());
-			mps.put("data", e.getValue().getSessionData());
-			map.put(e.getKey(), mps);
-		}
-		if (sessionData.size() > 0) {
-			try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(new File(sessionsDir, deploymentName))))) {
-				oos.writeObject(map);
-			} catch (Exception e) {
+		deploymentName = fileName(deploymentName);
+		Index index = index(deploymentName);
+		synchronized (index) {
+			long now = System.currentTimeMillis();
+			Map<String, Record> records = new LinkedHashMap<>();
+
+			// sessions loaded, but not accessed (and restored by Undertow) since last start are kept
+			for (Map.Entry<String, LazySession> e : index.pending.entrySet()) {
+				Record record = index.records.get(e.getKey());
+				if (record != null && !e.getValue().isLoaded() && record.expiration > now
+						&& !sessionData.containsKey(e.getKey())) {
+					records.put(e.getKey(), record);
+				}
+			}
+
+			if (sessionData.isEmpty() && records.isEmpty()) {
+				LOG.debug("No sessions to persist for deployment " + deploymentName);
+				deleteFiles(deploymentName);
+				index.records.clear();
+				index.pending.clear();
+				return;
+			}
+
+			int written = 0;
+			long generation = index.generation;
+			try {
+				Files.createDirectories(sessionsDir.toPath());
+				File segmentFile = segmentFile(deploymentName, index.generation);
+				try (FileChannel segment = FileChannel.open(segmentFile.toPath(), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE)) {
+					long position = segment.size();
+					Buffer buffer = new Buffer();
+					for (Map.Entry<String, PersistentSession> e : sessionData.entrySet()) {
+						String id = e.getKey();
+						long expiration = e.getValue().getExpiration().getTime();
+						buffer.reset();
+						try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+							oos.writeObject(new HashMap<>(e.getValue().getSessionData()));
+						} catch (IOException ex) {
+							LOG.info("Error persisting session {} for deployment {}: {}", id, deploymentName, ex.getMessage());
+							continue;
+						}
+						byte[] digest = digest(buffer.array(), buffer.size());
+						Record previous = index.records.get(id);
+						if (previous != null && previous.length == buffer.size()
+								&& MessageDigest.isEqual(previous.digest, digest)) {
+							// same attributes as the already stored record
+							records.put(id, new Record(expiration, previous.position, previous.length, previous.digest));
+							continue;
+						}
+						ByteBuffer bb = ByteBuffer.wrap(buffer.array(), 0, buffer.size());
+						while (bb.hasRemaining()) {
+							position += segment.write(bb, position);
+						}
+						records.put(id, new Record(expiration, position - buffer.size(), buffer.size(), digest));
+						written++;
+					}
+					segment.force(false);
+
+					long live = 0L;
+					for (Record record : records.values()) {
+						live += record.length;
+					}
+					if (position > 2 * live) {
+						generation = compact(deploymentName, index.generation, records);
+					}
+				}
+				writeIndex(deploymentName, generation, records);
+				if (generation != index.generation) {
+					Files.deleteIfExists(segmentFile(deploymentName, index.generation).toPath());
+				}
+				// single file used by previous versions
+				Files.deleteIfExists(new File(sessionsDir, deploymentName).toPath());
+			} catch (IOException e) {
 				LOG.info("Error persisting sessions for deployment " + deploymentName, e);
+				return;
 			}
-		} else {
-			LOG.debug("No sessions to persist for deployment " + deploymentName);
+
+			index.generation = generation;
+			index.records.clear();
+			index.records.putAll(records);
+			index.pending.clear();
+			LOG.debug("Persisted {} sessions for deployment {} ({} written)", records.size(), deploymentName, written);
 		}
 	}
 
 	@Override
 	@SuppressWarnings("unchecked")
 	public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, ClassLoader classLoader) {
-		if (deploymentName == null || "".equals(deploymentName.trim())) {
-			deploymentName = "_ROOT_deployment";
-		}
+		deploymentName = fileName(deploymentName);
+		Index index = index(deploymentName);
 		Map<String, PersistentSession> sessionData = new LinkedHashMap<>();
-		try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(new File(sessionsDir, deploymentName))))) {
+		synchronized (index) {
+			long now = System.currentTimeMillis();
+			index.pending.clear();
+			for (Map.Entry<String, Record> e : index.records.entrySet()) {
+				if (e.getValue().expiration > now) {
+					LazySession session = new LazySession(e.getKey(), e.getValue(),
+							segmentFile(deploymentName, index.generation), classLoader);
+					index.pending.put(e.getKey(), session);
+					sessionData.put(e.getKey(), session);
+				}
+			}
+		}
+		if (!sessionData.isEmpty()) {
+			return sessionData;
+		}
+
+		// single file used by previous versions
+		try (ObjectInputStream ois = new ClassLoaderObjectInputStream(new BufferedInputStream(new FileInputStream(new File(sessionsDir, deploymentName))), classLoader)) {
 			Map<String, Map<String, Object>> map = (Map<String, Map<String, Object>>) ois.readObject();
 			for (Map.Entry<String, Map<String, Object>> e : map.entrySet()) {
 				long expiration = (Long) e.getValue().get("expiration");
@@ -88,7 +209,268 @@ public class FileSessionPersistence implements SessionPersistenceManager {
 
 	@Override
 	public void clear(String deploymentName) {
+		deploymentName = fileName(deploymentName);
+		Index index = index(deploymentName);
+		synchronized (index) {
+			deleteFiles(deploymentName);
+			index.records.clear();
+			index.pending.clear();
+		}
+	}
+
+	private String fileName(String deploymentName) {
+		if (deploymentName == null || "".equals(deploymentName.trim())) {
+			return "_ROOT_deployment";
+		}
+		return deploymentName;
+	}
+
+	private File indexFile(String deploymentName) {
+		return new File(sessionsDir, deploymentName + ".index");
+	}
+
+	private File segmentFile(String deploymentName, long generation) {
+		return new File(sessionsDir, deploymentName + ".sessions." + generation);
+	}
+
+	/**
+	 * Gets in-memory {@link Index} of the deployment, reading it from the index file if needed.
+	 * @param deploymentName
+	 * @return
+	 */
+	private Index index(String deploymentName) {
+		return indexes.computeIfAbsent(deploymentName, this::readIndex);
+	}
+
+	private Index readIndex(String deploymentName) {
+		Index index = new Index();
+		File file = indexFile(deploymentName);
+		if (!file.isFile()) {
+			return index;
+		}
+		try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (dis.readInt() != INDEX_MAGIC || dis.readInt() != INDEX_VERSION) {
+				LOG.warn("Unsupported session index {}", file);
+				return index;
+			}
+			index.generation = dis.readLong();
+			int count = dis.readInt();
+			for (int i = 0; i < count; i++) {
+				String id = dis.readUTF();
+				long expiration = dis.readLong();
+				long position = dis.readLong();
+				int length = dis.readInt();
+				byte[] digest = new byte[DIGEST_LENGTH];
+				dis.readFully(digest);
+				index.records.put(id, new Record(expiration, position, length, digest));
+			}
+		} catch (EOFException e) {
+			LOG.warn("Truncated session index {}", file);
+			index.records.clear();
+		} catch (IOException e) {
+			LOG.warn("Error reading session index {}: {}", file, e.getMessage());
+			index.records.clear();
+		}
+		return index;
+	}
+
+	private void writeIndex(String deploymentName, long generation, Map<String, Record> records) throws IOException {
+		File file = indexFile(deploymentName);
+		File tmp = new File(sessionsDir, deploymentName + ".index.tmp");
+		try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+			dos.writeInt(INDEX_MAGIC);
+			dos.writeInt(INDEX_VERSION);
+			dos.writeLong(generation);
+			dos.writeInt(records.size());
+			for (Map.Entry<String, Record> e : records.entrySet()) {
+				dos.writeUTF(e.getKey());
+				dos.writeLong(e.getValue().expiration);
+				dos.writeLong(e.getValue().position);
+				dos.writeInt(e.getValue().length);
+				dos.write(e.getValue().digest);
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Copies live records to next generation of the segment file and updates their positions.
+	 * @param deploymentName
+	 * @param generation current generation of the segment file
+	 * @param records
+	 * @return generation of the new segment file
+	 */
+	private long compact(String deploymentName, long generation, Map<String, Record> records) throws IOException {
+		File compactedFile = segmentFile(deploymentName, generation + 1);
+		try (FileChannel source = FileChannel.open(segmentFile(deploymentName, generation).toPath(), StandardOpenOption.READ);
+				FileChannel compacted = FileChannel.open(compactedFile.toPath(), StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			long position = 0L;
+			for (Map.Entry<String, Record> e : records.entrySet()) {
+				Record record = e.getValue();
+				long transferred = 0L;
+				while (transferred < record.length) {
+					long count = source.transferTo(record.position + transferred, record.length - transferred, compacted);
+					if (count <= 0) {
+						throw new EOFException("Can't copy persisted session " + e.getKey());
+					}
+					transferred += count;
+				}
+				e.setValue(new Record(record.expiration, position, record.length, record.digest));
+				position += record.length;
+			}
+			compacted.force(false);
+		}
+		LOG.debug("Compacted sessions of deployment {} into {}", deploymentName, compactedFile);
+		return generation + 1;
+	}
+
+	private void deleteFiles(String deploymentName) {
+		indexFile(deploymentName).delete();
 		new File(sessionsDir, deploymentName).delete();
+		String prefix = deploymentName + ".sessions.";
+		File[] segments = sessionsDir.listFiles((dir, name) -> name.startsWith(prefix));
+		if (segments != null) {
+			for (File segment : segments) {
+				segment.delete();
+			}
+		}
+	}
+
+	private static byte[] digest(byte[] bytes, int length) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			md.update(bytes, 0, length);
+			return md.digest();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is required to be supported by every Java platform
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private static final class Index {
+		/** Generation of the segment file with the records */
+		private long generation = 0L;
+		private final Map<String, Record> records = new LinkedHashMap<>();
+		/** Sessions returned from last {@link #loadSessionAttributes} */
+		private final Map<String, LazySession> pending = new HashMap<>();
+	}
+
+	/**
+	 * Location of serialized attributes of a session in the segment file.
+	 */
+	private static final class Record {
+		private final long expiration;
+		private final long position;
+		private final int length;
+		/** SHA-256 digest of the record - used to detect unchanged sessions and corrupted records */
+		private final byte[] digest;
+
+		Record(long expiration, long position, int length, byte[] digest) {
+			this.expiration = expiration;
+			this.position = position;
+			this.length = length;
+			this.digest = digest;
+		}
+	}
+
+	/**
+	 * {@link PersistentSession} which deserializes its attributes only when Undertow restores the session.
+	 */
+	private static final class LazySession extends PersistentSession {
+
+		private final String id;
+		private final Record record;
+		private final File segmentFile;
+		private final ClassLoader classLoader;
+		private volatile Map<String, Object> data;
+
+		LazySession(String id, Record record, File segmentFile, ClassLoader classLoader) {
+			super(new Date(record.expiration), null);
+			this.id = id;
+			this.record = record;
+			this.segmentFile = segmentFile;
+			this.classLoader = classLoader;
+		}
+
+		boolean isLoaded() {
+			return data != null;
+		}
+
+		@Override
+		public Map<String, Object> getSessionData() {
+			Map<String, Object> result = data;
+			if (result == null) {
+				synchronized (this) {
+					result = data;
+					if (result == null) {
+						result = read();
+						data = result;
+					}
+				}
+			}
+			return result;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<String, Object> read() {
+			byte[] bytes = new byte[record.length];
+			try (FileChannel segment = FileChannel.open(segmentFile.toPath(), StandardOpenOption.READ)) {
+				ByteBuffer bb = ByteBuffer.wrap(bytes);
+				while (bb.hasRemaining()) {
+					if (segment.read(bb, record.position + bb.position()) < 0) {
+						throw new EOFException();
+					}
+				}
+				if (!MessageDigest.isEqual(digest(bytes, bytes.length), record.digest)) {
+					LOG.warn("Invalid digest of persisted session {} in {}", id, segmentFile);
+					return Collections.emptyMap();
+				}
+				try (ObjectInputStream ois = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), classLoader)) {
+					return (Map<String, Object>) ois.readObject();
+				}
+			} catch (IOException | ClassNotFoundException | ClassCastException e) {
+				LOG.info("Error loading persisted session {} from {}: {}", id, segmentFile, e.getMessage());
+				return Collections.emptyMap();
+			}
+		}
+	}
+
+	/**
+	 * {@link ByteArrayOutputStream} reused for all the sessions, with access to its buffer.
+	 */
+	private static final class Buffer extends ByteArrayOutputStream {
+		Buffer() {
+			super(8192);
+		}
+
+		byte[] array() {
+			return buf;
+		}
+	}
+
+	/**
+	 * {@link ObjectInputStream} that loads the classes of session attributes from the class loader of the
+	 * deployment.
+	 */
+	static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+		private final ClassLoader classLoader;
+
+		ClassLoaderObjectInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+			super(in);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (classLoader != null) {
+				try {
+					return Class.forName(desc.getName(), false, classLoader);
+				} catch (ClassNotFoundException ignored) {
+				}
+			}
+			return super.resolveClass(desc);
+		}
 	}
 
 }
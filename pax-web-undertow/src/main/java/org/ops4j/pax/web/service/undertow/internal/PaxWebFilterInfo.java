@@ -83,6 +83,10 @@ public class PaxWebFilterInfo extends FilterInfo {
 		return filterModel;
 	}
 
+	public OsgiServletContext getOsgiServletContext() {
+		return osgiServletContext;
+	}
+
 	/**
 	 * An {@link InstanceFactory} that returns {@link Filter filter instance} from {@link FilterModel}.
 	 */
@@ -113,23 +113,27 @@ public class PaxWebOuterHandlerWrapper implements HandlerWrapper {
 
 				// attachment is such a great place to pass information down the request handling thread...
 				// unfortunately session manipulation methods can't access the exchange
-				if (osgiContextModel != null) {
-					String sessionIdPrefix = osgiContextModel.getTemporaryLocation().replaceAll("/", "_");
-					PaxWebSessionIdGenerator.sessionIdPrefix.set(sessionIdPrefix);
+				// the scope is prepared once with precomputed prefix of the OsgiContextModel
+				if (osgiContextModel != null && osgiContextModel.getSessionIdPrefix() != null) {
+					String sessionId = null;
 					String sessionCookie = context.getCurrentServletContext().getSessionCookieConfig().getName();
 					Cookie cookie = exchange.getRequestCookie(sessionCookie);
 					if (cookie != null) {
-						PaxWebSessionIdGenerator.cookieSessionId.set(cookie.getValue());
+						sessionId = cookie.getValue();
 					} else if (context.getCurrentServletContext() != null && context.getCurrentServletContext().getSessionConfig() != null) {
-						// try to get the session ID using other means
-						String sessionId = context.getCurrentServletContext().getSessionConfig().findSessionId(exchange);
-						PaxWebSessionIdGenerator.cookieSessionId.set(sessionId);
+						// try to get the session ID using other means (wrapped config returns it with a prefix)
+						sessionId = context.getCurrentServletContext().getSessionConfig().findSessionId(exchange);
+						if (sessionId != null) {
+							sessionId = sessionId.substring(sessionId.lastIndexOf('~') + 1);
+						}
 					}
+					PaxWebSessionIdGenerator.Scope scope = new PaxWebSessionIdGenerator.Scope(osgiContextModel.getSessionIdPrefix(), sessionId);
+					exchange.putAttachment(PaxWebSessionIdGenerator.SCOPE_KEY, scope);
+					PaxWebSessionIdGenerator.SCOPE.set(scope);
 				}
 
 				exchange.addExchangeCompleteListener((exchange1, nextListener) -> {
-					PaxWebSessionIdGenerator.sessionIdPrefix.set(null);
-					PaxWebSessionIdGenerator.cookieSessionId.set(null);
+					PaxWebSessionIdGenerator.SCOPE.remove();
 					nextListener.proceed();
 				});
 				// just proceed
@@ -15,11 +15,9 @@
  */
 package org.ops4j.pax.web.service.undertow.internal;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletRequest;
@@ -31,6 +29,7 @@ import io.undertow.server.HandlerWrapper;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.servlet.handlers.ServletRequestContext;
+import org.ops4j.pax.web.service.spi.servlet.OsgiDispatchPipeline;
 import org.ops4j.pax.web.service.spi.servlet.OsgiFilterChain;
 import org.ops4j.pax.web.service.spi.servlet.PreprocessorFilterConfig;
 import org.osgi.service.http.whiteboard.Preprocessor;
@@ -48,22 +47,32 @@ public class PaxWebPreprocessorsHandler implements HandlerWrapper {
 	 */
 	private final List<PreprocessorFilterConfig> preprocessors = new LinkedList<>();
 
+	/**
+	 * Pipeline shared by all {@link OsgiFilterChain chains}. Replaced whenever {@link #preprocessors} change.
+	 */
+	private volatile OsgiDispatchPipeline pipeline = OsgiDispatchPipeline.EMPTY;
+
 	@Override
 	@SuppressWarnings("Convert2Lambda")
 	public HttpHandler wrap(HttpHandler handler) {
 		return new HttpHandler() {
 			@Override
 			public void handleRequest(HttpServerExchange exchange) throws Exception {
+				OsgiDispatchPipeline pipeline = PaxWebPreprocessorsHandler.this.pipeline;
+				if (!pipeline.hasPreprocessors()) {
+					// without preprocessors, OsgiFilterChain would simply call the next handler
+					handler.handleRequest(exchange);
+					return;
+				}
+
 				ServletRequestContext context = exchange.getAttachment(ServletRequestContext.ATTACHMENT_KEY);
 				HttpServletRequest incomingRequest = (HttpServletRequest) context.getServletRequest();
 				HttpServletResponse outgoingRequest = (HttpServletResponse) context.getServletResponse();
 
-				List<Preprocessor> preprocessorInstances = preprocessors.stream().map(PreprocessorFilterConfig::getInstance).collect(Collectors.toList());
-
 				final Exception[] ex = new Exception[] { null };
 				// in Undertow we use authListener in org.ops4j.pax.web.service.undertow.internal.PaxWebSecurityHandler
 				Consumer<HttpServletRequest> authListener = null;
-				FilterChain chain = new OsgiFilterChain(new ArrayList<>(preprocessorInstances), null, null, new FilterChain() {
+				FilterChain chain = pipeline.createChain(null, null, new FilterChain() {
 					@Override
 					public void doFilter(ServletRequest request, ServletResponse response) {
 						// just proceed
@@ -87,4 +96,12 @@ public class PaxWebPreprocessorsHandler implements HandlerWrapper {
 		return preprocessors;
 	}
 
+	/**
+	 * Should be called after changing the list of {@link PreprocessorFilterConfig preprocessors} or after
+	 * (re)initialization of the preprocessors, so new {@link OsgiDispatchPipeline} is used for new requests.
+	 */
+	public void preprocessorsChanged() {
+		pipeline = new OsgiDispatchPipeline(preprocessors);
+	}
+
 }
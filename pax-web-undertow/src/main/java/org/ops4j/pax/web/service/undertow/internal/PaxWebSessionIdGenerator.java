@@ -16,26 +16,78 @@
 package org.ops4j.pax.web.service.undertow.internal;
 
 import io.undertow.server.session.SecureRandomSessionIdGenerator;
+import io.undertow.util.AttachmentKey;
 
 public class PaxWebSessionIdGenerator extends SecureRandomSessionIdGenerator {
 
-	public static ThreadLocal<String> sessionIdPrefix = new ThreadLocal<>();
-	public static ThreadLocal<String> cookieSessionId = new ThreadLocal<>();
+	/**
+	 * Session scope of current exchange - used by {@link io.undertow.server.session.SessionConfig} methods, which
+	 * have access to the exchange.
+	 */
+	public static final AttachmentKey<Scope> SCOPE_KEY = AttachmentKey.create(Scope.class);
+
+	/**
+	 * {@link #createSessionId()} doesn't have access to the exchange, so the session scope is passed with thread
+	 * local set in {@link PaxWebOuterHandlerWrapper}.
+	 */
+	public static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
 
 	@Override
 	public String createSessionId() {
 		// See also org.ops4j.pax.web.service.jetty.internal.PaxWebSessionIdManager.newSessionId()
-		String prefix = sessionIdPrefix.get();
-		String cookie = cookieSessionId.get();
-		if (prefix == null) {
+		Scope scope = SCOPE.get();
+		if (scope == null || scope.prefix == null) {
 			return super.createSessionId();
-		} else {
-			if (cookie != null) {
-				// cookie used already and we're creating new session
-				cookieSessionId.set(null);
-				return prefix + "~" + cookie;
+		}
+		if (scope.scopedRequestedSessionId != null) {
+			// cookie used already and we're creating new session
+			SCOPE.set(new Scope(scope.prefix, null));
+			return scope.scopedRequestedSessionId;
+		}
+		return scope.prefix.concat(super.createSessionId());
+	}
+
+	/**
+	 * Session scope of a request - precomputed session ID prefix of the target
+	 * {@link org.ops4j.pax.web.service.spi.model.OsgiContextModel} and the session ID sent by the client.
+	 */
+	public static final class Scope {
+		private final String prefix;
+		private final String requestedSessionId;
+		private final String scopedRequestedSessionId;
+
+		public Scope(String prefix, String requestedSessionId) {
+			this.prefix = prefix;
+			this.requestedSessionId = requestedSessionId;
+			this.scopedRequestedSessionId = prefix == null || requestedSessionId == null ? null
+					: prefix.concat(requestedSessionId);
+		}
+
+		/**
+		 * Returns session ID with the prefix of this scope. Requested session ID was prefixed already.
+		 * @param id
+		 * @return
+		 */
+		public String scope(String id) {
+			if (prefix == null || id == null) {
+				return id;
+			}
+			if (id.equals(requestedSessionId)) {
+				return scopedRequestedSessionId;
+			}
+			return prefix.concat(id);
+		}
+
+		/**
+		 * Returns session ID without the prefix of this scope (as it should be sent to the client)
+		 * @param id
+		 * @return
+		 */
+		public String unscope(String id) {
+			if (prefix != null && id != null && id.startsWith(prefix)) {
+				return id.substring(prefix.length());
 			}
-			return prefix + "~" + super.createSessionId();
+			return id;
 		}
 	}
 
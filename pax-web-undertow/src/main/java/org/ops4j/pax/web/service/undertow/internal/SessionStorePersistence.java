@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.undertow.servlet.api.SessionPersistenceManager;
+import org.ops4j.pax.web.service.spi.session.SessionRecord;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SessionPersistenceManager} keeping the sessions of Undertow deployments in Pax Web {@link SessionStore}.
+ * Like {@link FileSessionPersistence}, session attributes are deserialized only when Undertow restores the session
+ * and sessions which were loaded, but not restored, are kept in the store.
+ */
+public class SessionStorePersistence implements SessionPersistenceManager {
+
+	public static final Logger LOG = LoggerFactory.getLogger(SessionStorePersistence.class);
+
+	private final SessionStore store;
+
+	/** Sessions loaded for each deployment since last start */
+	private final Map<String, Map<String, LazySession>> loaded = new ConcurrentHashMap<>();
+
+	public SessionStorePersistence(SessionStore store) {
+		this.store = store;
+	}
+
+	public SessionStore getSessionStore() {
+		return store;
+	}
+
+	@Override
+	public void persistSessions(String deploymentName, Map<String, PersistentSession> sessionData) {
+		String contextId = contextId(deploymentName);
+		Map<String, LazySession> pending = loaded.remove(contextId);
+		long now = System.currentTimeMillis();
+		try {
+			Set<String> stale = new LinkedHashSet<>(store.getSessionIds(contextId));
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+			for (Map.Entry<String, PersistentSession> e : sessionData.entrySet()) {
+				String id = e.getKey();
+				long expiration = e.getValue().getExpiration().getTime();
+				buffer.reset();
+				try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+					oos.writeObject(new HashMap<>(e.getValue().getSessionData()));
+				} catch (IOException ex) {
+					LOG.info("Error persisting session {} for deployment {}: {}", id, deploymentName, ex.getMessage());
+					continue;
+				}
+				store.save(contextId, new SessionRecord(id, 0L, 0L, 0L, expiration, buffer.toByteArray()));
+				stale.remove(id);
+			}
+			for (String id : stale) {
+				LazySession session = pending == null ? null : pending.get(id);
+				if (session == null || session.isLoaded() || session.getExpiration().getTime() <= now) {
+					store.delete(contextId, id);
+				}
+			}
+			store.flush();
+		} catch (IOException e) {
+			LOG.warn("Problem persisting sessions for deployment {}: {}", deploymentName, e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, ClassLoader classLoader) {
+		String contextId = contextId(deploymentName);
+		Map<String, LazySession> sessions = new LinkedHashMap<>();
+		long now = System.currentTimeMillis();
+		try {
+			for (String id : store.getSessionIds(contextId)) {
+				SessionRecord record = store.load(contextId, id);
+				if (record == null) {
+					continue;
+				}
+				if (record.isExpired(now)) {
+					store.delete(contextId, id);
+					continue;
+				}
+				sessions.put(id, new LazySession(record, classLoader));
+			}
+		} catch (IOException e) {
+			LOG.warn("Problem loading sessions for deployment {}: {}", deploymentName, e.getMessage(), e);
+		}
+		loaded.put(contextId, sessions);
+		return new LinkedHashMap<>(sessions);
+	}
+
+	@Override
+	public void clear(String deploymentName) {
+		String contextId = contextId(deploymentName);
+		loaded.remove(contextId);
+		try {
+			store.clear(contextId);
+		} catch (IOException e) {
+			LOG.warn("Problem removing sessions for deployment {}: {}", deploymentName, e.getMessage(), e);
+		}
+	}
+
+	private String contextId(String deploymentName) {
+		return deploymentName == null ? "" : deploymentName;
+	}
+
+	/**
+	 * {@link PersistentSession} which deserializes its attributes only when Undertow restores the session.
+	 */
+	private static final class LazySession extends PersistentSession {
+
+		private final SessionRecord record;
+		private final ClassLoader classLoader;
+		private volatile Map<String, Object> data;
+
+		LazySession(SessionRecord record, ClassLoader classLoader) {
+			super(new Date(record.getExpiry()), null);
+			this.record = record;
+			this.classLoader = classLoader;
+		}
+
+		boolean isLoaded() {
+			return data != null;
+		}
+
+		@Override
+		public Map<String, Object> getSessionData() {
+			Map<String, Object> result = data;
+			if (result == null) {
+				synchronized (this) {
+					result = data;
+					if (result == null) {
+						result = read();
+						data = result;
+					}
+				}
+			}
+			return result;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<String, Object> read() {
+			try (ObjectInputStream ois = new FileSessionPersistence.ClassLoaderObjectInputStream(
+					new ByteArrayInputStream(record.getData()), classLoader)) {
+				return (Map<String, Object>) ois.readObject();
+			} catch (IOException | ClassNotFoundException | ClassCastException e) {
+				LOG.info("Error loading persisted session {}: {}", record.getId(), e.getMessage());
+				return Collections.emptyMap();
+			}
+		}
+	}
+
+}
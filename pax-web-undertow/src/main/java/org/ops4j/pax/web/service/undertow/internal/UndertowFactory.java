@@ -18,6 +18,7 @@ package org.ops4j.pax.web.service.undertow.internal;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -31,6 +32,7 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.CollectionCertStoreParameters;
 import java.security.cert.PKIXBuilderParameters;
 import java.security.cert.X509CertSelector;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -38,6 +40,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.net.ssl.CertPathTrustManagerParameters;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
@@ -62,10 +65,16 @@ import io.undertow.server.protocol.http.HttpOpenListener;
 import io.undertow.server.protocol.http2.Http2OpenListener;
 import io.undertow.server.protocol.http2.Http2UpgradeHandler;
 import io.undertow.server.protocol.proxy.ProxyProtocolOpenListener;
+import io.undertow.servlet.api.Deployment;
 import io.undertow.servlet.api.DeploymentInfo;
 import io.undertow.servlet.api.FilterInfo;
 import io.undertow.servlet.api.FilterMappingInfo;
 import io.undertow.servlet.api.ServletInfo;
+import io.undertow.servlet.core.DeploymentImpl;
+import io.undertow.servlet.core.Lifecycle;
+import io.undertow.servlet.core.ManagedFilter;
+import io.undertow.servlet.core.ManagedFilters;
+import io.undertow.servlet.handlers.ServletPathMatches;
 import io.undertow.servlet.handlers.MarkSecureHandler;
 import io.undertow.util.HttpString;
 import org.ops4j.pax.web.service.spi.config.Configuration;
@@ -96,6 +105,40 @@ public class UndertowFactory {
 
 	private static final Logger LOG = LoggerFactory.getLogger(UndertowFactory.class);
 
+	/**
+	 * Undertow has no API to remove filters (and their mappings) from running deployment, so we need access
+	 * to private collections of {@link DeploymentInfo}, {@link ManagedFilters} and {@link DeploymentImpl}.
+	 */
+	private static final Field FILTER_URL_MAPPINGS;
+	private static final Field FILTER_SERVLET_NAME_MAPPINGS;
+	private static final Field MANAGED_FILTERS;
+	private static final Field LIFECYCLE_OBJECTS;
+
+	static {
+		Field urlMappings = null;
+		Field servletNameMappings = null;
+		Field managedFilters = null;
+		Field lifecycleObjects = null;
+		try {
+			urlMappings = DeploymentInfo.class.getDeclaredField("filterUrlMappings");
+			urlMappings.setAccessible(true);
+			servletNameMappings = DeploymentInfo.class.getDeclaredField("filterServletNameMappings");
+			servletNameMappings.setAccessible(true);
+			managedFilters = ManagedFilters.class.getDeclaredField("managedFilterMap");
+			managedFilters.setAccessible(true);
+			lifecycleObjects = DeploymentImpl.class.getDeclaredField("lifecycleObjects");
+			lifecycleObjects.setAccessible(true);
+		} catch (Exception e) {
+			LOG.debug("Can't access filters of Undertow deployment, filter changes will require redeployment: {}",
+					e.getMessage());
+			urlMappings = null;
+		}
+		FILTER_URL_MAPPINGS = urlMappings;
+		FILTER_SERVLET_NAME_MAPPINGS = servletNameMappings;
+		MANAGED_FILTERS = managedFilters;
+		LIFECYCLE_OBJECTS = lifecycleObjects;
+	}
+
 	private final ClassLoader classLoader;
 
 	private final Xnio xnio;
@@ -940,6 +983,116 @@ public class UndertowFactory {
 		return info;
 	}
 
+	/**
+	 * Whether {@link #updateFilters} can be used with current version of Undertow.
+	 * @return
+	 */
+	public boolean isFilterUpdateSupported() {
+		return FILTER_URL_MAPPINGS != null;
+	}
+
+	/**
+	 * <p>Changes the filters of running {@link Deployment} without redeploying it. Mappings of the filters not
+	 * being part of the change (dynamic filters) are kept, all other mappings are created again by
+	 * {@code mappingsConfigurer}, so they reflect new order of the filters.</p>
+	 *
+	 * <p>New mappings are prepared in advance and new filters are initialized (with {@code initializer}) before
+	 * they're mapped. Then the collections used by {@link ServletPathMatches} to build filter chains are changed
+	 * while holding its monitor (the same one which is held when the chains are set up) and the cached chains are
+	 * invalidated, so concurrent request never sees half-changed configuration. Removed filters are stopped
+	 * at the end.</p>
+	 *
+	 * @param deployment
+	 * @param added new filters to initialize and add
+	 * @param removed filters to remove (and stop) - only if they're still registered under their names
+	 * @param mappingsConfigurer
+	 * @param initializer
+	 */
+	@SuppressWarnings("unchecked")
+	public void updateFilters(Deployment deployment, Collection<FilterInfo> added, Collection<FilterInfo> removed,
+			Consumer<DeploymentInfo> mappingsConfigurer, Consumer<ManagedFilter> initializer) {
+		DeploymentInfo info = deployment.getDeploymentInfo();
+		ServletPathMatches paths = deployment.getServletPaths();
+		List<FilterMappingInfo> urlMappings;
+		List<FilterMappingInfo> servletNameMappings;
+		Map<String, ManagedFilter> managedFilters;
+		List<Lifecycle> lifecycleObjects;
+		try {
+			urlMappings = (List<FilterMappingInfo>) FILTER_URL_MAPPINGS.get(info);
+			servletNameMappings = (List<FilterMappingInfo>) FILTER_SERVLET_NAME_MAPPINGS.get(info);
+			managedFilters = (Map<String, ManagedFilter>) MANAGED_FILTERS.get(deployment.getFilters());
+			lifecycleObjects = (List<Lifecycle>) LIFECYCLE_OBJECTS.get(deployment);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Can't access filters of Undertow deployment: " + e.getMessage(), e);
+		}
+
+		// mappings of filters which are not managed by the FilterModels being changed are kept at their positions
+		Set<String> preserved = new HashSet<>();
+		for (FilterInfo fi : info.getFilters().values()) {
+			FilterModel fm = fi instanceof PaxWebFilterInfo ? ((PaxWebFilterInfo) fi).getFilterModel() : null;
+			if (fm == null || fm.isDynamic()) {
+				preserved.add(fi.getName());
+			}
+		}
+		removed.forEach(fi -> preserved.remove(fi.getName()));
+		DeploymentInfo mappings = new DeploymentInfo();
+		for (FilterMappingInfo fm : info.getFilterMappings()) {
+			if (preserved.contains(fm.getFilterName())) {
+				if (fm.getMappingType() == FilterMappingInfo.MappingType.SERVLET) {
+					mappings.addFilterServletNameMapping(fm.getFilterName(), fm.getMapping(), fm.getDispatcher());
+				} else {
+					mappings.addFilterUrlMapping(fm.getFilterName(), fm.getMapping(), fm.getDispatcher());
+				}
+			}
+		}
+		mappingsConfigurer.accept(mappings);
+		List<FilterMappingInfo> newUrlMappings = new ArrayList<>();
+		List<FilterMappingInfo> newServletNameMappings = new ArrayList<>();
+		for (FilterMappingInfo fm : mappings.getFilterMappings()) {
+			if (fm.getMappingType() == FilterMappingInfo.MappingType.SERVLET) {
+				newServletNameMappings.add(fm);
+			} else {
+				newUrlMappings.add(fm);
+			}
+		}
+
+		// remember the ManagedFilters to stop, before new filters with the same names replace them
+		List<ManagedFilter> toStop = new ArrayList<>();
+		for (FilterInfo fi : removed) {
+			ManagedFilter filter = managedFilters.get(fi.getName());
+			if (filter != null && filter.getFilterInfo() == fi) {
+				toStop.add(filter);
+			}
+		}
+
+		List<ManagedFilter> toStart = new ArrayList<>();
+		synchronized (paths) {
+			for (FilterInfo fi : added) {
+				info.addFilter(fi);
+				toStart.add(deployment.getFilters().addFilter(fi));
+			}
+		}
+		toStart.forEach(initializer);
+
+		synchronized (paths) {
+			for (FilterInfo fi : removed) {
+				info.getFilters().remove(fi.getName(), fi);
+			}
+			for (ManagedFilter filter : toStop) {
+				managedFilters.remove(filter.getFilterInfo().getName(), filter);
+				lifecycleObjects.remove(filter);
+			}
+			urlMappings.clear();
+			urlMappings.addAll(newUrlMappings);
+			servletNameMappings.clear();
+			servletNameMappings.addAll(newServletNameMappings);
+			// chains will be set up again using new filters and mappings
+			paths.invalidate();
+		}
+
+		toStop.forEach(ManagedFilter::stop);
+	}
+
 	public static class AcceptingChannelWithAddress {
 		private final AcceptingChannel<? extends StreamConnection> acceptingChannel;
 		private final InetSocketAddress address;
@@ -29,6 +29,7 @@ import org.ops4j.pax.web.service.spi.ServerState;
 import org.ops4j.pax.web.service.spi.config.Configuration;
 import org.ops4j.pax.web.service.spi.model.events.ServerEvent;
 import org.ops4j.pax.web.service.spi.model.events.ServerListener;
+import org.ops4j.pax.web.service.spi.servlet.CompressedResourceCache;
 import org.ops4j.pax.web.service.spi.task.Batch;
 import org.ops4j.pax.web.service.undertow.internal.web.UndertowResourceServlet;
 import org.osgi.framework.Bundle;
@@ -185,7 +186,9 @@ public class UndertowServerController implements ServerController/*, IdentityMan
 		}
 		Integer maxAge = configuration.resources().maxCacheTTL();
 		if (maxAge == null) {
-			// arbitrary number
+			// arbitrary number. Even if OsgiResourceManager reports changes of bundle and file: resources,
+			// resources of other origins (like custom URL handlers of ServletContextHelper) can't be tracked,
+			// so entries still have to expire
 			maxAge = 60000 /* ms */;
 		}
 
@@ -194,6 +197,19 @@ public class UndertowServerController implements ServerController/*, IdentityMan
 
 		undertowResourceServlet.setCachingConfiguration(metadataCacheSize, maxEntrySize, maxSize, maxAge);
 
+		// io.undertow.server.handlers.resource.PathResourceManager.transferMinSize - when not configured,
+		// Undertow's default (1kB) is used
+		Integer zeroCopyMinSize = configuration.resources().zeroCopyMinSize();
+		if (zeroCopyMinSize != null) {
+			undertowResourceServlet.setTransferMinSize(zeroCopyMinSize < 0 ? Long.MAX_VALUE : zeroCopyMinSize * 1024L);
+		}
+
+		// precompressed variants of resources (possibly created on demand, see CompressedResourceCache)
+		undertowResourceServlet.setPreCompressedResources(CompressedResourceCache.precompressedFormats(configuration.resources()));
+
+		// single watcher of file: resources for all resource servlets
+		undertowResourceServlet.setResourceWatcher(undertowServerWrapper.getResourceWatcher());
+
 		return undertowResourceServlet;
 	}
 
@@ -59,7 +59,6 @@ import javax.servlet.http.HttpSessionAttributeListener;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.SAXParserFactory;
 
-import io.undertow.Handlers;
 import io.undertow.Undertow;
 import io.undertow.connector.ByteBufferPool;
 import io.undertow.predicate.Predicate;
@@ -140,6 +139,9 @@ import org.ops4j.pax.web.service.spi.servlet.OsgiServletContextClassLoader;
 import org.ops4j.pax.web.service.spi.servlet.OsgiSessionAttributeListener;
 import org.ops4j.pax.web.service.spi.servlet.PreprocessorFilterConfig;
 import org.ops4j.pax.web.service.spi.servlet.RegisteringContainerInitializer;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
+import org.ops4j.pax.web.service.spi.session.SessionStore;
+import org.ops4j.pax.web.service.spi.session.SessionStores;
 import org.ops4j.pax.web.service.spi.task.BatchVisitor;
 import org.ops4j.pax.web.service.spi.task.ClearDynamicRegistrationsChange;
 import org.ops4j.pax.web.service.spi.task.ContainerInitializerModelChange;
@@ -178,6 +180,7 @@ import org.ops4j.pax.web.service.undertow.internal.security.PropertiesIdentityMa
 import org.ops4j.pax.web.service.undertow.internal.web.FlexibleErrorPages;
 import org.ops4j.pax.web.service.undertow.internal.web.OsgiResourceManager;
 import org.ops4j.pax.web.service.undertow.internal.web.OsgiServletContainerInitializerInfo;
+import org.ops4j.pax.web.service.undertow.internal.web.ResourceWatcher;
 import org.ops4j.pax.web.service.undertow.internal.web.UndertowResourceServlet;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkUtil;
@@ -369,6 +372,9 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 	private Integer defaultSessionTimeout = null;
 	private SessionPersistenceManager globalSessionPersistenceManager;
 
+	/** Single watcher of {@code file:} resources served by all the resource servlets of this runtime */
+	private final ResourceWatcher resourceWatcher = new ResourceWatcher();
+
 	// configuration read from undertow.xml
 	private UndertowConfiguration undertowConfiguration;
 
@@ -384,6 +390,12 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 	 */
 	private final List<EventListenerModel> sessionListenerModels = new ArrayList<>();
 
+	/**
+	 * Single bridge (with an index of {@link HttpSessionAttributeListener listeners} per {@link OsgiContextModel})
+	 * shared by all the contexts.
+	 */
+	private final OsgiSessionAttributeListener osgiSessionsBridge = new OsgiSessionAttributeListener(sessionListenerModels);
+
 	private final Map<String, TreeMap<OsgiContextModel, SecurityConfigurationModel>> contextSecurityConstraints = new HashMap<>();
 
 	UndertowServerWrapper(Configuration config, UndertowFactory undertowFactory,
@@ -404,7 +416,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 		LOG.info("Creating Undertow server instance using configuration properties.");
 
 		// initially rootHandler == pathHandler without any particular path registered
-		pathHandler = Handlers.path();
+		pathHandler = new ContextAwarePathHandler();
 		rootHandler = pathHandler;
 
 		// apply single (if exists) external undertow.xml file by reading it according to Wildfly XSDs,
@@ -437,7 +449,10 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 
 		if (globalSessionPersistenceManager == null) {
 			File dir = configuration.session().getSessionStoreDirectory();
-			if (dir != null) {
+			SessionStore sessionStore = SessionStores.create(configuration.session());
+			if (sessionStore != null) {
+				globalSessionPersistenceManager = new SessionStorePersistence(sessionStore);
+			} else if (dir != null) {
 				LOG.info("Using file session persistence. Location: " + dir.getCanonicalPath());
 				globalSessionPersistenceManager = new FileSessionPersistence(dir);
 			} else {
@@ -1042,6 +1057,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 								fc.setInitCalled(false);
 							}
 						}
+						preprocessorsHandlers.get(contextPath).preprocessorsChanged();
 					}
 
 					deployment.stop();
@@ -1052,6 +1068,10 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 			}
 		});
 		deploymentInfos.clear();
+		if (globalSessionPersistenceManager instanceof SessionStorePersistence) {
+			((SessionStorePersistence) globalSessionPersistenceManager).getSessionStore().close();
+			globalSessionPersistenceManager = null;
+		}
 		// do not clear osgiContextModels and osgiServletContexts
 		// - they'll be cleared individually through HttpServiceEnabled
 //		osgiServletContexts.clear();
@@ -1067,6 +1087,8 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 		this.bufferPools.clear();
 		undertowFactory.closeDefaultPoolAndBuffer();
 
+		resourceWatcher.close();
+
 		// I found this necessary, when pax-web-undertow is restarted/refreshed without affecting
 		// pax-web-extender-whiteboard
 		osgiServletContexts.values().forEach(OsgiServletContext::unregister);
@@ -1184,7 +1206,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 			this.preprocessorsHandlers.put(contextPath, preprocessorWrapper);
 			deploymentInfo.addOuterHandlerChainWrapper(preprocessorWrapper);
 
-			PaxWebOuterHandlerWrapper outerWrapper = new PaxWebOuterHandlerWrapper(new OsgiSessionAttributeListener(sessionListenerModels));
+			PaxWebOuterHandlerWrapper outerWrapper = new PaxWebOuterHandlerWrapper(osgiSessionsBridge);
 			this.wrappingHandlers.put(contextPath, outerWrapper);
 			deploymentInfo.addOuterHandlerChainWrapper(outerWrapper);
 
@@ -1305,6 +1327,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 			}
 			OsgiServletContext osgiContext = new OsgiServletContext(getRealServletContext(contextPath), osgiModel, servletContextModel,
 					defaultSessionCookieConfig, classLoader);
+			osgiContext.setResourceCache(new ResourceCache(configuration.resources()));
 
 			// that's ideal place to set ServletContext.TEMPDIR attribute - it'll work for HttpService, Whiteboard and WAB
 			File tmpLocation = new File(configuration.server().getTemporaryDirectory(), osgiModel.getTemporaryLocation());
@@ -1795,6 +1818,14 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 		}
 	}
 
+	/**
+	 * Returns {@link ResourceWatcher} shared by all the resource servlets of this runtime
+	 * @return
+	 */
+	public ResourceWatcher getResourceWatcher() {
+		return resourceWatcher;
+	}
+
 	@Override
 	public void visitFilterStateChange(FilterStateChange change) {
 		if (change.isDynamic()) {
@@ -1863,6 +1894,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 					iterator.remove();
 				}
 			}
+			preprocessorsHandler.preprocessorsChanged();
 
 			if (manager != null && manager.getState() == DeploymentManager.State.STARTED) {
 				for (PreprocessorFilterConfig fc : toInit) {
@@ -1902,6 +1934,14 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 				continue;
 			}
 
+			if (state == DeploymentManager.State.STARTED && !pendingTransaction(contextPath)
+					&& undertowFactory.isFilterUpdateSupported()) {
+				// Undertow has no API to remove filters from running deployment, but instead of redeploying
+				// entire context, we can change the filters of running deployment in place
+				updateFilters(manager.getDeployment(), contextPath, filtersMap, filters, defaultHighestRankedModel);
+				continue;
+			}
+
 			boolean quick = canQuicklyAddFilter(deploymentInfo, filters);
 			quick &= filtersMap.values().stream().noneMatch(Objects::nonNull);
 
@@ -1926,25 +1966,8 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 				if (model.isPreprocessor()) {
 					continue;
 				}
-				// we need highest ranked OsgiContextModel for current context path - chosen not among all
-				// associated OsgiContextModels, but among OsgiContextModels of the FilterModel
-				OsgiContextModel highestRankedModel = null;
-				// remember, this contextModels list is properly sorted - and it comes either from model or
-				// (if configured) from associated list of models which are being changed in the model
-				List<OsgiContextModel> contextModels = filtersMap.get(model) != null
-						? filtersMap.get(model) : model.getContextModels();
-				for (OsgiContextModel ocm : contextModels) {
-					if (ocm.getContextPath().equals(contextPath)) {
-						highestRankedModel = ocm;
-						break;
-					}
-				}
-				if (highestRankedModel == null) {
-					LOG.warn("(dev) Can't find proper OsgiContextModel for the filter. Falling back to "
-							+ "highest ranked OsgiContextModel for given ServletContextModel");
-					highestRankedModel = defaultHighestRankedModel;
-				}
-				OsgiServletContext context = osgiServletContexts.get(highestRankedModel);
+				OsgiServletContext context = findFilterContext(model, filtersMap, contextPath,
+						defaultHighestRankedModel);
 
 				// filter definition
 				FilterInfo info = new PaxWebFilterInfo(model, context,
@@ -2027,6 +2050,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 				if (eventListener instanceof HttpSessionAttributeListener) {
 					// we have to store it separately to propagate OsgiHttpSession specific events
 					sessionListenerModels.add(eventListenerModel);
+					osgiSessionsBridge.sessionListenersChanged();
 				}
 
 				boolean stopped = false;
@@ -2107,6 +2131,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 					}
 					if (eventListener instanceof HttpSessionAttributeListener) {
 						sessionListenerModels.remove(eventListenerModel);
+						osgiSessionsBridge.sessionListenersChanged();
 					}
 
 					if (eventListenerModel.isDynamic()) {
@@ -2629,7 +2654,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 			// keycloak accesses resources directly inside
 			// org.keycloak.adapters.undertow.KeycloakServletExtension#handleDeployment where we don't have
 			// access to Osgi contexts
-			deployment.setResourceManager(new OsgiResourceManager("", highestRankedContext));
+			deployment.setResourceManager(new OsgiResourceManager("", highestRankedContext, 2048, -1L, resourceWatcher));
 
 			// handle Pax Web specific extensions
 			ServiceLoader<PaxWebUndertowExtension> extensions = ServiceLoader.load(PaxWebUndertowExtension.class, highestRankedContext.getClassLoader());
@@ -2670,10 +2695,10 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 					return new SessionConfig() {
 						@Override
 						public void setSessionId(HttpServerExchange exchange, String sessionId) {
-							String prefix = PaxWebSessionIdGenerator.sessionIdPrefix.get();
-							if (prefix != null) {
+							PaxWebSessionIdGenerator.Scope scope = exchange.getAttachment(PaxWebSessionIdGenerator.SCOPE_KEY);
+							if (scope != null) {
 								// to trim leading "prefix~" from sessionId
-								sessionId = sessionId.substring(prefix.length() + 1);
+								sessionId = scope.unscope(sessionId);
 							}
 							sessionConfig.setSessionId(exchange, sessionId);
 						}
@@ -2685,13 +2710,16 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 
 						@Override
 						public String findSessionId(HttpServerExchange exchange) {
-							String prefix = PaxWebSessionIdGenerator.sessionIdPrefix.get();
 							String id = sessionConfig.findSessionId(exchange);
 							int idx = id == null ? -1 : id.indexOf('~');
 							if (idx >= 0) {
 								id = id.substring(idx + 1);
 							}
-							if (id != null && prefix == null) {
+							if (id == null) {
+								return null;
+							}
+							PaxWebSessionIdGenerator.Scope scope = exchange.getAttachment(PaxWebSessionIdGenerator.SCOPE_KEY);
+							if (scope == null) {
 								// we may be restoring sessions in ServletInitialHandler...
 								ServletRequestContext ctx = exchange.getAttachment(ServletRequestContext.ATTACHMENT_KEY);
 								if (ctx != null && ctx.getCurrentServlet() != null) {
@@ -2704,15 +2732,15 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 										} else {
 											osgiContextModel = paxWebServletInfo.getOsgiContextModel();
 										}
-										prefix = osgiContextModel == null ? null : osgiContextModel.getTemporaryLocation().replaceAll("/", "_");
+										if (osgiContextModel != null && osgiContextModel.getSessionIdPrefix() != null) {
+											scope = new PaxWebSessionIdGenerator.Scope(osgiContextModel.getSessionIdPrefix(), id);
+											exchange.putAttachment(PaxWebSessionIdGenerator.SCOPE_KEY, scope);
+										}
 									}
 								}
 							}
-							if (prefix != null && id != null) {
-								// to add leading "prefix~" to sessionId
-								return prefix + "~" + id;
-							}
-							return id;
+							// to add leading "prefix~" to sessionId - precomputed for the requested session ID
+							return scope == null ? id : scope.scope(id);
 						}
 
 						@Override
@@ -2909,6 +2937,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 					fc.setInitCalled(true);
 				}
 			}
+			preprocessorsHandlers.get(contextPath).preprocessorsChanged();
 
 			highestRankedDynamicContext.rememberAttributesFromSCIs();
 
@@ -2975,6 +3004,95 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 		return deploymentManager;
 	}
 
+	/**
+	 * Changes the filters of started deployment without redeploying it. Filters with unchanged model and target
+	 * {@link OsgiServletContext} keep their initialized instances, only new filters are initialized and only
+	 * removed filters are stopped.
+	 *
+	 * @param deployment
+	 * @param contextPath
+	 * @param filtersMap
+	 * @param filters
+	 * @param defaultHighestRankedModel
+	 */
+	private void updateFilters(Deployment deployment, String contextPath,
+			Map<FilterModel, List<OsgiContextModel>> filtersMap, Set<FilterModel> filters,
+			OsgiContextModel defaultHighestRankedModel) {
+		DeploymentInfo deploymentInfo = deployment.getDeploymentInfo();
+
+		Map<FilterModel, PaxWebFilterInfo> existing = new HashMap<>();
+		for (FilterInfo fi : deploymentInfo.getFilters().values()) {
+			FilterModel fm = fi instanceof PaxWebFilterInfo ? ((PaxWebFilterInfo) fi).getFilterModel() : null;
+			if (fm != null && !fm.isDynamic()) {
+				existing.put(fm, (PaxWebFilterInfo) fi);
+			}
+		}
+
+		List<FilterModel> models = new ArrayList<>();
+		List<FilterInfo> added = new ArrayList<>();
+		for (FilterModel model : filters) {
+			if (model.isPreprocessor()) {
+				continue;
+			}
+			OsgiServletContext context = findFilterContext(model, filtersMap, contextPath, defaultHighestRankedModel);
+			PaxWebFilterInfo info = existing.get(model);
+			if (info != null && filtersMap.get(model) == null && info.getOsgiServletContext() == context) {
+				existing.remove(model);
+			} else {
+				added.add(new PaxWebFilterInfo(model, context,
+						"whiteboard".equalsIgnoreCase(configuration.server().getTCCLType())));
+			}
+			models.add(model);
+		}
+		// filters which were not reused
+		List<FilterInfo> removed = new ArrayList<>(existing.values());
+
+		undertowFactory.updateFilters(deployment, added, removed,
+				info -> models.forEach(model -> configureFilterMappings(model, info)),
+				filter -> {
+					try {
+						new ContextClassLoaderSetupAction(deploymentInfo.getClassLoader()).create((exchange, context) -> {
+							filter.createFilter();
+							return null;
+						}).call(null, null);
+					} catch (Exception e) {
+						throw new IllegalStateException("Can't start filter " + filter + ": " + e.getMessage(), e);
+					}
+				});
+	}
+
+	/**
+	 * Finds {@link OsgiServletContext} for the filter - we need highest ranked {@link OsgiContextModel} for given
+	 * context path - chosen not among all associated {@link OsgiContextModel OsgiContextModels}, but among
+	 * {@link OsgiContextModel OsgiContextModels} of the {@link FilterModel}.
+	 *
+	 * @param model
+	 * @param filtersMap
+	 * @param contextPath
+	 * @param defaultHighestRankedModel
+	 * @return
+	 */
+	private OsgiServletContext findFilterContext(FilterModel model, Map<FilterModel, List<OsgiContextModel>> filtersMap,
+			String contextPath, OsgiContextModel defaultHighestRankedModel) {
+		OsgiContextModel highestRankedModel = null;
+		// remember, this contextModels list is properly sorted - and it comes either from model or
+		// (if configured) from associated list of models which are being changed in the model
+		List<OsgiContextModel> contextModels = filtersMap.get(model) != null
+				? filtersMap.get(model) : model.getContextModels();
+		for (OsgiContextModel ocm : contextModels) {
+			if (ocm.getContextPath().equals(contextPath)) {
+				highestRankedModel = ocm;
+				break;
+			}
+		}
+		if (highestRankedModel == null) {
+			LOG.warn("(dev) Can't find proper OsgiContextModel for the filter. Falling back to "
+					+ "highest ranked OsgiContextModel for given ServletContextModel");
+			highestRankedModel = defaultHighestRankedModel;
+		}
+		return osgiServletContexts.get(highestRankedModel);
+	}
+
 	/**
 	 * Check if new set of filters contains only existing filters and possibly some new. When new filters come
 	 * in different order or there are removed filters, we'll have to recreate entire context...
@@ -3094,6 +3212,7 @@ class UndertowServerWrapper implements BatchVisitor, UndertowSupport {
 							fc.setInitCalled(false);
 						}
 					}
+					preprocessorsHandlers.get(contextPath).preprocessorsChanged();
 				}
 
 				manager.stop();
@@ -15,7 +15,10 @@
  */
 package org.ops4j.pax.web.service.undertow.internal.web;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import io.undertow.server.handlers.resource.PathResourceManager;
 import io.undertow.util.ETag;
@@ -24,7 +27,20 @@ public class FileETagFunction implements PathResourceManager.ETagFunction {
 
 	@Override
 	public ETag generate(Path path) {
-		return new ETag(true, path.toFile().length() + "-" + path.toFile().lastModified());
+		try {
+			return generate(Files.readAttributes(path, BasicFileAttributes.class));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Generates ETag from already read attributes, so there's single {@code stat()} call per file
+	 * @param attributes
+	 * @return
+	 */
+	public ETag generate(BasicFileAttributes attributes) {
+		return new ETag(true, attributes.size() + "-" + attributes.lastModifiedTime().toMillis());
 	}
 
 }
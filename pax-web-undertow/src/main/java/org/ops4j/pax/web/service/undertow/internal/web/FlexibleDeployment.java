@@ -16,7 +16,7 @@
 package org.ops4j.pax.web.service.undertow.internal.web;
 
 import java.nio.charset.Charset;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,8 +50,23 @@ public class FlexibleDeployment implements Deployment {
 	private final ServletContextImpl servletContext;
 
 	public FlexibleDeployment(final ServletContext servletContext, final ResourceManager resourceManager) {
-		final Map<String, String> preCompressedResources = new HashMap<>();
-		preCompressedResources.put("gzip", ".gz");
+		this(servletContext, resourceManager, null);
+	}
+
+	/**
+	 * @param servletContext
+	 * @param resourceManager
+	 * @param preCompressed encoding to extension mapping of precompressed resources. Defaults to {@code gzip=.gz}
+	 *        when {@code null}.
+	 */
+	public FlexibleDeployment(final ServletContext servletContext, final ResourceManager resourceManager,
+			final Map<String, String> preCompressed) {
+		final Map<String, String> preCompressedResources = new LinkedHashMap<>();
+		if (preCompressed == null) {
+			preCompressedResources.put("gzip", ".gz");
+		} else {
+			preCompressedResources.putAll(preCompressed);
+		}
 		this.deploymentInfo = new DeploymentInfo() {
 			@Override
 			public ResourceManager getResourceManager() {
@@ -21,8 +21,11 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Date;
 import javax.servlet.ServletContext;
 
 import io.undertow.server.handlers.resource.PathResource;
@@ -31,6 +34,11 @@ import io.undertow.server.handlers.resource.Resource;
 import io.undertow.server.handlers.resource.ResourceChangeListener;
 import io.undertow.server.handlers.resource.ResourceManager;
 import io.undertow.server.handlers.resource.URLResource;
+import io.undertow.util.DateUtils;
+import io.undertow.util.ETag;
+import org.ops4j.pax.web.service.spi.servlet.CompressedResourceCache;
+import org.ops4j.pax.web.service.spi.servlet.OsgiScopedServletContext;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
 import org.osgi.service.http.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +63,51 @@ public class OsgiResourceManager implements ResourceManager {
 	private final FileETagFunction fileETagFunction;
 	private final PathResourceManager pathResourceManager;
 
+	/** Tracker of the resource sources to support {@link ResourceChangeListener resource change listeners} */
+	private final ResourceChangeTracker changeTracker;
+
+	/** Watcher of {@code file:} resources created by this manager, when there's no watcher shared by the runtime */
+	private final ResourceWatcher ownWatcher;
+
 	public OsgiResourceManager(String chroot, ServletContext osgiScopedServletContext) {
+		this(chroot, osgiScopedServletContext, 2048);
+	}
+
+	/**
+	 * @param chroot
+	 * @param osgiScopedServletContext
+	 * @param maxTrackedResources maximum number of paths for which {@link ResourceChangeListener listeners}
+	 *        are notified about changes. Should match the size of the cache using this resource manager.
+	 */
+	public OsgiResourceManager(String chroot, ServletContext osgiScopedServletContext, int maxTrackedResources) {
+		this(chroot, osgiScopedServletContext, maxTrackedResources, -1L);
+	}
+
+	/**
+	 * @param chroot
+	 * @param osgiScopedServletContext
+	 * @param maxTrackedResources maximum number of paths for which {@link ResourceChangeListener listeners}
+	 *        are notified about changes. Should match the size of the cache using this resource manager.
+	 * @param transferMinSize minimal size (in bytes) of {@code file:} resources sent using
+	 *        {@link java.nio.channels.FileChannel#transferTo} (sendfile). Negative value means Undertow's default.
+	 */
+	public OsgiResourceManager(String chroot, ServletContext osgiScopedServletContext, int maxTrackedResources,
+			long transferMinSize) {
+		this(chroot, osgiScopedServletContext, maxTrackedResources, transferMinSize, null);
+	}
+
+	/**
+	 * @param chroot
+	 * @param osgiScopedServletContext
+	 * @param maxTrackedResources maximum number of paths for which {@link ResourceChangeListener listeners}
+	 *        are notified about changes. Should match the size of the cache using this resource manager.
+	 * @param transferMinSize minimal size (in bytes) of {@code file:} resources sent using
+	 *        {@link java.nio.channels.FileChannel#transferTo} (sendfile). Negative value means Undertow's default.
+	 * @param watcher {@link ResourceWatcher} shared by the runtime. If {@code null}, this manager uses its own
+	 *        watcher.
+	 */
+	public OsgiResourceManager(String chroot, ServletContext osgiScopedServletContext, int maxTrackedResources,
+			long transferMinSize, ResourceWatcher watcher) {
 		this.chroot = chroot;
 		this.osgiScopedServletContext = osgiScopedServletContext;
 		this.fileETagFunction = new FileETagFunction();
@@ -63,47 +115,112 @@ public class OsgiResourceManager implements ResourceManager {
 		if (location == null) {
 			location = new File(System.getProperty("java.io.tmpdir"));
 		}
-		this.pathResourceManager = (PathResourceManager) PathResourceManager.builder()
+		PathResourceManager.Builder builder = PathResourceManager.builder()
 				// base won't be used
-				.setBase(location.toPath())
-				.build();
+				.setBase(location.toPath());
+		if (transferMinSize >= 0L) {
+			builder.setTransferMinSize(transferMinSize);
+		}
+		this.pathResourceManager = (PathResourceManager) builder.build();
+
+		this.ownWatcher = watcher == null ? new ResourceWatcher() : null;
+		this.changeTracker = new ResourceChangeTracker(maxTrackedResources, watcher == null ? ownWatcher : watcher);
+		if (osgiScopedServletContext instanceof OsgiScopedServletContext) {
+			// changes are passed to the cache shared with other runtimes' resource servlets too, so its entries
+			// for tracked resources don't have to expire
+			OsgiScopedServletContext context = (OsgiScopedServletContext) osgiScopedServletContext;
+			this.changeTracker.addListener(changes -> changes.forEach(change ->
+					context.invalidateCachedResource(fullPath(change.getResource()))));
+		}
 	}
 
 	@Override
 	public Resource getResource(String path) throws IOException {
-		// Almost the same as in org.ops4j.pax.web.service.tomcat.internal.web.TomcatResourceServlet.OsgiStandardRoot
+		String fullPath = fullPath(path);
+		ResourceCache.Entry entry = null;
+		URL url = null;
+		try {
+			if (osgiScopedServletContext instanceof OsgiScopedServletContext) {
+				// resource metadata shared with other runtimes' resource servlets
+				entry = ((OsgiScopedServletContext) osgiScopedServletContext).getCachedResource(fullPath);
+				url = entry.getUrl();
+			} else {
+				url = osgiScopedServletContext.getResource(fullPath);
+			}
+		} catch (MalformedURLException e) {
+			LOG.warn(e.getMessage(), e);
+		}
+
+		Resource resource = findResource(fullPath, path, url, entry);
+		boolean tracked = false;
+		if (resource == null) {
+			tracked = changeTracker.missing(path);
+		} else if (resource instanceof CompressedPathResource) {
+			// compressed variant changes together with the original resource
+			long bundleId = ((CompressedPathResource) resource).sourceBundleId;
+			if (bundleId >= 0L) {
+				tracked = changeTracker.bundleResource(path, bundleId);
+			} else {
+				changeTracker.unknownResource(path);
+			}
+		} else if (resource instanceof PathResource) {
+			tracked = changeTracker.fileResource(path, ((PathResource) resource).getFilePath());
+		} else if (resource instanceof URLResource && ResourceCache.bundleId(((URLResource) resource).getUrl()) >= 0L) {
+			tracked = changeTracker.bundleResource(path, ResourceCache.bundleId(((URLResource) resource).getUrl()));
+		} else {
+			changeTracker.unknownResource(path);
+		}
+		if (tracked && entry != null) {
+			// the path is tracked (only) after the entry was created, so any later change invalidates the entry
+			entry.markTracked();
+		}
+		return resource;
+	}
 
+	/**
+	 * Path used to obtain the resource from {@link ServletContext}
+	 * @param path
+	 * @return
+	 */
+	private String fullPath(String path) {
 		// chroot is without trailing slash, path is always without leading slash
 		String fullPath = chroot + "/" + path;
 		if (!fullPath.startsWith("/")) {
 			fullPath = "/" + fullPath;
 		}
-		URL resource = null;
-		try {
-			resource = osgiScopedServletContext.getResource(fullPath);
-		} catch (MalformedURLException e) {
-			LOG.warn(e.getMessage(), e);
-		}
+		return fullPath;
+	}
+
+	private Resource findResource(String fullPath, String path, URL resource, ResourceCache.Entry entry) throws IOException {
+		// Almost the same as in org.ops4j.pax.web.service.tomcat.internal.web.TomcatResourceServlet.OsgiStandardRoot
 		if (resource == null) {
-			return null;
+			return compressedResource(fullPath, path);
 		}
 
 		Resource res = null;
 		if (resource.getProtocol().equals("file")) {
 			try {
 				Path file = Paths.get(resource.toURI());
-				if (file.toFile().isFile()) {
-					res = new PathResource(file, pathResourceManager, resource.getPath(), fileETagFunction.generate(file));
-				} else if (file.toFile().exists()) {
+				// single stat() call for existence, type and ETag
+				BasicFileAttributes attributes;
+				try {
+					attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				} catch (IOException e) {
+					return null;
+				}
+				if (attributes.isRegularFile()) {
+					res = new PathResource(file, pathResourceManager, resource.getPath(), fileETagFunction.generate(attributes));
+				} else {
 					// could be a directory
 					res = new PathResource(file, pathResourceManager, resource.getPath(), null);
-				} else {
-					return null;
 				}
 			} catch (URISyntaxException e) {
 				LOG.warn(e.getMessage(), e);
 				return null;
 			}
+		} else if (entry != null) {
+			// directories are already detected by the cache
+			res = entry.isDirectory() ? new URLResource(resource, resource.getPath()) : new CachedURLResource(entry);
 		} else if (resource.getProtocol().equals("bundle") && !resource.getPath().endsWith("/")) {
 			// unfortunately, due to https://issues.apache.org/jira/browse/FELIX-6294
 			// we have to check ourselves if it's a directory and possibly append a slash
@@ -130,24 +247,98 @@ public class OsgiResourceManager implements ResourceManager {
 		return res;
 	}
 
+	/**
+	 * Returns compressed variant of a text resource when there's no real resource for the path (like
+	 * {@code /app.js.gz}) - see {@link org.ops4j.pax.web.service.spi.servlet.CompressedResourceCache}.
+	 * @param fullPath
+	 * @param path
+	 * @return
+	 */
+	private Resource compressedResource(String fullPath, String path) throws MalformedURLException {
+		if (!(osgiScopedServletContext instanceof OsgiScopedServletContext)) {
+			return null;
+		}
+		OsgiScopedServletContext context = (OsgiScopedServletContext) osgiScopedServletContext;
+		File compressed = context.getCompressedResource(fullPath);
+		if (compressed == null) {
+			return null;
+		}
+		String sourcePath = fullPath.substring(0, fullPath.length() - CompressedResourceCache.GZIP_EXTENSION.length());
+		long sourceBundleId = context.getCachedResource(sourcePath).getBundleId();
+		return new CompressedPathResource(compressed.toPath(), pathResourceManager, path,
+				fileETagFunction.generate(compressed.toPath()), sourceBundleId);
+	}
+
 	@Override
 	public boolean isResourceChangeListenerSupported() {
-		return false;
+		return true;
 	}
 
 	@Override
 	public void registerResourceChangeListener(ResourceChangeListener listener) {
-		// no op
+		changeTracker.addListener(listener);
 	}
 
 	@Override
 	public void removeResourceChangeListener(ResourceChangeListener listener) {
-		// no op
+		changeTracker.removeListener(listener);
 	}
 
 	@Override
 	public void close() throws IOException {
-		// no op
+		changeTracker.close();
+		if (ownWatcher != null) {
+			ownWatcher.close();
+		}
+	}
+
+	/**
+	 * {@link URLResource} which doesn't have to open {@link java.net.URLConnection} to get the metadata.
+	 */
+	private static class CachedURLResource extends URLResource {
+
+		private final ResourceCache.Entry entry;
+
+		CachedURLResource(ResourceCache.Entry entry) {
+			super(entry.getUrl(), entry.getUrl().getPath());
+			this.entry = entry;
+		}
+
+		@Override
+		public Long getContentLength() {
+			return entry.getLength() < 0L ? super.getContentLength() : entry.getLength();
+		}
+
+		@Override
+		public Date getLastModified() {
+			return entry.getLastModified() <= 0L ? super.getLastModified() : new Date(entry.getLastModified());
+		}
+
+		@Override
+		public String getLastModifiedString() {
+			Date lastModified = getLastModified();
+			return lastModified == null ? null : DateUtils.toDateString(lastModified);
+		}
+
+		@Override
+		public ETag getETag() {
+			String eTag = entry.getETag();
+			return eTag == null ? null : new ETag(true, eTag.substring(3, eTag.length() - 1));
+		}
+	}
+
+	/**
+	 * {@link PathResource} for a compressed variant of a resource, which remembers the bundle providing the
+	 * original resource.
+	 */
+	private static class CompressedPathResource extends PathResource {
+
+		private final long sourceBundleId;
+
+		CompressedPathResource(Path file, PathResourceManager manager, String path, ETag eTag, long sourceBundleId) {
+			super(file, manager, path, eTag);
+			this.sourceBundleId = sourceBundleId;
+		}
 	}
 
 }
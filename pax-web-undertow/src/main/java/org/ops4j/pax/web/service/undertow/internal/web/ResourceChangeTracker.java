@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal.web;
+
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+import io.undertow.server.handlers.resource.ResourceChangeEvent;
+import io.undertow.server.handlers.resource.ResourceChangeListener;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Tracks the <em>source</em> of resources returned by {@link OsgiResourceManager}, so
+ * {@link ResourceChangeListener listeners} (like the one registered by
+ * {@link io.undertow.server.handlers.resource.CachingResourceManager} and the one invalidating
+ * {@link ResourceCache}) are notified about exactly the paths affected by a change:<ul>
+ *     <li>resources from bundles are changed when the bundle is updated, unresolved or uninstalled - after
+ *         {@link ResourceCache#invalidateBundle(long)} invalidates the shared caches</li>
+ *     <li>{@code file:} resources are changed when {@link ResourceWatcher} reports a change</li>
+ *     <li>missing resources (and resources of unknown origin) are changed on any of the above</li>
+ * </ul></p>
+ *
+ * <p>Number of tracked paths is limited and a path evicted from the tracker is reported as removed, so
+ * listeners never keep a path which can't be invalidated later.</p>
+ */
+class ResourceChangeTracker implements ResourceWatcher.Callback {
+
+	public static final Logger LOG = LoggerFactory.getLogger(ResourceChangeTracker.class);
+
+	private static final Object MISSING = new Object();
+	private static final Object UNKNOWN = new Object();
+
+	private final int maxTrackedPaths;
+	private final ResourceWatcher watcher;
+
+	private final List<ResourceChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	/** Listener registered in {@link ResourceCache} while there are any {@link #listeners} */
+	private final LongConsumer bundleListener = this::bundleChanged;
+
+	/** LRU map of tracked paths to the source of the resource - guarded by {@code this} */
+	private final LinkedHashMap<String, Object> sources = new LinkedHashMap<>(16, 0.75f, true);
+
+	private boolean closed;
+
+	/**
+	 * @param maxTrackedPaths
+	 * @param watcher shared watcher of {@code file:} resources. May be {@code null}, in which case {@code file:}
+	 *        resources are treated as resources of unknown origin.
+	 */
+	ResourceChangeTracker(int maxTrackedPaths, ResourceWatcher watcher) {
+		this.maxTrackedPaths = Math.max(maxTrackedPaths, 1);
+		this.watcher = watcher;
+	}
+
+	public synchronized void addListener(ResourceChangeListener listener) {
+		if (closed) {
+			return;
+		}
+		if (listeners.isEmpty()) {
+			ResourceCache.addBundleListener(bundleListener);
+		}
+		listeners.add(listener);
+	}
+
+	public synchronized void removeListener(ResourceChangeListener listener) {
+		if (listeners.remove(listener) && listeners.isEmpty()) {
+			stopTracking();
+		}
+	}
+
+	/**
+	 * Tracks a path for which there's no resource
+	 * @param path
+	 * @return {@code true} if changes of the path will be reported
+	 */
+	public boolean missing(String path) {
+		return track(path, MISSING);
+	}
+
+	/**
+	 * Tracks a path for which the resource is provided by a bundle
+	 * @param path
+	 * @param bundleId
+	 * @return {@code true} if changes of the path will be reported
+	 */
+	public boolean bundleResource(String path, long bundleId) {
+		return track(path, bundleId);
+	}
+
+	/**
+	 * Tracks a path for which the resource is a file, watching the parent directory of the file
+	 * @param path
+	 * @param file
+	 * @return {@code true} if changes of the path will be reported
+	 */
+	public boolean fileResource(String path, Path file) {
+		Path normalized = file.toAbsolutePath().normalize();
+		boolean watched;
+		synchronized (this) {
+			watched = !closed && !listeners.isEmpty() && watcher != null && watcher.watch(normalized.getParent(), this);
+		}
+		if (watched) {
+			return track(path, normalized);
+		}
+		track(path, UNKNOWN);
+		return false;
+	}
+
+	/**
+	 * Tracks a path for which the resource comes from unknown source (like custom {@link java.net.URL} handler)
+	 * @param path
+	 */
+	public void unknownResource(String path) {
+		track(path, UNKNOWN);
+	}
+
+	/**
+	 * Called after {@link ResourceCache#invalidateBundle(long)}
+	 * @param bundleId
+	 */
+	void bundleChanged(long bundleId) {
+		Long id = bundleId;
+		fire(invalidate(s -> s == MISSING || s == UNKNOWN || id.equals(s)), ResourceChangeEvent.Type.MODIFIED);
+	}
+
+	@Override
+	public void changed(Path directory, Path file, WatchEvent.Kind<?> kind) {
+		if (file == null) {
+			// all the files from this directory
+			fire(invalidate(s -> s instanceof Path && directory.equals(((Path) s).getParent())),
+					ResourceChangeEvent.Type.MODIFIED);
+		} else if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+			fire(invalidate(s -> s == MISSING || s == UNKNOWN || file.equals(s)), ResourceChangeEvent.Type.ADDED);
+		} else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+			fire(invalidate(file::equals), ResourceChangeEvent.Type.REMOVED);
+		} else {
+			fire(invalidate(file::equals), ResourceChangeEvent.Type.MODIFIED);
+		}
+	}
+
+	public synchronized void close() {
+		closed = true;
+		if (!listeners.isEmpty()) {
+			stopTracking();
+		}
+		listeners.clear();
+	}
+
+	private void stopTracking() {
+		ResourceCache.removeBundleListener(bundleListener);
+		if (watcher != null) {
+			watcher.unwatch(this);
+		}
+		sources.clear();
+	}
+
+	private boolean track(String path, Object source) {
+		List<String> evicted = null;
+		synchronized (this) {
+			if (closed || listeners.isEmpty()) {
+				return false;
+			}
+			sources.put(path, source);
+			for (Iterator<String> it = sources.keySet().iterator(); sources.size() > maxTrackedPaths && it.hasNext(); ) {
+				if (evicted == null) {
+					evicted = new ArrayList<>();
+				}
+				evicted.add(it.next());
+				it.remove();
+			}
+		}
+		if (evicted != null) {
+			fire(evicted, ResourceChangeEvent.Type.REMOVED);
+		}
+		return source != UNKNOWN;
+	}
+
+	private synchronized List<String> invalidate(Predicate<Object> affected) {
+		List<String> paths = new ArrayList<>();
+		for (Iterator<Map.Entry<String, Object>> it = sources.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<String, Object> e = it.next();
+			if (affected.test(e.getValue())) {
+				paths.add(e.getKey());
+				it.remove();
+			}
+		}
+		return paths;
+	}
+
+	private void fire(List<String> paths, ResourceChangeEvent.Type type) {
+		if (paths.isEmpty()) {
+			return;
+		}
+		List<ResourceChangeEvent> events = new ArrayList<>(paths.size());
+		for (String path : paths) {
+			events.add(new ResourceChangeEvent(path, type));
+		}
+		LOG.debug("Resources changed: {}", paths);
+		for (ResourceChangeListener listener : listeners) {
+			listener.handleChanges(Collections.unmodifiableList(events));
+		}
+	}
+
+}
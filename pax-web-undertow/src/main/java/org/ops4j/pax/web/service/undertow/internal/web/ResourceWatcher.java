@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal.web;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Single {@link WatchService} (and single {@code paxweb-resource-watcher} thread) of the Undertow runtime, used by
+ * all the {@link ResourceChangeTracker trackers} (one for each {@link OsgiResourceManager}) to watch the directories
+ * of {@code file:} resources.</p>
+ *
+ * <p>The {@link WatchService} is created when the first directory is watched and closed in {@link #close()}. It
+ * may be created again if another directory is watched after closing.</p>
+ */
+public class ResourceWatcher {
+
+	public static final Logger LOG = LoggerFactory.getLogger(ResourceWatcher.class);
+
+	/** Directories with their watch keys and callbacks - guarded by {@code this} */
+	private final Map<Path, Watched> directories = new HashMap<>();
+
+	private WatchService watchService;
+
+	/**
+	 * Ensures the directory is watched and the callback is notified about the changes in the directory.
+	 * @param directory
+	 * @param callback
+	 * @return {@code false} if the directory can't be watched
+	 */
+	public synchronized boolean watch(Path directory, Callback callback) {
+		if (directory == null) {
+			return false;
+		}
+		Watched watched = directories.get(directory);
+		if (watched == null) {
+			try {
+				if (watchService == null) {
+					watchService = FileSystems.getDefault().newWatchService();
+					WatchService ws = watchService;
+					Thread watcher = new Thread(() -> run(ws), "paxweb-resource-watcher");
+					watcher.setDaemon(true);
+					watcher.start();
+				}
+				WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+				watched = new Watched(key);
+				directories.put(directory, watched);
+			} catch (IOException | UnsupportedOperationException e) {
+				LOG.debug("Can't watch {}: {}", directory, e.getMessage());
+				return false;
+			}
+		}
+		if (!watched.callbacks.contains(callback)) {
+			watched.callbacks.add(callback);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the callback from all the directories. Directories without callbacks are no longer watched.
+	 * @param callback
+	 */
+	public synchronized void unwatch(Callback callback) {
+		for (Iterator<Watched> it = directories.values().iterator(); it.hasNext(); ) {
+			Watched watched = it.next();
+			watched.callbacks.remove(callback);
+			if (watched.callbacks.isEmpty()) {
+				watched.key.cancel();
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Stops watching all the directories.
+	 */
+	public void close() {
+		WatchService ws;
+		synchronized (this) {
+			directories.clear();
+			ws = watchService;
+			watchService = null;
+		}
+		if (ws != null) {
+			try {
+				ws.close();
+			} catch (IOException e) {
+				LOG.warn("Problem closing file watcher: {}", e.getMessage(), e);
+			}
+		}
+	}
+
+	private void run(WatchService ws) {
+		try {
+			while (true) {
+				WatchKey key = ws.take();
+				Path directory = (Path) key.watchable();
+				List<Callback> callbacks;
+				synchronized (this) {
+					Watched watched = directories.get(directory);
+					callbacks = watched == null || watched.key != key ? null : watched.callbacks;
+				}
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (callbacks == null) {
+						continue;
+					}
+					Path file = event.kind() == StandardWatchEventKinds.OVERFLOW ? null
+							: directory.resolve((Path) event.context());
+					for (Callback callback : callbacks) {
+						callback.changed(directory, file, event.kind());
+					}
+				}
+				if (!key.reset()) {
+					synchronized (this) {
+						Watched watched = directories.get(directory);
+						if (watched != null && watched.key == key) {
+							directories.remove(directory);
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException ignored) {
+			// closed
+		}
+	}
+
+	/**
+	 * Callback notified about changes in watched directory.
+	 */
+	@FunctionalInterface
+	public interface Callback {
+		/**
+		 * @param directory watched directory
+		 * @param file changed file or {@code null} when some changes were lost (overflow)
+		 * @param kind
+		 */
+		void changed(Path directory, Path file, WatchEvent.Kind<?> kind);
+	}
+
+	private static final class Watched {
+		private final WatchKey key;
+		private final List<Callback> callbacks = new CopyOnWriteArrayList<>();
+
+		Watched(WatchKey key) {
+			this.key = key;
+		}
+	}
+
+}
@@ -19,6 +19,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.servlet.DispatcherType;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletConfig;
@@ -31,6 +34,7 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.cache.DirectBufferCache;
 import io.undertow.server.handlers.resource.CachingResourceManager;
 import io.undertow.server.handlers.resource.FileResourceManager;
+import io.undertow.server.handlers.resource.PathResourceManager;
 import io.undertow.server.handlers.resource.Resource;
 import io.undertow.server.handlers.resource.ResourceChangeListener;
 import io.undertow.server.handlers.resource.ResourceManager;
@@ -76,12 +80,27 @@ public class UndertowResourceServlet extends DefaultServlet implements ResourceM
 	private boolean redirectWelcome = false;
 	private boolean pathInfoOnly = true;
 
+	/**
+	 * Listeners registered by {@link CachingResourceManager} - notified about changes reported by
+	 * {@link OsgiResourceManager}
+	 */
+	private final List<ResourceChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
 	private boolean cacheConfigurable = false;
 	private int metadataCacheSize;
 	private Integer maxEntrySize;
 	private Integer maxSize;
 	private Integer maxAge;
 
+	/** Minimal size of files sent using {@link java.nio.channels.FileChannel#transferTo}, {@code -1} for default */
+	private long transferMinSize = -1L;
+
+	/** Encoding to extension mapping of precompressed resources, {@code null} for default */
+	private Map<String, String> preCompressedResources;
+
+	/** Watcher of {@code file:} resources shared by the runtime */
+	private ResourceWatcher resourceWatcher;
+
 	public UndertowResourceServlet(File baseDirectory, String chroot) {
 		this.baseDirectory = baseDirectory;
 		this.chroot = chroot;
@@ -111,6 +130,32 @@ public class UndertowResourceServlet extends DefaultServlet implements ResourceM
 		this.cacheConfigurable = true;
 	}
 
+	/**
+	 * Sets minimal size of file resources sent using zero-copy {@link java.nio.channels.FileChannel#transferTo}
+	 * ({@code sendfile}). Smaller files are copied through a buffer.
+	 * @param transferMinSize size in bytes, {@link Long#MAX_VALUE} effectively disables zero-copy transfer
+	 */
+	public void setTransferMinSize(long transferMinSize) {
+		this.transferMinSize = transferMinSize;
+	}
+
+	/**
+	 * Sets precompressed variants of resources (encoding to extension mapping) served when the client accepts
+	 * given encoding.
+	 * @param preCompressedResources
+	 */
+	public void setPreCompressedResources(Map<String, String> preCompressedResources) {
+		this.preCompressedResources = preCompressedResources;
+	}
+
+	/**
+	 * Sets {@link ResourceWatcher} shared by all the resource servlets of the runtime.
+	 * @param resourceWatcher
+	 */
+	public void setResourceWatcher(ResourceWatcher resourceWatcher) {
+		this.resourceWatcher = resourceWatcher;
+	}
+
 	public void setWelcomeFiles(String[] welcomeFiles) {
 		this.welcomeFiles = welcomeFiles;
 		configureCache();
@@ -137,7 +182,8 @@ public class UndertowResourceServlet extends DefaultServlet implements ResourceM
 		// I know it's not very good design, but pax-web-jetty and pax-web-tomcat use server native "resource servlet"
 		// so I tried hard to use Undertow specific "resource servlet" as well
 		// this special context is used to obtain tweaked io.undertow.servlet.api.Deployment object
-		FlexibleDeployment deployment = new FlexibleDeployment(config.getServletContext(), cachingResourceManager);
+		FlexibleDeployment deployment = new FlexibleDeployment(config.getServletContext(), cachingResourceManager,
+				preCompressedResources);
 		ServletContext flexibleServletContext = new FlexibleServletContextImpl(deployment);
 
 		super.init(new ServletConfig() {
@@ -181,15 +227,26 @@ public class UndertowResourceServlet extends DefaultServlet implements ResourceM
 
 		// not we can configure our pieces needed for io.undertow.server.handlers.resource.ResourceManager
 		if (baseDirectory != null) {
-			this.resourceManager = FileResourceManager.builder()
+			PathResourceManager.Builder builder = FileResourceManager.builder()
 					.setBase(Paths.get(baseDirectory.getAbsolutePath()))
-					.setETagFunction(new FileETagFunction())
-					.build();
+					.setETagFunction(new FileETagFunction());
+			if (transferMinSize >= 0L) {
+				builder.setTransferMinSize(transferMinSize);
+			}
+			this.resourceManager = builder.build();
 		} else {
 			// resource will be obtained from HttpContext.getResource() / ServletContextHelper.getResource()
 			// assuming that servletContext is Osgi[Scoped]ServletContext that delegate to WebContainerContext
 			// it's important to get ServletContext from the passed config!
-			this.resourceManager = new OsgiResourceManager(chroot, config.getServletContext());
+			this.resourceManager = new OsgiResourceManager(chroot, config.getServletContext(),
+					cacheConfigurable ? metadataCacheSize : 2048, transferMinSize, resourceWatcher);
+			// changes of bundle and file resources are passed to the caching resource manager, so it
+			// may cache the resources without TTL
+			this.resourceManager.registerResourceChangeListener(changes -> {
+				for (ResourceChangeListener listener : changeListeners) {
+					listener.handleChanges(changes);
+				}
+			});
 		}
 	}
 
@@ -204,6 +261,8 @@ public class UndertowResourceServlet extends DefaultServlet implements ResourceM
 			int slicePerPage = 32;
 			int sliceSize = maxSize / slicePerPage;
 			DirectBufferCache cache = new DirectBufferCache(sliceSize, slicePerPage, maxMemory);
+			// previous caching resource manager (if any) is no longer used
+			changeListeners.clear();
 			cachingResourceManager
 					= new CachingResourceManager(metadataCacheSize, maxEntrySize, cache, this, maxAge);
 		}
@@ -368,22 +427,42 @@ public class UndertowResourceServlet extends DefaultServlet implements ResourceM
 
 	@Override
 	public boolean isResourceChangeListenerSupported() {
-		return false;
+		// changes are tracked only for resources obtained through OsgiResourceManager
+		return baseDirectory == null;
 	}
 
 	@Override
 	public void registerResourceChangeListener(ResourceChangeListener listener) {
-		// no op
+		if (baseDirectory == null) {
+			changeListeners.add(listener);
+		}
 	}
 
 	@Override
 	public void removeResourceChangeListener(ResourceChangeListener listener) {
-		// no op
+		changeListeners.remove(listener);
+	}
+
+	@Override
+	public void destroy() {
+		super.destroy();
+
+		// OsgiResourceManager created in init() registers a BundleListener and may run a file watcher thread
+		changeListeners.clear();
+		try {
+			close();
+		} catch (IOException e) {
+			LOG.warn("Problem closing resource manager of {}: {}", getServletName(), e.getMessage(), e);
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
-		resourceManager.close();
+		ResourceManager rm = resourceManager;
+		resourceManager = null;
+		if (rm != null) {
+			rm.close();
+		}
 	}
 
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContextAwarePathHandlerTest {
+
+	private String result;
+
+	@Test
+	public void longestPrefixMatching() throws Exception {
+		ContextAwarePathHandler handler = new ContextAwarePathHandler();
+		handler.addPrefixPath("/", handler("default"));
+		handler.addPrefixPath("/a", handler("a"));
+		handler.addPrefixPath("/a/b", handler("ab"));
+		handler.addPrefixPath("/c/d", handler("cd"));
+		// same hash codes
+		handler.addPrefixPath("/Aa", handler("Aa"));
+		handler.addPrefixPath("/BB", handler("BB"));
+
+		assertEquals("default:/:", route(handler, "/"));
+		assertEquals("a:/x:/a", route(handler, "/a/x"));
+		assertEquals("a::/a", route(handler, "/a"));
+		assertEquals("a:/:/a", route(handler, "/a/"));
+		assertEquals("default:/ab:", route(handler, "/ab"));
+		assertEquals("ab:/c/d:/a/b", route(handler, "/a/b/c/d"));
+		assertEquals("default:/c:", route(handler, "/c"));
+		assertEquals("cd::/c/d", route(handler, "/c/d"));
+		assertEquals("Aa:/x:/Aa", route(handler, "/Aa/x"));
+		assertEquals("BB:/x:/BB", route(handler, "/BB/x"));
+
+		handler.addExactPath("/a/x", handler("exact"));
+		assertEquals("exact::/a/x", route(handler, "/a/x"));
+		handler.removeExactPath("/a/x");
+
+		handler.removePrefixPath("/a/b");
+		assertEquals("a:/b/c/d:/a", route(handler, "/a/b/c/d"));
+		handler.removePrefixPath("/a");
+		assertEquals("default:/a/b/c/d:", route(handler, "/a/b/c/d"));
+		handler.removePrefixPath("/c/d");
+		handler.removePrefixPath("/Aa");
+		assertEquals("BB:/x:/BB", route(handler, "/BB/x"));
+		handler.removePrefixPath("/BB");
+		assertEquals(0, handler.getPaths().size());
+
+		handler.removePrefixPath("/");
+		assertEquals("404", route(handler, "/a"));
+	}
+
+	private HttpHandler handler(String name) {
+		return exchange -> result = name + ":" + exchange.getRelativePath() + ":" + exchange.getResolvedPath();
+	}
+
+	private String route(ContextAwarePathHandler handler, String path) throws Exception {
+		result = null;
+		HttpServerExchange exchange = new HttpServerExchange(null);
+		exchange.setRelativePath(path);
+		exchange.setResolvedPath("");
+		handler.handleRequest(exchange);
+		return result == null ? String.valueOf(exchange.getStatusCode()) : result;
+	}
+
+}
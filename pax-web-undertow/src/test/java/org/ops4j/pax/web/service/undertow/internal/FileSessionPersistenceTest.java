@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.undertow.servlet.api.SessionPersistenceManager.PersistentSession;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FileSessionPersistenceTest {
+
+	@Test
+	public void onlyChangedSessionsAreWritten() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-sessions").toFile();
+		long expiration = System.currentTimeMillis() + 60_000L;
+
+		Map<String, PersistentSession> sessions = new LinkedHashMap<>();
+		sessions.put("s1", session(expiration, "user", "u1"));
+		sessions.put("s2", session(expiration, "user", "u2"));
+		sessions.put("s3", session(expiration, "user", "u3"));
+		new FileSessionPersistence(dir).persistSessions("app", sessions);
+		File segment = new File(dir, "app.sessions.0");
+		long size = segment.length();
+
+		// "restart"
+		FileSessionPersistence persistence = new FileSessionPersistence(dir);
+		Map<String, PersistentSession> loaded = persistence.loadSessionAttributes("app", getClass().getClassLoader());
+		assertThat(loaded.keySet().size(), equalTo(3));
+		assertThat(loaded.get("s1").getExpiration().getTime(), equalTo(expiration));
+
+		// s1 restored without changes, s2 restored and changed, s3 not accessed at all, s4 created
+		Map<String, PersistentSession> active = new LinkedHashMap<>();
+		active.put("s1", session(expiration + 1000L, "user", loaded.get("s1").getSessionData().get("user")));
+		assertThat(loaded.get("s2").getSessionData().get("user"), equalTo("u2"));
+		active.put("s2", session(expiration, "user", "u2-changed"));
+		active.put("s4", session(expiration, "user", "u4"));
+		persistence.persistSessions("app", active);
+		long written = segment.length() - size;
+		assertThat(written > 0L && written < size, equalTo(true));
+
+		loaded = new FileSessionPersistence(dir).loadSessionAttributes("app", getClass().getClassLoader());
+		assertThat(loaded.keySet().size(), equalTo(4));
+		assertThat(loaded.get("s1").getSessionData().get("user"), equalTo("u1"));
+		assertThat(loaded.get("s1").getExpiration().getTime(), equalTo(expiration + 1000L));
+		assertThat(loaded.get("s2").getSessionData().get("user"), equalTo("u2-changed"));
+		assertThat(loaded.get("s3").getSessionData().get("user"), equalTo("u3"));
+		assertThat(loaded.get("s4").getSessionData().get("user"), equalTo("u4"));
+	}
+
+	@Test
+	public void changedSessionOfSameLengthIsWritten() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-sessions").toFile();
+		long expiration = System.currentTimeMillis() + 60_000L;
+		FileSessionPersistence persistence = new FileSessionPersistence(dir);
+
+		persistence.persistSessions("app", Collections.singletonMap("s1", session(expiration, "user", "u1")));
+		persistence.persistSessions("app", Collections.singletonMap("s1", session(expiration, "user", "u9")));
+
+		Map<String, PersistentSession> loaded = new FileSessionPersistence(dir).loadSessionAttributes("app", null);
+		assertThat(loaded.get("s1").getSessionData().get("user"), equalTo("u9"));
+	}
+
+	@Test
+	public void obsoleteRecordsAreCompacted() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-sessions").toFile();
+		long expiration = System.currentTimeMillis() + 60_000L;
+		FileSessionPersistence persistence = new FileSessionPersistence(dir);
+
+		for (int i = 0; i < 3; i++) {
+			persistence.persistSessions(null, Collections.singletonMap("s1", session(expiration, "counter", i)));
+		}
+		assertThat(new File(dir, "_ROOT_deployment.sessions.0").exists(), equalTo(false));
+		assertThat(new File(dir, "_ROOT_deployment.sessions.1").isFile(), equalTo(true));
+
+		Map<String, PersistentSession> loaded = new FileSessionPersistence(dir).loadSessionAttributes(null, null);
+		assertThat(loaded.get("s1").getSessionData().get("counter"), equalTo(2));
+
+		persistence.clear(null);
+		assertThat(dir.list().length, equalTo(0));
+	}
+
+	@Test
+	public void sessionsPersistedInSingleFileAreLoaded() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-sessions").toFile();
+		long expiration = System.currentTimeMillis() + 60_000L;
+		Map<String, Object> map = new LinkedHashMap<>();
+		Map<String, Object> mps = new LinkedHashMap<>();
+		mps.put("expiration", expiration);
+		mps.put("data", new HashMap<>(Collections.singletonMap("user", "u1")));
+		map.put("s1", mps);
+		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dir, "app")))) {
+			oos.writeObject(map);
+		}
+
+		FileSessionPersistence persistence = new FileSessionPersistence(dir);
+		Map<String, PersistentSession> loaded = persistence.loadSessionAttributes("app", getClass().getClassLoader());
+		assertThat(loaded.get("s1").getSessionData().get("user"), equalTo("u1"));
+
+		persistence.persistSessions("app", loaded);
+		assertThat(new File(dir, "app").exists(), equalTo(false));
+		loaded = new FileSessionPersistence(dir).loadSessionAttributes("app", getClass().getClassLoader());
+		assertThat(loaded.get("s1").getSessionData().get("user"), equalTo("u1"));
+	}
+
+	private PersistentSession session(long expiration, String name, Object value) {
+		return new PersistentSession(new Date(expiration), new HashMap<>(Collections.singletonMap(name, value)));
+	}
+
+}
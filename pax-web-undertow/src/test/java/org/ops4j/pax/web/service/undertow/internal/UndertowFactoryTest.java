@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.undertow.Handlers;
+import io.undertow.Undertow;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.Servlets;
+import io.undertow.servlet.api.Deployment;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.FilterInfo;
+import io.undertow.servlet.api.ServletInfo;
+import io.undertow.servlet.core.ManagedFilter;
+import io.undertow.servlet.util.ImmediateInstanceFactory;
+import org.junit.Test;
+import org.xnio.nio.NioXnioProvider;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class UndertowFactoryTest {
+
+	@Test
+	public void filtersOfRunningDeploymentAreUpdated() throws Exception {
+		UndertowFactory factory = new UndertowFactory(getClass().getClassLoader(), new NioXnioProvider());
+		assertThat(factory.isFilterUpdateSupported(), equalTo(true));
+
+		List<String> events = new CopyOnWriteArrayList<>();
+		HttpServlet servletInstance = new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				resp.getWriter().write("|servlet|");
+			}
+		};
+		ServletInfo servlet = Servlets.servlet("s1", servletInstance.getClass(),
+				new ImmediateInstanceFactory<>(servletInstance));
+		servlet.addMapping("/*");
+
+		DeploymentInfo deploymentInfo = Servlets.deployment()
+				.setClassLoader(getClass().getClassLoader())
+				.setContextPath("/c1")
+				.setDeploymentName("c1")
+				.addServlets(servlet)
+				.addFilter(filter("f1", events))
+				.addFilterUrlMapping("f1", "/*", DispatcherType.REQUEST);
+
+		DeploymentManager dm = Servlets.newContainer().addDeployment(deploymentInfo);
+		dm.deploy();
+		PathHandler path = Handlers.path();
+		path.addPrefixPath("/c1", dm.start());
+		Undertow server = Undertow.builder().addHttpListener(0, "127.0.0.1").setHandler(path).build();
+		server.start();
+		int port = ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+
+		try {
+			assertTrue(send(port, "/c1/x").endsWith("f1|servlet|"));
+			assertThat(events, equalTo(Collections.singletonList("init:f1")));
+			events.clear();
+
+			// replace f1 with f2
+			Deployment deployment = dm.getDeployment();
+			FilterInfo f1 = deployment.getDeploymentInfo().getFilters().get("f1");
+			factory.updateFilters(deployment, Collections.singletonList(filter("f2", events)),
+					Collections.singletonList(f1),
+					info -> info.addFilterUrlMapping("f2", "/*", DispatcherType.REQUEST), this::start);
+			assertThat(events, equalTo(Arrays.asList("init:f2", "destroy:f1")));
+			assertTrue(send(port, "/c1/x").endsWith("f2|servlet|"));
+			assertThat(deployment.getFilters().getManagedFilter("f1") == null, equalTo(true));
+			assertThat(deployment.getDeploymentInfo().getFilters().containsKey("f1"), equalTo(false));
+			events.clear();
+
+			// add f3 - mappings of f2 are kept, f2 is not initialized again
+			factory.updateFilters(deployment, Collections.singletonList(filter("f3", events)),
+					Collections.emptyList(),
+					info -> info.addFilterUrlMapping("f3", "/*", DispatcherType.REQUEST), this::start);
+			assertThat(events, equalTo(Collections.singletonList("init:f3")));
+			assertTrue(send(port, "/c1/x").endsWith("f2f3|servlet|"));
+		} finally {
+			server.stop();
+			dm.stop();
+			dm.undeploy();
+		}
+	}
+
+	private void start(ManagedFilter filter) {
+		try {
+			filter.createFilter();
+		} catch (ServletException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private static FilterInfo filter(String name, List<String> events) {
+		Filter filter = new Filter() {
+			@Override
+			public void init(FilterConfig filterConfig) {
+				events.add("init:" + name);
+			}
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+					throws IOException, ServletException {
+				response.getWriter().write(name);
+				chain.doFilter(request, response);
+			}
+
+			@Override
+			public void destroy() {
+				events.add("destroy:" + name);
+			}
+		};
+		return Servlets.filter(name, filter.getClass(), new ImmediateInstanceFactory<>(filter));
+	}
+
+	private String send(int port, String request) throws IOException {
+		try (Socket s = new Socket()) {
+			s.connect(new InetSocketAddress("127.0.0.1", port));
+			s.getOutputStream().write(("GET " + request + " HTTP/1.1\r\nHost: 127.0.0.1:" + port
+					+ "\r\nConnection: close\r\n\r\n").getBytes());
+
+			byte[] buf = new byte[64];
+			int read;
+			StringWriter sw = new StringWriter();
+			while ((read = s.getInputStream().read(buf)) > 0) {
+				sw.append(new String(buf, 0, read));
+			}
+			return sw.toString();
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.web.service.undertow.internal.web;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.undertow.server.handlers.resource.ResourceChangeEvent;
+import org.junit.Test;
+import org.ops4j.pax.web.service.spi.servlet.ResourceCache;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceChangeTrackerTest {
+
+	@Test
+	public void bundleChangesAndEviction() {
+		ResourceChangeTracker tracker = new ResourceChangeTracker(3, null);
+		List<String> changes = new CopyOnWriteArrayList<>();
+		tracker.addListener(events -> events.forEach(e -> changes.add(e.getType() + ":" + e.getResource())));
+
+		tracker.bundleResource("a", 1L);
+		tracker.bundleResource("b", 2L);
+		tracker.missing("c");
+		assertTrue(changes.isEmpty());
+
+		// notified after shared caches are invalidated
+		ResourceCache.invalidateBundle(1L);
+		assertThat(changes, hasItems("MODIFIED:a", "MODIFIED:c"));
+		assertEquals(2, changes.size());
+		changes.clear();
+
+		// "b" is tracked again after being evicted as the least recently used path
+		tracker.bundleResource("x", 3L);
+		tracker.bundleResource("y", 3L);
+		tracker.bundleResource("z", 3L);
+		assertThat(changes, hasItems("REMOVED:b"));
+		assertEquals(1, changes.size());
+
+		tracker.close();
+		tracker.bundleResource("a", 1L);
+		ResourceCache.invalidateBundle(1L);
+		assertEquals(1, changes.size());
+	}
+
+	@Test(timeout = 20000L)
+	public void fileChangesWithSharedWatcher() throws Exception {
+		File dir = Files.createTempDirectory("pax-web-resource-tracker").toFile();
+		File file1 = new File(dir, "a.txt");
+		File file2 = new File(dir, "b.txt");
+		Files.write(file1.toPath(), new byte[] { 0x42 });
+		Files.write(file2.toPath(), new byte[] { 0x42 });
+
+		ResourceWatcher watcher = new ResourceWatcher();
+		ResourceChangeTracker tracker1 = new ResourceChangeTracker(10, watcher);
+		ResourceChangeTracker tracker2 = new ResourceChangeTracker(10, watcher);
+		List<ResourceChangeEvent> changes1 = new CopyOnWriteArrayList<>();
+		List<ResourceChangeEvent> changes2 = new CopyOnWriteArrayList<>();
+		tracker1.addListener(changes1::addAll);
+		tracker2.addListener(changes2::addAll);
+		assertThat(tracker1.fileResource("a.txt", file1.toPath()), equalTo(true));
+		assertThat(tracker2.fileResource("b.txt", file2.toPath()), equalTo(true));
+
+		Files.write(file1.toPath(), new byte[] { 0x42, 0x42 });
+		Files.write(file2.toPath(), new byte[] { 0x42, 0x42 });
+		while (changes1.isEmpty() || changes2.isEmpty()) {
+			Thread.sleep(50);
+		}
+		assertEquals("a.txt", changes1.get(0).getResource());
+		assertEquals("b.txt", changes2.get(0).getResource());
+
+		tracker1.close();
+		tracker2.close();
+		watcher.close();
+	}
+
+}